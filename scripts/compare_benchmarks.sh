@@ -0,0 +1,43 @@
+#!/bin/bash
+
+# Compare two JMH JSON result files (mvn -Pbenchmarks -DskipTests verify writes target/jmh-result.json)
+# and exit non-zero if any benchmark got slower than the baseline by more than the threshold.
+# Scores are average time per operation, so higher is worse.
+#
+# Usage: scripts/compare_benchmarks.sh baseline.json current.json [threshold-percent, default 10]
+
+set -euo pipefail
+
+if [ $# -lt 2 ]; then
+  echo "usage: $0 baseline.json current.json [threshold-percent]" >&2
+  exit 2
+fi
+
+baseline=$1
+current=$2
+threshold=${3:-10}
+
+# benchmark name plus its @Param values identifies a result across runs
+key='.benchmark + (if .params then " " + (.params | to_entries | map(.key + "=" + .value) | join(",")) else "" end)'
+
+report=$(jq -r -n --slurpfile base "$baseline" --slurpfile cur "$current" --argjson threshold "$threshold" "
+  (\$base[0] | map({key: ($key), value: .primaryMetric}) | from_entries) as \$before
+  | \$cur[0][]
+  | ($key) as \$name
+  | .primaryMetric as \$after
+  | if \$before[\$name] == null then
+      \"NEW        \(\$name): \(\$after.score) \(\$after.scoreUnit)\"
+    else
+      ((\$after.score - \$before[\$name].score) / \$before[\$name].score * 100) as \$change
+      | (if \$change > \$threshold then \"REGRESSION\" else \"ok        \" end)
+        + \" \(\$name): \(\$before[\$name].score) -> \(\$after.score) \(\$after.scoreUnit) (\(\$change | . * 10 | round / 10)%)\"
+    end
+")
+
+echo "$report"
+if grep -q '^REGRESSION' <<< "$report"; then
+  echo "benchmarks regressed by more than ${threshold}%" >&2
+  exit 1
+fi
+
+echo "no benchmark regressed by more than ${threshold}%"
@@ -0,0 +1,82 @@
+package com.spencer.distributed_job_scheduler.benchmark;
+
+import com.spencer.distributed_job_scheduler.dto.HttpJobPayload;
+import com.spencer.distributed_job_scheduler.executor.HttpPayloadCompiler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.ObjectMapper;
+
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The work HttpJobExecutor does for a job whose request is not in its prepared cache (first run of a
+ * job, or any run after eviction): parse the stored payload, then build the JDK request. normalize is
+ * the submit-side counterpart that runs once per job on ingest.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HttpPayloadBenchmark {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    // GET with no body, or POST with headers and a JSON body
+    @Param({"GET", "POST"})
+    public String shape;
+
+    private HttpPayloadCompiler compiler;
+    private Map<String, Object> raw;
+    private String stored;
+    private HttpJobPayload parsed;
+
+    @Setup
+    public void setup() {
+        compiler = new HttpPayloadCompiler(new ObjectMapper());
+        raw = new LinkedHashMap<>();
+        raw.put("url", "https://api.example.com/v1/orders/42/notify?source=scheduler");
+        raw.put("method", shape);
+        if (shape.equals("POST")) {
+            raw.put("headers", Map.of("Authorization", "Bearer 0123456789abcdef", "X-Request-Id", "b7c1e0a4"));
+            raw.put("body", Map.of("orderId", 42, "event", "shipped", "items", new int[]{1, 2, 3}));
+        }
+        stored = compiler.normalize(raw);
+        parsed = compiler.parse(stored);
+    }
+
+    @Benchmark
+    public String normalize() {
+        return compiler.normalize(raw);
+    }
+
+    @Benchmark
+    public HttpJobPayload parse() {
+        return compiler.parse(stored);
+    }
+
+    @Benchmark
+    public HttpRequest toRequest() {
+        return compiler.toRequest(parsed, TIMEOUT);
+    }
+
+    // a prepared-cache miss in HttpJobExecutor
+    @Benchmark
+    public HttpRequest parseAndBuild() {
+        return compiler.toRequest(compiler.parse(stored), TIMEOUT);
+    }
+}
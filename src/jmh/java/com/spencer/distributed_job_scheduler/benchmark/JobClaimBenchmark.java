@@ -0,0 +1,136 @@
+package com.spencer.distributed_job_scheduler.benchmark;
+
+import com.github.fppt.jedismock.RedisServer;
+import com.spencer.distributed_job_scheduler.DistributedJobSchedulerApplication;
+import com.spencer.distributed_job_scheduler.model.Job;
+import com.spencer.distributed_job_scheduler.model.JobStatus;
+import com.spencer.distributed_job_scheduler.repository.ClaimedJobRef;
+import com.spencer.distributed_job_scheduler.service.JobService;
+import com.spencer.distributed_job_scheduler.service.TenantFairShare;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The poller's claim transaction and a single compare-and-set status transition, run through the
+ * real JobService against an embedded Postgres, with jedis-mock standing in for Redis. Background
+ * work is switched off (no consumers, pollers and sweepers only run their one startup pass) so the
+ * table only changes under the benchmark.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JobClaimBenchmark {
+
+    private static final String NEVER_MS = String.valueOf(TimeUnit.DAYS.toMillis(1));
+
+    // due jobs in the table; every claimed batch is released again, so the backlog stays this size
+    @Param({"10000"})
+    public int backlog;
+
+    private EmbeddedPostgres postgres;
+    private RedisServer redis;
+    private ConfigurableApplicationContext context;
+    private JobService jobService;
+    private UUID transitionId;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        postgres = EmbeddedPostgres.builder().start();
+        redis = RedisServer.newRedisServer().start();
+        context = new SpringApplicationBuilder(DistributedJobSchedulerApplication.class)
+                .web(WebApplicationType.NONE)
+                // command-line arguments, so they override application.properties
+                .run(
+                        "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres") + "&reWriteBatchedInserts=true",
+                        "--spring.datasource.username=postgres",
+                        "--spring.datasource.password=postgres",
+                        "--spring.data.redis.host=" + redis.getHost(),
+                        "--spring.data.redis.port=" + redis.getBindPort(),
+                        // application.properties pauses every claim for demos
+                        "--scheduler.test.delay-ms=0",
+                        "--scheduler.worker.consumers=0",
+                        "--scheduler.poller.delay-ms=" + NEVER_MS,
+                        "--scheduler.reaper.interval-ms=" + NEVER_MS,
+                        "--scheduler.archive.interval-ms=" + NEVER_MS,
+                        "--scheduler.delayed-queue.reconcile-interval-ms=" + NEVER_MS,
+                        "--scheduler.tenant.refresh-ms=" + NEVER_MS,
+                        "--scheduler.metrics.backlog.refresh-ms=" + NEVER_MS,
+                        "--logging.level.com.spencer.distributed_job_scheduler=WARN");
+        jobService = context.getBean(JobService.class);
+        // let the startup pass of the scheduled tasks finish before there is anything for them to claim
+        Thread.sleep(2000);
+
+        Instant due = Instant.now().minusSeconds(60);
+        List<Job> jobs = new ArrayList<>(backlog);
+        for (int i = 0; i < backlog; i++) {
+            jobs.add(newJob(due));
+        }
+        for (int from = 0; from < jobs.size(); from += 1000) {
+            jobService.createJobs(jobs.subList(from, Math.min(from + 1000, jobs.size())));
+        }
+        transitionId = jobService.createJob(newJob(due)).getId();
+        context.getBean(TenantFairShare.class).refresh();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        redis.stop();
+        postgres.close();
+    }
+
+    // one poller batch: lock due rows, flip them to QUEUED, then put them back for the next invocation
+    @Benchmark
+    public int claimAndRelease(Batch batch) {
+        List<ClaimedJobRef> claimed = jobService.claimDueJobs(batch.size);
+        jobService.releaseClaims(claimed.stream().map(ClaimedJobRef::getId).toList());
+        return claimed.size();
+    }
+
+    // PENDING -> QUEUED -> PENDING: two single-row compare-and-set UPDATEs
+    @Benchmark
+    public boolean transitionRoundTrip() {
+        return jobService.transition(transitionId, JobStatus.PENDING, JobStatus.QUEUED)
+                & jobService.transition(transitionId, JobStatus.QUEUED, JobStatus.PENDING);
+    }
+
+    @State(Scope.Benchmark)
+    public static class Batch {
+        @Param({"1", "100"})
+        public int size;
+    }
+
+    private static Job newJob(Instant scheduledAt) {
+        Job job = new Job();
+        job.setJobType("HTTP");
+        job.setStatus(JobStatus.PENDING);
+        job.setScheduledAt(scheduledAt);
+        job.setPayload("{\"url\":\"https://api.example.com/hook\",\"method\":\"GET\",\"headers\":{}}");
+        return job;
+    }
+}
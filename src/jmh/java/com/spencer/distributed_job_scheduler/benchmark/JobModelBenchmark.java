@@ -0,0 +1,108 @@
+package com.spencer.distributed_job_scheduler.benchmark;
+
+import com.spencer.distributed_job_scheduler.model.Job;
+import com.spencer.distributed_job_scheduler.model.JobMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Job entity identity (Hibernate's persistence context and any collection of jobs go through the
+ * id-based equals/hashCode) and the two ways a job is serialized: the JobMessage queue entry and the
+ * JSON API response.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JobModelBenchmark {
+
+    private static final String PAYLOAD =
+            "{\"url\":\"https://api.example.com/v1/orders/42/notify\",\"method\":\"POST\","
+                    + "\"headers\":{\"Content-Type\":\"application/json\"},\"body\":\"{\\\"orderId\\\":42}\"}";
+
+    private ObjectMapper objectMapper;
+    private Job job;
+    private Job sameId;
+    private Job otherId;
+    private Set<Job> jobs;
+    private JobMessage message;
+    private String encoded;
+    private String json;
+
+    @Setup
+    public void setup() {
+        objectMapper = new ObjectMapper();
+        Instant now = Instant.now();
+        UUID id = UUID.randomUUID();
+        message = new JobMessage(id, 3, "HTTP", now.plusSeconds(120), PAYLOAD);
+        job = message.toStartedJob("node-1:1", now);
+        sameId = message.toStartedJob("node-2:7", now);
+        otherId = new JobMessage(UUID.randomUUID(), 3, "HTTP", now.plusSeconds(120), PAYLOAD).toStartedJob("node-1:1", now);
+
+        jobs = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            jobs.add(new JobMessage(UUID.randomUUID(), 1, "HTTP", null, null).toStartedJob("node-1:1", now));
+        }
+        jobs.add(job);
+
+        encoded = message.encode();
+        json = objectMapper.writeValueAsString(job);
+    }
+
+    @Benchmark
+    public boolean equalsSameId() {
+        return job.equals(sameId);
+    }
+
+    @Benchmark
+    public boolean equalsOtherId() {
+        return job.equals(otherId);
+    }
+
+    @Benchmark
+    public int hashCodeOf() {
+        return job.hashCode();
+    }
+
+    @Benchmark
+    public boolean setContains() {
+        return jobs.contains(sameId);
+    }
+
+    @Benchmark
+    public String encodeMessage() {
+        return message.encode();
+    }
+
+    @Benchmark
+    public JobMessage decodeMessage() {
+        return JobMessage.decode(encoded);
+    }
+
+    @Benchmark
+    public String writeJson() {
+        return objectMapper.writeValueAsString(job);
+    }
+
+    @Benchmark
+    public Job readJson() {
+        return objectMapper.readValue(json, Job.class);
+    }
+}
@@ -0,0 +1,81 @@
+package com.spencer.distributed_job_scheduler.benchmark;
+
+import com.github.fppt.jedismock.RedisServer;
+import com.spencer.distributed_job_scheduler.redis.RedisDistributedLock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RedisDistributedLock round trips against an in-process Redis stand-in (jedis-mock). The numbers
+ * are the client side of the lock (Lettuce, script execution, token handling) plus loopback; a real
+ * Redis adds its own latency on top, so compare runs with each other rather than with production.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RedisLockBenchmark {
+
+    private static final Duration TTL = Duration.ofSeconds(30);
+
+    private RedisServer server;
+    private LettuceConnectionFactory connectionFactory;
+    private RedisDistributedLock lock;
+    private String heldKey;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        server = RedisServer.newRedisServer().start();
+        connectionFactory = new LettuceConnectionFactory(server.getHost(), server.getBindPort());
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        StringRedisTemplate redis = new StringRedisTemplate(connectionFactory);
+        lock = new RedisDistributedLock(redis);
+
+        heldKey = "bench:lock:held";
+        lock.tryAcquire(heldKey, Duration.ofHours(1));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        connectionFactory.destroy();
+        server.stop();
+    }
+
+    @Benchmark
+    public boolean acquireRelease() {
+        String token = lock.tryAcquire("bench:lock:free", TTL);
+        return lock.release("bench:lock:free", token);
+    }
+
+    @Benchmark
+    public boolean acquireFencedRelease() {
+        String token = "bench-token";
+        lock.tryAcquireFenced("bench:lock:fenced", token, TTL);
+        return lock.release("bench:lock:fenced", token);
+    }
+
+    // the losing side of a race: the key is held, so SET NX fails
+    @Benchmark
+    public String acquireContended() {
+        return lock.tryAcquire(heldKey, TTL);
+    }
+}
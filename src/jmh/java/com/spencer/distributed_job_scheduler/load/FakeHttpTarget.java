@@ -0,0 +1,107 @@
+package com.spencer.distributed_job_scheduler.load;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for the endpoints HTTP jobs call. Each request path ends in the job's load key
+ * (/jobs/{key}); the target answers after a configurable latency, fails a configurable fraction of
+ * requests with 503 (retryable by default), and counts every request for a key that already
+ * succeeded once as a duplicate execution.
+ */
+class FakeHttpTarget implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final long latencyMs;
+    private final long latencyJitterMs;
+    private final double errorRate;
+
+    private final Set<String> succeeded = ConcurrentHashMap.newKeySet();
+    private final Map<String, AtomicLong> hits = new ConcurrentHashMap<>();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong injectedErrors = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+
+    FakeHttpTarget(long latencyMs, long latencyJitterMs, double errorRate) throws IOException {
+        this.latencyMs = latencyMs;
+        this.latencyJitterMs = latencyJitterMs;
+        this.errorRate = errorRate;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        // requests mostly sleep, so one thread each keeps the latency independent of the load
+        this.executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.createContext("/jobs/", this::handle);
+        server.start();
+    }
+
+    String urlFor(String key) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/jobs/" + key;
+    }
+
+    long requests() {
+        return requests.get();
+    }
+
+    long injectedErrors() {
+        return injectedErrors.get();
+    }
+
+    long duplicates() {
+        return duplicates.get();
+    }
+
+    // keys that were requested at least once
+    long distinctKeys() {
+        return hits.size();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange; InputStream body = exchange.getRequestBody()) {
+            body.readAllBytes();
+            String path = exchange.getRequestURI().getPath();
+            String key = path.substring(path.lastIndexOf('/') + 1);
+            requests.incrementAndGet();
+            hits.computeIfAbsent(key, k -> new AtomicLong()).incrementAndGet();
+
+            sleep(latencyMs + (latencyJitterMs > 0 ? ThreadLocalRandom.current().nextLong(latencyJitterMs + 1) : 0));
+
+            int status = 200;
+            if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                injectedErrors.incrementAndGet();
+                status = 503;
+            } else if (!succeeded.add(key)) {
+                duplicates.incrementAndGet();
+            }
+            exchange.sendResponseHeaders(status, -1);
+        }
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,145 @@
+package com.spencer.distributed_job_scheduler.load;
+
+import com.spencer.distributed_job_scheduler.model.JobPriority;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Load test settings from --name=value arguments. Names with a dot (scheduler.*, spring.*,
+ * logging.*) are not harness settings; they are passed to every node as Spring properties, so any
+ * scheduler setting can be varied between runs.
+ */
+class LoadOptions {
+
+    private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+
+    static {
+        DEFAULTS.put("nodes", "2");                 // scheduler nodes (JobScheduler + JobWorker each) in this JVM
+        DEFAULTS.put("jobs", "10000");              // jobs to submit
+        DEFAULTS.put("rate", "0");                  // submitted jobs per second; 0 submits everything up front
+        DEFAULTS.put("chunk-size", "500");          // jobs per createJobs call
+        DEFAULTS.put("delay-spread-ms", "0");       // each job is scheduled uniformly within [submit, submit + spread]
+        DEFAULTS.put("priority-mix", "1,8,1");      // HIGH,NORMAL,LOW weights
+        DEFAULTS.put("tenants", "1");               // jobs are spread round-robin across this many tenants
+        DEFAULTS.put("post-fraction", "0");         // share of POST jobs with a JSON body; the rest are GETs
+        DEFAULTS.put("body-bytes", "256");          // approximate POST body size
+        DEFAULTS.put("latency-ms", "10");           // fake target response time
+        DEFAULTS.put("latency-jitter-ms", "0");     // added uniformly on top of latency-ms
+        DEFAULTS.put("error-rate", "0");            // share of target responses that are 503
+        DEFAULTS.put("timeout-s", "600");           // give up waiting for jobs to finish after this long
+    }
+
+    private final Map<String, String> values = new LinkedHashMap<>(DEFAULTS);
+    private final List<String> nodeProperties = new ArrayList<>();
+
+    LoadOptions(String[] args) {
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("expected --name=value but got: " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (name.contains(".")) {
+                nodeProperties.add(arg);
+            } else if (DEFAULTS.containsKey(name)) {
+                values.put(name, value);
+            } else {
+                throw new IllegalArgumentException("unknown option --" + name + "; known: " + DEFAULTS.keySet());
+            }
+        }
+        if (nodes() < 1 || jobs() < 1 || chunkSize() < 1 || tenants() < 1) {
+            throw new IllegalArgumentException("nodes, jobs, chunk-size and tenants must be at least 1");
+        }
+        if (errorRate() < 0 || errorRate() > 1 || postFraction() < 0 || postFraction() > 1) {
+            throw new IllegalArgumentException("error-rate and post-fraction must be between 0 and 1");
+        }
+        priorityMix();
+    }
+
+    int nodes() {
+        return Integer.parseInt(values.get("nodes"));
+    }
+
+    int jobs() {
+        return Integer.parseInt(values.get("jobs"));
+    }
+
+    double rate() {
+        return Double.parseDouble(values.get("rate"));
+    }
+
+    int chunkSize() {
+        return Integer.parseInt(values.get("chunk-size"));
+    }
+
+    long delaySpreadMs() {
+        return Long.parseLong(values.get("delay-spread-ms"));
+    }
+
+    // weights in JobPriority order
+    int[] priorityMix() {
+        String mix = values.get("priority-mix");
+        String[] parts = mix.split(",");
+        if (parts.length != JobPriority.values().length) {
+            throw new IllegalArgumentException("priority-mix needs one weight per priority: " + mix);
+        }
+        int[] weights = new int[parts.length];
+        int total = 0;
+        for (int i = 0; i < parts.length; i++) {
+            weights[i] = Integer.parseInt(parts[i].trim());
+            if (weights[i] < 0) {
+                throw new IllegalArgumentException("priority-mix weights must not be negative: " + mix);
+            }
+            total += weights[i];
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("priority-mix needs at least one positive weight: " + mix);
+        }
+        return weights;
+    }
+
+    int tenants() {
+        return Integer.parseInt(values.get("tenants"));
+    }
+
+    double postFraction() {
+        return Double.parseDouble(values.get("post-fraction"));
+    }
+
+    int bodyBytes() {
+        return Integer.parseInt(values.get("body-bytes"));
+    }
+
+    long latencyMs() {
+        return Long.parseLong(values.get("latency-ms"));
+    }
+
+    long latencyJitterMs() {
+        return Long.parseLong(values.get("latency-jitter-ms"));
+    }
+
+    double errorRate() {
+        return Double.parseDouble(values.get("error-rate"));
+    }
+
+    long timeoutSeconds() {
+        return Long.parseLong(values.get("timeout-s"));
+    }
+
+    // Spring properties for every node, as command-line arguments
+    List<String> nodeProperties() {
+        return nodeProperties;
+    }
+
+    boolean overrides(String property) {
+        return nodeProperties.stream().anyMatch(arg -> arg.startsWith("--" + property + "="));
+    }
+
+    @Override
+    public String toString() {
+        return values + (nodeProperties.isEmpty() ? "" : " " + nodeProperties);
+    }
+}
@@ -0,0 +1,318 @@
+package com.spencer.distributed_job_scheduler.load;
+
+import com.github.fppt.jedismock.RedisServer;
+import com.spencer.distributed_job_scheduler.DistributedJobSchedulerApplication;
+import com.spencer.distributed_job_scheduler.executor.HttpPayloadCompiler;
+import com.spencer.distributed_job_scheduler.model.Job;
+import com.spencer.distributed_job_scheduler.model.JobPriority;
+import com.spencer.distributed_job_scheduler.model.JobStatus;
+import com.spencer.distributed_job_scheduler.service.JobService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Array;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * End-to-end load test: N scheduler nodes (each a full application context with its JobScheduler
+ * and JobWorker) in one JVM, sharing an embedded Postgres and an in-process Redis stand-in, running
+ * HTTP jobs against a local fake target. Submits the configured job mix, waits for every job to
+ * finish, then reports throughput, dispatch lag (startedAt - scheduledAt of each job's last attempt)
+ * and how often the target saw a job again after it had already succeeded.
+ *
+ * <p>Run with {@code mvn -Pbenchmarks -DskipTests test-compile exec:exec@load-test -Dload.args="..."}.
+ * See {@link LoadOptions} for the settings. Passing spring.datasource.url or spring.data.redis.host
+ * runs against those servers instead of the stand-ins. Exits 1 if jobs did not all finish in time
+ * or any job was executed again after succeeding.
+ */
+public class LoadTest {
+
+    private static final double[] PERCENTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final long[] LAG_BUCKETS_MS = {1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000};
+
+    private final LoadOptions options;
+    private final String runId = UUID.randomUUID().toString().substring(0, 8);
+    private final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+
+    private EmbeddedPostgres postgres;
+    private RedisServer redis;
+    private FakeHttpTarget target;
+
+    LoadTest(LoadOptions options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTest test = new LoadTest(new LoadOptions(args));
+        boolean passed;
+        try {
+            passed = test.run();
+        } finally {
+            test.close();
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    boolean run() throws Exception {
+        System.out.println("load test " + runId + ": " + options);
+        Map<String, String> properties = standIns();
+        target = new FakeHttpTarget(options.latencyMs(), options.latencyJitterMs(), options.errorRate());
+
+        // one at a time, so only the first node creates the schema
+        for (int i = 0; i < options.nodes(); i++) {
+            properties.put("spring.application.name", "load-node-" + i);
+            nodes.add(startNode(properties));
+        }
+        System.out.printf("started %d nodes%n", nodes.size());
+
+        Instant submitStart = Instant.now();
+        submit();
+        Instant submitEnd = Instant.now();
+        System.out.printf("submitted %d jobs in %.1fs%n", options.jobs(), seconds(submitStart, submitEnd));
+
+        boolean finished = awaitFinished(submitStart.plusSeconds(options.timeoutSeconds()));
+        report(submitStart, submitEnd);
+        if (!finished) {
+            System.out.println("FAILED: jobs still unfinished after " + options.timeoutSeconds() + "s");
+        }
+        if (target.duplicates() > 0) {
+            System.out.println("FAILED: " + target.duplicates() + " executions of jobs that had already succeeded");
+        }
+        return finished && target.duplicates() == 0;
+    }
+
+    // Postgres and Redis stand-ins, unless the run was pointed at real servers
+    private Map<String, String> standIns() throws Exception {
+        Map<String, String> properties = new LinkedHashMap<>();
+        if (!options.overrides("spring.datasource.url")) {
+            postgres = EmbeddedPostgres.builder().start();
+            properties.put("spring.datasource.url", postgres.getJdbcUrl("postgres", "postgres") + "&reWriteBatchedInserts=true");
+            properties.put("spring.datasource.username", "postgres");
+            properties.put("spring.datasource.password", "postgres");
+        }
+        if (!options.overrides("spring.data.redis.host")) {
+            redis = RedisServer.newRedisServer().start();
+            properties.put("spring.data.redis.host", redis.getHost());
+            properties.put("spring.data.redis.port", String.valueOf(redis.getBindPort()));
+        }
+        // application.properties pauses every claim for demos
+        properties.put("scheduler.test.delay-ms", "0");
+        properties.put("logging.level.com.spencer.distributed_job_scheduler", "WARN");
+        return properties;
+    }
+
+    private ConfigurableApplicationContext startNode(Map<String, String> properties) {
+        // later arguments win; a property given twice would otherwise be read as a comma-joined list
+        Map<String, String> merged = new LinkedHashMap<>(properties);
+        for (String arg : options.nodeProperties()) {
+            merged.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        String[] args = merged.entrySet().stream().map(e -> "--" + e.getKey() + "=" + e.getValue()).toArray(String[]::new);
+        return new SpringApplicationBuilder(DistributedJobSchedulerApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args);
+    }
+
+    private void submit() throws InterruptedException {
+        JobService jobService = nodes.get(0).getBean(JobService.class);
+        HttpPayloadCompiler compiler = nodes.get(0).getBean(HttpPayloadCompiler.class);
+        int[] mix = options.priorityMix();
+        String body = "x".repeat(Math.max(options.bodyBytes() - 16, 0));
+        long start = System.nanoTime();
+
+        for (int from = 0; from < options.jobs(); from += options.chunkSize()) {
+            if (options.rate() > 0) {
+                long dueNanos = start + (long) (from / options.rate() * 1_000_000_000L);
+                long waitMs = (dueNanos - System.nanoTime()) / 1_000_000;
+                if (waitMs > 0) {
+                    Thread.sleep(waitMs);
+                }
+            }
+            int to = Math.min(from + options.chunkSize(), options.jobs());
+            List<Job> chunk = new ArrayList<>(to - from);
+            for (int seq = from; seq < to; seq++) {
+                chunk.add(newJob(seq, compiler, mix, body));
+            }
+            jobService.createJobs(chunk);
+        }
+    }
+
+    private Job newJob(int seq, HttpPayloadCompiler compiler, int[] mix, String body) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("url", target.urlFor(runId + "-" + seq));
+        if (random.nextDouble() < options.postFraction()) {
+            payload.put("method", "POST");
+            payload.put("body", Map.of("seq", seq, "data", body));
+        } else {
+            payload.put("method", "GET");
+        }
+
+        Job job = new Job();
+        job.setJobType(HttpPayloadCompiler.JOB_TYPE);
+        job.setStatus(JobStatus.PENDING);
+        long spread = options.delaySpreadMs();
+        job.setScheduledAt(Instant.now().plusMillis(spread > 0 ? random.nextLong(spread + 1) : 0));
+        job.setPriority(pick(mix, random));
+        job.setTenantId(tenantPrefix() + (seq % options.tenants()));
+        job.setPayload(compiler.normalize(payload));
+        return job;
+    }
+
+    private static JobPriority pick(int[] weights, ThreadLocalRandom random) {
+        int total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        int roll = random.nextInt(total);
+        for (int i = 0; i < weights.length; i++) {
+            roll -= weights[i];
+            if (roll < 0) {
+                return JobPriority.values()[i];
+            }
+        }
+        throw new IllegalStateException("unreachable");
+    }
+
+    // every job of this run belongs to a tenant with this prefix, which scopes the report queries
+    private String tenantPrefix() {
+        return "load-" + runId + "-";
+    }
+
+    private boolean awaitFinished(Instant deadline) throws InterruptedException {
+        JdbcTemplate jdbc = nodes.get(0).getBean(JdbcTemplate.class);
+        long lastPrint = 0;
+        while (Instant.now().isBefore(deadline)) {
+            Long done = jdbc.queryForObject(
+                    "SELECT count(*) FROM jobs WHERE tenant_id LIKE ? AND status IN ('COMPLETED', 'FAILED')",
+                    Long.class, tenantPrefix() + "%");
+            if (done != null && done >= options.jobs()) {
+                return true;
+            }
+            if (System.currentTimeMillis() - lastPrint >= 5000) {
+                System.out.printf("  %d/%d finished, %d target requests%n", done, options.jobs(), target.requests());
+                lastPrint = System.currentTimeMillis();
+            }
+            Thread.sleep(200);
+        }
+        return false;
+    }
+
+    private void report(Instant submitStart, Instant submitEnd) throws Exception {
+        JdbcTemplate jdbc = nodes.get(0).getBean(JdbcTemplate.class);
+        String tenants = tenantPrefix() + "%";
+
+        Map<String, Object> totals = jdbc.queryForMap("""
+                SELECT count(*) FILTER (WHERE status = 'COMPLETED') AS completed,
+                       count(*) FILTER (WHERE status = 'FAILED') AS failed,
+                       count(*) FILTER (WHERE status NOT IN ('COMPLETED', 'FAILED')) AS unfinished,
+                       coalesce(sum(attempts), 0) AS attempts,
+                       max(finished_at) AS last_finished
+                FROM jobs WHERE tenant_id LIKE ?
+                """, tenants);
+        long completed = ((Number) totals.get("completed")).longValue();
+        long failed = ((Number) totals.get("failed")).longValue();
+        Instant lastFinished = totals.get("last_finished") == null ? Instant.now()
+                : ((Timestamp) totals.get("last_finished")).toInstant();
+        double elapsed = seconds(submitStart, lastFinished);
+
+        System.out.println();
+        System.out.printf("nodes %d, jobs %d: %d completed, %d failed, %s unfinished, %s attempts%n",
+                options.nodes(), options.jobs(), completed, failed, totals.get("unfinished"), totals.get("attempts"));
+        System.out.printf("submit rate     %.0f jobs/s%n", options.jobs() / Math.max(seconds(submitStart, submitEnd), 1e-3));
+        System.out.printf("throughput      %.0f jobs/s (%d finished in %.1fs from first submit to last finish)%n",
+                (completed + failed) / Math.max(elapsed, 1e-3), completed + failed, elapsed);
+        System.out.printf("target          %d requests, %d injected errors, %d duplicate executions%n",
+                target.requests(), target.injectedErrors(), target.duplicates());
+
+        String lag = "EXTRACT(EPOCH FROM started_at - scheduled_at) * 1000";
+        System.out.println();
+        System.out.println("dispatch lag (ms)   count       p50       p90       p99      p999       max");
+        jdbc.query("SELECT " + lagColumns(lag) + " FROM jobs WHERE tenant_id LIKE ? AND started_at IS NOT NULL",
+                rs -> {
+                    printLagRow("all", rs.getLong("n"), rs.getArray("p"), rs.getDouble("max"));
+                }, tenants);
+        jdbc.query("SELECT priority, " + lagColumns(lag) + " FROM jobs WHERE tenant_id LIKE ? AND started_at IS NOT NULL"
+                        + " GROUP BY priority ORDER BY priority NULLS LAST",
+                rs -> {
+                    printLagRow(priorityLabel(rs.getObject("priority", Integer.class)), rs.getLong("n"), rs.getArray("p"), rs.getDouble("max"));
+                }, tenants);
+
+        System.out.println();
+        System.out.println("dispatch lag histogram");
+        Map<Integer, Long> buckets = new LinkedHashMap<>();
+        StringBuilder edges = new StringBuilder();
+        for (long edge : LAG_BUCKETS_MS) {
+            edges.append(edges.length() == 0 ? "" : ",").append(edge);
+        }
+        jdbc.query("SELECT width_bucket(" + lag + ", ARRAY[" + edges + "]::numeric[]) AS bucket, count(*) AS n"
+                        + " FROM jobs WHERE tenant_id LIKE ? AND started_at IS NOT NULL GROUP BY bucket",
+                rs -> {
+                    buckets.put(rs.getInt("bucket"), rs.getLong("n"));
+                }, tenants);
+        long largest = buckets.values().stream().mapToLong(Long::longValue).max().orElse(1);
+        for (int bucket = 0; bucket <= LAG_BUCKETS_MS.length; bucket++) {
+            long n = buckets.getOrDefault(bucket, 0L);
+            String range = bucket == 0 ? "< " + LAG_BUCKETS_MS[0]
+                    : bucket == LAG_BUCKETS_MS.length ? ">= " + LAG_BUCKETS_MS[bucket - 1]
+                    : LAG_BUCKETS_MS[bucket - 1] + " - " + LAG_BUCKETS_MS[bucket];
+            System.out.printf("  %15s ms %8d %s%n", range, n, "#".repeat((int) (50 * n / largest)));
+        }
+    }
+
+    // getInt would read a job stored without a priority as 0 and report it as HIGH
+    private static String priorityLabel(Integer ordinal) {
+        return ordinal == null ? "(no priority)" : JobPriority.values()[ordinal].name();
+    }
+
+    private static String lagColumns(String lag) {
+        StringBuilder fractions = new StringBuilder();
+        for (double p : PERCENTILES) {
+            fractions.append(fractions.length() == 0 ? "" : ",").append(p);
+        }
+        return "count(*) AS n, percentile_disc(ARRAY[" + fractions + "]) WITHIN GROUP (ORDER BY " + lag + ") AS p, max(" + lag + ") AS max";
+    }
+
+    private static void printLagRow(String label, long count, Array percentiles, double max) throws SQLException {
+        StringBuilder row = new StringBuilder(String.format("  %-15s %7d", label, count));
+        for (Object value : (Object[]) percentiles.getArray()) {
+            row.append(String.format(" %9.1f", ((Number) value).doubleValue()));
+        }
+        System.out.println(row.append(String.format(" %9.1f", max)));
+    }
+
+    private static double seconds(Instant from, Instant to) {
+        return Duration.between(from, to).toNanos() / 1e9;
+    }
+
+    void close() {
+        for (int i = nodes.size() - 1; i >= 0; i--) {
+            nodes.get(i).close();
+        }
+        if (target != null) {
+            target.close();
+        }
+        try {
+            if (redis != null) {
+                redis.stop();
+            }
+            if (postgres != null) {
+                postgres.close();
+            }
+        } catch (Exception ex) {
+            System.err.println("could not stop the stand-ins: " + ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.spencer.distributed_job_scheduler.config;
+
+import com.spencer.distributed_job_scheduler.repository.FenceRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the table FenceRepository records fencing tokens in. It has no entity, so ddl-auto does
+ * not manage it.
+ */
+@Component
+public class FenceTableMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(FenceTableMigration.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public FenceTableMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void createFenceTable() {
+        try {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + FenceRepository.TABLE
+                    + " (name varchar(255) PRIMARY KEY, token bigint NOT NULL)");
+        } catch (Exception ex) {
+            logger.warn("createFenceTable: could not create {}: {}", FenceRepository.TABLE, ex.getMessage());
+        }
+    }
+}
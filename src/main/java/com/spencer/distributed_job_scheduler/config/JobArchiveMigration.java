@@ -0,0 +1,65 @@
+package com.spencer.distributed_job_scheduler.config;
+
+import com.spencer.distributed_job_scheduler.repository.JobArchiveRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates jobs_archive as a copy of the jobs columns plus archived_at, and adds any column jobs has
+ * gained since, so archiving can always copy every column by name. Runs after Hibernate has
+ * updated jobs. Archived rows are only read back by id and purged by age, so the archive carries
+ * just those two indexes.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class JobArchiveMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobArchiveMigration.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JobArchiveMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void syncArchiveTable() {
+        try {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + JobArchiveRepository.TABLE
+                    + " (LIKE jobs INCLUDING DEFAULTS, archived_at timestamp(6) with time zone NOT NULL DEFAULT now(), PRIMARY KEY (id))");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_jobs_archive_archived_at ON "
+                    + JobArchiveRepository.TABLE + " (archived_at)");
+
+            Map<String, String> missing = new LinkedHashMap<>(columnTypes("jobs"));
+            missing.keySet().removeAll(columnTypes(JobArchiveRepository.TABLE).keySet());
+            for (Map.Entry<String, String> column : missing.entrySet()) {
+                // nullable whatever the source says: rows archived before the column existed have no value
+                jdbcTemplate.execute("ALTER TABLE " + JobArchiveRepository.TABLE + " ADD COLUMN " + column.getKey() + " " + column.getValue());
+                logger.info("syncArchiveTable: added {} {} to {}", column.getKey(), column.getValue(), JobArchiveRepository.TABLE);
+            }
+        } catch (Exception ex) {
+            logger.warn("syncArchiveTable: could not create or update {}: {}", JobArchiveRepository.TABLE, ex.getMessage());
+        }
+    }
+
+    // column name -> SQL type, in table order
+    private Map<String, String> columnTypes(String table) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList("""
+                SELECT a.attname AS name, format_type(a.atttypid, a.atttypmod) AS type
+                FROM pg_attribute a
+                WHERE a.attrelid = CAST(? AS regclass) AND a.attnum > 0 AND NOT a.attisdropped
+                ORDER BY a.attnum
+                """, table);
+        Map<String, String> columns = new LinkedHashMap<>();
+        rows.forEach(row -> columns.put((String) row.get("name"), (String) row.get("type")));
+        return columns;
+    }
+}
@@ -0,0 +1,52 @@
+package com.spencer.distributed_job_scheduler.config;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Fills in a jobs column for the rows stored before it existed, for the column migrations. Rows are
+ * updated in short batches so a large backlog is not locked in one transaction. A finished backfill
+ * is recorded in jobs_backfills and skipped on later startups instead of scanning jobs again; the
+ * column defaults and triggers the migrations install keep new rows from needing it.
+ */
+@Component
+public class JobColumnBackfill {
+
+    public static final String TABLE = "jobs_backfills";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JobColumnBackfill(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // sets column = value (SQL, binding valueArgs) where the column is null and condition (SQL, or null) holds;
+    // returns how many rows changed, 0 once the backfill of that column has completed
+    public int run(String column, String value, String condition, int batchSize, Object... valueArgs) {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + TABLE
+                + " (name varchar(255) PRIMARY KEY, completed_at timestamp NOT NULL)");
+        Integer done = jdbcTemplate.queryForObject("SELECT count(*) FROM " + TABLE + " WHERE name = ?", Integer.class, column);
+        if (done != null && done > 0) {
+            return 0;
+        }
+
+        String sql = "UPDATE jobs SET " + column + " = " + value + " WHERE id IN ("
+                + "SELECT id FROM jobs WHERE " + column + " IS NULL" + (condition == null ? "" : " AND " + condition)
+                + " LIMIT ?)";
+        List<Object> args = new ArrayList<>(Arrays.asList(valueArgs));
+        args.add(batchSize);
+        int total = 0;
+        int updated;
+        do {
+            updated = jdbcTemplate.update(sql, args.toArray());
+            total += updated;
+        } while (updated == batchSize);
+
+        jdbcTemplate.update("INSERT INTO " + TABLE + " (name, completed_at) VALUES (?, now()) ON CONFLICT DO NOTHING", column);
+        return total;
+    }
+}
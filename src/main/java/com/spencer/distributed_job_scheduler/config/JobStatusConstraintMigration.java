@@ -0,0 +1,60 @@
+package com.spencer.distributed_job_scheduler.config;
+
+import com.spencer.distributed_job_scheduler.model.JobStatus;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Hibernate creates a CHECK constraint listing the JobStatus values when it first creates the jobs
+ * table, and ddl-auto=update never widens it afterwards. This rewrites the constraint whenever the
+ * enum has gained values, before any bean can write them.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class JobStatusConstraintMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobStatusConstraintMigration.class);
+    private static final String CONSTRAINT = "jobs_status_check";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JobStatusConstraintMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void widenStatusConstraint() {
+        try {
+            List<String> definitions = jdbcTemplate.queryForList(
+                    "SELECT pg_get_constraintdef(oid) FROM pg_constraint WHERE conrelid = 'jobs'::regclass AND conname = ?",
+                    String.class, CONSTRAINT);
+            if (definitions.isEmpty()) {
+                return;
+            }
+
+            String definition = definitions.get(0);
+            boolean upToDate = Arrays.stream(JobStatus.values()).allMatch(s -> definition.contains("'" + s.name() + "'"));
+            if (upToDate) {
+                return;
+            }
+
+            String allowed = Arrays.stream(JobStatus.values())
+                    .map(s -> "'" + s.name() + "'")
+                    .collect(Collectors.joining(", "));
+            // NOT VALID skips re-checking existing rows, which all satisfy the narrower constraint anyway
+            jdbcTemplate.execute("ALTER TABLE jobs DROP CONSTRAINT " + CONSTRAINT
+                    + ", ADD CONSTRAINT " + CONSTRAINT + " CHECK (status IN (" + allowed + ")) NOT VALID");
+            logger.info("widenStatusConstraint: {} now allows {}", CONSTRAINT, allowed);
+        } catch (Exception ex) {
+            logger.warn("widenStatusConstraint: could not update {}: {}", CONSTRAINT, ex.getMessage());
+        }
+    }
+}
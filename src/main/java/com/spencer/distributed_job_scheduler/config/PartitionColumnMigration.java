@@ -0,0 +1,74 @@
+package com.spencer.distributed_job_scheduler.config;
+
+import com.spencer.distributed_job_scheduler.model.Job;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Partitioned polling only claims rows whose partition_id is set. Job sets it on insert, but nodes
+ * that predate partitioning do not, and a one-off sweep would miss whatever they insert afterwards.
+ * This installs jobs_partition_of(uuid), the SQL twin of Job.partitionOf, and a BEFORE INSERT trigger
+ * that fills in a missing partition_id with it, then assigns partitions to the rows stored before.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class PartitionColumnMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(PartitionColumnMigration.class);
+    private static final String TRIGGER = "jobs_assign_partition";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JobColumnBackfill backfill;
+
+    @Value("${scheduler.partitions.backfill-batch-size:10000}")
+    private int batchSize;
+
+    public PartitionColumnMigration(JdbcTemplate jdbcTemplate, JobColumnBackfill backfill) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.backfill = backfill;
+    }
+
+    @PostConstruct
+    public void assignPartitions() {
+        try {
+            // UUID.hashCode is the xor of the four 32-bit words, as a signed int; floorMod keeps it non-negative
+            jdbcTemplate.execute("""
+                    CREATE OR REPLACE FUNCTION jobs_partition_of(job_id uuid) RETURNS integer AS $$
+                        SELECT CAST(((h - CASE WHEN h >= 2147483648 THEN 4294967296 ELSE 0 END) %% %1$d + %1$d) %% %1$d AS integer)
+                        FROM (SELECT ((x >> 32) # x) & 4294967295 AS h
+                              FROM (SELECT CAST(CAST('x' || substr(hex, 1, 16) AS bit(64)) AS bigint)
+                                         # CAST(CAST('x' || substr(hex, 17, 16) AS bit(64)) AS bigint) AS x
+                                    FROM (SELECT replace(CAST(job_id AS text), '-', '') AS hex) id_hex) hilo) hash
+                    $$ LANGUAGE sql IMMUTABLE
+                    """.formatted(Job.PARTITION_COUNT));
+            jdbcTemplate.execute("""
+                    CREATE OR REPLACE FUNCTION jobs_assign_partition() RETURNS trigger AS $$
+                    BEGIN
+                        IF NEW.partition_id IS NULL THEN
+                            NEW.partition_id := jobs_partition_of(NEW.id);
+                        END IF;
+                        RETURN NEW;
+                    END
+                    $$ LANGUAGE plpgsql
+                    """);
+            Integer triggers = jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM pg_trigger WHERE tgrelid = CAST('jobs' AS regclass) AND tgname = ?", Integer.class, TRIGGER);
+            if (triggers == null || triggers == 0) {
+                jdbcTemplate.execute("CREATE TRIGGER " + TRIGGER
+                        + " BEFORE INSERT ON jobs FOR EACH ROW EXECUTE FUNCTION jobs_assign_partition()");
+                logger.info("assignPartitions: installed trigger {}", TRIGGER);
+            }
+            int total = backfill.run("partition_id", "jobs_partition_of(id)", null, batchSize);
+            if (total > 0) {
+                logger.info("assignPartitions: assigned partitions to {} jobs stored before partitioning", total);
+            }
+        } catch (Exception ex) {
+            logger.warn("assignPartitions: could not migrate jobs.partition_id: {}", ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.spencer.distributed_job_scheduler.config;
+
+import com.spencer.distributed_job_scheduler.model.JobPriority;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * The claim splits each batch by priority and only finds rows with one. Job sets NORMAL on insert;
+ * this gives the column the same default, for nodes that predate priorities, and backfills the rows
+ * stored before, which would otherwise only ever be claimed by the fill pass after every priority.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class PriorityColumnMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriorityColumnMigration.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JobColumnBackfill backfill;
+
+    @Value("${scheduler.priorities.backfill-batch-size:10000}")
+    private int batchSize;
+
+    public PriorityColumnMigration(JdbcTemplate jdbcTemplate, JobColumnBackfill backfill) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.backfill = backfill;
+    }
+
+    @PostConstruct
+    public void assignPriorities() {
+        int normal = JobPriority.NORMAL.ordinal();
+        try {
+            jdbcTemplate.execute("ALTER TABLE jobs ALTER COLUMN priority SET DEFAULT " + normal);
+            int total = backfill.run("priority", "?", null, batchSize, normal);
+            if (total > 0) {
+                logger.info("assignPriorities: set {} jobs stored before priorities to NORMAL", total);
+            }
+        } catch (Exception ex) {
+            logger.warn("assignPriorities: could not migrate jobs.priority: {}", ex.getMessage());
+        }
+    }
+}
@@ -1,14 +1,21 @@
 package com.spencer.distributed_job_scheduler.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.client.RestClient;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
 
 @Configuration
 public class RestClientConfig {
 
+    // one shared client so connections (HTTP/1.1 keep-alive and HTTP/2 streams) are pooled across jobs
     @Bean
-    public RestClient restClient() {
-        return RestClient.create();
+    public HttpClient httpClient(@Value("${scheduler.http.connect-timeout-ms:5000}") long connectTimeoutMs) {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
     }
 }
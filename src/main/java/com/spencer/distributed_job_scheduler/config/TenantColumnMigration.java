@@ -0,0 +1,48 @@
+package com.spencer.distributed_job_scheduler.config;
+
+import com.spencer.distributed_job_scheduler.model.Job;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * The fair-share claim looks jobs up by tenant, so a live job without one would only ever be picked
+ * up by the leftover fill. This gives jobs.tenant_id a column default, which covers rows inserted by
+ * nodes that predate tenants, and assigns the default tenant to live rows stored before the column
+ * existed. Finished rows keep their null tenant; nothing claims them.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class TenantColumnMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(TenantColumnMigration.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JobColumnBackfill backfill;
+
+    @Value("${scheduler.tenant.backfill-batch-size:10000}")
+    private int batchSize;
+
+    public TenantColumnMigration(JdbcTemplate jdbcTemplate, JobColumnBackfill backfill) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.backfill = backfill;
+    }
+
+    @PostConstruct
+    public void backfillTenants() {
+        try {
+            jdbcTemplate.execute("ALTER TABLE jobs ALTER COLUMN tenant_id SET DEFAULT '" + Job.DEFAULT_TENANT + "'");
+            int total = backfill.run("tenant_id", "?", "status IN ('PENDING', 'RETRY_SCHEDULED', 'QUEUED', 'RUNNING')",
+                    batchSize, Job.DEFAULT_TENANT);
+            if (total > 0) {
+                logger.info("backfillTenants: assigned {} live jobs to tenant {}", total, Job.DEFAULT_TENANT);
+            }
+        } catch (Exception ex) {
+            logger.warn("backfillTenants: could not migrate jobs.tenant_id: {}", ex.getMessage());
+        }
+    }
+}
@@ -1,18 +1,42 @@
 package com.spencer.distributed_job_scheduler.controller;
 
+import com.spencer.distributed_job_scheduler.dto.BatchSubmitResponse;
 import com.spencer.distributed_job_scheduler.dto.CreateJobRequest;
+import com.spencer.distributed_job_scheduler.dto.JobFilter;
+import com.spencer.distributed_job_scheduler.dto.JobPage;
+import com.spencer.distributed_job_scheduler.dto.JobStatusView;
+import com.spencer.distributed_job_scheduler.dto.JobSummary;
+import com.spencer.distributed_job_scheduler.executor.HttpPayloadCompiler;
 import com.spencer.distributed_job_scheduler.model.Job;
+import com.spencer.distributed_job_scheduler.model.JobPriority;
 import com.spencer.distributed_job_scheduler.model.JobStatus;
 import com.spencer.distributed_job_scheduler.service.JobService;
+import com.spencer.distributed_job_scheduler.service.RetryPolicyEngine;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import tools.jackson.core.JacksonException;
 import tools.jackson.databind.ObjectMapper;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @RestController
@@ -24,32 +48,212 @@ public class JobController {
 
     private final JobService jobService;
     private final ObjectMapper objectMapper;
+    private final HttpPayloadCompiler httpPayloadCompiler;
+    private final RetryPolicyEngine retryPolicyEngine;
+
+    // jobs per insert transaction for batch submissions
+    @Value("${scheduler.ingest.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${scheduler.listing.max-page-size:1000}")
+    private int maxPageSize;
 
     @PostMapping
     public ResponseEntity<UUID> submitJob(@RequestBody CreateJobRequest jobRequest) {
+        Job job;
+        try {
+            job = toJob(jobRequest);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+        }
+
+        jobService.createJob(job);
+
+        return ResponseEntity.ok(job.getId());
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BatchSubmitResponse> submitBatch(@RequestBody List<CreateJobRequest> jobRequests) {
+        // reject the whole array before inserting anything
+        List<Job> jobs = new ArrayList<>(jobRequests.size());
+        for (int i = 0; i < jobRequests.size(); i++) {
+            try {
+                jobs.add(toJob(jobRequests.get(i)));
+            } catch (IllegalArgumentException ex) {
+                return ResponseEntity.badRequest().body(new BatchSubmitResponse(0, List.of(), "item " + i + ": " + ex.getMessage()));
+            }
+        }
+
+        List<UUID> ids = new ArrayList<>(jobs.size());
+        for (int from = 0; from < jobs.size(); from += chunkSize) {
+            jobService.createJobs(jobs.subList(from, Math.min(from + chunkSize, jobs.size())))
+                    .forEach(j -> ids.add(j.getId()));
+        }
+        return ResponseEntity.ok(new BatchSubmitResponse(ids.size(), ids, null));
+    }
+
+    // one CreateJobRequest per line. The body is read only as fast as chunks are committed, so a fast
+    // client is held back by TCP flow control instead of being buffered in memory.
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<BatchSubmitResponse> submitBatchStream(InputStream body) throws IOException {
+        List<UUID> ids = new ArrayList<>();
+        List<Job> chunk = new ArrayList<>(chunkSize);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+
+        String line;
+        int lineNo = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNo++;
+            if (line.isBlank()) {
+                continue;
+            }
+
+            String problem = null;
+            try {
+                chunk.add(toJob(objectMapper.readValue(line, CreateJobRequest.class)));
+            } catch (JacksonException ex) {
+                problem = ex.getOriginalMessage();
+            } catch (IllegalArgumentException ex) {
+                problem = ex.getMessage();
+            }
+
+            if (problem != null) {
+                // commit everything before the bad line so the client can resume right after it
+                flushChunk(chunk, ids);
+                logger.warn("submitBatchStream: rejected line {} after {} accepted jobs: {}", lineNo, ids.size(), problem);
+                return ResponseEntity.badRequest().body(new BatchSubmitResponse(ids.size(), ids, "line " + lineNo + ": " + problem));
+            }
+
+            if (chunk.size() >= chunkSize) {
+                flushChunk(chunk, ids);
+            }
+        }
+        flushChunk(chunk, ids);
+        return ResponseEntity.ok(new BatchSubmitResponse(ids.size(), ids, null));
+    }
+
+    // a poller that sends back the ETag is answered from the status cache until the job moves on
+    @GetMapping("/{id}")
+    public ResponseEntity<Job> getJob(@PathVariable UUID id,
+                                      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            Optional<String> current = jobService.getJobStatus(id).map(JobController::versionTag);
+            if (current.isPresent() && matches(ifNoneMatch, current.get())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(current.get()).build();
+            }
+        }
+        return jobService.getJob(id)
+                .map(job -> ResponseEntity.ok().eTag(versionTag(job)).body(job))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // for clients polling until a job finishes: no payload, and usually answered from cache
+    @GetMapping("/{id}/status")
+    public ResponseEntity<JobStatusView> getJobStatus(@PathVariable UUID id) {
+        return jobService.getJobStatus(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<JobPage> listJobs(JobFilter filter,
+                                            @RequestParam(required = false) UUID cursor,
+                                            @RequestParam(defaultValue = "100") int limit) {
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+        List<JobSummary> items = jobService.listJobs(filter, cursor, pageSize);
+        UUID next = items.size() < pageSize ? null : items.get(items.size() - 1).getId();
+        return ResponseEntity.ok(new JobPage(items, next));
+    }
+
+    // every matching job as NDJSON, written row by row from a database cursor so memory stays flat
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void streamJobs(JobFilter filter, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        OutputStream out = response.getOutputStream();
+        try {
+            jobService.forEachJob(filter, job -> {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(job));
+                    out.write('\n');
+                } catch (IOException ex) {
+                    // client went away; abort the cursor
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (UncheckedIOException ex) {
+            logger.debug("streamJobs: client disconnected: {}", ex.getMessage());
+            return;
+        }
+        out.flush();
+    }
+
+    // validates the request and, for HTTP jobs, stores the normalized payload; IllegalArgumentException if invalid
+    private Job toJob(CreateJobRequest jobRequest) {
+        String problem = validate(jobRequest);
+        if (problem != null) {
+            throw new IllegalArgumentException(problem);
+        }
+
         Job job = new Job();
         job.setJobType(jobRequest.getJobType());
         Instant scheduled = jobRequest.getScheduledAt() == null ? Instant.now() : jobRequest.getScheduledAt();
         job.setScheduledAt(scheduled);
         job.setStatus(JobStatus.PENDING);
+        job.setPriority(jobRequest.getPriority() == null ? JobPriority.NORMAL : jobRequest.getPriority());
+        job.setTenantId(Job.tenantOf(jobRequest.getTenantId()));
 
-        String payloadAsString = objectMapper.writeValueAsString(jobRequest.getPayload());
+        String payloadAsString = HttpPayloadCompiler.JOB_TYPE.equals(jobRequest.getJobType())
+                ? httpPayloadCompiler.normalize(jobRequest.getPayload())
+                : objectMapper.writeValueAsString(jobRequest.getPayload());
         job.setPayload(payloadAsString);
 
-        jobService.createJob(job);
+        retryPolicyEngine.validate(jobRequest.getRetry());
+        job.setRetryPolicy(jobRequest.getRetry());
+        return job;
+    }
 
-        return ResponseEntity.ok(job.getId());
+    // a bad item would otherwise only surface as a constraint violation that fails its whole chunk
+    private static String validate(CreateJobRequest jobRequest) {
+        if (jobRequest == null) {
+            return "empty job";
+        }
+        if (jobRequest.getJobType() == null || jobRequest.getJobType().isBlank()) {
+            return "jobType is required";
+        }
+        return null;
     }
 
-    @GetMapping("/{id}")
-    public ResponseEntity<Job> getJob(@PathVariable UUID id) {
-        return jobService.getJob(id)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    // the row version, which every transition bumps. Weak because the lease heartbeat moves leaseExpiresAt
+    // without bumping it, so two bodies with the same tag are equivalent but not always byte-identical
+    static String versionTag(JobStatusView view) {
+        return versionTag(view.getVersion());
+    }
+
+    static String versionTag(Job job) {
+        return versionTag(job.getVersion());
+    }
+
+    private static String versionTag(Long version) {
+        return "W/\"" + version + "\"";
+    }
+
+    // If-None-Match uses the weak comparison: any listed tag with the same opaque value matches, weak or not
+    static boolean matches(String ifNoneMatch, String tag) {
+        String opaque = tag.startsWith("W/") ? tag.substring(2) : tag;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*") || (trimmed.startsWith("W/") ? trimmed.substring(2) : trimmed).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
     }
 
-    @GetMapping
-    public ResponseEntity<List<Job>> getAllJobs() {
-        return ResponseEntity.ok(jobService.getAllJobs());
+    private void flushChunk(List<Job> chunk, List<UUID> ids) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        jobService.createJobs(chunk).forEach(j -> ids.add(j.getId()));
+        chunk.clear();
     }
 }
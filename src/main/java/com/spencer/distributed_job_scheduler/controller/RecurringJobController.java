@@ -0,0 +1,72 @@
+package com.spencer.distributed_job_scheduler.controller;
+
+import com.spencer.distributed_job_scheduler.dto.CreateRecurringJobRequest;
+import com.spencer.distributed_job_scheduler.executor.HttpPayloadCompiler;
+import com.spencer.distributed_job_scheduler.model.Job;
+import com.spencer.distributed_job_scheduler.model.RecurringJob;
+import com.spencer.distributed_job_scheduler.service.RecurringJobService;
+import com.spencer.distributed_job_scheduler.service.RetryPolicyEngine;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import tools.jackson.databind.ObjectMapper;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/recurring-jobs")
+@RequiredArgsConstructor
+public class RecurringJobController {
+
+    private final RecurringJobService recurringJobService;
+    private final ObjectMapper objectMapper;
+    private final HttpPayloadCompiler httpPayloadCompiler;
+    private final RetryPolicyEngine retryPolicyEngine;
+
+    @PostMapping
+    public ResponseEntity<UUID> createRecurringJob(@RequestBody CreateRecurringJobRequest request) {
+        try {
+            RecurringJob saved = recurringJobService.createRecurringJob(toDefinition(request), request.getStartAt());
+            return ResponseEntity.ok(saved.getId());
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<RecurringJob> getRecurringJob(@PathVariable UUID id) {
+        return recurringJobService.getRecurringJob(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteRecurringJob(@PathVariable UUID id) {
+        return recurringJobService.deleteRecurringJob(id)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    // same payload rules as one-shot jobs: HTTP payloads are validated and stored normalized
+    private RecurringJob toDefinition(CreateRecurringJobRequest request) {
+        if (request.getJobType() == null || request.getJobType().isBlank()) {
+            throw new IllegalArgumentException("jobType is required");
+        }
+        RecurringJob definition = new RecurringJob();
+        definition.setJobType(request.getJobType());
+        definition.setPayload(HttpPayloadCompiler.JOB_TYPE.equals(request.getJobType())
+                ? httpPayloadCompiler.normalize(request.getPayload())
+                : objectMapper.writeValueAsString(request.getPayload()));
+        definition.setCronExpression(request.getCron());
+        definition.setFixedRateMs(request.getFixedRateMs());
+        definition.setTimeZone(request.getTimeZone());
+        definition.setMisfirePolicy(request.getMisfirePolicy());
+        retryPolicyEngine.validate(request.getRetry());
+        definition.setRetryPolicy(request.getRetry());
+        definition.setPriority(request.getPriority());
+        definition.setTenantId(Job.tenantOf(request.getTenantId()));
+        return definition;
+    }
+}
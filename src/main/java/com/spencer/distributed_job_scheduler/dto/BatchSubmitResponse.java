@@ -0,0 +1,19 @@
+package com.spencer.distributed_job_scheduler.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+public class BatchSubmitResponse {
+
+    // number of jobs committed; on error, everything before the failing chunk stays committed
+    private int accepted;
+
+    private List<UUID> ids;
+
+    private String error;
+}
@@ -1,5 +1,7 @@
 package com.spencer.distributed_job_scheduler.dto;
 
+import com.spencer.distributed_job_scheduler.model.JobPriority;
+import com.spencer.distributed_job_scheduler.model.RetryPolicy;
 import jakarta.validation.constraints.NotBlank;
 import lombok.Data;
 
@@ -15,4 +17,13 @@ public class CreateJobRequest {
     private Instant scheduledAt;
 
     private Map<String, Object> payload;
+
+    // optional; defaults to NORMAL
+    private JobPriority priority;
+
+    // optional; jobs without one belong to the default tenant
+    private String tenantId;
+
+    // optional; unset fields fall back to the scheduler.retry.* defaults
+    private RetryPolicy retry;
 }
@@ -0,0 +1,41 @@
+package com.spencer.distributed_job_scheduler.dto;
+
+import com.spencer.distributed_job_scheduler.model.MisfirePolicy;
+import com.spencer.distributed_job_scheduler.model.JobPriority;
+import com.spencer.distributed_job_scheduler.model.RetryPolicy;
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.Map;
+
+@Data
+public class CreateRecurringJobRequest {
+
+    @NotBlank
+    private String jobType;
+
+    private Map<String, Object> payload;
+
+    // exactly one of cron and fixedRateMs
+    private String cron;
+
+    private Long fixedRateMs;
+
+    // IANA zone for cron, e.g. Europe/Berlin; defaults to UTC
+    private String timeZone;
+
+    // first fire time is at or after this instant; defaults to now
+    private Instant startAt;
+
+    // defaults to FIRE_ONCE
+    private MisfirePolicy misfirePolicy;
+
+    private RetryPolicy retry;
+
+    // defaults to NORMAL
+    private JobPriority priority;
+
+    // defaults to the default tenant
+    private String tenantId;
+}
@@ -0,0 +1,20 @@
+package com.spencer.distributed_job_scheduler.dto;
+
+import com.spencer.distributed_job_scheduler.model.JobStatus;
+import lombok.Data;
+
+import java.time.Instant;
+
+// optional listing filters bound from query parameters; null means "any"
+@Data
+public class JobFilter {
+
+    private JobStatus status;
+
+    private String jobType;
+
+    // scheduledAt range, from inclusive and to exclusive
+    private Instant from;
+
+    private Instant to;
+}
@@ -0,0 +1,17 @@
+package com.spencer.distributed_job_scheduler.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+public class JobPage {
+
+    private List<JobSummary> items;
+
+    // pass back as ?cursor= to get the next page; null when this was the last page
+    private UUID nextCursor;
+}
@@ -0,0 +1,42 @@
+package com.spencer.distributed_job_scheduler.dto;
+
+import com.spencer.distributed_job_scheduler.model.JobPriority;
+import com.spencer.distributed_job_scheduler.model.JobStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// what a client polling for completion needs; no payload, so it is cheap to cache and to serve
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobStatusView {
+
+    private UUID id;
+
+    private JobStatus status;
+
+    private String jobType;
+
+    private String tenantId;
+
+    private JobPriority priority;
+
+    private Instant scheduledAt;
+
+    private Instant startedAt;
+
+    private Instant finishedAt;
+
+    private Integer attempts;
+
+    private Instant nextAttemptAt;
+
+    private String lastError;
+
+    // bumped by every transition; the ETag of GET /jobs/{id}
+    private Long version;
+}
@@ -0,0 +1,26 @@
+package com.spencer.distributed_job_scheduler.dto;
+
+import com.spencer.distributed_job_scheduler.model.JobStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// listing view of a job; leaves out the payload so listing cost does not grow with payload size
+@Data
+@AllArgsConstructor
+public class JobSummary {
+
+    private UUID id;
+
+    private JobStatus status;
+
+    private String jobType;
+
+    private Instant scheduledAt;
+
+    private Instant startedAt;
+
+    private Instant finishedAt;
+}
@@ -0,0 +1,348 @@
+package com.spencer.distributed_job_scheduler.executor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker and concurrency bulkhead per target host. Each host keeps a rolling window of
+ * call outcomes; once enough calls have been seen and the failure or slow-call share crosses its
+ * threshold the circuit opens and jobs for that host are deferred without a network call. After
+ * the open period a few probe calls are let through (half-open); if they all succeed the circuit
+ * closes, otherwise it opens again. Independently, at most max-per-host calls to one host run at
+ * once, so a slow host cannot take every worker slot. Hosts with no call for idle-evict-ms are
+ * forgotten along with their gauges, so jobs calling many one-off hosts do not grow the map.
+ */
+@Component
+public class HostCircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(HostCircuitBreaker.class);
+    private static final int BUCKETS = 10;
+
+    public enum State { CLOSED, HALF_OPEN, OPEN }
+
+    private final long bucketNanos;
+    private final int minCalls;
+    private final double failureRateThreshold;
+    private final long slowCallNanos;
+    private final double slowRateThreshold;
+    private final long openNanos;
+    private final int halfOpenProbes;
+    private final int maxPerHost;
+    private final Duration bulkheadRetry;
+    private final long idleEvictNanos;
+    private final LongSupplier clock;
+
+    private final Map<String, HostState> hosts = new ConcurrentHashMap<>();
+
+    private MeterRegistry meterRegistry;
+    private Counter openRejections;
+    private Counter bulkheadRejections;
+
+    @Autowired
+    public HostCircuitBreaker(@Value("${scheduler.http.circuit.window-ms:10000}") long windowMs,
+                              @Value("${scheduler.http.circuit.min-calls:20}") int minCalls,
+                              @Value("${scheduler.http.circuit.failure-rate-threshold:0.5}") double failureRateThreshold,
+                              @Value("${scheduler.http.circuit.slow-call-ms:5000}") long slowCallMs,
+                              @Value("${scheduler.http.circuit.slow-rate-threshold:0.8}") double slowRateThreshold,
+                              @Value("${scheduler.http.circuit.open-ms:30000}") long openMs,
+                              @Value("${scheduler.http.circuit.half-open-probes:3}") int halfOpenProbes,
+                              @Value("${scheduler.http.bulkhead.max-per-host:50}") int maxPerHost,
+                              @Value("${scheduler.http.bulkhead.retry-ms:1000}") long bulkheadRetryMs,
+                              @Value("${scheduler.http.circuit.idle-evict-ms:600000}") long idleEvictMs) {
+        this(windowMs, minCalls, failureRateThreshold, slowCallMs, slowRateThreshold, openMs, halfOpenProbes,
+                maxPerHost, bulkheadRetryMs, idleEvictMs, System::nanoTime);
+    }
+
+    HostCircuitBreaker(long windowMs, int minCalls, double failureRateThreshold, long slowCallMs, double slowRateThreshold,
+                       long openMs, int halfOpenProbes, int maxPerHost, long bulkheadRetryMs, long idleEvictMs,
+                       LongSupplier clock) {
+        if (windowMs < BUCKETS || minCalls < 1 || halfOpenProbes < 1 || maxPerHost < 1 || idleEvictMs < 1) {
+            throw new IllegalArgumentException("circuit window-ms must be at least " + BUCKETS
+                    + ", and min-calls, half-open-probes, idle-evict-ms and bulkhead max-per-host at least 1");
+        }
+        this.bucketNanos = TimeUnit.MILLISECONDS.toNanos(windowMs) / BUCKETS;
+        this.minCalls = minCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallMs);
+        this.slowRateThreshold = slowRateThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMs);
+        this.halfOpenProbes = halfOpenProbes;
+        this.maxPerHost = maxPerHost;
+        this.bulkheadRetry = Duration.ofMillis(bulkheadRetryMs);
+        this.idleEvictNanos = TimeUnit.MILLISECONDS.toNanos(idleEvictMs);
+        this.clock = clock;
+    }
+
+    @Autowired(required = false)
+    public void initMetrics(MeterRegistry registry) {
+        this.meterRegistry = registry;
+        if (registry != null) {
+            this.openRejections = Counter.builder("jobs.http.circuit.rejected")
+                    .description("Jobs deferred without a call because the host's circuit was open or its bulkhead full")
+                    .tag("reason", "open")
+                    .register(registry);
+            this.bulkheadRejections = Counter.builder("jobs.http.circuit.rejected")
+                    .description("Jobs deferred without a call because the host's circuit was open or its bulkhead full")
+                    .tag("reason", "bulkhead")
+                    .register(registry);
+        }
+    }
+
+    // admits one call to host or throws JobDeferredException; the permit must be completed or cancelled exactly once
+    public Permit acquire(String host) {
+        String key = host == null ? "" : host.toLowerCase(Locale.ROOT);
+        long now = clock.getAsLong();
+        while (true) {
+            HostState state = hosts.computeIfAbsent(key, this::newHostState);
+            synchronized (state) {
+                // evicted between the lookup and the lock; the next lookup creates a fresh entry
+                if (state.evicted) {
+                    continue;
+                }
+                state.lastUsedAt = now;
+                return admit(state, now);
+            }
+        }
+    }
+
+    // called holding the state's lock
+    private Permit admit(HostState state, long now) {
+        if (state.state == State.OPEN) {
+            long remaining = state.openedAt + openNanos - now;
+            if (remaining > 0) {
+                if (openRejections != null) openRejections.increment();
+                throw new JobDeferredException("Circuit open for " + state.host,
+                        Duration.ofMillis(TimeUnit.NANOSECONDS.toMillis(remaining) + 1));
+            }
+            state.toHalfOpen();
+            logger.info("acquire: circuit for {} half-open, probing with {} calls", state.host, halfOpenProbes);
+        }
+        boolean probe = state.state == State.HALF_OPEN;
+        if (probe && state.probesStarted >= halfOpenProbes) {
+            if (openRejections != null) openRejections.increment();
+            throw new JobDeferredException("Circuit half-open for " + state.host + " and all probes are in flight", bulkheadRetry);
+        }
+        if (!state.bulkhead.tryAcquire()) {
+            if (bulkheadRejections != null) bulkheadRejections.increment();
+            throw new JobDeferredException("Bulkhead full for " + state.host + " (" + maxPerHost + " calls in flight)", bulkheadRetry);
+        }
+        if (probe) {
+            state.probesStarted++;
+        }
+        return new Permit(state, probe, state.generation, now);
+    }
+
+    // forgets hosts idle for idle-evict-ms with no call in flight, and removes their gauges
+    @Scheduled(fixedDelayString = "${scheduler.http.circuit.idle-evict-ms:600000}")
+    public void evictIdle() {
+        long now = clock.getAsLong();
+        int evicted = 0;
+        for (HostState state : hosts.values()) {
+            synchronized (state) {
+                if (now - state.lastUsedAt < idleEvictNanos || state.bulkhead.availablePermits() < maxPerHost) {
+                    continue;
+                }
+                // an open circuit is kept until it may probe, so forgetting it cannot cut the open period short
+                if (state.state == State.OPEN && now - state.openedAt < openNanos) {
+                    continue;
+                }
+                state.evicted = true;
+                hosts.remove(state.host, state);
+            }
+            if (meterRegistry != null) {
+                state.meters.forEach(meterRegistry::remove);
+            }
+            evicted++;
+        }
+        if (evicted > 0) {
+            logger.debug("evictIdle: forgot {} idle hosts, {} remain", evicted, hosts.size());
+        }
+    }
+
+    public State state(String host) {
+        HostState state = hosts.get(host.toLowerCase(Locale.ROOT));
+        return state == null ? State.CLOSED : state.state;
+    }
+
+    // I/O errors, timeouts and 5xx say the host is unhealthy; other statuses, interrupts and bugs on our side do not
+    static boolean isHostFailure(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof RestClientResponseException response) {
+            return response.getStatusCode().is5xxServerError();
+        }
+        return cause instanceof IOException || cause instanceof UncheckedIOException
+                || cause instanceof TimeoutException || cause instanceof ResourceAccessException;
+    }
+
+    private HostState newHostState(String host) {
+        HostState state = new HostState(host);
+        state.lastUsedAt = clock.getAsLong();
+        if (meterRegistry != null) {
+            state.meters.add(Gauge.builder("jobs.http.circuit.state", state, s -> s.state.ordinal())
+                    .description("Circuit state per host: 0 closed, 1 half-open, 2 open")
+                    .tag("host", host)
+                    .register(meterRegistry));
+            state.meters.add(Gauge.builder("jobs.http.bulkhead.in_use", state, s -> maxPerHost - s.bulkhead.availablePermits())
+                    .description("Calls in flight per host")
+                    .tag("host", host)
+                    .register(meterRegistry));
+        }
+        return state;
+    }
+
+    public final class Permit {
+        private final HostState state;
+        private final boolean probe;
+        private final long generation;
+        private final long startedAt;
+
+        private Permit(HostState state, boolean probe, long generation, long startedAt) {
+            this.state = state;
+            this.probe = probe;
+            this.generation = generation;
+            this.startedAt = startedAt;
+        }
+
+        // the call was made; error is null on success
+        public void complete(Throwable error) {
+            long now = clock.getAsLong();
+            state.bulkhead.release();
+            boolean failure = isHostFailure(error);
+            boolean slow = now - startedAt >= slowCallNanos;
+            synchronized (state) {
+                state.lastUsedAt = now;
+                // outcomes of calls admitted before the last state change say nothing about the current state
+                if (generation != state.generation) {
+                    return;
+                }
+                if (probe) {
+                    if (failure || slow) {
+                        state.toOpen(now);
+                        logger.warn("complete: probe to {} failed, circuit open again", state.host);
+                    } else if (++state.probeSuccesses >= halfOpenProbes) {
+                        state.toClosed();
+                        logger.info("complete: circuit for {} closed", state.host);
+                    }
+                    return;
+                }
+                state.record(now, failure, slow);
+                if (state.shouldOpen(now)) {
+                    state.toOpen(now);
+                    logger.warn("complete: circuit for {} opened", state.host);
+                }
+            }
+        }
+
+        // the call was never made (e.g. rate limited after admission)
+        public void cancel() {
+            state.bulkhead.release();
+            if (probe) {
+                synchronized (state) {
+                    if (generation == state.generation && state.probesStarted > 0) {
+                        state.probesStarted--;
+                    }
+                }
+            }
+        }
+    }
+
+    private final class HostState {
+        final String host;
+        final Semaphore bulkhead = new Semaphore(maxPerHost);
+        volatile State state = State.CLOSED;
+        final List<Meter> meters = new ArrayList<>(2);
+        long lastUsedAt;
+        // removed from hosts; an acquire that raced the eviction looks the host up again
+        boolean evicted;
+        // bumped on every state change
+        long generation;
+        long openedAt;
+        int probesStarted;
+        int probeSuccesses;
+
+        // rolling window: bucket i covers one bucketNanos slice, identified by its slice number
+        final long[] slices = new long[BUCKETS];
+        final int[] calls = new int[BUCKETS];
+        final int[] failures = new int[BUCKETS];
+        final int[] slowCalls = new int[BUCKETS];
+
+        HostState(String host) {
+            this.host = host;
+            Arrays.fill(slices, Long.MIN_VALUE);
+        }
+
+        void record(long now, boolean failure, boolean slow) {
+            long slice = Math.floorDiv(now, bucketNanos);
+            int i = (int) Math.floorMod(slice, (long) BUCKETS);
+            if (slices[i] != slice) {
+                slices[i] = slice;
+                calls[i] = 0;
+                failures[i] = 0;
+                slowCalls[i] = 0;
+            }
+            calls[i]++;
+            if (failure) failures[i]++;
+            if (slow) slowCalls[i]++;
+        }
+
+        boolean shouldOpen(long now) {
+            long current = Math.floorDiv(now, bucketNanos);
+            int total = 0;
+            int failed = 0;
+            int slowTotal = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                if (slices[i] > current - BUCKETS) {
+                    total += calls[i];
+                    failed += failures[i];
+                    slowTotal += slowCalls[i];
+                }
+            }
+            return total >= minCalls
+                    && ((double) failed / total >= failureRateThreshold || (double) slowTotal / total >= slowRateThreshold);
+        }
+
+        void toOpen(long now) {
+            state = State.OPEN;
+            openedAt = now;
+            generation++;
+        }
+
+        void toHalfOpen() {
+            state = State.HALF_OPEN;
+            probesStarted = 0;
+            probeSuccesses = 0;
+            generation++;
+        }
+
+        void toClosed() {
+            state = State.CLOSED;
+            Arrays.fill(slices, Long.MIN_VALUE);
+            generation++;
+        }
+    }
+}
@@ -1,81 +1,204 @@
 // java
 package com.spencer.distributed_job_scheduler.executor;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.spencer.distributed_job_scheduler.dto.HttpJobPayload;
 import com.spencer.distributed_job_scheduler.model.Job;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.http.HttpEntity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.stereotype.Component;
-import org.springframework.util.LinkedMultiValueMap;
-import org.springframework.web.client.RestClient;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.web.util.UriComponentsBuilder;
-
-import java.lang.reflect.Array;
-import java.util.Collection;
-import java.util.Iterator;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Component
 public class HttpJobExecutor implements JobExecutor {
 
     private static final Logger logger = LoggerFactory.getLogger(HttpJobExecutor.class);
 
-    private final RestClient restClient;
-    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    private final HttpPayloadCompiler compiler;
+    private final OutboundRateLimiter rateLimiter;
+    private final HostCircuitBreaker circuitBreaker;
+
+    // caps outstanding async requests; callers block once the cap is reached
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+    private final Duration readTimeout;
+    private final Duration totalTimeout;
 
-    public HttpJobExecutor(RestClient restClient) {
-        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
-        requestFactory.setConnectTimeout(10_000);
-        requestFactory.setReadTimeout(10_000);
+    // built requests by job id, least recently used evicted first; a job's payload never changes after
+    // submission, so a retry of the same job skips parsing and building entirely (each recurring
+    // occurrence is a new job id and always misses)
+    private final Map<UUID, HttpRequest> prepared;
 
-        this.restClient = restClient;
-        this.objectMapper = new ObjectMapper();
+    public HttpJobExecutor(HttpClient httpClient,
+                           HttpPayloadCompiler compiler,
+                           OutboundRateLimiter rateLimiter,
+                           HostCircuitBreaker circuitBreaker,
+                           @Value("${scheduler.http.read-timeout-ms:10000}") long readTimeoutMs,
+                           @Value("${scheduler.http.total-timeout-ms:30000}") long totalTimeoutMs,
+                           @Value("${scheduler.http.max-in-flight:1000}") int maxInFlight,
+                           @Value("${scheduler.http.prepared-cache-size:10000}") int preparedCacheSize) {
+        this.httpClient = httpClient;
+        this.compiler = compiler;
+        this.rateLimiter = rateLimiter;
+        this.circuitBreaker = circuitBreaker;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.maxInFlight = maxInFlight;
+        this.readTimeout = Duration.ofMillis(readTimeoutMs);
+        this.totalTimeout = Duration.ofMillis(totalTimeoutMs);
+        this.prepared = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, HttpRequest> eldest) {
+                return size() > preparedCacheSize;
+            }
+        });
+    }
+
+    @Autowired(required = false)
+    public void initMetrics(MeterRegistry registry) {
+        if (registry != null) {
+            Gauge.builder("jobs.http.in_flight", this, executor -> executor.maxInFlight - executor.inFlight.availablePermits())
+                    .description("Asynchronous HTTP requests awaiting a response")
+                    .register(registry);
+        }
     }
 
     @Override
     public String getJobType() {
-        return "HTTP";
+        return HttpPayloadCompiler.JOB_TYPE;
     }
 
     @Override
     public void execute(Job job) throws Exception {
-        HttpJobPayload payload = objectMapper.readValue(job.getPayload(), HttpJobPayload.class);
-
-        String method = payload.getMethod() == null ? "GET" : payload.getMethod().toUpperCase();
-        var requestSpec = restClient.method(HttpMethod.valueOf(method)).uri(payload.getUrl());
-
-        // set headers from payload safely
-        if (payload.getHeaders() != null && !payload.getHeaders().isEmpty()) {
-            requestSpec.headers(httpHeaders -> {
-                payload.getHeaders().forEach((k, v) -> {
-                    if (k == null || v == null) return;                  // skip nulls
-                    if ("Content-Length".equalsIgnoreCase(k)            // avoid forbidden headers
-                            || "Host".equalsIgnoreCase(k)) return;
-                    httpHeaders.add(k, v);
-                });
-            });
+        HttpRequest request = prepare(job);
+        HostCircuitBreaker.Permit permit = admit(job, request);
+        // completed in finally so not even an Error can leak the host's bulkhead slot
+        Throwable outcome = null;
+        try {
+            HttpResponse<Void> response = await(job, httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+            checkStatus(request, response);
+        } catch (Throwable t) {
+            outcome = t;
+            throw t;
+        } finally {
+            permit.complete(outcome);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> executeAsync(Job job) {
+        HttpRequest request;
+        HostCircuitBreaker.Permit permit;
+        try {
+            request = prepare(job);
+            // admitted before taking an in-flight slot so a throttled or broken host never holds capacity
+            permit = admit(job, request);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            permit.cancel();
+            return CompletableFuture.failedFuture(ie);
+        }
+
+        CompletableFuture<HttpResponse<Void>> exchange;
+        try {
+            exchange = httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding());
+        } catch (RuntimeException e) {
+            inFlight.release();
+            permit.complete(e);
+            return CompletableFuture.failedFuture(e);
         }
 
-        // body only for non-GET methods; ensure Content-Type when sending JSON
-        if (!"GET".equals(method)) {
-            if (payload.getBody() != null) {
-                // if a client didn't set Content-Type, add application/json
-                if (payload.getHeaders() == null || !payload.getHeaders().containsKey("Content-Type")) {
-                    requestSpec.header("Content-Type", "application/json");
-                }
-                requestSpec.body(payload.getBody());
+        // the per-request timeout only bounds the wait for response headers; the copy enforces the overall deadline
+        return exchange.copy()
+                .orTimeout(totalTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((response, ex) -> {
+                    inFlight.release();
+                    if (ex instanceof TimeoutException) {
+                        logger.debug("Job {} exceeded total deadline of {}; aborting request", job.getId(), totalTimeout);
+                        exchange.cancel(true);
+                    }
+                })
+                .thenAccept(response -> checkStatus(request, response))
+                .whenComplete((ignored, ex) -> permit.complete(ex));
+    }
+
+    // the same overall deadline as the async path, so a server trickling the body cannot hold a worker thread
+    private HttpResponse<Void> await(Job job, CompletableFuture<HttpResponse<Void>> exchange) throws Exception {
+        try {
+            return exchange.copy().orTimeout(totalTimeout.toMillis(), TimeUnit.MILLISECONDS).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof TimeoutException) {
+                logger.debug("Job {} exceeded total deadline of {}; aborting request", job.getId(), totalTimeout);
+                exchange.cancel(true);
+            }
+            if (cause instanceof Exception ex) {
+                throw ex;
+            }
+            if (cause instanceof Error error) {
+                throw error;
             }
+            throw e;
+        } catch (InterruptedException e) {
+            exchange.cancel(true);
+            Thread.currentThread().interrupt();
+            throw e;
         }
+    }
 
-        // execute (API used in earlier conversation)
-        requestSpec.retrieve().toBodilessEntity();
+    // circuit and bulkhead first, so an open circuit does not spend rate-limit permits
+    private HostCircuitBreaker.Permit admit(Job job, HttpRequest request) {
+        HostCircuitBreaker.Permit permit = circuitBreaker.acquire(request.uri().getHost());
+        try {
+            rateLimiter.acquire(job.getJobType(), request.uri().getHost());
+        } catch (RuntimeException e) {
+            permit.cancel();
+            throw e;
+        }
+        return permit;
+    }
+
+    // payloads were validated and normalized at submission, so a miss is one parse and one build
+    private HttpRequest prepare(Job job) {
+        if (job.getId() == null) {
+            return compiler.toRequest(compiler.parse(job.getPayload()), readTimeout);
+        }
+        HttpRequest request = prepared.get(job.getId());
+        if (request == null) {
+            request = compiler.toRequest(compiler.parse(job.getPayload()), readTimeout);
+            prepared.put(job.getId(), request);
+        }
+        return request;
+    }
+
+    private static void checkStatus(HttpRequest request, HttpResponse<Void> response) {
+        if (response.statusCode() >= 400) {
+            throw new RestClientResponseException(
+                    "HTTP " + response.statusCode() + " from " + request.uri(),
+                    HttpStatusCode.valueOf(response.statusCode()), "", HttpHeaders.EMPTY, null, null);
+        }
     }
 }
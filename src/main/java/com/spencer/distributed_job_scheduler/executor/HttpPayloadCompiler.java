@@ -0,0 +1,148 @@
+package com.spencer.distributed_job_scheduler.executor;
+
+import com.spencer.distributed_job_scheduler.dto.HttpJobPayload;
+import org.springframework.stereotype.Component;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Validates and normalizes HTTP job payloads when a job is submitted, so malformed jobs are rejected
+ * before they are stored and the executor never has to repair a payload at run time. The normalized
+ * form has an upper-case method, only forwardable headers, a Content-Type whenever there is a body,
+ * and the body already serialized to the exact string that goes on the wire.
+ */
+@Component
+public class HttpPayloadCompiler {
+
+    public static final String JOB_TYPE = "HTTP";
+
+    private static final Set<String> METHODS = Set.of("GET", "HEAD", "POST", "PUT", "PATCH", "DELETE", "OPTIONS");
+
+    // headers the JDK client manages itself and rejects when set explicitly
+    private static final Set<String> RESTRICTED_HEADERS = Set.of("content-length", "host", "connection", "expect", "upgrade");
+
+    private final ObjectMapper objectMapper;
+
+    public HttpPayloadCompiler(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    // submit side: request payload -> normalized payload text to store; IllegalArgumentException if invalid
+    public String normalize(Object rawPayload) {
+        HttpJobPayload payload;
+        try {
+            payload = objectMapper.convertValue(rawPayload, HttpJobPayload.class);
+        } catch (JacksonException ex) {
+            throw new IllegalArgumentException("payload is not an HTTP job payload: " + ex.getOriginalMessage());
+        }
+        return objectMapper.writeValueAsString(compile(payload, true));
+    }
+
+    // execute side: stored text -> validated payload; also accepts rows stored before normalization existed
+    public HttpJobPayload parse(String payloadText) {
+        if (payloadText == null) {
+            throw new IllegalArgumentException("payload is required");
+        }
+        try {
+            return compile(objectMapper.readValue(payloadText, HttpJobPayload.class), false);
+        } catch (JacksonException ex) {
+            throw new IllegalArgumentException("payload is not an HTTP job payload: " + ex.getOriginalMessage());
+        }
+    }
+
+    public HttpRequest toRequest(HttpJobPayload payload, Duration timeout) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(payload.getUrl())).timeout(timeout);
+        payload.getHeaders().forEach(builder::header);
+        HttpRequest.BodyPublisher body = payload.getBody() == null
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofString((String) payload.getBody());
+        return builder.method(payload.getMethod(), body).build();
+    }
+
+    // strict rejects client-managed and null headers; lenient drops them, as executors did before submit-time validation
+    private HttpJobPayload compile(HttpJobPayload payload, boolean strict) {
+        if (payload == null) {
+            throw new IllegalArgumentException("payload is required");
+        }
+
+        HttpJobPayload compiled = new HttpJobPayload();
+        compiled.setUrl(validateUrl(payload.getUrl()));
+
+        String method = payload.getMethod() == null ? "GET" : payload.getMethod().trim().toUpperCase();
+        if (!METHODS.contains(method)) {
+            throw new IllegalArgumentException("unsupported HTTP method: " + payload.getMethod());
+        }
+        compiled.setMethod(method);
+
+        Map<String, String> headers = new LinkedHashMap<>();
+        boolean hasContentType = false;
+        if (payload.getHeaders() != null) {
+            for (Map.Entry<String, String> header : payload.getHeaders().entrySet()) {
+                if (!strict && (header.getKey() == null || header.getValue() == null
+                        || RESTRICTED_HEADERS.contains(header.getKey().toLowerCase()))) {
+                    continue;
+                }
+                String name = validateHeader(header.getKey(), header.getValue());
+                hasContentType |= name.equalsIgnoreCase("Content-Type");
+                headers.put(name, header.getValue());
+            }
+        }
+
+        // GET and HEAD never carried a body; drop it rather than failing old clients that send one
+        Object body = payload.getBody();
+        if (body != null && !"GET".equals(method) && !"HEAD".equals(method)) {
+            compiled.setBody(body instanceof String s ? s : objectMapper.writeValueAsString(body));
+            if (!hasContentType) {
+                headers.put("Content-Type", "application/json");
+            }
+        }
+        compiled.setHeaders(headers);
+        return compiled;
+    }
+
+    private static String validateUrl(String url) {
+        if (url == null || url.isBlank()) {
+            throw new IllegalArgumentException("url is required");
+        }
+        URI uri;
+        try {
+            uri = new URI(url.trim());
+        } catch (URISyntaxException ex) {
+            throw new IllegalArgumentException("url is malformed: " + ex.getMessage());
+        }
+        String scheme = uri.getScheme() == null ? "" : uri.getScheme().toLowerCase();
+        if (!scheme.equals("http") && !scheme.equals("https")) {
+            throw new IllegalArgumentException("url must be absolute http or https: " + url);
+        }
+        if (uri.getHost() == null) {
+            throw new IllegalArgumentException("url has no host: " + url);
+        }
+        return uri.toString();
+    }
+
+    private static String validateHeader(String name, String value) {
+        if (name == null || name.isBlank() || !name.chars().allMatch(HttpPayloadCompiler::isTokenChar)) {
+            throw new IllegalArgumentException("invalid header name: " + name);
+        }
+        if (RESTRICTED_HEADERS.contains(name.toLowerCase())) {
+            throw new IllegalArgumentException("header is managed by the client and cannot be set: " + name);
+        }
+        if (value == null || value.indexOf('\r') >= 0 || value.indexOf('\n') >= 0) {
+            throw new IllegalArgumentException("invalid value for header " + name);
+        }
+        return name;
+    }
+
+    // RFC 9110 token characters
+    private static boolean isTokenChar(int c) {
+        return c > 0x20 && c < 0x7F && "\"(),/:;<=>?@[\\]{}".indexOf(c) < 0;
+    }
+}
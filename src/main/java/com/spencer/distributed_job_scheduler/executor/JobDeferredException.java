@@ -0,0 +1,17 @@
+package com.spencer.distributed_job_scheduler.executor;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+// thrown before any request is sent when a job cannot run right now; the worker defers the job instead of failing it
+@Getter
+public class JobDeferredException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public JobDeferredException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
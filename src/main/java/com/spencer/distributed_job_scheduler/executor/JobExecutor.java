@@ -2,8 +2,20 @@ package com.spencer.distributed_job_scheduler.executor;
 
 import com.spencer.distributed_job_scheduler.model.Job;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface JobExecutor {
     String getJobType();
 
     void execute(Job job) throws Exception;
+
+    // non-blocking variant; executors without native async support run synchronously on the caller
+    default CompletableFuture<Void> executeAsync(Job job) {
+        try {
+            execute(job);
+            return CompletableFuture.completedFuture(null);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 }
@@ -0,0 +1,32 @@
+package com.spencer.distributed_job_scheduler.executor;
+
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bounds the job_type tag on metrics. The type is whatever the client submitted, and every distinct
+ * value would start its own series, dozens of them for each histogram, so only the types of the
+ * registered executors are tagged as themselves and every other type is tagged "other".
+ */
+@Component
+public class JobTypeTags {
+
+    public static final String OTHER = "other";
+
+    private final Set<String> known;
+
+    public JobTypeTags(List<JobExecutor> executors) {
+        this.known = executors.stream()
+                .map(JobExecutor::getJobType)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    public String of(String jobType) {
+        return jobType != null && known.contains(jobType) ? jobType : OTHER;
+    }
+}
@@ -0,0 +1,84 @@
+package com.spencer.distributed_job_scheduler.executor;
+
+import com.spencer.distributed_job_scheduler.redis.RedisRateLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Per target host and per jobType limits for outbound calls, configured as name=permitsPerSecond
+ * lists and enforced cluster-wide through {@link RedisRateLimiter}. Hosts and job types without a
+ * rule are never limited and cost nothing.
+ */
+@Component
+public class OutboundRateLimiter {
+
+    private final RedisRateLimiter limiter;
+    private final Map<String, Double> hostRates;
+    private final Map<String, Double> jobTypeRates;
+    private final double burstSeconds;
+
+    public OutboundRateLimiter(RedisRateLimiter limiter,
+                               @Value("${scheduler.rate-limit.hosts:}") String hostRates,
+                               @Value("${scheduler.rate-limit.job-types:}") String jobTypeRates,
+                               @Value("${scheduler.rate-limit.burst-seconds:1}") double burstSeconds) {
+        if (burstSeconds <= 0) {
+            throw new IllegalArgumentException("scheduler.rate-limit.burst-seconds must be positive");
+        }
+        this.limiter = limiter;
+        this.hostRates = parseRates(hostRates, "scheduler.rate-limit.hosts");
+        this.jobTypeRates = parseRates(jobTypeRates, "scheduler.rate-limit.job-types");
+        this.burstSeconds = burstSeconds;
+    }
+
+    // throws RateLimitedException if either the job type or the host is over its limit
+    public void acquire(String jobType, String host) {
+        acquire("type:", jobType, jobTypeRates);
+        acquire("host:", host, hostRates);
+    }
+
+    private void acquire(String scope, String name, Map<String, Double> rates) {
+        if (name == null || rates.isEmpty()) {
+            return;
+        }
+        String key = name.toLowerCase(Locale.ROOT);
+        Double permitsPerSecond = rates.get(key);
+        if (permitsPerSecond == null) {
+            return;
+        }
+        String bucket = scope + key;
+        int burst = (int) Math.max(1, Math.ceil(permitsPerSecond * burstSeconds));
+        Duration wait = limiter.tryAcquire(bucket, permitsPerSecond, burst);
+        if (!wait.isZero()) {
+            throw new RateLimitedException(bucket, wait);
+        }
+    }
+
+    // "api.partner.com=50, slow.example.org=0.5" -> lower-cased name to permits per second
+    static Map<String, Double> parseRates(String rules, String property) {
+        Map<String, Double> rates = new HashMap<>();
+        if (rules == null || rules.isBlank()) {
+            return rates;
+        }
+        for (String rule : rules.split(",")) {
+            if (rule.isBlank()) {
+                continue;
+            }
+            int eq = rule.lastIndexOf('=');
+            try {
+                double rate = Double.parseDouble(rule.substring(eq + 1).trim());
+                if (eq <= 0 || !(rate > 0)) {
+                    throw new NumberFormatException();
+                }
+                rates.put(rule.substring(0, eq).trim().toLowerCase(Locale.ROOT), rate);
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException(property + " entries must look like name=permitsPerSecond: " + rule.trim());
+            }
+        }
+        return rates;
+    }
+}
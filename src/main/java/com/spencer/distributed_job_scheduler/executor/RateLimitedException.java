@@ -0,0 +1,10 @@
+package com.spencer.distributed_job_scheduler.executor;
+
+import java.time.Duration;
+
+public class RateLimitedException extends JobDeferredException {
+
+    public RateLimitedException(String bucket, Duration retryAfter) {
+        super("Rate limit reached for " + bucket + "; retry after " + retryAfter.toMillis() + "ms", retryAfter);
+    }
+}
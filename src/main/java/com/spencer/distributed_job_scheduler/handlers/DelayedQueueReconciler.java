@@ -0,0 +1,87 @@
+package com.spencer.distributed_job_scheduler.handlers;
+
+import com.spencer.distributed_job_scheduler.redis.RedisDelayedQueue;
+import com.spencer.distributed_job_scheduler.redis.RedisDistributedLock;
+import com.spencer.distributed_job_scheduler.service.JobService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Keeps the Redis delayed queue consistent with Postgres. Jobs still PENDING well past their
+ * fire time were never added or were lost from Redis, and jobs due within the horizon are
+ * re-added in case the sorted set itself was lost. Jobs promoted since their fire time are
+ * skipped: they are waiting in the work queue, and re-adding them would queue one more copy per
+ * sweep while workers are behind. A promotion is remembered for
+ * {@code scheduler.delayed-queue.promoted-ttl-ms}, after which a job that is still PENDING is
+ * treated as lost; any duplicate that produces is discarded by the worker's claim.
+ */
+@Component
+@RequiredArgsConstructor
+public class DelayedQueueReconciler {
+
+    private static final Logger logger = LoggerFactory.getLogger(DelayedQueueReconciler.class);
+    private static final String LOCK_KEY = "scheduler:lock:reconciler";
+
+    private final JobService jobService;
+    private final RedisDelayedQueue delayedQueue;
+    private final RedisDistributedLock lock;
+
+    @Value("${scheduler.lock-ttl-seconds:30}")
+    private int lockTtlSeconds;
+
+    // how long a due job may stay PENDING before it is considered missing from Redis
+    @Value("${scheduler.delayed-queue.reconcile-grace-ms:30000}")
+    private long graceMs;
+
+    @Value("${scheduler.delayed-queue.reconcile-horizon-ms:300000}")
+    private long horizonMs;
+
+    @Value("${scheduler.delayed-queue.reconcile-page-size:1000}")
+    private int pageSize;
+
+    // bound on rows touched per range per sweep so a huge backlog cannot stall the node
+    @Value("${scheduler.delayed-queue.reconcile-max-jobs:50000}")
+    private int maxJobs;
+
+    @Scheduled(fixedDelayString = "${scheduler.delayed-queue.reconcile-interval-ms:60000}")
+    public void reconcile() {
+        if (!delayedQueue.isEnabled()) {
+            return;
+        }
+
+        String lockToken = null;
+        try {
+            lockToken = lock.tryAcquire(LOCK_KEY, Duration.ofSeconds(lockTtlSeconds));
+            if (lockToken == null) {
+                logger.debug("reconcile: another instance is reconciling, skipping this cycle");
+                return;
+            }
+
+            Instant now = Instant.now();
+            int overdue = jobService.reconcileDelayedQueue(Instant.EPOCH, now.minusMillis(graceMs), pageSize, maxJobs);
+            int upcoming = jobService.reconcileDelayedQueue(now, now.plusMillis(horizonMs), pageSize, maxJobs);
+
+            if (overdue > 0) {
+                logger.warn("reconcile: re-added {} overdue PENDING jobs to the delayed queue", overdue);
+            }
+            logger.debug("reconcile: refreshed {} upcoming jobs in the delayed queue", upcoming);
+        } catch (Exception ex) {
+            logger.error("reconcile: failed: {}", ex.getMessage(), ex);
+        } finally {
+            if (lockToken != null) {
+                try {
+                    lock.release(LOCK_KEY, lockToken);
+                } catch (Exception e) {
+                    logger.error("reconcile: error releasing lock {}: {}", LOCK_KEY, e.getMessage(), e);
+                }
+            }
+        }
+    }
+}
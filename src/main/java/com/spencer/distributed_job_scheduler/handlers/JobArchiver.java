@@ -0,0 +1,116 @@
+package com.spencer.distributed_job_scheduler.handlers;
+
+import com.spencer.distributed_job_scheduler.service.JobService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the jobs table down to live work by moving COMPLETED and FAILED jobs to jobs_archive once
+ * they are older than archive-after-ms, and optionally deleting archived jobs after purge-after-ms.
+ * Work is done in short batches with a pause between them and a cap per run, so a large first
+ * backlog is worked off over several runs instead of competing with claims. Runs on its own thread,
+ * since the pauses would otherwise hold up every @Scheduled task on Spring's single scheduler thread.
+ * Safe on every node: candidate rows are locked with SKIP LOCKED.
+ */
+@Component
+@RequiredArgsConstructor
+public class JobArchiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobArchiver.class);
+
+    private final JobService jobService;
+
+    @Value("${scheduler.archive.enabled:true}")
+    private boolean enabled;
+
+    // finished jobs younger than this stay in the hot table, e.g. for clients polling their result
+    @Value("${scheduler.archive.archive-after-ms:604800000}")
+    private long archiveAfterMs;
+
+    // 0 keeps archived jobs forever
+    @Value("${scheduler.archive.purge-after-ms:0}")
+    private long purgeAfterMs;
+
+    @Value("${scheduler.archive.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${scheduler.archive.max-batches-per-run:50}")
+    private int maxBatchesPerRun;
+
+    @Value("${scheduler.archive.batch-pause-ms:200}")
+    private long batchPauseMs;
+
+    @Value("${scheduler.archive.interval-ms:60000}")
+    private long intervalMs;
+
+    private ScheduledExecutorService runner;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        runner = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("job-archiver-"));
+        runner.scheduleWithFixedDelay(this::archive, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (runner != null) {
+            // interrupts the pause between batches; a batch in flight finishes its statement
+            runner.shutdownNow();
+        }
+    }
+
+    public void archive() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Instant now = Instant.now();
+            int archived = runBatches(limit -> jobService.archiveFinishedJobs(now.minusMillis(archiveAfterMs), limit));
+            if (archived > 0) {
+                logger.info("archive: moved {} finished jobs to the archive", archived);
+            }
+            if (purgeAfterMs > 0) {
+                int purged = runBatches(limit -> jobService.purgeArchivedJobs(now.minusMillis(purgeAfterMs), limit));
+                if (purged > 0) {
+                    logger.info("archive: purged {} archived jobs", purged);
+                }
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        } catch (Exception ex) {
+            logger.error("archive: failed: {}", ex.getMessage(), ex);
+        }
+    }
+
+    private interface Batch {
+        int run(int limit);
+    }
+
+    // stops at the first short batch, after maxBatchesPerRun, or on shutdown
+    private int runBatches(Batch batch) throws InterruptedException {
+        int total = 0;
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            int done = batch.run(batchSize);
+            total += done;
+            if (done < batchSize) {
+                break;
+            }
+            Thread.sleep(batchPauseMs);
+        }
+        return total;
+    }
+}
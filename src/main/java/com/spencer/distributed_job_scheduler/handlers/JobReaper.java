@@ -0,0 +1,52 @@
+package com.spencer.distributed_job_scheduler.handlers;
+
+import com.spencer.distributed_job_scheduler.model.JobStatus;
+import com.spencer.distributed_job_scheduler.service.JobService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Recovers jobs left RUNNING by a worker that died or was shut down mid-execution, and QUEUED jobs
+ * whose queue entry was lost.
+ * A RUNNING job is orphaned once its lease lapses without a heartbeat, so recovery takes at most
+ * the lease duration plus one reaper interval. A QUEUED job has no heartbeat; its separate queue
+ * lease has to outlast the work queue backlog, or jobs still waiting would be requeued. Safe to run
+ * on every node: expired rows are locked with SKIP LOCKED, so concurrent reapers take disjoint batches.
+ */
+@Component
+@RequiredArgsConstructor
+public class JobReaper {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobReaper.class);
+
+    private final JobService jobService;
+
+    @Value("${scheduler.reaper.batch-size:500}")
+    private int batchSize;
+
+    // PENDING requeues orphaned jobs for another attempt, FAILED gives up on them
+    @Value("${scheduler.reaper.target-status:PENDING}")
+    private JobStatus targetStatus;
+
+    @Scheduled(fixedDelayString = "${scheduler.reaper.interval-ms:15000}")
+    public void reapExpiredLeases() {
+        try {
+            int total = 0;
+            int reaped;
+            do {
+                reaped = jobService.reapExpiredLeases(batchSize, targetStatus);
+                total += reaped;
+            } while (reaped == batchSize);
+
+            if (total > 0) {
+                logger.warn("reapExpiredLeases: recovered {} orphaned jobs as {}", total, targetStatus);
+            }
+        } catch (Exception ex) {
+            logger.error("reapExpiredLeases: failed: {}", ex.getMessage(), ex);
+        }
+    }
+}
@@ -1,38 +1,216 @@
 package com.spencer.distributed_job_scheduler.handlers;
 
 import com.spencer.distributed_job_scheduler.model.Job;
-import com.spencer.distributed_job_scheduler.model.JobStatus;
+import com.spencer.distributed_job_scheduler.model.JobMessage;
 import com.spencer.distributed_job_scheduler.service.JobService;
+import com.spencer.distributed_job_scheduler.service.StaleFencingTokenException;
+import com.spencer.distributed_job_scheduler.redis.RedisDelayedQueue;
 import com.spencer.distributed_job_scheduler.redis.RedisDistributedLock;
+import com.spencer.distributed_job_scheduler.redis.RedisLeaderElection;
+import com.spencer.distributed_job_scheduler.redis.RedisPartitionAssigner;
+import com.spencer.distributed_job_scheduler.redis.RedisPollWakeups;
+import com.spencer.distributed_job_scheduler.redis.WorkQueues;
+import com.spencer.distributed_job_scheduler.repository.ClaimedJobRef;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Component;
 
-import java.util.Optional;
 import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Component
 @RequiredArgsConstructor
 public class JobScheduler {
 
     private static final Logger logger = LoggerFactory.getLogger(JobScheduler.class);
-    private static final String WORK_QUEUE = "scheduler:work";
     private static final String LOCK_KEY = "scheduler:lock:poller";
 
     private final JobService jobService;
     private final StringRedisTemplate redis;
     private final RedisDistributedLock lock;
+    private final RedisDelayedQueue delayedQueue;
+    private final RedisPollWakeups pollWakeups;
 
     @Value("${scheduler.lock-ttl-seconds:30}")
     private int lockTtlSeconds;
 
+    @Value("${scheduler.poller.batch-size:500}")
+    private int batchSize;
+
+    // hold the poller role as a renewed lease instead of acquiring and releasing the lock every tick; claims carry
+    // the lease's fencing token, so a leader paused past its lease cannot claim after its successor
+    @Value("${scheduler.poller.leader-election.enabled:false}")
+    private boolean leaderElectionEnabled;
+
+    @Value("${scheduler.poller.leader-election.ttl-ms:10000}")
+    private long leaderTtlMs;
+
+    // split claiming across nodes by Job.partitionOf so dispatch throughput grows with the cluster
+    @Value("${scheduler.partitions.enabled:false}")
+    private boolean partitioningEnabled;
+
+    @Value("${scheduler.partitions.lease-ttl-ms:10000}")
+    private long partitionTtlMs;
+
+    // push JobMessage entries instead of bare ids so workers execute without reading the row
+    @Value("${scheduler.queue.compact-messages:false}")
+    private boolean compactMessages;
+
+    // poll on a dedicated thread with a delay that adapts to the backlog instead of the fixed delay-ms tick
+    @Value("${scheduler.poller.adaptive.enabled:false}")
+    private boolean adaptive;
+
+    @Value("${scheduler.poller.adaptive.min-delay-ms:50}")
+    private long minDelayMs;
+
+    @Value("${scheduler.poller.adaptive.max-delay-ms:5000}")
+    private long maxDelayMs;
+
+    // prefetch stage: claim jobs due within window-ms ahead of time and push each at its scheduledAt from a timing wheel
+    @Value("${scheduler.prefetch.enabled:false}")
+    private boolean prefetchEnabled;
+
+    @Value("${scheduler.prefetch.window-ms:10000}")
+    private long prefetchWindowMs;
+
+    @Value("${scheduler.prefetch.tick-ms:1}")
+    private long prefetchTickMs;
+
+    @Value("${scheduler.prefetch.capacity:10000}")
+    private int prefetchCapacity;
+
+    @Value("${scheduler.lease.queue-duration-ms:600000}")
+    private long queueLeaseMs;
+
+    private RedisLeaderElection election;
+    private RedisPartitionAssigner partitions;
+    private PrefetchWheel<PrefetchedJob> prefetch;
+
+    private ExecutorService adaptivePoller;
+    private RedisMessageListenerContainer wakeupSubscription;
+    private volatile boolean running;
+    // the adaptive poller waits on this between passes; guards notifiedDueMillis
+    private final Object wakeup = new Object();
+    // earliest scheduledAt announced since the current pass began looking
+    private long notifiedDueMillis = Long.MAX_VALUE;
+
+    @Autowired(required = false)
+    public void initMetrics(MeterRegistry registry) {
+        if (registry != null) {
+            Gauge.builder("jobs.prefetch.size", this, scheduler -> scheduler.prefetch == null ? 0 : scheduler.prefetch.size())
+                    .description("Claimed jobs waiting in the prefetch wheel for their scheduledAt")
+                    .register(registry);
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        if (partitioningEnabled && !delayedQueue.isEnabled()) {
+            partitions = new RedisPartitionAssigner(redis, lock, Job.PARTITION_COUNT, Duration.ofMillis(partitionTtlMs));
+            partitions.start();
+        } else if (leaderElectionEnabled && !delayedQueue.isEnabled()) {
+            // same key as the per-tick lock, so nodes in either mode still exclude each other during a rollout
+            election = new RedisLeaderElection(lock, LOCK_KEY, Duration.ofMillis(leaderTtlMs),
+                    (leader, fencingToken) -> logger.info("pollAndEnqueue: this node is {} the poller (fencingToken={})",
+                            leader ? "now" : "no longer", fencingToken));
+            election.start();
+        }
+
+        // the delayed queue promotes from Redis and has no claim to prefetch with
+        if (prefetchEnabled && !delayedQueue.isEnabled()) {
+            if (prefetchWindowMs >= queueLeaseMs) {
+                throw new IllegalArgumentException("scheduler.prefetch.window-ms must be below scheduler.lease.queue-duration-ms");
+            }
+            prefetch = new PrefetchWheel<>(prefetchTickMs, prefetchWindowMs, prefetchCapacity, this::dispatchPrefetched);
+        }
+
+        if (adaptive) {
+            PollPacer pacer = new PollPacer(minDelayMs, maxDelayMs);
+            try {
+                wakeupSubscription = pollWakeups.subscribe(this::claimsFrom, this::wakeFor);
+            } catch (Exception ex) {
+                logger.warn("start: poller wakeups unavailable, polling on backoff alone: {}", ex.getMessage());
+            }
+            running = true;
+            adaptivePoller = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("job-poller-"));
+            adaptivePoller.submit(() -> pollAdaptively(pacer));
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (adaptivePoller != null) {
+            running = false;
+            synchronized (wakeup) {
+                wakeup.notifyAll();
+            }
+            adaptivePoller.shutdownNow();
+        }
+        if (wakeupSubscription != null) {
+            try {
+                wakeupSubscription.destroy();
+            } catch (Exception ex) {
+                logger.warn("stop: failed to close the poller wakeup subscription: {}", ex.getMessage());
+            }
+        }
+        if (prefetch != null) {
+            // back to PENDING so another node picks them up on time instead of after the lease
+            List<UUID> parked = prefetch.stop().stream().map(job -> job.id).toList();
+            if (!parked.isEmpty()) {
+                release(parked);
+            }
+        }
+        if (election != null) {
+            election.close();
+        }
+        if (partitions != null) {
+            partitions.close();
+        }
+    }
+
     @Scheduled(fixedDelayString = "${scheduler.poller.delay-ms:1000}")
     public void pollAndEnqueue() {
-        logger.info("pollAndEnqueue: triggered");
+        // the adaptive poller thread does the polling
+        if (adaptive) {
+            return;
+        }
+        poll();
+    }
+
+    // one poller pass in whichever mode is configured; returns how many jobs it claimed or promoted
+    private int poll() {
+        logger.debug("pollAndEnqueue: triggered");
+
+        if (delayedQueue.isEnabled()) {
+            return promoteDueJobs();
+        }
+
+        if (partitions != null) {
+            return pollOwnedPartitions();
+        }
+
+        if (election != null) {
+            return drainAsLeader();
+        }
 
         // try to acquire a distributed lock so only one scheduler polls/enqueues at a time
         String lockToken = null;
@@ -40,31 +218,10 @@ public class JobScheduler {
             lockToken = lock.tryAcquire(LOCK_KEY, Duration.ofSeconds(lockTtlSeconds));
             if (lockToken == null) {
                 logger.debug("pollAndEnqueue: another instance holds the poller lock, skipping this cycle");
-                return;
-            }
-
-            Optional<Job> claimed = jobService.claimNextDueJob();
-            if (claimed.isEmpty()) {
-                logger.info("pollAndEnqueue: no pending jobs found");
-                return;
+                return 0;
             }
 
-            Job job = claimed.get();
-            logger.info("pollAndEnqueue: job {} claimed, enqueueing to Redis...", job.getId());
-
-            try {
-                redis.opsForList().leftPush(WORK_QUEUE, job.getId().toString());
-                logger.info("pollAndEnqueue: job {} enqueued to {}", job.getId(), WORK_QUEUE);
-            } catch (Exception ex) {
-                logger.error("pollAndEnqueue: failed to push job {} to Redis: {}", job.getId(), ex.getMessage(), ex);
-                // revert to pending if enqueue fails
-                try {
-                    jobService.markStatus(job, JobStatus.PENDING);
-                    logger.info("pollAndEnqueue: job {} reverted to PENDING", job.getId());
-                } catch (Exception e) {
-                    logger.error("pollAndEnqueue: failed to revert job {}: {}", job.getId(), e.getMessage(), e);
-                }
-            }
+            return claimAndEnqueue(null, null);
         } finally {
             if (lockToken != null) {
                 try {
@@ -78,4 +235,264 @@ public class JobScheduler {
             }
         }
     }
+
+    // the leader keeps the role between ticks, so it claims back to back while batches come back full
+    private int drainAsLeader() {
+        int total = 0;
+        try {
+            int claimed;
+            do {
+                if (!election.isLeader()) {
+                    logger.debug("pollAndEnqueue: not the poller leader, skipping this cycle");
+                    return total;
+                }
+                claimed = claimAndEnqueue(null, election.getFencingToken());
+                total += claimed;
+            } while (claimed == batchSize);
+        } catch (StaleFencingTokenException stale) {
+            logger.warn("pollAndEnqueue: a newer poller has claimed (fencingToken {} < {}), stepping down",
+                    stale.getToken(), stale.getNewestToken());
+            election.resign(stale.getNewestToken());
+        } catch (Exception ex) {
+            logger.error("pollAndEnqueue: leader poll failed: {}", ex.getMessage(), ex);
+        }
+        return total;
+    }
+
+    // round-robin over owned partitions, coming back for another pass while any of them returned a full batch
+    private int pollOwnedPartitions() {
+        int total = 0;
+        try {
+            boolean more = true;
+            while (more) {
+                more = false;
+                for (int partition : partitions.ownedPartitions()) {
+                    int claimed = claimAndEnqueue(partition, null);
+                    total += claimed;
+                    if (claimed == batchSize) {
+                        more = true;
+                    }
+                }
+            }
+        } catch (Exception ex) {
+            logger.error("pollAndEnqueue: partitioned poll failed: {}", ex.getMessage(), ex);
+        }
+        return total;
+    }
+
+    // claims one batch, from a single partition when one is given and fenced when the elected leader gives its token,
+    // topping it up from the prefetch window when due jobs leave room; returns how many jobs were claimed, whether or
+    // not the push succeeded
+    private int claimAndEnqueue(Integer partition, Long fencingToken) {
+        int claimed = claimDueAndEnqueue(partition, fencingToken);
+        if (prefetch != null && claimed < batchSize) {
+            claimed += prefetchAhead(partition, fencingToken, Math.min(batchSize - claimed, prefetch.remainingCapacity()));
+        }
+        return claimed;
+    }
+
+    private int claimDueAndEnqueue(Integer partition, Long fencingToken) {
+        // work queue -> (ids, entries) in claim order
+        Map<String, List<UUID>> claimedByQueue = new LinkedHashMap<>();
+        Map<String, List<String>> entriesByQueue = new LinkedHashMap<>();
+        int claimed;
+        if (compactMessages) {
+            List<Job> rows = fencingToken != null ? jobService.claimDueJobRowsAsLeader(batchSize, fencingToken)
+                    : partition == null ? jobService.claimDueJobRows(batchSize) : jobService.claimDueJobRows(batchSize, partition);
+            rows.forEach(job -> add(claimedByQueue, entriesByQueue, WorkQueues.keyFor(job.getPriority()), job.getId(),
+                    JobMessage.of(job).encode()));
+            claimed = rows.size();
+        } else {
+            List<ClaimedJobRef> refs = fencingToken != null ? jobService.claimDueJobsAsLeader(batchSize, fencingToken)
+                    : partition == null ? jobService.claimDueJobs(batchSize) : jobService.claimDueJobs(batchSize, partition);
+            refs.forEach(ref -> add(claimedByQueue, entriesByQueue, WorkQueues.keyFor(ref.priority()), ref.getId(),
+                    ref.getId().toString()));
+            claimed = refs.size();
+        }
+
+        if (claimed == 0) {
+            logger.debug("pollAndEnqueue: no pending jobs found");
+            return 0;
+        }
+
+        logger.info("pollAndEnqueue: {} jobs claimed, enqueueing to Redis...", claimed);
+        enqueue(claimedByQueue, entriesByQueue);
+        return claimed;
+    }
+
+    private void enqueue(Map<String, List<UUID>> claimedByQueue, Map<String, List<String>> entriesByQueue) {
+        for (Map.Entry<String, List<String>> queue : entriesByQueue.entrySet()) {
+            List<UUID> ids = claimedByQueue.get(queue.getKey());
+            try {
+                // one variadic LPUSH per priority; oldest job ends up closest to the RPOP end
+                redis.opsForList().leftPushAll(queue.getKey(), queue.getValue());
+                logger.info("pollAndEnqueue: {} jobs enqueued to {}", ids.size(), queue.getKey());
+            } catch (Exception ex) {
+                logger.error("pollAndEnqueue: failed to push {} jobs to {}: {}", ids.size(), queue.getKey(), ex.getMessage(), ex);
+                // revert to pending if enqueue fails
+                release(ids);
+            }
+        }
+    }
+
+    private void release(List<UUID> ids) {
+        try {
+            jobService.releaseClaims(ids);
+        } catch (Exception e) {
+            logger.error("pollAndEnqueue: failed to revert {} jobs: {}", ids.size(), e.getMessage(), e);
+        }
+    }
+
+    // claims jobs due within the prefetch window and parks them in the wheel until their scheduledAt
+    private int prefetchAhead(Integer partition, Long fencingToken, int limit) {
+        if (limit <= 0) {
+            return 0;
+        }
+        Instant dueBy = Instant.now().plusMillis(prefetchWindowMs);
+        List<PrefetchedJob> jobs = new ArrayList<>();
+        if (compactMessages) {
+            for (Job job : jobService.claimJobRowsDueBy(dueBy, limit, partition, fencingToken)) {
+                jobs.add(new PrefetchedJob(job.getId(), WorkQueues.keyFor(job.getPriority()), JobMessage.of(job).encode(),
+                        job.getScheduledAt()));
+            }
+        } else {
+            for (ClaimedJobRef ref : jobService.claimJobsDueBy(dueBy, limit, partition, fencingToken)) {
+                jobs.add(new PrefetchedJob(ref.getId(), WorkQueues.keyFor(ref.priority()), ref.getId().toString(),
+                        ref.getScheduledAt()));
+            }
+        }
+        if (jobs.isEmpty()) {
+            return 0;
+        }
+
+        List<UUID> rejected = new ArrayList<>();
+        for (PrefetchedJob job : jobs) {
+            if (!prefetch.offer(job, job.scheduledAt)) {
+                rejected.add(job.id);
+            }
+        }
+        if (!rejected.isEmpty()) {
+            logger.warn("pollAndEnqueue: prefetch wheel refused {} jobs, releasing them", rejected.size());
+            release(rejected);
+        }
+        // released jobs do not count, or a poller whose wheel is full would keep claiming and releasing them
+        int prefetched = jobs.size() - rejected.size();
+        logger.info("pollAndEnqueue: {} jobs prefetched", prefetched);
+        return prefetched;
+    }
+
+    // on the prefetch thread: push the jobs that just came due, one LPUSH per work queue
+    private void dispatchPrefetched(List<PrefetchedJob> due) {
+        Map<String, List<UUID>> claimedByQueue = new LinkedHashMap<>();
+        Map<String, List<String>> entriesByQueue = new LinkedHashMap<>();
+        due.forEach(job -> add(claimedByQueue, entriesByQueue, job.queue, job.id, job.entry));
+        enqueue(claimedByQueue, entriesByQueue);
+    }
+
+    // a claimed job waiting in the prefetch wheel, with the work queue entry built at claim time
+    private static final class PrefetchedJob {
+        private final UUID id;
+        private final String queue;
+        private final String entry;
+        private final Instant scheduledAt;
+
+        private PrefetchedJob(UUID id, String queue, String entry, Instant scheduledAt) {
+            this.id = id;
+            this.queue = queue;
+            this.entry = entry;
+            this.scheduledAt = scheduledAt;
+        }
+    }
+
+    private static void add(Map<String, List<UUID>> claimedByQueue, Map<String, List<String>> entriesByQueue,
+                            String queue, UUID id, String entry) {
+        claimedByQueue.computeIfAbsent(queue, k -> new ArrayList<>()).add(id);
+        entriesByQueue.computeIfAbsent(queue, k -> new ArrayList<>()).add(entry);
+    }
+
+    // delayed-queue mode: the Lua move is atomic, so every node can run it without the poller lock
+    private int promoteDueJobs() {
+        int total = 0;
+        try {
+            int moved;
+            do {
+                moved = delayedQueue.promoteDue(Instant.now(), batchSize);
+                total += moved;
+            } while (moved == batchSize);
+
+            if (total > 0) {
+                logger.info("pollAndEnqueue: promoted {} due jobs from the delayed queue to {}", total, WorkQueues.NORMAL);
+            }
+        } catch (Exception ex) {
+            logger.error("pollAndEnqueue: failed to promote due jobs: {}", ex.getMessage(), ex);
+        }
+        return total;
+    }
+
+    // adaptive mode: poll, then wait as long as the pacer says, or less if a job due sooner is announced
+    private void pollAdaptively(PollPacer pacer) {
+        while (running && !Thread.currentThread().isInterrupted()) {
+            synchronized (wakeup) {
+                // a job announced from here on may have been committed after this pass looked
+                notifiedDueMillis = Long.MAX_VALUE;
+            }
+            int claimed = 0;
+            Instant nextDue = null;
+            try {
+                claimed = poll();
+                if (claimed < batchSize) {
+                    // with prefetch, a job is wanted as soon as it enters the window
+                    nextDue = nextDueAt().map(due -> prefetch == null ? due : due.minusMillis(prefetchWindowMs)).orElse(null);
+                }
+            } catch (Exception ex) {
+                logger.error("pollAndEnqueue: adaptive poll failed: {}", ex.getMessage(), ex);
+            }
+            long delayMs = pacer.nextDelayMs(claimed, batchSize, nextDue, Instant.now());
+            logger.debug("pollAndEnqueue: claimed {}, next poll in {} ms", claimed, delayMs);
+            awaitNextPoll(System.currentTimeMillis() + delayMs);
+        }
+    }
+
+    private Optional<Instant> nextDueAt() {
+        return delayedQueue.isEnabled() ? delayedQueue.nextDueAt() : jobService.findNextDueAt();
+    }
+
+    private void awaitNextPoll(long deadlineMillis) {
+        synchronized (wakeup) {
+            long now = System.currentTimeMillis();
+            while (running && now < Math.min(deadlineMillis, notifiedDueMillis)) {
+                try {
+                    wakeup.wait(Math.min(deadlineMillis, notifiedDueMillis) - now);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                now = System.currentTimeMillis();
+            }
+        }
+    }
+
+    // only the node that would claim an announced job wakes for it; in per-tick lock mode any node may,
+    // and all but one of them lose the lock without querying Postgres
+    private boolean claimsFrom(int partition) {
+        if (partitions != null) {
+            return partitions.owns(partition);
+        }
+        if (election != null) {
+            return election.isLeader();
+        }
+        return true;
+    }
+
+    // on the subscription thread: cut the current wait short if the announced job is due before it ends
+    private void wakeFor(Instant scheduledAt) {
+        // with prefetch the job is wanted as soon as it enters the window
+        long wantedAt = scheduledAt.toEpochMilli() - (prefetch == null ? 0 : prefetchWindowMs);
+        synchronized (wakeup) {
+            if (wantedAt < notifiedDueMillis) {
+                notifiedDueMillis = wantedAt;
+                wakeup.notifyAll();
+            }
+        }
+    }
 }
@@ -1,157 +1,427 @@
 package com.spencer.distributed_job_scheduler.handlers;
 
 import com.spencer.distributed_job_scheduler.executor.JobExecutor;
+import com.spencer.distributed_job_scheduler.executor.JobTypeTags;
+import com.spencer.distributed_job_scheduler.executor.JobDeferredException;
 import com.spencer.distributed_job_scheduler.model.Job;
+import com.spencer.distributed_job_scheduler.model.JobMessage;
 import com.spencer.distributed_job_scheduler.model.JobStatus;
-import com.spencer.distributed_job_scheduler.repository.JobRepository;
+import com.spencer.distributed_job_scheduler.redis.WorkQueues;
 import com.spencer.distributed_job_scheduler.service.JobService;
+import com.spencer.distributed_job_scheduler.service.PriorityRotation;
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
-import jakarta.annotation.PostConstruct;
-import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientResponseException;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Pops work queue entries on a pool of consumer threads and executes them on a separate pool, at most
+ * max-in-flight at a time. A SmartLifecycle in the last phase, so it starts once the context is up and
+ * its consumers stop before the Redis connection factory does.
+ */
 @Component
-public class JobWorker {
+public class JobWorker implements SmartLifecycle {
 
     private static final Logger logger = LoggerFactory.getLogger(JobWorker.class);
-    private static final String WORK_QUEUE = "scheduler:work";
 
     private final StringRedisTemplate redis;
-    private final JobRepository jobRepository;
     private final JobService jobService;
     private final JobExecutor jobExecutor;
+    private final JobTypeTags jobTypeTags;
 
-    // ExecutorService manages the lifecycle of executors
-    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    // number of loops popping ids from the work queue
+    @Value("${scheduler.worker.consumers:2}")
+    private int consumers;
 
-    private Counter failedCounter;
-    private Timer executionTimer;
+    // upper bound on jobs executing at once on this node
+    @Value("${scheduler.worker.max-in-flight:32}")
+    private int maxInFlight;
+
+    // run executions on virtual threads (JDK 21+); falls back to platform threads otherwise
+    @Value("${scheduler.worker.virtual-threads:false}")
+    private boolean virtualThreads;
+
+    // hand jobs to JobExecutor.executeAsync so a few threads can keep many I/O-bound jobs in flight
+    @Value("${scheduler.worker.async-execution:false}")
+    private boolean asyncExecution;
+
+    @Value("${scheduler.worker.poll-timeout-ms:5000}")
+    private long pollTimeoutMs;
+
+    // relative share of pops that prefer each priority queue, high,normal,low; the claim's weights unless set
+    @Value("${scheduler.worker.priority-weights:${scheduler.claim.priority-weights:8,3,1}}")
+    private String priorityWeights;
+
+    // pause after an empty pop; BRPOP already waited for poll-timeout, so this only guards against busy loops
+    @Value("${scheduler.worker.idle-backoff-ms:100}")
+    private long idleBackoffMs;
+
+    @Value("${scheduler.worker.shutdown-grace-ms:5000}")
+    private long shutdownGraceMs;
+
+    // heartbeat period; must be comfortably shorter than scheduler.lease.duration-ms
+    @Value("${scheduler.lease.renew-interval-ms:30000}")
+    private long leaseRenewIntervalMs;
+
+    private ExecutorService consumerPool;
+    private ExecutorService executionPool;
+    private ScheduledExecutorService leaseRenewer;
+    // jobs currently executing on this node, heartbeated as a batch
+    private final Set<UUID> executing = ConcurrentHashMap.newKeySet();
+    private Semaphore inFlight;
+    private int[] weights;
+    private byte[][] queueKeys;
+    private volatile boolean running;
+
+    private MeterRegistry meterRegistry;
 
     public JobWorker(StringRedisTemplate redis,
-                     JobRepository jobRepository,
                      JobService jobService,
-                     JobExecutor jobExecutor) {
+                     JobExecutor jobExecutor,
+                     JobTypeTags jobTypeTags) {
         this.redis = redis;
-        this.jobRepository = jobRepository;
         this.jobService = jobService;
         this.jobExecutor = jobExecutor;
+        this.jobTypeTags = jobTypeTags;
     }
 
     // optional metric init
     @org.springframework.beans.factory.annotation.Autowired(required = false)
     public void initMetrics(MeterRegistry registry) {
         if (registry != null) {
-            this.failedCounter = Counter.builder("jobs.failed.total").description("Total failed jobs").register(registry);
-            this.executionTimer = Timer.builder("jobs.execution.duration").description("Job execution duration").publishPercentiles(0.5, 0.95).register(registry);
+            this.meterRegistry = registry;
+            Gauge.builder("jobs.worker.in_flight", executing, Set::size)
+                    .description("Jobs executing on this node")
+                    .register(registry);
+            Gauge.builder("jobs.worker.in_flight.max", this, worker -> worker.maxInFlight)
+                    .description("Jobs this node executes at most at once")
+                    .register(registry);
         }
     }
 
-    @PostConstruct
+    @Override
     public void start() {
-        // scheduler re-runs after a configured delay
-        scheduler.scheduleWithFixedDelay(() -> {
-                try {
-                    String idString = redis.opsForList().rightPop(WORK_QUEUE, Duration.ofSeconds(5));
+        inFlight = new Semaphore(maxInFlight);
+        // fail at startup rather than in every consumer thread
+        weights = PriorityRotation.parseWeights("scheduler.worker.priority-weights", priorityWeights);
+        queueKeys = WorkQueues.ALL.stream().map(key -> key.getBytes(StandardCharsets.UTF_8)).toArray(byte[][]::new);
+        executionPool = newExecutionPool();
+        consumerPool = Executors.newFixedThreadPool(Math.max(consumers, 1), new CustomizableThreadFactory("job-consumer-"));
+        leaseRenewer = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("job-lease-renewer-"));
+        running = true;
 
-                    if (idString == null) {
-                        return;
-                    }
-
-                    // validate UUID from queue; skip invalid values
-                    UUID id;
-                    try {
-                        id = UUID.fromString(idString);
-                    } catch (IllegalArgumentException iae) {
-                        logger.warn("Invalid job id from queue, skipping: {}", idString);
-                        return;
-                    }
-
-                    Optional<Job> potentialJob = jobRepository.findById(id);
+        leaseRenewer.scheduleWithFixedDelay(this::renewLeases, leaseRenewIntervalMs, leaseRenewIntervalMs, TimeUnit.MILLISECONDS);
+        for (int i = 0; i < consumers; i++) {
+            consumerPool.execute(this::consumeLoop);
+        }
+        logger.info("JobWorker started: consumers={}, maxInFlight={}, virtualThreads={}", consumers, maxInFlight, virtualThreads);
+    }
 
-                    if (potentialJob.isEmpty()) {
-                        logger.warn("Received job id {} from queue but not found in DB", id);
-                        return;
-                    }
+    private ExecutorService newExecutionPool() {
+        if (virtualThreads) {
+            try {
+                ThreadFactory factory = new VirtualThreadTaskExecutor("job-exec-").getVirtualThreadFactory();
+                // concurrency is already capped by the in-flight permits, so there is no need for a fixed pool size
+                return Executors.newCachedThreadPool(factory);
+            } catch (UnsupportedOperationException ex) {
+                logger.warn("Virtual threads not supported on Java {}; falling back to platform threads", Runtime.version().feature());
+            }
+        }
+        return Executors.newFixedThreadPool(maxInFlight, new CustomizableThreadFactory("job-exec-"));
+    }
 
-                    Job job = potentialJob.get();
+    // each consumer takes a permit before popping, so ids never leave Redis unless there is capacity to run them
+    private void consumeLoop() {
+        PriorityRotation rotation = new PriorityRotation(weights);
+        while (running) {
+            try {
+                inFlight.acquire();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                return;
+            }
 
-                    // skip if already completed (duplicate in queue)
-                    if (job.getStatus() == JobStatus.COMPLETED) {
-                        logger.info("Job {} already completed; skipping duplicate queue entry", id);
-                        return;
-                    }
+            boolean handedOff = false;
+            try {
+                String entry = popNext(rotation);
+                if (entry == null) {
+                    pause(idleBackoffMs);
+                    continue;
+                }
 
+                executionPool.execute(() -> {
                     try {
-                        // attempt to mark RUNNING; handle optimistic lock races
-                        job.setStartedAt(Instant.now());
-                        try {
-                            jobService.markStatus(job, JobStatus.RUNNING);
-                        } catch (ObjectOptimisticLockingFailureException oole) {
-                            logger.debug("Job {} already updated by another worker when marking RUNNING; skipping", id);
-                            return;
-                        }
-
-                        if (executionTimer != null) {
-                            executionTimer.record(() -> {
-                                try {
-                                    jobExecutor.execute(job);
-                                } catch (Exception e) {
-                                    throw new RuntimeException(e);
-                                }
-                            });
-                        } else {
-                            jobExecutor.execute(job);
-                        }
-
-                        // end time and mark COMPLETED
-                        job.setFinishedAt(Instant.now());
-                        try {
-                            jobService.markStatus(job, JobStatus.COMPLETED);
-                            logger.info("Job {} completed", id);
-                        } catch (ObjectOptimisticLockingFailureException oole) {
-                            // someone else updated the row (likely marked COMPLETED) — treat as already-processed
-                            logger.debug("Job {} already updated by another worker when marking COMPLETED; treating as processed", id);
-                        }
+                        processJob(entry).whenComplete((ignored, ex) -> inFlight.release());
                     } catch (Exception ex) {
-                        logger.error("Job {} execution failed: {}", id, ex.getMessage(), ex);
-                        if (failedCounter != null) failedCounter.increment();
-                        try {
-                            jobService.markStatus(job, JobStatus.FAILED);
-                        } catch (ObjectOptimisticLockingFailureException oole) {
-                            logger.debug("Job {} could not be marked FAILED due to optimistic lock; it may have been updated by another worker", id);
-                        }
+                        logger.error("Worker error processing {}: {}", entry, ex.getMessage(), ex);
+                        inFlight.release();
                     }
-                } catch (Exception ex) {
-                    logger.error("Worker loop error: {}", ex.getMessage(), ex);
+                });
+                handedOff = true;
+            } catch (Exception ex) {
+                if (!running) {
+                    return;
                 }
-        }, 0, 1, TimeUnit.SECONDS);
+                logger.error("Worker loop error: {}", ex.getMessage(), ex);
+                pause(idleBackoffMs);
+            } finally {
+                if (!handedOff) {
+                    inFlight.release();
+                }
+            }
+        }
+    }
+
+    // weighted preference while there is a backlog: this turn's queue first, then the rest in priority order, so a
+    // pop only comes back empty when every queue is. When they all are, one blocking pop waits on all of them
+    private String popNext(PriorityRotation rotation) {
+        int preferred = rotation.next();
+        String entry = redis.opsForList().rightPop(WorkQueues.ALL.get(preferred));
+        for (int i = 0; entry == null && i < WorkQueues.ALL.size(); i++) {
+            if (i != preferred) {
+                entry = redis.opsForList().rightPop(WorkQueues.ALL.get(i));
+            }
+        }
+        if (entry != null) {
+            return entry;
+        }
+        // BRPOP serves the first non-empty key in the order given, i.e. the highest priority that has work
+        int timeoutSeconds = (int) Math.max(1, (pollTimeoutMs + 999) / 1000);
+        List<byte[]> popped = redis.execute((RedisCallback<List<byte[]>>) connection ->
+                connection.listCommands().bRPop(timeoutSeconds, queueKeys));
+        return popped == null || popped.size() < 2 ? null : new String(popped.get(1), StandardCharsets.UTF_8);
+    }
+
+    private void renewLeases() {
+        if (executing.isEmpty()) {
+            return;
+        }
+        try {
+            jobService.renewLeases(List.copyOf(executing));
+        } catch (Exception ex) {
+            logger.error("Lease renewal failed for {} jobs: {}", executing.size(), ex.getMessage(), ex);
+        }
+    }
+
+    private void pause(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // resolves once the job's outcome has been recorded; the in-flight permit is held until then
+    private CompletableFuture<Void> processJob(String entry) {
+        // the queue holds either a JobMessage or a bare id (delayed-queue deliveries, older schedulers)
+        JobMessage message;
+        UUID id;
+        try {
+            message = JobMessage.decode(entry);
+            id = message != null ? message.getId() : UUID.fromString(entry);
+        } catch (IllegalArgumentException iae) {
+            logger.warn("Invalid entry from queue, skipping: {}", entry);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        if (message != null && message.isExpired(Instant.now())) {
+            // the claim lapsed while queued; the reaper requeues it, or already has
+            logger.debug("Job {} message expired at {}; skipping", id, message.getDeadline());
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // one conditional UPDATE decides the race: duplicates, jobs already finished and (in delayed-queue mode)
+        // jobs another worker started all lose here. A bare id needs the row back; a message already carries it.
+        Optional<Job> started;
+        try {
+            started = message != null ? jobService.startJob(message) : jobService.startJob(id);
+        } catch (Exception ex) {
+            logger.error("Job {} could not be started: {}", id, ex.getMessage(), ex);
+            return CompletableFuture.completedFuture(null);
+        }
+        if (started.isEmpty()) {
+            logger.debug("Job {} already started, finished or not yet due; skipping duplicate delivery", id);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        Job job = started.get();
+        executing.add(id);
+
+        long startNanos = System.nanoTime();
+        if (!asyncExecution) {
+            Exception error = null;
+            try {
+                jobExecutor.execute(job);
+            } catch (Exception e) {
+                error = e;
+            }
+            recordOutcome(job, startNanos, error);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // async executors complete on their own I/O threads; hop back to the execution pool for the DB writes
+        return jobExecutor.executeAsync(job)
+                .handleAsync((ignored, ex) -> {
+                    recordOutcome(job, startNanos, ex);
+                    return null;
+                }, this::executeOrRun);
+    }
+
+    // once stop() has shut the pool down, the outcome is recorded on the completing thread instead of being dropped
+    private void executeOrRun(Runnable task) {
+        try {
+            executionPool.execute(task);
+        } catch (RejectedExecutionException ex) {
+            task.run();
+        }
+    }
+
+    private void recordOutcome(Job job, long startNanos, Throwable error) {
+        executing.remove(job.getId());
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof JobDeferredException deferred) {
+            recordDeferral(job, deferred);
+            return;
+        }
+        recordExecution(job, System.nanoTime() - startNanos, cause);
+
+        if (cause != null) {
+            recordFailure(job, cause);
+            return;
+        }
+
+        try {
+            if (jobService.finishJob(job, JobStatus.COMPLETED)) {
+                logger.info("Job {} completed", job.getId());
+            } else {
+                // the lease lapsed and the reaper handed the job to someone else; their outcome wins
+                logger.warn("Job {} completed but its claim was lost; outcome not recorded", job.getId());
+            }
+        } catch (Exception ex) {
+            logger.error("Job {} completed but its status could not be recorded: {}", job.getId(), ex.getMessage(), ex);
+        }
+    }
+
+    // nothing was sent, so the job goes back to the queue at the suggested time instead of failing
+    private void recordDeferral(Job job, JobDeferredException deferred) {
+        logger.debug("Job {} deferred: {}", job.getId(), deferred.getMessage());
+        try {
+            if (!jobService.deferJob(job, Instant.now().plus(deferred.getRetryAfter()))) {
+                logger.warn("Job {} was deferred but its claim was lost", job.getId());
+            }
+        } catch (Exception e) {
+            logger.error("Job {} could not be deferred: {}", job.getId(), e.getMessage(), e);
+        }
+    }
+
+    private void recordFailure(Job job, Throwable ex) {
+        logger.error("Job {} execution failed: {}", job.getId(), ex.getMessage(), ex);
+        if (meterRegistry != null) {
+            Counter.builder("jobs.failed.total")
+                    .description("Total failed job attempts")
+                    .tag("job_type", jobTypeTags.of(job.getJobType()))
+                    .tag("http_status", httpStatusOf(ex))
+                    .register(meterRegistry)
+                    .increment();
+        }
+        try {
+            JobStatus outcome = jobService.failJob(job, ex);
+            if (outcome == null) {
+                logger.warn("Job {} failed but its claim was lost; outcome not recorded", job.getId());
+            } else if (outcome == JobStatus.RETRY_SCHEDULED) {
+                logger.info("Job {} will be retried", job.getId());
+            }
+        } catch (Exception e) {
+            logger.error("Job {} failure could not be recorded: {}", job.getId(), e.getMessage(), e);
+        }
     }
 
-    @PreDestroy
+    private void recordExecution(Job job, long nanos, Throwable error) {
+        if (meterRegistry == null) {
+            return;
+        }
+        Timer.builder("jobs.execution.duration")
+                .description("Job execution duration")
+                .tag("job_type", jobTypeTags.of(job.getJobType()))
+                .tag("outcome", error == null ? "success" : "failure")
+                .tag("http_status", httpStatusOf(error))
+                .publishPercentiles(0.5, 0.95)
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    // "ok" for a successful attempt, the response code when an HTTP target answered with an error, "none" for any
+    // other failure (timeouts, connection errors, failures of other job types)
+    static String httpStatusOf(Throwable error) {
+        if (error == null) {
+            return "ok";
+        }
+        if (error instanceof RestClientResponseException response) {
+            return String.valueOf(response.getStatusCode().value());
+        }
+        return "none";
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
     public void stop() {
-        scheduler.shutdownNow();
+        running = false;
+
+        // consumers may be parked in BRPOP; interrupt them, then give in-flight jobs a grace period to finish
+        consumerPool.shutdownNow();
 
         try {
-            if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
-                logger.warn("Scheduler did not terminate within timeout");
+            // every job holds a permit until its outcome is recorded, so taking them all back waits for asynchronous
+            // calls too, which the pool cannot see: their tasks returned as soon as the request was sent
+            if (!inFlight.tryAcquire(maxInFlight, shutdownGraceMs, TimeUnit.MILLISECONDS)) {
+                logger.warn("In-flight jobs did not finish within {}ms; interrupting", shutdownGraceMs);
+            }
+            // jobs still running after the grace period are interrupted and left to the reaper once their lease lapses
+            leaseRenewer.shutdownNow();
+            executionPool.shutdownNow();
+            if (!consumerPool.awaitTermination(1, TimeUnit.SECONDS)) {
+                logger.warn("Consumer threads did not terminate within timeout");
             }
         } catch (InterruptedException ex) {
             Thread.currentThread().interrupt();
-            logger.warn("Interrupted while waiting for scheduler shutdown", ex);
+            logger.warn("Interrupted while waiting for worker shutdown", ex);
+            leaseRenewer.shutdownNow();
+            executionPool.shutdownNow();
         }
     }
 }
@@ -0,0 +1,48 @@
+package com.spencer.distributed_job_scheduler.handlers;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Delay before the adaptive poller's next pass. A full batch means more jobs are due, so the next
+ * pass runs at once; a partial batch resets the idle backoff to the minimum, and every empty pass
+ * doubles it up to the maximum. The delay never runs past the next known scheduledAt, so a job due
+ * soon is claimed on time without polling at that rate all the time.
+ * Not thread-safe; only the poller thread uses it.
+ */
+class PollPacer {
+
+    private final long minDelayMs;
+    private final long maxDelayMs;
+    private long idleDelayMs;
+
+    PollPacer(long minDelayMs, long maxDelayMs) {
+        if (minDelayMs < 1 || maxDelayMs < minDelayMs) {
+            throw new IllegalArgumentException("poller min-delay-ms must be at least 1 and max-delay-ms at least min-delay-ms");
+        }
+        this.minDelayMs = minDelayMs;
+        this.maxDelayMs = maxDelayMs;
+        this.idleDelayMs = minDelayMs;
+    }
+
+    // claimed is what the pass just took; nextDue is the earliest scheduledAt still waiting, or null if unknown
+    long nextDelayMs(int claimed, int batchSize, Instant nextDue, Instant now) {
+        if (claimed >= batchSize) {
+            idleDelayMs = minDelayMs;
+            return 0;
+        }
+        long delay;
+        if (claimed > 0) {
+            idleDelayMs = minDelayMs;
+            delay = minDelayMs;
+        } else {
+            delay = idleDelayMs;
+            idleDelayMs = Math.min(idleDelayMs * 2, maxDelayMs);
+        }
+        // an overdue nextDue is a job this node could not claim (capped tenant, another node's lock), not a reason to spin
+        if (nextDue != null && nextDue.isAfter(now)) {
+            delay = Math.min(delay, Duration.between(now, nextDue).toMillis());
+        }
+        return delay;
+    }
+}
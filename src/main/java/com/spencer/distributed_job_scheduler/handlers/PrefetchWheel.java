@@ -0,0 +1,117 @@
+package com.spencer.distributed_job_scheduler.handlers;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Prefetch stage between the poller and the work queues. The poller claims jobs due within the window
+ * ahead of time and parks them here; one thread advances a {@link TimingWheel} and hands the jobs that
+ * come due to the dispatcher at their scheduledAt, to within a tick, instead of at the next poll.
+ * Holds at most capacity jobs. Parked jobs are already QUEUED in the database, so if the node dies with
+ * jobs in the wheel the reaper recovers them like any lost push.
+ */
+class PrefetchWheel<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(PrefetchWheel.class);
+
+    private final TimingWheel<T> wheel;
+    private final int capacity;
+    private final Consumer<List<T>> dispatcher;
+    private final ExecutorService driver;
+    private final LongSupplier clock;
+
+    private volatile boolean running = true;
+    // when the driver next wakes up on its own; guarded by this
+    private long plannedWakeMs = Long.MAX_VALUE;
+
+    PrefetchWheel(long tickMs, long windowMs, int capacity, Consumer<List<T>> dispatcher) {
+        this(tickMs, windowMs, capacity, dispatcher, System::currentTimeMillis);
+    }
+
+    PrefetchWheel(long tickMs, long windowMs, int capacity, Consumer<List<T>> dispatcher, LongSupplier clock) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("scheduler.prefetch.capacity must be at least 1");
+        }
+        this.clock = clock;
+        this.wheel = new TimingWheel<>(tickMs, 64, windowMs, clock.getAsLong());
+        this.capacity = capacity;
+        this.dispatcher = dispatcher;
+        this.driver = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("job-prefetch-"));
+        driver.submit(this::drive);
+    }
+
+    synchronized int remainingCapacity() {
+        return capacity - wheel.size();
+    }
+
+    synchronized int size() {
+        return wheel.size();
+    }
+
+    // false if the wheel is full or fireAt is beyond the window; the caller keeps the job then
+    synchronized boolean offer(T item, Instant fireAt) {
+        // round sub-millisecond deadlines up so nothing is pushed before its scheduledAt
+        long fireAtMs = fireAt.toEpochMilli() + (fireAt.getNano() % 1_000_000 == 0 ? 0 : 1);
+        if (wheel.size() == 0) {
+            // the driver does not advance an empty wheel, so its clock may be far behind; the window is measured from now
+            wheel.advanceTo(clock.getAsLong(), none -> { });
+        }
+        if (!running || wheel.size() >= capacity || !wheel.add(item, fireAtMs)) {
+            return false;
+        }
+        if (fireAtMs < plannedWakeMs) {
+            notifyAll();
+        }
+        return true;
+    }
+
+    private void drive() {
+        while (running) {
+            List<T> fired = new ArrayList<>();
+            synchronized (this) {
+                long now = clock.getAsLong();
+                wheel.advanceTo(now, fired::add);
+                if (fired.isEmpty()) {
+                    plannedWakeMs = wheel.nextWakeMs();
+                    try {
+                        if (plannedWakeMs == Long.MAX_VALUE) {
+                            wait();
+                        } else if (plannedWakeMs > now) {
+                            wait(plannedWakeMs - now);
+                        }
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    continue;
+                }
+            }
+            try {
+                dispatcher.accept(fired);
+            } catch (Exception ex) {
+                logger.error("drive: failed to dispatch {} prefetched jobs: {}", fired.size(), ex.getMessage(), ex);
+            }
+        }
+    }
+
+    // stops the driver and returns the jobs that were still waiting, so the caller can release them
+    List<T> stop() {
+        List<T> pending = new ArrayList<>();
+        synchronized (this) {
+            running = false;
+            wheel.advanceTo(Long.MAX_VALUE / 2, pending::add);
+            notifyAll();
+        }
+        driver.shutdownNow();
+        return pending;
+    }
+}
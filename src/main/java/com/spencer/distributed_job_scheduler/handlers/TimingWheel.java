@@ -0,0 +1,151 @@
+package com.spencer.distributed_job_scheduler.handlers;
+
+import java.util.ArrayDeque;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel: level 0 has one bucket per tick, and each level above covers a whole
+ * revolution of the level below per bucket. Adding an item is O(1), and so is expiring one, apart from
+ * moving down once per level as its bucket on a higher level comes due. An item never fires before its
+ * deadline and at most one tick after it. Items are only accepted within the horizon the levels cover.
+ * Not thread-safe; PrefetchWheel guards it.
+ */
+class TimingWheel<T> {
+
+    private final long tickMs;
+    private final int wheelSize;
+    // ticks covered by one bucket on each level
+    private final long[] spans;
+    // buckets[level][slot], created on first use
+    private final ArrayDeque<Entry<T>>[][] buckets;
+    private final int[] levelSizes;
+
+    // the next tick to fire; everything due before it has fired
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    TimingWheel(long tickMs, int wheelSize, long horizonMs, long nowMs) {
+        if (tickMs < 1 || wheelSize < 2 || horizonMs < tickMs) {
+            throw new IllegalArgumentException("timing wheel needs tickMs >= 1, wheelSize >= 2 and horizonMs >= tickMs");
+        }
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        int levels = 1;
+        long covered = wheelSize;
+        // the top level must cover the horizon from anywhere within its current bucket
+        while (covered * tickMs < horizonMs * 2) {
+            covered *= wheelSize;
+            levels++;
+        }
+        this.spans = new long[levels];
+        long span = 1;
+        for (int level = 0; level < levels; level++) {
+            spans[level] = span;
+            span *= wheelSize;
+        }
+        this.buckets = new ArrayDeque[levels][wheelSize];
+        this.levelSizes = new int[levels];
+        this.currentTick = Math.floorDiv(nowMs, tickMs);
+    }
+
+    int size() {
+        return size;
+    }
+
+    // false if deadlineMs is beyond the horizon; a deadline already past fires on the next advance
+    boolean add(T item, long deadlineMs) {
+        long tick = Math.max(Math.floorDiv(deadlineMs + tickMs - 1, tickMs), currentTick);
+        if (!place(new Entry<>(item, tick))) {
+            return false;
+        }
+        size++;
+        return true;
+    }
+
+    // fires everything due at or before nowMs, in deadline order to within a tick
+    void advanceTo(long nowMs, Consumer<T> expired) {
+        long nowTick = Math.floorDiv(nowMs, tickMs);
+        while (currentTick <= nowTick) {
+            if (size == 0) {
+                currentTick = nowTick + 1;
+                return;
+            }
+            if (levelSizes[0] == 0) {
+                // nothing can fire before the next bucket on level 1 comes down, so skip straight to it
+                long boundary = Math.floorDiv(currentTick + wheelSize - 1, wheelSize) * wheelSize;
+                if (boundary > nowTick) {
+                    currentTick = nowTick + 1;
+                    return;
+                }
+                currentTick = boundary;
+            }
+            for (int level = spans.length - 1; level > 0; level--) {
+                if (currentTick % spans[level] == 0) {
+                    cascade(level, slotOf(currentTick, level));
+                }
+            }
+            ArrayDeque<Entry<T>> due = buckets[0][slotOf(currentTick, 0)];
+            while (due != null && !due.isEmpty()) {
+                Entry<T> entry = due.poll();
+                levelSizes[0]--;
+                size--;
+                expired.accept(entry.item);
+            }
+            currentTick++;
+        }
+    }
+
+    // when advanceTo next has something to do; Long.MAX_VALUE when empty
+    long nextWakeMs() {
+        if (size == 0) {
+            return Long.MAX_VALUE;
+        }
+        if (levelSizes[0] > 0) {
+            return currentTick * tickMs;
+        }
+        return Math.floorDiv(currentTick + wheelSize - 1, wheelSize) * wheelSize * tickMs;
+    }
+
+    private void cascade(int level, int slot) {
+        ArrayDeque<Entry<T>> bucket = buckets[level][slot];
+        if (bucket == null || bucket.isEmpty()) {
+            return;
+        }
+        buckets[level][slot] = null;
+        levelSizes[level] -= bucket.size();
+        // every entry lands on a lower level: its bucket starts at currentTick
+        for (Entry<T> entry : bucket) {
+            place(entry);
+        }
+    }
+
+    private boolean place(Entry<T> entry) {
+        for (int level = 0; level < spans.length; level++) {
+            if (entry.tick / spans[level] - currentTick / spans[level] < wheelSize) {
+                int slot = slotOf(entry.tick, level);
+                if (buckets[level][slot] == null) {
+                    buckets[level][slot] = new ArrayDeque<>();
+                }
+                buckets[level][slot].add(entry);
+                levelSizes[level]++;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int slotOf(long tick, int level) {
+        return (int) ((tick / spans[level]) % wheelSize);
+    }
+
+    private static final class Entry<T> {
+        private final T item;
+        private final long tick;
+
+        private Entry(T item, long tick) {
+            this.item = item;
+            this.tick = tick;
+        }
+    }
+}
@@ -14,10 +14,23 @@ import java.util.UUID;
 @ToString(exclude = "payload")
 @Entity
 @Table(name = "jobs", indexes = {
-        @Index(name = "idx_jobs_status_scheduled", columnList = "status, scheduled_at")
+        @Index(name = "idx_jobs_status_scheduled", columnList = "status, scheduled_at"),
+        @Index(name = "idx_jobs_status_priority_scheduled", columnList = "status, priority, scheduled_at"),
+        @Index(name = "idx_jobs_status_lease", columnList = "status, lease_expires_at"),
+        @Index(name = "idx_jobs_status_finished", columnList = "status, finished_at"),
+        @Index(name = "idx_jobs_partition_status_priority_scheduled", columnList = "partition_id, status, priority, scheduled_at"),
+        @Index(name = "idx_jobs_status_tenant_priority_scheduled", columnList = "status, tenant_id, priority, scheduled_at")
 })
 public class Job {
 
+    // fixed hash space for partitioned polling; changing it requires re-bucketing existing rows
+    public static final int PARTITION_COUNT = 32;
+
+    // owner of jobs submitted without a tenant
+    public static final String DEFAULT_TENANT = "default";
+
+    public static final int MAX_TENANT_LENGTH = 64;
+
     @Id
     @Setter(AccessLevel.NONE)
     @Column(columnDefinition = "uuid")
@@ -36,9 +49,25 @@ public class Job {
     @Column(name = "scheduled_at", nullable = false)
     private Instant scheduledAt;
 
+    // each level gets its weighted share of every claim batch, and workers prefer higher levels the same way.
+    // Rows stored before priorities are backfilled to NORMAL, which is also the column default
+    @Enumerated(EnumType.ORDINAL)
+    @Column(name = "priority")
+    private JobPriority priority;
+
+    // submitter the job is dispatched on behalf of; the claim path shares capacity fairly between tenants
+    @Column(name = "tenant_id", length = MAX_TENANT_LENGTH)
+    private String tenantId;
+
     @Column(name = "started_at")
     private Instant startedAt;
 
+    // when the current (or last) attempt was claimed into the work queue; null if it was started without
+    // being queued, e.g. delivered by the delayed queue. Written by the claim and cleared when the job goes
+    // back to be claimed again; startedAt stays null until the job is RUNNING.
+    @Column(name = "queued_at")
+    private Instant queuedAt;
+
     @Column(name = "finished_at")
     private Instant finishedAt;
 
@@ -48,6 +77,34 @@ public class Job {
     @Column(name = "claimed_by")
     private String claimedBy;
 
+    // the queue lease while a job is QUEUED, then the run lease, renewed while it runs; a QUEUED or RUNNING job
+    // past this instant is presumed orphaned
+    @Column(name = "lease_expires_at")
+    private Instant leaseExpiresAt;
+
+    // derived from the id on insert so each scheduler node can claim its own slice of the table
+    @Column(name = "partition_id")
+    @Setter(AccessLevel.NONE)
+    private Integer partitionId;
+
+    @Embedded
+    private RetryPolicy retryPolicy;
+
+    // executions started so far, counted when a worker wins the start transition
+    @Column(name = "attempts")
+    private Integer attempts;
+
+    // when a RETRY_SCHEDULED job runs again; the same instant is written to scheduledAt so the normal claim path picks it up
+    @Column(name = "next_attempt_at")
+    private Instant nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    // the RecurringJob this job is an occurrence of, if any
+    @Column(name = "recurring_job_id", columnDefinition = "uuid")
+    private UUID recurringJobId;
+
     @Version
     @Setter(AccessLevel.NONE)
     private Long version;
@@ -55,8 +112,46 @@ public class Job {
     @PrePersist
     private void ensureId() {
         if (this.id == null) {
-            this.id = UUID.randomUUID();
+            // time-ordered so inserts append to the primary-key index instead of scattering across it
+            this.id = TimeOrderedUuid.generate();
+        }
+        this.partitionId = partitionOf(this.id);
+        if (this.priority == null) {
+            this.priority = JobPriority.NORMAL;
+        }
+        if (this.tenantId == null) {
+            this.tenantId = DEFAULT_TENANT;
+        }
+    }
+
+    // detached copy a worker executes from a JobMessage; never persisted
+    static Job started(UUID id, long version, String jobType, String payload, String claimedBy, Instant startedAt) {
+        Job job = new Job();
+        job.id = id;
+        job.version = version;
+        job.partitionId = partitionOf(id);
+        job.status = JobStatus.RUNNING;
+        job.jobType = jobType;
+        job.payload = payload;
+        job.claimedBy = claimedBy;
+        job.startedAt = startedAt;
+        return job;
+    }
+
+    // submitted tenant -> stored tenant; unset means the default tenant
+    public static String tenantOf(String tenantId) {
+        if (tenantId == null) {
+            return DEFAULT_TENANT;
         }
+        String trimmed = tenantId.trim();
+        if (trimmed.isEmpty() || trimmed.length() > MAX_TENANT_LENGTH) {
+            throw new IllegalArgumentException("tenantId must be 1 to " + MAX_TENANT_LENGTH + " characters");
+        }
+        return trimmed;
+    }
+
+    public static int partitionOf(UUID id) {
+        return Math.floorMod(id.hashCode(), PARTITION_COUNT);
     }
 
     // helper for extracting real class when proxy is involved
@@ -0,0 +1,73 @@
+package com.spencer.distributed_job_scheduler.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Self-contained work-queue entry carrying everything a worker needs to execute a claimed job, so
+ * Postgres is only touched to start and finish it. Encoded as newline-separated fields behind a
+ * format tag; the payload goes last so it may contain any character. Entries without the tag are
+ * bare job ids, which workers still accept.
+ */
+@Getter
+@RequiredArgsConstructor
+public class JobMessage {
+
+    private static final String FORMAT_V1 = "J1";
+    private static final int FIELDS = 6;
+
+    private final UUID id;
+
+    // row version at claim time; the worker's start only succeeds if the row has not changed since
+    private final long version;
+
+    private final String jobType;
+
+    // the claim's lease expiry; past it the reaper may already have requeued the job
+    private final Instant deadline;
+
+    private final String payload;
+
+    public static JobMessage of(Job job) {
+        return new JobMessage(job.getId(), job.getVersion(), job.getJobType(), job.getLeaseExpiresAt(), job.getPayload());
+    }
+
+    public String encode() {
+        return String.join("\n",
+                FORMAT_V1,
+                id.toString(),
+                Long.toString(version),
+                jobType,
+                deadline == null ? "" : Long.toString(deadline.toEpochMilli()),
+                payload == null ? "" : payload);
+    }
+
+    // null when raw is not a tagged message (a bare id); throws IllegalArgumentException when it is malformed
+    public static JobMessage decode(String raw) {
+        if (!raw.startsWith(FORMAT_V1 + "\n")) {
+            return null;
+        }
+        String[] fields = raw.split("\n", FIELDS);
+        if (fields.length != FIELDS) {
+            throw new IllegalArgumentException("Expected " + FIELDS + " fields in job message but found " + fields.length);
+        }
+        return new JobMessage(
+                UUID.fromString(fields[1]),
+                Long.parseLong(fields[2]),
+                fields[3],
+                fields[4].isEmpty() ? null : Instant.ofEpochMilli(Long.parseLong(fields[4])),
+                fields[5].isEmpty() ? null : fields[5]);
+    }
+
+    public boolean isExpired(Instant now) {
+        return deadline != null && now.isAfter(deadline);
+    }
+
+    // the job as it looks after a successful start, without loading the row
+    public Job toStartedJob(String claimedBy, Instant startedAt) {
+        return Job.started(id, version + 1, jobType, payload, claimedBy, startedAt);
+    }
+}
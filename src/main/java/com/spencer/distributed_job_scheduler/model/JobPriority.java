@@ -0,0 +1,8 @@
+package com.spencer.distributed_job_scheduler.model;
+
+// stored by ordinal, so declaration order is claim order; only ever append new levels
+public enum JobPriority {
+    HIGH,
+    NORMAL,
+    LOW
+}
@@ -2,7 +2,10 @@ package com.spencer.distributed_job_scheduler.model;
 
 public enum JobStatus {
     PENDING,
+    QUEUED,
     RUNNING,
     COMPLETED,
-    FAILED
+    FAILED,
+    // a failed attempt waiting for its backoff; claimed like PENDING once scheduledAt is due
+    RETRY_SCHEDULED
 }
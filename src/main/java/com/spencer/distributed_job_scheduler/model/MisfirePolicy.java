@@ -0,0 +1,9 @@
+package com.spencer.distributed_job_scheduler.model;
+
+// what a recurring job does about fire times that passed while its occurrence was waiting (downtime, backlog)
+public enum MisfirePolicy {
+    // the late occurrence stands in for every missed one; the next occurrence is the first fire time in the future
+    FIRE_ONCE,
+    // every missed fire time gets its own occurrence, one after another
+    CATCH_UP
+}
@@ -0,0 +1,87 @@
+package com.spencer.distributed_job_scheduler.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A cron or fixed-rate schedule. Only its next occurrence exists as a row in jobs; the one after
+ * is materialized when that occurrence is claimed, so a definition never costs more than one
+ * PENDING row however often it fires.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString(exclude = "payload")
+@Entity
+@Table(name = "recurring_jobs", indexes = {
+        @Index(name = "idx_recurring_jobs_current_job", columnList = "current_job_id", unique = true)
+})
+public class RecurringJob {
+
+    @Id
+    @Setter(AccessLevel.NONE)
+    @Column(columnDefinition = "uuid")
+    private UUID id;
+
+    @Column(name = "job_type", nullable = false)
+    private String jobType;
+
+    @Column(name = "payload", columnDefinition = "text")
+    private String payload;
+
+    // Spring cron syntax (seconds first); five-field Unix expressions are accepted and fire at second 0
+    @Column(name = "cron_expression")
+    private String cronExpression;
+
+    // alternative to cronExpression: fire every fixedRateMs after the first fire time
+    @Column(name = "fixed_rate_ms")
+    private Long fixedRateMs;
+
+    // zone cron expressions are evaluated in; defaults to UTC
+    @Column(name = "time_zone")
+    private String timeZone;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "misfire_policy", nullable = false)
+    private MisfirePolicy misfirePolicy;
+
+    // copied to every occurrence
+    @Embedded
+    private RetryPolicy retryPolicy;
+
+    // copied to every occurrence
+    @Column(name = "tenant_id", length = Job.MAX_TENANT_LENGTH)
+    private String tenantId;
+
+    // copied to every occurrence; null means NORMAL
+    @Enumerated(EnumType.ORDINAL)
+    @Column(name = "priority")
+    private JobPriority priority;
+
+    // the occurrence waiting to be claimed; null once the schedule has no further fire times
+    @Column(name = "current_job_id", columnDefinition = "uuid")
+    private UUID currentJobId;
+
+    // scheduledAt of the current occurrence
+    @Column(name = "next_fire_at")
+    private Instant nextFireAt;
+
+    @Column(name = "last_fired_at")
+    private Instant lastFiredAt;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @PrePersist
+    private void ensureId() {
+        if (this.id == null) {
+            this.id = TimeOrderedUuid.generate();
+        }
+        if (this.createdAt == null) {
+            this.createdAt = Instant.now();
+        }
+    }
+}
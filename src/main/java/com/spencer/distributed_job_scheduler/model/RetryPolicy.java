@@ -0,0 +1,30 @@
+package com.spencer.distributed_job_scheduler.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.Data;
+
+// per-job retry settings; any field left null falls back to the scheduler.retry.* defaults
+@Data
+@Embeddable
+public class RetryPolicy {
+
+    // total attempts including the first; 1 disables retries
+    @Column(name = "retry_max_attempts")
+    private Integer maxAttempts;
+
+    // delay before the first retry, doubled for each further attempt up to backoffCapMs
+    @Column(name = "retry_backoff_base_ms")
+    private Long backoffBaseMs;
+
+    @Column(name = "retry_backoff_cap_ms")
+    private Long backoffCapMs;
+
+    // fraction of each delay that is randomized, 0 (none) to 1 (full jitter)
+    @Column(name = "retry_jitter")
+    private Double jitter;
+
+    // HTTP statuses worth retrying, e.g. "408,429,500-599"
+    @Column(name = "retry_statuses")
+    private String retryableStatuses;
+}
@@ -0,0 +1,41 @@
+package com.spencer.distributed_job_scheduler.model;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+
+/**
+ * RFC 9562 version 7 UUIDs: a 48-bit unix millisecond timestamp followed by random bits. Ids minted
+ * close together sort close together, so primary-key inserts land on the right edge of the index
+ * instead of splitting random pages across the whole B-tree.
+ */
+public final class TimeOrderedUuid {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private TimeOrderedUuid() {
+    }
+
+    public static UUID generate() {
+        return fromEpochMilli(System.currentTimeMillis());
+    }
+
+    static UUID fromEpochMilli(long epochMilli) {
+        byte[] random = new byte[10];
+        RANDOM.nextBytes(random);
+
+        long randA = ((random[0] & 0x0FL) << 8) | (random[1] & 0xFFL);
+        long msb = (epochMilli & 0xFFFF_FFFF_FFFFL) << 16 | 0x7000L | randA;
+
+        long lsb = 0;
+        for (int i = 2; i < 10; i++) {
+            lsb = (lsb << 8) | (random[i] & 0xFFL);
+        }
+        // variant 10xx
+        lsb = (lsb & 0x3FFF_FFFF_FFFF_FFFFL) | 0x8000_0000_0000_0000L;
+        return new UUID(msb, lsb);
+    }
+
+    public static long epochMilliOf(UUID id) {
+        return id.getMostSignificantBits() >>> 16;
+    }
+}
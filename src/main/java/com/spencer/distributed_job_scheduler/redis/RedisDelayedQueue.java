@@ -0,0 +1,111 @@
+package com.spencer.distributed_job_scheduler.redis;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Sorted set of job ids scored by their scheduledAt epoch millis. Due members are moved to the
+ * work queue by a Lua script, so dispatch never has to scan Postgres. The database remains the
+ * source of truth; members lost from Redis are restored by the reconciliation sweep. Members carry
+ * no priority, so everything promoted from here is dispatched at NORMAL.
+ */
+@Component
+public class RedisDelayedQueue {
+
+    public static final String DELAYED_KEY = "scheduler:delayed";
+
+    // when each member was last promoted, so the reconciliation sweep can tell a job still waiting in the work
+    // queue from one that is really missing; trimmed by age on every promote
+    public static final String PROMOTED_KEY = "scheduler:promoted";
+
+    // ZREM + LPUSH in one atomic step so a member is never in both structures or in neither; the same step
+    // records the promotion time
+    private static final String PROMOTE_SCRIPT =
+            "redis.call('zremrangebyscore', KEYS[3], '-inf', '(' .. ARGV[3]) "
+            + "local due = redis.call('zrangebyscore', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, ARGV[2]) "
+            + "if #due == 0 then return 0 end "
+            + "redis.call('zrem', KEYS[1], unpack(due)) "
+            + "redis.call('lpush', KEYS[2], unpack(due)) "
+            + "local marks = {} "
+            + "for i, id in ipairs(due) do marks[2 * i - 1] = ARGV[1]; marks[2 * i] = id end "
+            + "redis.call('zadd', KEYS[3], unpack(marks)) "
+            + "return #due";
+
+    private final StringRedisTemplate redis;
+    private final DefaultRedisScript<Long> promoteScript = new DefaultRedisScript<>(PROMOTE_SCRIPT, Long.class);
+
+    private final boolean enabled;
+    // a promotion older than this is forgotten, so a job lost after promotion is re-added eventually
+    private final long promotedTtlMs;
+
+    public RedisDelayedQueue(StringRedisTemplate redis,
+                             @Value("${scheduler.delayed-queue.enabled:false}") boolean enabled,
+                             @Value("${scheduler.delayed-queue.promoted-ttl-ms:600000}") long promotedTtlMs) {
+        this.redis = redis;
+        this.enabled = enabled;
+        this.promotedTtlMs = promotedTtlMs;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void schedule(UUID id, Instant scheduledAt) {
+        redis.opsForZSet().add(DELAYED_KEY, id.toString(), scheduledAt.toEpochMilli());
+    }
+
+    // single ZADD for the whole map; re-adding an existing member only updates its score
+    public void scheduleAll(Map<UUID, Instant> jobs) {
+        if (jobs.isEmpty()) {
+            return;
+        }
+        Set<ZSetOperations.TypedTuple<String>> tuples = jobs.entrySet().stream()
+                .map(e -> (ZSetOperations.TypedTuple<String>) new DefaultTypedTuple<>(e.getKey().toString(), (double) e.getValue().toEpochMilli()))
+                .collect(Collectors.toSet());
+        redis.opsForZSet().add(DELAYED_KEY, tuples);
+    }
+
+    // score of the earliest member, due or not; empty when the set is empty
+    public Optional<Instant> nextDueAt() {
+        Set<ZSetOperations.TypedTuple<String>> first = redis.opsForZSet().rangeWithScores(DELAYED_KEY, 0, 0);
+        if (first == null || first.isEmpty()) {
+            return Optional.empty();
+        }
+        Double score = first.iterator().next().getScore();
+        return score == null ? Optional.empty() : Optional.of(Instant.ofEpochMilli(score.longValue()));
+    }
+
+    // moves up to limit members due at or before now onto the work queue; returns how many moved
+    public int promoteDue(Instant now, int limit) {
+        Long moved = redis.execute(promoteScript, List.of(DELAYED_KEY, WorkQueues.NORMAL, PROMOTED_KEY),
+                String.valueOf(now.toEpochMilli()), String.valueOf(limit), String.valueOf(now.toEpochMilli() - promotedTtlMs));
+        return moved == null ? 0 : moved.intValue();
+    }
+
+    // last promotion time of each id, in order; null where the id has not been promoted within the TTL
+    public List<Instant> promotedAt(List<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<Double> scores = redis.opsForZSet().score(PROMOTED_KEY, ids.stream().map(UUID::toString).toArray());
+        List<Instant> promoted = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            Double score = scores == null ? null : scores.get(i);
+            promoted.add(score == null ? null : Instant.ofEpochMilli(score.longValue()));
+        }
+        return promoted;
+    }
+}
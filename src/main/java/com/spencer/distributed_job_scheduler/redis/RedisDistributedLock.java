@@ -7,6 +7,7 @@ import org.springframework.stereotype.Component;
 
 import java.time.Duration;
 import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 
 @Component
@@ -16,7 +17,19 @@ public class RedisDistributedLock {
     private final StringRedisTemplate redis;
     private static final String RELEASE_SCRIPT =
             "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end";
+    // compare-and-extend: only the current holder may push the expiry out
+    private static final String EXTEND_SCRIPT =
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('pexpire', KEYS[1], ARGV[2]) else return 0 end";
+    // acquire and bump the fencing counter atomically, so every successful acquisition gets a strictly larger token
+    private static final String ACQUIRE_FENCED_SCRIPT =
+            "if redis.call('set', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2]) then return redis.call('incr', KEYS[2]) else return 0 end";
+    // raise the fencing counter to at least ARGV[1], e.g. after Redis lost it and restarted from 0
+    private static final String RAISE_FENCE_SCRIPT =
+            "if tonumber(redis.call('get', KEYS[1]) or '0') < tonumber(ARGV[1]) then redis.call('set', KEYS[1], ARGV[1]) end return 0";
     private final DefaultRedisScript<Long> releaseScript = new DefaultRedisScript<>(RELEASE_SCRIPT, Long.class);
+    private final DefaultRedisScript<Long> extendScript = new DefaultRedisScript<>(EXTEND_SCRIPT, Long.class);
+    private final DefaultRedisScript<Long> acquireFencedScript = new DefaultRedisScript<>(ACQUIRE_FENCED_SCRIPT, Long.class);
+    private final DefaultRedisScript<Long> raiseFenceScript = new DefaultRedisScript<>(RAISE_FENCE_SCRIPT, Long.class);
 
     public String tryAcquire(String key, Duration ttl) {
         String token = UUID.randomUUID().toString();
@@ -28,4 +41,20 @@ public class RedisDistributedLock {
         Long res = redis.execute(releaseScript, Collections.singletonList(key), token);
         return res != null && res > 0;
     }
+
+    public boolean tryExtend(String key, String token, Duration ttl) {
+        Long res = redis.execute(extendScript, Collections.singletonList(key), token, String.valueOf(ttl.toMillis()));
+        return res != null && res > 0;
+    }
+
+    // returns the fencing token for this acquisition, or 0 if the lock is held by someone else
+    public long tryAcquireFenced(String key, String token, Duration ttl) {
+        Long fence = redis.execute(acquireFencedScript, List.of(key, key + ":fence"), token, String.valueOf(ttl.toMillis()));
+        return fence == null ? 0 : fence;
+    }
+
+    // the next tryAcquireFenced on key returns more than atLeast
+    public void raiseFence(String key, long atLeast) {
+        redis.execute(raiseFenceScript, List.of(key + ":fence"), String.valueOf(atLeast));
+    }
 }
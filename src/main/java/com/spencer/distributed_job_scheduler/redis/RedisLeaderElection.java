@@ -0,0 +1,137 @@
+package com.spencer.distributed_job_scheduler.redis;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Long-lived leadership over a single role, held as a lease on a {@link RedisDistributedLock} key.
+ * The leader extends the lease every ttl/3 with compare-and-extend, so it holds the role continuously
+ * instead of re-acquiring it. Followers retry at the same cadence and take over within one ttl if the
+ * leader disappears, or immediately if it steps down via {@link #close()}.
+ *
+ * Each acquisition yields a fencing token larger than any earlier one. Downstream writes carry the
+ * token so a stale leader that was paused past its lease can be rejected; a leader that learns it was
+ * fenced off calls {@link #resign(long)}.
+ */
+public class RedisLeaderElection implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisLeaderElection.class);
+
+    public interface Listener {
+        // called on the election thread whenever leadership is gained or lost
+        void onLeadershipChange(boolean leader, long fencingToken);
+    }
+
+    private final RedisDistributedLock lock;
+    private final String key;
+    private final Duration ttl;
+    private final Listener listener;
+    private final String token = UUID.randomUUID().toString();
+    private final ScheduledExecutorService elector;
+
+    private volatile boolean leader;
+    private volatile long fencingToken;
+    // local deadline after which we stop acting as leader even if Redis could not be reached to confirm
+    private volatile long leaseDeadlineNanos;
+
+    public RedisLeaderElection(RedisDistributedLock lock, String key, Duration ttl, Listener listener) {
+        this.lock = lock;
+        this.key = key;
+        this.ttl = ttl;
+        this.listener = listener;
+        this.elector = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("leader-" + key + "-"));
+    }
+
+    public void start() {
+        long interval = Math.max(ttl.toMillis() / 3, 1);
+        elector.scheduleWithFixedDelay(this::tick, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isLeader() {
+        return leader && System.nanoTime() < leaseDeadlineNanos;
+    }
+
+    public long getFencingToken() {
+        return fencingToken;
+    }
+
+    private void tick() {
+        // measured before the round trip so the local deadline never outlives the Redis expiry
+        long attemptNanos = System.nanoTime();
+        try {
+            if (leader) {
+                if (lock.tryExtend(key, token, ttl)) {
+                    leaseDeadlineNanos = attemptNanos + ttl.toNanos();
+                } else {
+                    changeLeadership(false, fencingToken);
+                }
+            } else {
+                long fence = lock.tryAcquireFenced(key, token, ttl);
+                if (fence > 0) {
+                    leaseDeadlineNanos = attemptNanos + ttl.toNanos();
+                    changeLeadership(true, fence);
+                }
+            }
+        } catch (Exception ex) {
+            logger.warn("Leader election for {} failed: {}", key, ex.getMessage());
+            if (leader && System.nanoTime() >= leaseDeadlineNanos) {
+                changeLeadership(false, fencingToken);
+            }
+        }
+    }
+
+    private void changeLeadership(boolean nowLeader, long fence) {
+        leader = nowLeader;
+        fencingToken = fence;
+        logger.info("{} leadership of {} (fencingToken={})", nowLeader ? "Acquired" : "Lost", key, fence);
+        try {
+            listener.onLeadershipChange(nowLeader, fence);
+        } catch (Exception ex) {
+            logger.error("Leadership listener for {} failed: {}", key, ex.getMessage(), ex);
+        }
+    }
+
+    // steps down after a write was refused because newestToken is recorded downstream. The fencing counter is
+    // raised to it first, so the next acquisition outranks it even if Redis lost the counter. Keeps competing.
+    public void resign(long newestToken) {
+        elector.execute(() -> {
+            try {
+                lock.raiseFence(key, newestToken);
+                if (leader) {
+                    lock.release(key, token);
+                }
+            } catch (Exception ex) {
+                logger.warn("Could not resign leadership of {}: {}", key, ex.getMessage());
+            }
+            if (leader) {
+                changeLeadership(false, fencingToken);
+            }
+        });
+    }
+
+    // steps down and frees the key so a follower can take over without waiting for the ttl
+    @Override
+    public void close() {
+        elector.shutdownNow();
+        try {
+            elector.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+        if (leader) {
+            try {
+                lock.release(key, token);
+            } catch (Exception ex) {
+                logger.warn("Could not release leadership of {}: {}", key, ex.getMessage());
+            }
+            changeLeadership(false, fencingToken);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.spencer.distributed_job_scheduler.redis;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spreads a fixed set of partitions across the live scheduler nodes. Every node heartbeats into a
+ * membership sorted set, derives its fair share as ceil(partitions / liveNodes), and holds that many
+ * partitions as leases on per-partition {@link RedisDistributedLock} keys. Nodes above their share
+ * release the surplus, nodes below it pick up free partitions, so ownership converges as nodes join
+ * or leave and a dead node's partitions become free within one ttl.
+ */
+public class RedisPartitionAssigner implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisPartitionAssigner.class);
+    private static final String NODES_KEY = "scheduler:partition:nodes";
+    private static final String LOCK_PREFIX = "scheduler:lock:partition:";
+
+    private final StringRedisTemplate redis;
+    private final RedisDistributedLock lock;
+    private final int partitionCount;
+    private final Duration ttl;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ScheduledExecutorService rebalancer =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("partition-rebalancer-"));
+
+    // partition -> lock token, plus the local deadline after which we stop claiming from it
+    private final Map<Integer, String> tokens = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> deadlines = new ConcurrentHashMap<>();
+
+    public RedisPartitionAssigner(StringRedisTemplate redis, RedisDistributedLock lock, int partitionCount, Duration ttl) {
+        this.redis = redis;
+        this.lock = lock;
+        this.partitionCount = partitionCount;
+        this.ttl = ttl;
+    }
+
+    public void start() {
+        long interval = Math.max(ttl.toMillis() / 3, 1);
+        rebalancer.scheduleWithFixedDelay(this::rebalance, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean owns(int partition) {
+        Long deadline = deadlines.get(partition);
+        return deadline != null && System.nanoTime() < deadline;
+    }
+
+    // partitions this node may claim from right now, in random order so no partition is always served first
+    public List<Integer> ownedPartitions() {
+        long now = System.nanoTime();
+        List<Integer> owned = new ArrayList<>();
+        deadlines.forEach((partition, deadline) -> {
+            if (now < deadline) owned.add(partition);
+        });
+        Collections.shuffle(owned);
+        return owned;
+    }
+
+    private void rebalance() {
+        long attemptNanos = System.nanoTime();
+        try {
+            long nowMillis = System.currentTimeMillis();
+            redis.opsForZSet().add(NODES_KEY, nodeId, nowMillis);
+            redis.opsForZSet().removeRangeByScore(NODES_KEY, 0, nowMillis - ttl.toMillis());
+            Long live = redis.opsForZSet().zCard(NODES_KEY);
+            int liveNodes = live == null || live < 1 ? 1 : live.intValue();
+            int fairShare = (partitionCount + liveNodes - 1) / liveNodes;
+
+            // keep what we have
+            for (Integer partition : List.copyOf(tokens.keySet())) {
+                if (lock.tryExtend(LOCK_PREFIX + partition, tokens.get(partition), ttl)) {
+                    deadlines.put(partition, attemptNanos + ttl.toNanos());
+                } else {
+                    logger.info("Lost partition {}", partition);
+                    drop(partition);
+                }
+            }
+
+            // hand back the surplus so newly joined nodes can pick it up
+            List<Integer> owned = new ArrayList<>(tokens.keySet());
+            Collections.shuffle(owned);
+            for (int i = 0; owned.size() - i > fairShare; i++) {
+                int partition = owned.get(i);
+                lock.release(LOCK_PREFIX + partition, tokens.get(partition));
+                drop(partition);
+                logger.info("Released partition {} (fairShare={}, liveNodes={})", partition, fairShare, liveNodes);
+            }
+
+            // take free partitions up to our share, starting at a random offset to avoid every node racing for the same key
+            int offset = ThreadLocalRandom.current().nextInt(partitionCount);
+            for (int i = 0; i < partitionCount && tokens.size() < fairShare; i++) {
+                int partition = (offset + i) % partitionCount;
+                if (tokens.containsKey(partition)) {
+                    continue;
+                }
+                String token = lock.tryAcquire(LOCK_PREFIX + partition, ttl);
+                if (token != null) {
+                    tokens.put(partition, token);
+                    deadlines.put(partition, attemptNanos + ttl.toNanos());
+                    logger.info("Acquired partition {} (fairShare={}, liveNodes={})", partition, fairShare, liveNodes);
+                }
+            }
+        } catch (Exception ex) {
+            logger.warn("Partition rebalance failed: {}", ex.getMessage());
+        }
+    }
+
+    private void drop(int partition) {
+        tokens.remove(partition);
+        deadlines.remove(partition);
+    }
+
+    // leave the cluster and free every partition so the remaining nodes can take over immediately
+    @Override
+    public void close() {
+        rebalancer.shutdownNow();
+        try {
+            rebalancer.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            tokens.forEach((partition, token) -> lock.release(LOCK_PREFIX + partition, token));
+            redis.opsForZSet().remove(NODES_KEY, nodeId);
+        } catch (Exception ex) {
+            logger.warn("Could not release partitions on shutdown: {}", ex.getMessage());
+        }
+        tokens.clear();
+        deadlines.clear();
+    }
+}
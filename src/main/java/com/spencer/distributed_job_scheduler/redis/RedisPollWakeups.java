@@ -0,0 +1,114 @@
+package com.spencer.distributed_job_scheduler.redis;
+
+import com.spencer.distributed_job_scheduler.model.Job;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+
+/**
+ * Pub/sub channel that tells adaptive pollers a job was written with a scheduledAt sooner than they
+ * may be planning to look. The message is the epoch millis of that scheduledAt followed by the
+ * partitions of the announced jobs, e.g. {@code 1767225600000,3,17}; a subscriber only hears about
+ * wakeups for partitions it would claim from, so the other nodes do not all run a pass that finds
+ * nothing. A message without partitions is for everyone. Only jobs due within the poller's max delay
+ * are announced; anything later is found by an ordinary backoff pass first. Delivery is best effort:
+ * a lost message only delays the job until the next pass.
+ */
+@Component
+public class RedisPollWakeups {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisPollWakeups.class);
+
+    public static final String CHANNEL = "scheduler:poller:wakeup";
+
+    private final StringRedisTemplate redis;
+    private final boolean enabled;
+    private final Duration horizon;
+
+    public RedisPollWakeups(StringRedisTemplate redis,
+                            @Value("${scheduler.poller.adaptive.enabled:false}") boolean enabled,
+                            @Value("${scheduler.poller.adaptive.max-delay-ms:5000}") long maxDelayMs) {
+        this.redis = redis;
+        this.enabled = enabled;
+        this.horizon = Duration.ofMillis(maxDelayMs);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void announce(Instant scheduledAt, int partition) {
+        if (!enabled || scheduledAt == null || scheduledAt.isAfter(Instant.now().plus(horizon))) {
+            return;
+        }
+        publish(scheduledAt, List.of(partition));
+    }
+
+    // one wakeup for the batch, at the earliest due time, naming the partitions of every job due within the horizon
+    public void announce(Collection<Job> jobs) {
+        if (!enabled) {
+            return;
+        }
+        Instant cutoff = Instant.now().plus(horizon);
+        Instant earliest = null;
+        Set<Integer> partitions = new TreeSet<>();
+        for (Job job : jobs) {
+            Instant scheduledAt = job.getScheduledAt();
+            if (scheduledAt != null && !scheduledAt.isAfter(cutoff)) {
+                earliest = earliest == null || scheduledAt.isBefore(earliest) ? scheduledAt : earliest;
+                partitions.add(Job.partitionOf(job.getId()));
+            }
+        }
+        if (earliest != null) {
+            publish(earliest, partitions);
+        }
+    }
+
+    private void publish(Instant scheduledAt, Collection<Integer> partitions) {
+        StringBuilder message = new StringBuilder().append(scheduledAt.toEpochMilli());
+        partitions.forEach(partition -> message.append(',').append(partition));
+        try {
+            redis.convertAndSend(CHANNEL, message.toString());
+        } catch (Exception ex) {
+            logger.warn("announce: poller wakeup for {} not published: {}", scheduledAt, ex.getMessage());
+        }
+    }
+
+    // listener runs on the container's thread and only for wakeups naming a partition claims accepts;
+    // close the returned container to unsubscribe
+    public RedisMessageListenerContainer subscribe(IntPredicate claims, Consumer<Instant> listener) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redis.getRequiredConnectionFactory());
+        container.addMessageListener((message, pattern) -> {
+            try {
+                String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split(",");
+                boolean wanted = parts.length == 1;
+                for (int i = 1; i < parts.length && !wanted; i++) {
+                    wanted = claims.test(Integer.parseInt(parts[i]));
+                }
+                if (wanted) {
+                    listener.accept(Instant.ofEpochMilli(Long.parseLong(parts[0])));
+                }
+            } catch (NumberFormatException ex) {
+                logger.warn("subscribe: ignoring malformed poller wakeup: {}", ex.getMessage());
+            }
+        }, new ChannelTopic(CHANNEL));
+        container.afterPropertiesSet();
+        container.start();
+        return container;
+    }
+}
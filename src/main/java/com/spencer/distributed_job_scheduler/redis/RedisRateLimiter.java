@@ -0,0 +1,103 @@
+package com.spencer.distributed_job_scheduler.redis;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Cluster-wide token buckets kept in Redis hashes and refilled lazily by a Lua script using the
+ * Redis clock, so every node draws from the same bucket regardless of local clock skew. To keep
+ * Redis off the per-job path each node takes a small batch of permits at once and hands them out
+ * locally; permits not used within the prefetch window are dropped, so prefetching can only lower
+ * the achieved rate, never exceed the limit. After a denial the node stops asking until the
+ * bucket can have refilled.
+ */
+@Component
+public class RedisRateLimiter {
+
+    private static final String KEY_PREFIX = "scheduler:ratelimit:";
+
+    // refill from the elapsed time, grant up to ARGV[3] whole tokens, and report the wait for one token when empty
+    private static final String ACQUIRE_SCRIPT =
+            "local rate = tonumber(ARGV[1]) "
+            + "local burst = tonumber(ARGV[2]) "
+            + "local want = tonumber(ARGV[3]) "
+            + "local t = redis.call('time') "
+            + "local now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000) "
+            + "local state = redis.call('hmget', KEYS[1], 'tokens', 'ts') "
+            + "local tokens = tonumber(state[1]) or burst "
+            + "local ts = tonumber(state[2]) or now "
+            + "tokens = math.min(burst, tokens + math.max(0, now - ts) * rate) "
+            + "local granted = math.min(want, math.floor(tokens)) "
+            + "tokens = tokens - granted "
+            + "redis.call('hset', KEYS[1], 'tokens', tostring(tokens), 'ts', tostring(now)) "
+            + "redis.call('pexpire', KEYS[1], math.ceil(burst / rate) + 1000) "
+            + "if granted > 0 then return {granted, 0} end "
+            + "return {0, math.ceil((1 - tokens) / rate)}";
+
+    private final StringRedisTemplate redis;
+    @SuppressWarnings("rawtypes")
+    private final DefaultRedisScript<List> acquireScript = new DefaultRedisScript<>(ACQUIRE_SCRIPT, List.class);
+    private final long prefetchNanos;
+    private final LongSupplier clock;
+
+    private final Map<String, LocalPermits> local = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RedisRateLimiter(StringRedisTemplate redis,
+                            @Value("${scheduler.rate-limit.prefetch-ms:100}") long prefetchMs) {
+        this(redis, prefetchMs, System::nanoTime);
+    }
+
+    RedisRateLimiter(StringRedisTemplate redis, long prefetchMs, LongSupplier clock) {
+        this.redis = redis;
+        this.prefetchNanos = TimeUnit.MILLISECONDS.toNanos(prefetchMs);
+        this.clock = clock;
+    }
+
+    // takes one permit from the named bucket; returns Duration.ZERO if granted, otherwise how long until one is likely
+    public Duration tryAcquire(String bucket, double permitsPerSecond, int burst) {
+        LocalPermits permits = local.computeIfAbsent(bucket, k -> new LocalPermits());
+        synchronized (permits) {
+            long now = clock.getAsLong();
+            if (permits.count > 0 && now < permits.expiresAt) {
+                permits.count--;
+                return Duration.ZERO;
+            }
+            if (now < permits.blockedUntil) {
+                return Duration.ofMillis(TimeUnit.NANOSECONDS.toMillis(permits.blockedUntil - now) + 1);
+            }
+
+            // enough for one prefetch window at the configured rate, never more than the bucket holds
+            int batch = (int) Math.max(1, Math.min(burst, Math.floor(permitsPerSecond * prefetchNanos / 1e9)));
+            double perMilli = permitsPerSecond / 1000.0;
+            List<?> result = redis.execute(acquireScript, List.of(KEY_PREFIX + bucket),
+                    Double.toString(perMilli), Integer.toString(burst), Integer.toString(batch));
+            long granted = result == null || result.isEmpty() ? 0 : ((Number) result.get(0)).longValue();
+            if (granted > 0) {
+                permits.count = granted - 1;
+                permits.expiresAt = now + prefetchNanos;
+                return Duration.ZERO;
+            }
+            long waitMs = result == null || result.size() < 2 ? 1000 : Math.max(1, ((Number) result.get(1)).longValue());
+            permits.count = 0;
+            permits.blockedUntil = now + TimeUnit.MILLISECONDS.toNanos(waitMs);
+            return Duration.ofMillis(waitMs);
+        }
+    }
+
+    private static final class LocalPermits {
+        long count;
+        long expiresAt;
+        long blockedUntil;
+    }
+}
@@ -0,0 +1,26 @@
+package com.spencer.distributed_job_scheduler.redis;
+
+import com.spencer.distributed_job_scheduler.model.JobPriority;
+
+import java.util.Arrays;
+import java.util.List;
+
+// one Redis list per priority level; NORMAL keeps the original key so entries pushed by older nodes are still consumed
+public final class WorkQueues {
+
+    public static final String NORMAL = "scheduler:work";
+
+    // highest priority first, the order a blocking pop checks them in
+    public static final List<String> ALL = Arrays.stream(JobPriority.values()).map(WorkQueues::keyFor).toList();
+
+    private WorkQueues() {
+    }
+
+    // jobs stored before priorities existed have none and go to NORMAL
+    public static String keyFor(JobPriority priority) {
+        if (priority == null || priority == JobPriority.NORMAL) {
+            return NORMAL;
+        }
+        return NORMAL + ":" + priority.name().toLowerCase();
+    }
+}
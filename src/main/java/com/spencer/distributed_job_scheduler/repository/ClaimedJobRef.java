@@ -0,0 +1,27 @@
+package com.spencer.distributed_job_scheduler.repository;
+
+import com.spencer.distributed_job_scheduler.model.JobPriority;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// id, priority and tenant of a claimed job, enough to push it onto the right work queue and charge its tenant;
+// scheduledAt tells the prefetch stage when to push it, and recurringJobId which claims advance a recurring definition
+public interface ClaimedJobRef {
+    UUID getId();
+
+    // the stored ordinal; native queries cannot convert it to the enum themselves
+    Short getPriority();
+
+    String getTenantId();
+
+    Instant getScheduledAt();
+
+    UUID getRecurringJobId();
+
+    // null for rows written before priorities existed
+    default JobPriority priority() {
+        Short ordinal = getPriority();
+        return ordinal == null ? null : JobPriority.values()[ordinal];
+    }
+}
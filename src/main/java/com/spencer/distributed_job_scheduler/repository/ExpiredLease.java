@@ -0,0 +1,15 @@
+package com.spencer.distributed_job_scheduler.repository;
+
+import com.spencer.distributed_job_scheduler.model.JobStatus;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// projection of a QUEUED or RUNNING job whose lease has lapsed
+public interface ExpiredLease {
+    UUID getId();
+
+    JobStatus getStatus();
+
+    Instant getLeaseExpiresAt();
+}
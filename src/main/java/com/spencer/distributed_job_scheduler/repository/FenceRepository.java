@@ -0,0 +1,37 @@
+package com.spencer.distributed_job_scheduler.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * The newest fencing token seen for each fenced role, e.g. the poller leadership. A writer advances
+ * its role's row to its own token inside the transaction it writes in. The row lock orders writers
+ * of one role, and a token older than the recorded one is refused, so a leader that lost its lease
+ * while paused cannot write once its successor has.
+ */
+@Repository
+public class FenceRepository {
+
+    public static final String TABLE = "scheduler_fences";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public FenceRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // true if token is at least the newest recorded for name, which it then becomes; holds the row lock until commit
+    public boolean advance(String name, long token) {
+        return jdbcTemplate.update("INSERT INTO " + TABLE + " (name, token) VALUES (?, ?) "
+                + "ON CONFLICT (name) DO UPDATE SET token = EXCLUDED.token WHERE " + TABLE + ".token <= EXCLUDED.token",
+                name, token) == 1;
+    }
+
+    // 0 if nothing has been recorded for name
+    public long current(String name) {
+        List<Long> tokens = jdbcTemplate.queryForList("SELECT token FROM " + TABLE + " WHERE name = ?", Long.class, name);
+        return tokens.isEmpty() ? 0 : tokens.get(0);
+    }
+}
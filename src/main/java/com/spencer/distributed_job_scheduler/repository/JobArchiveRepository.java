@@ -0,0 +1,84 @@
+package com.spencer.distributed_job_scheduler.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Moves finished jobs from jobs to jobs_archive and purges old archived rows. Plain JDBC because
+ * the move copies every column by name and the column list is read from the live table, so the
+ * statement keeps working as the Job entity gains fields (JobArchiveMigration adds them to the
+ * archive at startup). Reads of archived jobs go through JobRepository.findArchivedById.
+ */
+@Repository
+public class JobArchiveRepository {
+
+    public static final String TABLE = "jobs_archive";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // comma-separated jobs columns, and the matching "col" = EXCLUDED."col" list; read on first use, after the
+    // migrations have run
+    private volatile String columns;
+    private volatile String updates;
+
+    public JobArchiveRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // one statement, so a row is always in exactly one of the tables; SKIP LOCKED lets every node run it.
+    // Rows finished before finished_at was recorded age by scheduled_at instead. An id already archived, e.g. one
+    // restored to jobs by hand, is overwritten by the row just deleted, never dropped with it
+    public int archiveFinished(Instant finishedBefore, int limit) {
+        String cols = columns();
+        String updates = updates();
+        Timestamp cutoff = Timestamp.from(finishedBefore);
+        return jdbcTemplate.update("""
+                WITH moved AS (
+                    DELETE FROM jobs WHERE id IN (
+                        SELECT id FROM jobs
+                        WHERE status IN ('COMPLETED', 'FAILED')
+                          AND (finished_at < ? OR (finished_at IS NULL AND scheduled_at < ?))
+                        LIMIT ?
+                        FOR UPDATE SKIP LOCKED)
+                    RETURNING %1$s)
+                INSERT INTO %2$s (%1$s) SELECT %1$s FROM moved
+                ON CONFLICT (id) DO UPDATE SET %3$s, archived_at = now()
+                """.formatted(cols, TABLE, updates), cutoff, cutoff, limit);
+    }
+
+    // served by idx_jobs_archive_archived_at
+    public int purgeArchived(Instant archivedBefore, int limit) {
+        return jdbcTemplate.update("DELETE FROM " + TABLE + " WHERE id IN (SELECT id FROM " + TABLE
+                + " WHERE archived_at < ? LIMIT ? FOR UPDATE SKIP LOCKED)", Timestamp.from(archivedBefore), limit);
+    }
+
+    private String columns() {
+        if (columns == null) {
+            readColumns();
+        }
+        return columns;
+    }
+
+    private String updates() {
+        if (updates == null) {
+            readColumns();
+        }
+        return updates;
+    }
+
+    private void readColumns() {
+        List<String> names = jdbcTemplate.queryForList("""
+                SELECT attname FROM pg_attribute
+                WHERE attrelid = CAST('jobs' AS regclass) AND attnum > 0 AND NOT attisdropped
+                ORDER BY attnum
+                """, String.class);
+        updates = names.stream().filter(name -> !name.equals("id"))
+                .map(name -> '"' + name + "\" = EXCLUDED.\"" + name + '"').collect(Collectors.joining(", "));
+        columns = names.stream().map(name -> '"' + name + '"').collect(Collectors.joining(", "));
+    }
+}
@@ -1,16 +1,441 @@
 package com.spencer.distributed_job_scheduler.repository;
 
+import com.spencer.distributed_job_scheduler.dto.JobStatusView;
+import com.spencer.distributed_job_scheduler.dto.JobSummary;
 import com.spencer.distributed_job_scheduler.model.Job;
 import com.spencer.distributed_job_scheduler.model.JobStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface JobRepository extends JpaRepository<Job, UUID> {
     @Lock(LockModeType.PESSIMISTIC_WRITE)
-    Optional<Job> findTopByStatusAndScheduledAtBeforeOrderByScheduledAtAsc(JobStatus status, Instant time);
+    Optional<Job> findTopByStatusInAndScheduledAtBeforeOrderByPriorityAscScheduledAtAsc(Collection<JobStatus> statuses, Instant time);
+
+    // rows already locked by another claimer are skipped instead of waited on; higher priorities first. This fills
+    // whatever the per-priority quotas of lockDueJobsByPriority left unused. The exclusions let the fair-share fill
+    // skip capped tenants, and both skip rows this transaction already locked.
+    @Query(value = """
+            SELECT id, priority, tenant_id AS tenantId, scheduled_at AS scheduledAt, recurring_job_id AS recurringJobId FROM jobs
+            WHERE status IN ('PENDING', 'RETRY_SCHEDULED') AND scheduled_at <= :now
+              AND (tenant_id IS NULL OR tenant_id <> ALL(CAST(:excludedTenants AS text[])))
+              AND id <> ALL(CAST(:excludedIds AS uuid[]))
+            ORDER BY priority, scheduled_at
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<ClaimedJobRef> lockDueJobs(@Param("now") Instant now, @Param("limit") int limit,
+                                    @Param("excludedTenants") String[] excludedTenants, @Param("excludedIds") UUID[] excludedIds);
+
+    // same claim restricted to one hash partition; served by idx_jobs_partition_status_priority_scheduled
+    @Query(value = """
+            SELECT id, priority, tenant_id AS tenantId, scheduled_at AS scheduledAt, recurring_job_id AS recurringJobId FROM jobs
+            WHERE partition_id = :partition AND status IN ('PENDING', 'RETRY_SCHEDULED') AND scheduled_at <= :now
+              AND (tenant_id IS NULL OR tenant_id <> ALL(CAST(:excludedTenants AS text[])))
+              AND id <> ALL(CAST(:excludedIds AS uuid[]))
+            ORDER BY priority, scheduled_at
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<ClaimedJobRef> lockDueJobsInPartition(@Param("partition") int partition, @Param("now") Instant now, @Param("limit") int limit,
+                                               @Param("excludedTenants") String[] excludedTenants,
+                                               @Param("excludedIds") UUID[] excludedIds);
+
+    // up to quotas[i] of the oldest due jobs of priority ordinal priorities[i] each, in one statement; every lateral
+    // probe is an index range scan on idx_jobs_status_priority_scheduled. The exclusions are those of lockDueJobs
+    @Query(value = """
+            SELECT j.id, j.priority, j.tenant_id AS tenantId, j.scheduled_at AS scheduledAt, j.recurring_job_id AS recurringJobId
+            FROM unnest(CAST(:priorities AS smallint[]), CAST(:quotas AS int[])) AS q(priority, quota)
+            CROSS JOIN LATERAL (
+                SELECT id, priority, tenant_id, scheduled_at, recurring_job_id FROM jobs
+                WHERE status IN ('PENDING', 'RETRY_SCHEDULED') AND priority = q.priority AND scheduled_at <= :now
+                  AND (tenant_id IS NULL OR tenant_id <> ALL(CAST(:excludedTenants AS text[])))
+                  AND id <> ALL(CAST(:excludedIds AS uuid[]))
+                ORDER BY scheduled_at
+                LIMIT q.quota
+                FOR UPDATE SKIP LOCKED
+            ) j
+            """, nativeQuery = true)
+    List<ClaimedJobRef> lockDueJobsByPriority(@Param("priorities") Short[] priorities, @Param("quotas") Integer[] quotas,
+                                              @Param("now") Instant now, @Param("excludedTenants") String[] excludedTenants,
+                                              @Param("excludedIds") UUID[] excludedIds);
+
+    // served by idx_jobs_partition_status_priority_scheduled
+    @Query(value = """
+            SELECT j.id, j.priority, j.tenant_id AS tenantId, j.scheduled_at AS scheduledAt, j.recurring_job_id AS recurringJobId
+            FROM unnest(CAST(:priorities AS smallint[]), CAST(:quotas AS int[])) AS q(priority, quota)
+            CROSS JOIN LATERAL (
+                SELECT id, priority, tenant_id, scheduled_at, recurring_job_id FROM jobs
+                WHERE partition_id = :partition AND status IN ('PENDING', 'RETRY_SCHEDULED') AND priority = q.priority
+                  AND scheduled_at <= :now
+                  AND (tenant_id IS NULL OR tenant_id <> ALL(CAST(:excludedTenants AS text[])))
+                  AND id <> ALL(CAST(:excludedIds AS uuid[]))
+                ORDER BY scheduled_at
+                LIMIT q.quota
+                FOR UPDATE SKIP LOCKED
+            ) j
+            """, nativeQuery = true)
+    List<ClaimedJobRef> lockDueJobsByPriorityInPartition(@Param("partition") int partition, @Param("priorities") Short[] priorities,
+                                                         @Param("quotas") Integer[] quotas, @Param("now") Instant now,
+                                                         @Param("excludedTenants") String[] excludedTenants,
+                                                         @Param("excludedIds") UUID[] excludedIds);
+
+    // prefetch claim: jobs due up to dueBy, soonest first, so the jobs parked ahead of time are the ones needed next
+    @Query(value = """
+            SELECT id, priority, tenant_id AS tenantId, scheduled_at AS scheduledAt, recurring_job_id AS recurringJobId FROM jobs
+            WHERE status IN ('PENDING', 'RETRY_SCHEDULED') AND scheduled_at <= :dueBy
+            ORDER BY scheduled_at
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<ClaimedJobRef> lockJobsDueBy(@Param("dueBy") Instant dueBy, @Param("limit") int limit);
+
+    @Query(value = """
+            SELECT id, priority, tenant_id AS tenantId, scheduled_at AS scheduledAt, recurring_job_id AS recurringJobId FROM jobs
+            WHERE partition_id = :partition AND status IN ('PENDING', 'RETRY_SCHEDULED') AND scheduled_at <= :dueBy
+            ORDER BY scheduled_at
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<ClaimedJobRef> lockJobsDueByInPartition(@Param("partition") int partition, @Param("dueBy") Instant dueBy,
+                                                 @Param("limit") int limit);
+
+    // up to quotas[i] due jobs of tenants[i] each, in one statement; every lateral probe is an index range
+    // scan on idx_jobs_status_tenant_priority_scheduled
+    @Query(value = """
+            SELECT j.id, j.priority, j.tenant_id AS tenantId, j.scheduled_at AS scheduledAt, j.recurring_job_id AS recurringJobId
+            FROM unnest(CAST(:tenants AS text[]), CAST(:quotas AS int[])) AS q(tenant, quota)
+            CROSS JOIN LATERAL (
+                SELECT id, priority, tenant_id, scheduled_at, recurring_job_id FROM jobs
+                WHERE status IN ('PENDING', 'RETRY_SCHEDULED') AND tenant_id = q.tenant AND scheduled_at <= :now
+                ORDER BY priority, scheduled_at
+                LIMIT q.quota
+                FOR UPDATE SKIP LOCKED
+            ) j
+            ORDER BY j.priority, j.scheduled_at
+            """, nativeQuery = true)
+    List<ClaimedJobRef> lockDueJobsForTenants(@Param("tenants") String[] tenants, @Param("quotas") Integer[] quotas,
+                                              @Param("now") Instant now);
+
+    @Query(value = """
+            SELECT j.id, j.priority, j.tenant_id AS tenantId, j.scheduled_at AS scheduledAt, j.recurring_job_id AS recurringJobId
+            FROM unnest(CAST(:tenants AS text[]), CAST(:quotas AS int[])) AS q(tenant, quota)
+            CROSS JOIN LATERAL (
+                SELECT id, priority, tenant_id, scheduled_at, recurring_job_id FROM jobs
+                WHERE partition_id = :partition AND status IN ('PENDING', 'RETRY_SCHEDULED') AND tenant_id = q.tenant
+                  AND scheduled_at <= :now
+                ORDER BY priority, scheduled_at
+                LIMIT q.quota
+                FOR UPDATE SKIP LOCKED
+            ) j
+            ORDER BY j.priority, j.scheduled_at
+            """, nativeQuery = true)
+    List<ClaimedJobRef> lockDueJobsForTenantsInPartition(@Param("partition") int partition, @Param("tenants") String[] tenants,
+                                                         @Param("quotas") Integer[] quotas, @Param("now") Instant now);
+
+    // one pass over the live rows of idx_jobs_status_tenant_priority_scheduled; grows with the backlog, so run it on a timer
+    @Query(value = """
+            SELECT tenant_id AS tenantId,
+                   count(*) FILTER (WHERE status IN ('PENDING', 'RETRY_SCHEDULED')) AS backlog,
+                   min(scheduled_at) FILTER (WHERE status IN ('PENDING', 'RETRY_SCHEDULED')) AS oldestDue,
+                   count(*) FILTER (WHERE status IN ('QUEUED', 'RUNNING')) AS inFlight
+            FROM jobs
+            WHERE (status IN ('PENDING', 'RETRY_SCHEDULED') AND scheduled_at <= :now) OR status IN ('QUEUED', 'RUNNING')
+            GROUP BY tenant_id
+            """, nativeQuery = true)
+    List<TenantLoad> summarizeTenantLoad(@Param("now") Instant now);
+
+    // earliest scheduledAt of any claimable job, due or not; one index probe per status
+    @Query(value = """
+            SELECT LEAST(
+                (SELECT min(scheduled_at) FROM jobs WHERE status = 'PENDING'),
+                (SELECT min(scheduled_at) FROM jobs WHERE status = 'RETRY_SCHEDULED'))
+            """, nativeQuery = true)
+    Optional<Instant> findNextScheduledAt();
+
+    // due jobs waiting to be claimed, counting no further than cap so the cost stays bounded however large the backlog
+    @Query(value = """
+            SELECT count(*) FROM (
+                SELECT 1 FROM jobs
+                WHERE status IN ('PENDING', 'RETRY_SCHEDULED') AND scheduled_at <= :now
+                LIMIT :cap
+            ) due
+            """, nativeQuery = true)
+    long countDueUpTo(@Param("now") Instant now, @Param("cap") int cap);
+
+    // scheduledAt of the oldest due job; one probe of idx_jobs_status_scheduled per status, null when nothing is due
+    @Query(value = """
+            SELECT LEAST(
+                (SELECT min(scheduled_at) FROM jobs WHERE status = 'PENDING' AND scheduled_at <= :now),
+                (SELECT min(scheduled_at) FROM jobs WHERE status = 'RETRY_SCHEDULED' AND scheduled_at <= :now))
+            """, nativeQuery = true)
+    Optional<Instant> findOldestDue(@Param("now") Instant now);
+
+    // in-flight counts alone, cheap enough to read before every fair-share claim
+    @Query(value = """
+            SELECT tenant_id AS tenantId, 0 AS backlog, CAST(NULL AS timestamp) AS oldestDue, count(*) AS inFlight
+            FROM jobs
+            WHERE status IN ('QUEUED', 'RUNNING')
+            GROUP BY tenant_id
+            """, nativeQuery = true)
+    List<TenantLoad> countInFlightByTenant();
+
+    // claim into the work queue; startedAt stays null until a worker starts the job
+    @Modifying
+    @Query("""
+            UPDATE Job j
+            SET j.status = :to, j.queuedAt = :queuedAt, j.startedAt = null, j.claimedBy = :claimedBy,
+                j.leaseExpiresAt = :leaseExpiresAt, j.version = j.version + 1
+            WHERE j.id IN :ids AND j.status IN :from AND j.scheduledAt <= :dueBy
+            """)
+    int markClaimed(@Param("ids") Collection<UUID> ids,
+                    @Param("from") Collection<JobStatus> from,
+                    @Param("to") JobStatus to,
+                    @Param("queuedAt") Instant queuedAt,
+                    @Param("claimedBy") String claimedBy,
+                    @Param("leaseExpiresAt") Instant leaseExpiresAt,
+                    @Param("dueBy") Instant dueBy);
+
+    // claim straight to RUNNING; a job claimed into the queue first keeps its queuedAt
+    @Modifying
+    @Query("""
+            UPDATE Job j
+            SET j.status = :to, j.startedAt = :startedAt, j.claimedBy = :claimedBy,
+                j.leaseExpiresAt = :leaseExpiresAt, j.version = j.version + 1
+            WHERE j.id IN :ids AND j.status IN :from AND j.scheduledAt <= :dueBy
+            """)
+    int markStarted(@Param("ids") Collection<UUID> ids,
+                    @Param("from") Collection<JobStatus> from,
+                    @Param("to") JobStatus to,
+                    @Param("startedAt") Instant startedAt,
+                    @Param("claimedBy") String claimedBy,
+                    @Param("leaseExpiresAt") Instant leaseExpiresAt,
+                    @Param("dueBy") Instant dueBy);
+
+    // claim that also returns the claimed rows, for building self-contained queue messages
+    @Query(value = """
+            UPDATE jobs
+            SET status = 'QUEUED', queued_at = :now, started_at = NULL, claimed_by = :claimedBy,
+                lease_expires_at = :leaseExpiresAt, version = version + 1
+            WHERE id IN (:ids) AND status IN ('PENDING', 'RETRY_SCHEDULED') AND scheduled_at <= :dueBy
+            RETURNING *
+            """, nativeQuery = true)
+    List<Job> markQueuedReturning(@Param("ids") Collection<UUID> ids,
+                                  @Param("now") Instant now,
+                                  @Param("claimedBy") String claimedBy,
+                                  @Param("leaseExpiresAt") Instant leaseExpiresAt,
+                                  @Param("dueBy") Instant dueBy);
+
+    // start from a queue message: the row must still be exactly the claim the message was built from.
+    // Returns what the message does not carry but the dispatch metrics need; empty if the claim was lost.
+    @Query(value = """
+            UPDATE jobs
+            SET status = 'RUNNING', started_at = :now, claimed_by = :claimedBy,
+                lease_expires_at = :leaseExpiresAt, attempts = COALESCE(attempts, 0) + 1, version = version + 1
+            WHERE id = :id AND version = :version AND status = 'QUEUED'
+            RETURNING scheduled_at AS scheduledAt, queued_at AS queuedAt, priority
+            """, nativeQuery = true)
+    Optional<StartedAttempt> startClaimed(@Param("id") UUID id,
+                                          @Param("version") long version,
+                                          @Param("now") Instant now,
+                                          @Param("claimedBy") String claimedBy,
+                                          @Param("leaseExpiresAt") Instant leaseExpiresAt);
+
+    // worker-side start: a QUEUED job, or a due PENDING/RETRY_SCHEDULED one delivered by the delayed queue, becomes RUNNING.
+    // One statement both wins the race and returns the row, so the worker needs no separate read. queued_at is left
+    // as the claim wrote it, and is null for a job that was never claimed into the queue.
+    @Query(value = """
+            UPDATE jobs
+            SET status = 'RUNNING', started_at = :now, claimed_by = :claimedBy, lease_expires_at = :leaseExpiresAt,
+                attempts = COALESCE(attempts, 0) + 1, version = version + 1
+            WHERE id = :id
+              AND (status = 'QUEUED' OR (status IN ('PENDING', 'RETRY_SCHEDULED') AND scheduled_at <= :now))
+            RETURNING *
+            """, nativeQuery = true)
+    Optional<Job> startJob(@Param("id") UUID id,
+                           @Param("now") Instant now,
+                           @Param("claimedBy") String claimedBy,
+                           @Param("leaseExpiresAt") Instant leaseExpiresAt);
+
+    // failed attempt with retries left: back to the claim path at the backoff instant, keeping the attempt count
+    @Modifying
+    @Query("""
+            UPDATE Job j
+            SET j.status = :to, j.scheduledAt = :nextAttemptAt, j.nextAttemptAt = :nextAttemptAt, j.lastError = :lastError,
+                j.queuedAt = null, j.startedAt = null, j.claimedBy = null, j.leaseExpiresAt = null, j.version = j.version + 1
+            WHERE j.id = :id AND j.status = :from AND j.claimedBy = :claimedBy
+            """)
+    int scheduleRetry(@Param("id") UUID id,
+                      @Param("claimedBy") String claimedBy,
+                      @Param("from") JobStatus from,
+                      @Param("to") JobStatus to,
+                      @Param("nextAttemptAt") Instant nextAttemptAt,
+                      @Param("lastError") String lastError);
+
+    @Modifying
+    @Query("""
+            UPDATE Job j
+            SET j.status = :to, j.finishedAt = :finishedAt, j.lastError = :lastError, j.nextAttemptAt = null,
+                j.leaseExpiresAt = null, j.version = j.version + 1
+            WHERE j.id = :id AND j.status = :from AND j.claimedBy = :claimedBy
+            """)
+    int failClaimed(@Param("id") UUID id,
+                    @Param("claimedBy") String claimedBy,
+                    @Param("from") JobStatus from,
+                    @Param("to") JobStatus to,
+                    @Param("finishedAt") Instant finishedAt,
+                    @Param("lastError") String lastError);
+
+    // throttled before it ran: back to PENDING at the given time, and the attempt it never made is not counted.
+    // A retry (one with a nextAttemptAt) stays RETRY_SCHEDULED, and its nextAttemptAt moves with scheduledAt
+    @Modifying
+    @Query("""
+            UPDATE Job j
+            SET j.status = CASE WHEN j.nextAttemptAt IS NULL THEN :to ELSE :retryTo END,
+                j.nextAttemptAt = CASE WHEN j.nextAttemptAt IS NULL THEN j.nextAttemptAt ELSE :scheduledAt END,
+                j.scheduledAt = :scheduledAt, j.attempts = COALESCE(j.attempts, 1) - 1,
+                j.queuedAt = null, j.startedAt = null, j.claimedBy = null, j.leaseExpiresAt = null, j.version = j.version + 1
+            WHERE j.id = :id AND j.status = :from AND j.claimedBy = :claimedBy
+            """)
+    int deferClaimed(@Param("id") UUID id,
+                     @Param("claimedBy") String claimedBy,
+                     @Param("from") JobStatus from,
+                     @Param("to") JobStatus to,
+                     @Param("retryTo") JobStatus retryTo,
+                     @Param("scheduledAt") Instant scheduledAt);
+
+    @Modifying
+    @Query("DELETE FROM Job j WHERE j.id = :id AND j.status IN :statuses")
+    int deleteByIdInStatus(@Param("id") UUID id, @Param("statuses") Collection<JobStatus> statuses);
+
+    // only the claim holder can finish the job; a reaped and re-run job has a different claimedBy
+    @Modifying
+    @Query("""
+            UPDATE Job j
+            SET j.status = :to, j.finishedAt = :finishedAt, j.leaseExpiresAt = null, j.version = j.version + 1
+            WHERE j.id = :id AND j.status = :from AND j.claimedBy = :claimedBy
+            """)
+    int finishClaimed(@Param("id") UUID id,
+                      @Param("claimedBy") String claimedBy,
+                      @Param("from") JobStatus from,
+                      @Param("to") JobStatus to,
+                      @Param("finishedAt") Instant finishedAt);
+
+    @Modifying
+    @Query("""
+            UPDATE Job j
+            SET j.status = :to, j.queuedAt = null, j.startedAt = null, j.claimedBy = null, j.leaseExpiresAt = null,
+                j.version = j.version + 1
+            WHERE j.id IN :ids AND j.status = :from
+            """)
+    int revertClaims(@Param("ids") Collection<UUID> ids,
+                     @Param("from") JobStatus from,
+                     @Param("to") JobStatus to);
+
+    @Modifying
+    @Query("""
+            UPDATE Job j
+            SET j.status = :to, j.finishedAt = :finishedAt, j.leaseExpiresAt = null, j.version = j.version + 1
+            WHERE j.id IN :ids AND j.status = :from
+            """)
+    int finishJobs(@Param("ids") Collection<UUID> ids,
+                   @Param("from") JobStatus from,
+                   @Param("to") JobStatus to,
+                   @Param("finishedAt") Instant finishedAt);
+
+    // heartbeat only: leaves the version alone so it never conflicts with the worker's own status update
+    @Modifying
+    @Query("UPDATE Job j SET j.leaseExpiresAt = :until WHERE j.id IN :ids AND j.status = :status")
+    int renewLeases(@Param("ids") Collection<UUID> ids,
+                    @Param("status") JobStatus status,
+                    @Param("until") Instant until);
+
+    // served by idx_jobs_status_lease; rows without a lease predate leasing and fall back to started_at
+    @Query(value = """
+            SELECT id, status, lease_expires_at AS leaseExpiresAt FROM jobs
+            WHERE status IN ('QUEUED', 'RUNNING')
+              AND (lease_expires_at < :now OR (lease_expires_at IS NULL AND started_at < :legacyCutoff))
+            ORDER BY lease_expires_at
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<ExpiredLease> lockExpiredLeases(@Param("now") Instant now,
+                                         @Param("legacyCutoff") Instant legacyCutoff,
+                                         @Param("limit") int limit);
+
+    // keyset page over (scheduledAt, id) of jobs in the given statuses scheduled within (after, until]
+    @Query("""
+            SELECT j.id AS id, j.scheduledAt AS scheduledAt FROM Job j
+            WHERE j.status IN :statuses AND j.scheduledAt <= :until
+              AND (j.scheduledAt > :afterAt OR (j.scheduledAt = :afterAt AND j.id > :afterId))
+            ORDER BY j.scheduledAt, j.id
+            """)
+    List<ScheduledJobRef> findScheduledAfter(@Param("statuses") Collection<JobStatus> statuses,
+                                             @Param("afterAt") Instant afterAt,
+                                             @Param("afterId") UUID afterId,
+                                             @Param("until") Instant until,
+                                             Limit limit);
+
+    // keyset page in id order, which is creation order for time-ordered ids; never loads the payload column.
+    // The time range is always bound because Postgres cannot infer the type of a null timestamp parameter.
+    @Query("""
+            SELECT new com.spencer.distributed_job_scheduler.dto.JobSummary(
+                j.id, j.status, j.jobType, j.scheduledAt, j.startedAt, j.finishedAt)
+            FROM Job j
+            WHERE j.id > :afterId
+              AND (:status IS NULL OR j.status = :status)
+              AND (:jobType IS NULL OR j.jobType = :jobType)
+              AND j.scheduledAt >= :from AND j.scheduledAt < :to
+            ORDER BY j.id
+            """)
+    List<JobSummary> findSummariesAfter(@Param("afterId") UUID afterId,
+                                        @Param("status") JobStatus status,
+                                        @Param("jobType") String jobType,
+                                        @Param("from") Instant from,
+                                        @Param("to") Instant to,
+                                        Limit limit);
+
+    // same filters as a server-side cursor; must be consumed inside a transaction and closed
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+            SELECT new com.spencer.distributed_job_scheduler.dto.JobSummary(
+                j.id, j.status, j.jobType, j.scheduledAt, j.startedAt, j.finishedAt)
+            FROM Job j
+            WHERE (:status IS NULL OR j.status = :status)
+              AND (:jobType IS NULL OR j.jobType = :jobType)
+              AND j.scheduledAt >= :from AND j.scheduledAt < :to
+            ORDER BY j.id
+            """)
+    Stream<JobSummary> streamSummaries(@Param("status") JobStatus status,
+                                       @Param("jobType") String jobType,
+                                       @Param("from") Instant from,
+                                       @Param("to") Instant to);
+
+    // status snapshot for pollers; never loads the payload column
+    @Query("""
+            SELECT new com.spencer.distributed_job_scheduler.dto.JobStatusView(
+                j.id, j.status, j.jobType, j.tenantId, j.priority, j.scheduledAt, j.startedAt, j.finishedAt,
+                j.attempts, j.nextAttemptAt, j.lastError, j.version)
+            FROM Job j
+            WHERE j.id = :id
+            """)
+    Optional<JobStatusView> findStatusById(@Param("id") UUID id);
+
+    // a job moved out of the hot table by the archiver; archived_at is not mapped and is ignored
+    @Query(value = "SELECT * FROM jobs_archive WHERE id = :id", nativeQuery = true)
+    Optional<Job> findArchivedById(@Param("id") UUID id);
 }
@@ -0,0 +1,21 @@
+package com.spencer.distributed_job_scheduler.repository;
+
+import com.spencer.distributed_job_scheduler.model.RecurringJob;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface RecurringJobRepository extends JpaRepository<RecurringJob, UUID> {
+
+    // definitions whose current occurrence is among the given jobs, locked so concurrent claimers advance each once
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<RecurringJob> findByCurrentJobIdIn(Collection<UUID> jobIds);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<RecurringJob> findWithLockById(UUID id);
+}
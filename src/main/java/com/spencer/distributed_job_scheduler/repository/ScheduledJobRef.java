@@ -0,0 +1,11 @@
+package com.spencer.distributed_job_scheduler.repository;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// id and fire time of a job, enough to (re)build its delayed-queue entry
+public interface ScheduledJobRef {
+    UUID getId();
+
+    Instant getScheduledAt();
+}
@@ -0,0 +1,21 @@
+package com.spencer.distributed_job_scheduler.repository;
+
+import com.spencer.distributed_job_scheduler.model.JobPriority;
+
+import java.time.Instant;
+
+// timing of an attempt a queue message started, which the message itself does not carry
+public interface StartedAttempt {
+    Instant getScheduledAt();
+
+    // claim time of the message, as the claim wrote it
+    Instant getQueuedAt();
+
+    // the stored ordinal; native queries cannot convert it to the enum themselves
+    Short getPriority();
+
+    default JobPriority priority() {
+        Short ordinal = getPriority();
+        return ordinal == null ? null : JobPriority.values()[ordinal];
+    }
+}
@@ -0,0 +1,15 @@
+package com.spencer.distributed_job_scheduler.repository;
+
+import java.time.Instant;
+
+// per-tenant count of due jobs waiting to be claimed and of jobs claimed but not finished
+public interface TenantLoad {
+    String getTenantId();
+
+    long getBacklog();
+
+    // scheduledAt of the tenant's oldest due job; null when it has none
+    Instant getOldestDue();
+
+    long getInFlight();
+}
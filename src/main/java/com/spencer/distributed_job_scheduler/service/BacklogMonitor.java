@@ -0,0 +1,121 @@
+package com.spencer.distributed_job_scheduler.service;
+
+import com.spencer.distributed_job_scheduler.model.JobPriority;
+import com.spencer.distributed_job_scheduler.redis.RedisDistributedLock;
+import com.spencer.distributed_job_scheduler.redis.WorkQueues;
+import com.spencer.distributed_job_scheduler.repository.JobRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Samples the backlog on a timer so a scrape never queries Postgres or Redis: the depth of each work
+ * queue, how many due jobs wait to be claimed and how late the oldest of them is. The due count stops
+ * at count-cap, so its cost stays bounded when the backlog is huge and the gauge then reads the cap.
+ * Only the node holding the sampler lease, one refresh interval long, queries Postgres; it publishes
+ * the result to Redis, where the other nodes read it, so every node reports the same cluster-wide
+ * values and dashboards take the max across nodes.
+ */
+@Component
+public class BacklogMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(BacklogMonitor.class);
+    private static final String LOCK_KEY = "scheduler:lock:backlog-sampler";
+    private static final String SNAPSHOT_KEY = "scheduler:metrics:backlog";
+
+    private final StringRedisTemplate redis;
+    private final JobRepository jobRepository;
+    private final RedisDistributedLock lock;
+    private final int countCap;
+    private final Duration refreshInterval;
+
+    private final Map<JobPriority, Long> queueDepths = new ConcurrentHashMap<>();
+    private volatile long due;
+    private volatile Instant oldestDue;
+
+    public BacklogMonitor(StringRedisTemplate redis,
+                          JobRepository jobRepository,
+                          RedisDistributedLock lock,
+                          @Value("${scheduler.metrics.backlog.count-cap:100000}") int countCap,
+                          @Value("${scheduler.metrics.backlog.refresh-ms:5000}") long refreshMs) {
+        if (countCap < 1 || refreshMs < 1) {
+            throw new IllegalArgumentException("scheduler.metrics.backlog.count-cap and refresh-ms must be at least 1");
+        }
+        this.redis = redis;
+        this.jobRepository = jobRepository;
+        this.lock = lock;
+        this.countCap = countCap;
+        this.refreshInterval = Duration.ofMillis(refreshMs);
+    }
+
+    @Autowired(required = false)
+    public void initMetrics(MeterRegistry registry) {
+        if (registry == null) {
+            return;
+        }
+        for (JobPriority priority : JobPriority.values()) {
+            Gauge.builder("jobs.queue.depth", queueDepths, depths -> depths.getOrDefault(priority, 0L))
+                    .description("Claimed jobs waiting in the work queue for a worker")
+                    .tag("priority", priority.name().toLowerCase())
+                    .register(registry);
+        }
+        Gauge.builder("jobs.backlog.due", this, monitor -> monitor.due)
+                .description("Due jobs waiting to be claimed, counted up to scheduler.metrics.backlog.count-cap")
+                .register(registry);
+        Gauge.builder("jobs.backlog.lag.seconds", this, monitor -> {
+                    Instant oldest = monitor.oldestDue;
+                    return oldest == null ? 0 : Math.max(0, Duration.between(oldest, Instant.now()).toMillis() / 1000.0);
+                })
+                .description("How long the oldest due job has waited past its scheduled time")
+                .register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${scheduler.metrics.backlog.refresh-ms:5000}")
+    public void sample() {
+        try {
+            for (JobPriority priority : JobPriority.values()) {
+                Long depth = redis.opsForList().size(WorkQueues.keyFor(priority));
+                queueDepths.put(priority, depth == null ? 0L : depth);
+            }
+        } catch (Exception ex) {
+            logger.warn("sample: could not read work queue depths: {}", ex.getMessage());
+        }
+        try {
+            // the lease is left to expire, so at most one node per interval counts the backlog
+            if (lock.tryAcquire(LOCK_KEY, refreshInterval) != null) {
+                Instant now = Instant.now();
+                due = jobRepository.countDueUpTo(now, countCap);
+                oldestDue = jobRepository.findOldestDue(now).orElse(null);
+                redis.opsForValue().set(SNAPSHOT_KEY, due + "," + (oldestDue == null ? "" : oldestDue.toEpochMilli()),
+                        refreshInterval.multipliedBy(3));
+            } else {
+                readSnapshot();
+            }
+        } catch (Exception ex) {
+            logger.warn("sample: could not read the due backlog: {}", ex.getMessage());
+        }
+    }
+
+    // a missing snapshot means no node has sampled for a few intervals; the last values stay
+    private void readSnapshot() {
+        String snapshot = redis.opsForValue().get(SNAPSHOT_KEY);
+        if (snapshot == null) {
+            return;
+        }
+        int comma = snapshot.indexOf(',');
+        String oldest = snapshot.substring(comma + 1);
+        due = Long.parseLong(snapshot.substring(0, comma));
+        oldestDue = oldest.isEmpty() ? null : Instant.ofEpochMilli(Long.parseLong(oldest));
+    }
+}
@@ -1,21 +1,102 @@
 package com.spencer.distributed_job_scheduler.service;
 
+import com.spencer.distributed_job_scheduler.dto.JobFilter;
+import com.spencer.distributed_job_scheduler.dto.JobStatusView;
+import com.spencer.distributed_job_scheduler.dto.JobSummary;
 import com.spencer.distributed_job_scheduler.model.Job;
+import com.spencer.distributed_job_scheduler.model.JobMessage;
 import com.spencer.distributed_job_scheduler.model.JobStatus;
+import com.spencer.distributed_job_scheduler.repository.ClaimedJobRef;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface JobService {
     Job createJob(Job job);
 
+    // insert a chunk of jobs in one transaction using JDBC batching; returns the saved jobs in input order
+    List<Job> createJobs(List<Job> jobs);
+
     Optional<Job> getJob(UUID id);
 
-    List<Job> getAllJobs();
+    // status without the payload, served from JobStatusCache when possible
+    Optional<JobStatusView> getJobStatus(UUID id);
+
+    // keyset page of jobs matching the filter in id order; afterId is the last id of the previous page, or null
+    List<JobSummary> listJobs(JobFilter filter, UUID afterId, int limit);
+
+    // hand every matching job to the consumer from one database cursor, without materializing the result
+    void forEachJob(JobFilter filter, Consumer<JobSummary> consumer);
+
+    // compare-and-set in one UPDATE; false if the job was no longer in `from` (someone else moved it first)
+    boolean transition(UUID id, JobStatus from, JobStatus to);
+
+    // QUEUED, or due PENDING, -> RUNNING under a fresh claim; returns the started row, empty if another worker won
+    Optional<Job> startJob(UUID id);
+
+    // QUEUED -> RUNNING for the exact claim a queue message was built from; the job comes from the message, not the DB
+    Optional<Job> startJob(JobMessage message);
 
-    // change STATUS in DB
-    void markStatus(Job job, JobStatus status);
+    // RUNNING -> outcome, only while job still holds the claim startJob gave it; false if the claim was lost
+    boolean finishJob(Job job, JobStatus outcome);
+
+    // a failed attempt of a job startJob gave to this caller: RETRY_SCHEDULED if its retry policy allows another
+    // attempt, otherwise FAILED; returns the new status, or null if the claim was lost
+    JobStatus failJob(Job job, Throwable error);
+
+    // RUNNING -> PENDING at runAt, or back to RETRY_SCHEDULED for a retry, for a job that was not attempted (e.g. rate
+    // limited); false if the claim was lost
+    boolean deferJob(Job job, Instant runAt);
 
     Optional<Job> claimNextDueJob();
+
+    // move up to limit due jobs to QUEUED in one transaction, highest priority first; returns them in claim order
+    List<ClaimedJobRef> claimDueJobs(int limit);
+
+    // same as claimDueJobs, restricted to one hash partition (see Job.partitionOf)
+    List<ClaimedJobRef> claimDueJobs(int limit, int partition);
+
+    // claimDueJobs for the elected poller, fenced by its leadership token: throws StaleFencingTokenException, having
+    // claimed nothing, once a leader with a newer token has claimed
+    List<ClaimedJobRef> claimDueJobsAsLeader(int limit, long fencingToken);
+
+    List<Job> claimDueJobRowsAsLeader(int limit, long fencingToken);
+
+    // claim jobs due up to dueBy rather than now, soonest first, for the prefetch stage; partition null means every
+    // partition, fencingToken null means an unfenced claim. Claims nothing while tenant in-flight caps are configured
+    List<ClaimedJobRef> claimJobsDueBy(Instant dueBy, int limit, Integer partition, Long fencingToken);
+
+    // same as claimJobsDueBy, returning the claimed rows for compact queue messages
+    List<Job> claimJobRowsDueBy(Instant dueBy, int limit, Integer partition, Long fencingToken);
+
+    // earliest scheduledAt of any PENDING or RETRY_SCHEDULED job, including ones already due; empty when there are none
+    Optional<Instant> findNextDueAt();
+
+    // claimDueJobs variants that return the claimed rows, for self-contained queue messages
+    List<Job> claimDueJobRows(int limit);
+
+    List<Job> claimDueJobRows(int limit, int partition);
+
+    // put QUEUED jobs back to PENDING, e.g. when they could not be enqueued
+    void releaseClaims(List<UUID> ids);
+
+    // extend the lease of RUNNING jobs this node is still executing
+    void renewLeases(Collection<UUID> ids);
+
+    // move up to limit RUNNING jobs with a lapsed lease to PENDING (requeue) or FAILED, and requeue lapsed QUEUED
+    // jobs; returns how many moved
+    int reapExpiredLeases(int limit, JobStatus target);
+
+    // re-add PENDING and RETRY_SCHEDULED jobs scheduled within (from, until] to the delayed queue; returns how many were re-added
+    int reconcileDelayedQueue(Instant from, Instant until, int pageSize, int maxJobs);
+
+    // move up to limit COMPLETED and FAILED jobs finished before the cutoff to the archive table; returns how many moved
+    int archiveFinishedJobs(Instant finishedBefore, int limit);
+
+    // delete up to limit archived jobs archived before the cutoff; returns how many were deleted
+    int purgeArchivedJobs(Instant archivedBefore, int limit);
 }
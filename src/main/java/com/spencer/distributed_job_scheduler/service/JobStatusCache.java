@@ -0,0 +1,187 @@
+package com.spencer.distributed_job_scheduler.service;
+
+import com.spencer.distributed_job_scheduler.dto.JobStatusView;
+import com.spencer.distributed_job_scheduler.model.JobStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Read-through cache of job status snapshots for clients polling a job until it finishes: a small
+ * LRU in this process in front of Redis in front of Postgres. Every status transition evicts the
+ * job from Redis and from this node's LRU once its transaction commits. Other nodes' LRUs are not
+ * told, so a live status served from one can lag by up to twice live-ttl-ms; terminal statuses
+ * never change and are kept for terminal-ttl-ms.
+ */
+@Component
+public class JobStatusCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobStatusCache.class);
+    private static final String KEY_PREFIX = "scheduler:status:";
+
+    private final StringRedisTemplate redis;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Duration liveTtl;
+    private final Duration terminalTtl;
+    private final Map<UUID, Entry> local;
+    private final LongSupplier clock;
+
+    private Counter localHits;
+    private Counter redisHits;
+    private Counter misses;
+
+    @Autowired
+    public JobStatusCache(StringRedisTemplate redis,
+                          ObjectMapper objectMapper,
+                          @Value("${scheduler.status-cache.enabled:true}") boolean enabled,
+                          @Value("${scheduler.status-cache.local-size:10000}") int localSize,
+                          @Value("${scheduler.status-cache.live-ttl-ms:1000}") long liveTtlMs,
+                          @Value("${scheduler.status-cache.terminal-ttl-ms:86400000}") long terminalTtlMs) {
+        this(redis, objectMapper, enabled, localSize, liveTtlMs, terminalTtlMs, System::nanoTime);
+    }
+
+    JobStatusCache(StringRedisTemplate redis, ObjectMapper objectMapper, boolean enabled, int localSize,
+                   long liveTtlMs, long terminalTtlMs, LongSupplier clock) {
+        this.clock = clock;
+        this.redis = redis;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.liveTtl = Duration.ofMillis(liveTtlMs);
+        this.terminalTtl = Duration.ofMillis(terminalTtlMs);
+        this.local = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Entry> eldest) {
+                return size() > localSize;
+            }
+        });
+    }
+
+    @Autowired(required = false)
+    public void initMetrics(MeterRegistry registry) {
+        if (registry != null) {
+            this.localHits = counter(registry, "local");
+            this.redisHits = counter(registry, "redis");
+            this.misses = counter(registry, "miss");
+        }
+    }
+
+    public Optional<JobStatusView> get(UUID id, Function<UUID, Optional<JobStatusView>> loader) {
+        if (!enabled) {
+            return loader.apply(id);
+        }
+        long now = clock.getAsLong();
+        Entry entry = local.get(id);
+        if (entry != null && now < entry.expiresAt) {
+            if (localHits != null) localHits.increment();
+            return Optional.of(entry.view);
+        }
+
+        JobStatusView cached = readRedis(id);
+        if (cached != null) {
+            if (redisHits != null) redisHits.increment();
+            local.put(id, new Entry(cached, now + ttlOf(cached).toNanos()));
+            return Optional.of(cached);
+        }
+
+        if (misses != null) misses.increment();
+        Optional<JobStatusView> loaded = loader.apply(id);
+        loaded.ifPresent(view -> {
+            local.put(id, new Entry(view, now + ttlOf(view).toNanos()));
+            writeRedis(view);
+        });
+        return loaded;
+    }
+
+    public void evict(UUID id) {
+        evict(List.of(id));
+    }
+
+    // after commit, so a concurrent read cannot re-cache the state being replaced
+    public void evict(Collection<UUID> ids) {
+        if (!enabled || ids.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<UUID> copy = List.copyOf(ids);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNow(copy);
+                }
+            });
+        } else {
+            evictNow(ids);
+        }
+    }
+
+    private void evictNow(Collection<UUID> ids) {
+        local.keySet().removeAll(ids);
+        try {
+            redis.delete(ids.stream().map(id -> KEY_PREFIX + id).toList());
+        } catch (Exception ex) {
+            // the entry still expires on its own; a failed eviction must not fail the transition
+            logger.debug("evictNow: could not evict {} status entries: {}", ids.size(), ex.getMessage());
+        }
+    }
+
+    private JobStatusView readRedis(UUID id) {
+        try {
+            String json = redis.opsForValue().get(KEY_PREFIX + id);
+            return json == null ? null : objectMapper.readValue(json, JobStatusView.class);
+        } catch (Exception ex) {
+            logger.debug("readRedis: status of {} unavailable: {}", id, ex.getMessage());
+            return null;
+        }
+    }
+
+    private void writeRedis(JobStatusView view) {
+        try {
+            Duration ttl = ttlOf(view);
+            redis.opsForValue().set(KEY_PREFIX + view.getId(), objectMapper.writeValueAsString(view), ttl.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (Exception ex) {
+            logger.debug("writeRedis: could not cache status of {}: {}", view.getId(), ex.getMessage());
+        }
+    }
+
+    private Duration ttlOf(JobStatusView view) {
+        return view.getStatus() == JobStatus.COMPLETED || view.getStatus() == JobStatus.FAILED ? terminalTtl : liveTtl;
+    }
+
+    private static Counter counter(MeterRegistry registry, String result) {
+        return Counter.builder("jobs.status_cache.requests")
+                .description("Job status reads by where they were served from")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private static final class Entry {
+        final JobStatusView view;
+        final long expiresAt;
+
+        Entry(JobStatusView view, long expiresAt) {
+            this.view = view;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.spencer.distributed_job_scheduler.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Splits each claim batch between the priorities with a {@link PriorityRotation}, so a steady
+ * HIGH backlog cannot keep NORMAL and LOW jobs in the table forever. Every slot of a batch is one
+ * turn of the rotation, and the credit carries over between batches: with weights 8,3,1 even
+ * one-job claims give LOW one slot in every 12. Slots a priority cannot fill are handed on by the
+ * claim's fill pass, so the split never leaves capacity unused.
+ */
+@Component
+public class PriorityQuotas {
+
+    // guarded by this
+    private final PriorityRotation rotation;
+
+    @Autowired
+    public PriorityQuotas(@Value("${scheduler.claim.priority-weights:8,3,1}") String weights) {
+        this(PriorityRotation.parseWeights("scheduler.claim.priority-weights", weights));
+    }
+
+    PriorityQuotas(int[] weights) {
+        this.rotation = new PriorityRotation(weights);
+    }
+
+    // slots per priority ordinal for a batch of limit jobs; they add up to limit
+    public synchronized int[] split(int limit) {
+        int[] quotas = new int[PriorityRotation.LEVELS];
+        for (int slot = 0; slot < limit; slot++) {
+            quotas[rotation.next()]++;
+        }
+        return quotas;
+    }
+}
@@ -0,0 +1,67 @@
+package com.spencer.distributed_job_scheduler.service;
+
+import com.spencer.distributed_job_scheduler.model.JobPriority;
+
+/**
+ * Smooth weighted round-robin over the priority levels, highest first. Each turn goes to the level
+ * with the most accumulated credit, so with weights 8,3,1 HIGH gets 8 turns in every 12, spread out
+ * rather than in bursts, and a lower priority is never starved. The claim uses it to split batches
+ * between priorities and each worker consumer to pick the queue it pops first. Not thread-safe.
+ */
+public class PriorityRotation {
+
+    public static final int LEVELS = JobPriority.values().length;
+
+    private final int[] weights;
+    private final int totalWeight;
+    private final int[] credit = new int[LEVELS];
+
+    // one weight per priority ordinal
+    public PriorityRotation(int[] weights) {
+        this.weights = validate("priority weights", weights);
+        int total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        this.totalWeight = total;
+    }
+
+    // ordinal of the priority this turn goes to
+    public int next() {
+        int preferred = 0;
+        for (int i = 0; i < LEVELS; i++) {
+            credit[i] += weights[i];
+            if (credit[i] > credit[preferred]) {
+                preferred = i;
+            }
+        }
+        credit[preferred] -= totalWeight;
+        return preferred;
+    }
+
+    // comma-separated weights from the named property, checked so a bad value fails at startup
+    public static int[] parseWeights(String property, String weights) {
+        String[] parts = weights.split(",");
+        int[] parsed = new int[parts.length];
+        try {
+            for (int i = 0; i < parts.length; i++) {
+                parsed[i] = Integer.parseInt(parts[i].trim());
+            }
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(property + " must be comma-separated integers: " + weights);
+        }
+        return validate(property, parsed);
+    }
+
+    private static int[] validate(String property, int[] weights) {
+        if (weights.length != LEVELS) {
+            throw new IllegalArgumentException(property + " needs " + LEVELS + " weights, got " + weights.length);
+        }
+        for (int weight : weights) {
+            if (weight < 1) {
+                throw new IllegalArgumentException(property + " must be at least 1");
+            }
+        }
+        return weights.clone();
+    }
+}
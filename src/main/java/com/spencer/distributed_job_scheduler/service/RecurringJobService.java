@@ -0,0 +1,22 @@
+package com.spencer.distributed_job_scheduler.service;
+
+import com.spencer.distributed_job_scheduler.model.RecurringJob;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface RecurringJobService {
+    // validate the schedule and store the definition with its first occurrence, firing at or after startAt (null = now)
+    RecurringJob createRecurringJob(RecurringJob definition, Instant startAt);
+
+    Optional<RecurringJob> getRecurringJob(UUID id);
+
+    // remove the definition and its occurrence if that has not been claimed yet; false if there was no such definition
+    boolean deleteRecurringJob(UUID id);
+
+    // within the claim transaction: for every claimed job that is a definition's current occurrence, insert the next
+    // occurrence; returns how many were inserted
+    int materializeNext(Collection<UUID> claimedJobIds);
+}
@@ -0,0 +1,139 @@
+package com.spencer.distributed_job_scheduler.service;
+
+import com.spencer.distributed_job_scheduler.model.Job;
+import com.spencer.distributed_job_scheduler.model.RetryPolicy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Decides whether a failed attempt is retried and when. Transport failures (I/O errors, timeouts)
+ * and the policy's retryable HTTP statuses are retried with capped exponential backoff and jitter
+ * until the attempt budget is spent; anything else fails the job immediately.
+ */
+@Component
+public class RetryPolicyEngine {
+
+    private final int defaultMaxAttempts;
+    private final long defaultBackoffBaseMs;
+    private final long defaultBackoffCapMs;
+    private final double defaultJitter;
+    private final String defaultRetryableStatuses;
+
+    public RetryPolicyEngine(@Value("${scheduler.retry.max-attempts:3}") int defaultMaxAttempts,
+                             @Value("${scheduler.retry.backoff-base-ms:1000}") long defaultBackoffBaseMs,
+                             @Value("${scheduler.retry.backoff-cap-ms:300000}") long defaultBackoffCapMs,
+                             @Value("${scheduler.retry.jitter:0.5}") double defaultJitter,
+                             @Value("${scheduler.retry.retryable-statuses:408,425,429,500,502,503,504}") String defaultRetryableStatuses) {
+        this.defaultMaxAttempts = defaultMaxAttempts;
+        this.defaultBackoffBaseMs = defaultBackoffBaseMs;
+        this.defaultBackoffCapMs = defaultBackoffCapMs;
+        this.defaultJitter = defaultJitter;
+        this.defaultRetryableStatuses = defaultRetryableStatuses;
+        validate(defaultMaxAttempts, defaultBackoffBaseMs, defaultBackoffCapMs, defaultJitter, defaultRetryableStatuses);
+    }
+
+    // rejects a submitted policy that could never be applied; null fields are fine
+    public void validate(RetryPolicy policy) {
+        if (policy == null) {
+            return;
+        }
+        validate(maxAttempts(policy), backoffBaseMs(policy), backoffCapMs(policy), jitter(policy), retryableStatuses(policy));
+    }
+
+    // when the failed job should run again, or empty if it should fail for good
+    public Optional<Instant> nextAttemptAt(Job job, Throwable error, Instant now) {
+        RetryPolicy policy = job.getRetryPolicy();
+        int attempts = job.getAttempts() == null ? 1 : job.getAttempts();
+        if (attempts >= maxAttempts(policy) || !isRetryable(unwrap(error), retryableStatuses(policy))) {
+            return Optional.empty();
+        }
+        return Optional.of(now.plus(backoff(attempts, backoffBaseMs(policy), backoffCapMs(policy), jitter(policy))));
+    }
+
+    // delay after the given attempt: base * 2^(attempt - 1), capped, with the jittered fraction drawn uniformly
+    static Duration backoff(int attempt, long baseMs, long capMs, double jitter) {
+        int doublings = Math.min(Math.max(attempt - 1, 0), 30);
+        long delay = baseMs > (capMs >> doublings) ? capMs : baseMs << doublings;
+        long jittered = (long) (delay * jitter * ThreadLocalRandom.current().nextDouble());
+        return Duration.ofMillis(delay - jittered);
+    }
+
+    static boolean isRetryable(Throwable error, String retryableStatuses) {
+        if (error instanceof RestClientResponseException response) {
+            return statusMatches(response.getStatusCode().value(), retryableStatuses);
+        }
+        // connection resets, DNS hiccups and timeouts say nothing about the request itself
+        return error instanceof IOException || error instanceof TimeoutException;
+    }
+
+    static boolean statusMatches(int status, String retryableStatuses) {
+        for (String part : retryableStatuses.split(",")) {
+            String range = part.trim();
+            if (range.isEmpty()) {
+                continue;
+            }
+            int dash = range.indexOf('-');
+            int low = Integer.parseInt(dash < 0 ? range : range.substring(0, dash).trim());
+            int high = dash < 0 ? low : Integer.parseInt(range.substring(dash + 1).trim());
+            if (status >= low && status <= high) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        Throwable current = error;
+        while ((current instanceof CompletionException || current instanceof ExecutionException) && current.getCause() != null) {
+            current = current.getCause();
+        }
+        return current;
+    }
+
+    private static void validate(int maxAttempts, long baseMs, long capMs, double jitter, String retryableStatuses) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("retry maxAttempts must be at least 1");
+        }
+        if (baseMs < 0 || capMs < baseMs) {
+            throw new IllegalArgumentException("retry backoff must satisfy 0 <= backoffBaseMs <= backoffCapMs");
+        }
+        if (jitter < 0 || jitter > 1) {
+            throw new IllegalArgumentException("retry jitter must be between 0 and 1");
+        }
+        try {
+            statusMatches(0, retryableStatuses);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("retryableStatuses must be codes or ranges like 429,500-599: " + retryableStatuses);
+        }
+    }
+
+    private int maxAttempts(RetryPolicy policy) {
+        return policy == null || policy.getMaxAttempts() == null ? defaultMaxAttempts : policy.getMaxAttempts();
+    }
+
+    private long backoffBaseMs(RetryPolicy policy) {
+        return policy == null || policy.getBackoffBaseMs() == null ? defaultBackoffBaseMs : policy.getBackoffBaseMs();
+    }
+
+    private long backoffCapMs(RetryPolicy policy) {
+        return policy == null || policy.getBackoffCapMs() == null ? defaultBackoffCapMs : policy.getBackoffCapMs();
+    }
+
+    private double jitter(RetryPolicy policy) {
+        return policy == null || policy.getJitter() == null ? defaultJitter : policy.getJitter();
+    }
+
+    private String retryableStatuses(RetryPolicy policy) {
+        return policy == null || policy.getRetryableStatuses() == null ? defaultRetryableStatuses : policy.getRetryableStatuses();
+    }
+}
@@ -0,0 +1,17 @@
+package com.spencer.distributed_job_scheduler.service;
+
+import lombok.Getter;
+
+// a fenced write was refused because a newer lease holder has written since; the caller is no longer the leader
+@Getter
+public class StaleFencingTokenException extends IllegalStateException {
+
+    private final long token;
+    private final long newestToken;
+
+    public StaleFencingTokenException(String role, long token, long newestToken) {
+        super("Fencing token " + token + " for " + role + " is older than " + newestToken);
+        this.token = token;
+        this.newestToken = newestToken;
+    }
+}
@@ -0,0 +1,392 @@
+package com.spencer.distributed_job_scheduler.service;
+
+import com.spencer.distributed_job_scheduler.model.JobPriority;
+import com.spencer.distributed_job_scheduler.repository.ClaimedJobRef;
+import com.spencer.distributed_job_scheduler.repository.JobRepository;
+import com.spencer.distributed_job_scheduler.repository.TenantLoad;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToLongFunction;
+
+/**
+ * Splits each claim batch between tenants with deficit round-robin, so one tenant's backlog cannot
+ * crowd out everyone else's. Every batch each tenant with due work is credited its weighted share
+ * and claims up to its accumulated credit; a tenant that runs dry loses its credit, one that takes
+ * leftover capacity goes into debt. Tenants at their in-flight cap are skipped until jobs finish.
+ * Backlog per tenant comes from a periodic summary query, which also feeds the per-tenant metrics;
+ * tenants that appeared since the last summary are served by the claim's leftover fill, up to their
+ * in-flight cap. Only nodes that claimed since the last summary run it, so with leader election the
+ * followers skip it and report zero. The first max-metered-tenants tenants get their own series,
+ * later ones share tenant="other".
+ */
+@Component
+public class TenantFairShare {
+
+    private static final Logger logger = LoggerFactory.getLogger(TenantFairShare.class);
+    static final String OTHER_TENANTS = "other";
+
+    private final boolean enabled;
+    private final Map<String, Integer> weights;
+    private final int defaultWeight;
+    private final Map<String, Integer> inFlightCaps;
+    private final int defaultInFlightCap;
+    private final int maxMeteredTenants;
+    private final JobRepository jobRepository;
+
+    // last summary, by tenant
+    private volatile Map<String, TenantLoad> loads = Map.of();
+
+    // set by plan, cleared by refresh: whether this node has claimed since the last summary
+    private volatile boolean planned;
+
+    // guarded by this
+    private final Map<String, Double> deficits = new HashMap<>();
+    private int cursor;
+
+    private MeterRegistry meterRegistry;
+    // tenants with their own tag; grows up to maxMeteredTenants and is then fixed
+    private final Set<String> meteredTenants = ConcurrentHashMap.newKeySet();
+    private final Set<String> gaugedTags = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public TenantFairShare(@Value("${scheduler.tenant.fair-share:true}") boolean enabled,
+                           @Value("${scheduler.tenant.weights:}") String weights,
+                           @Value("${scheduler.tenant.default-weight:1}") int defaultWeight,
+                           @Value("${scheduler.tenant.in-flight-caps:}") String inFlightCaps,
+                           @Value("${scheduler.tenant.max-in-flight:0}") int defaultInFlightCap,
+                           @Value("${scheduler.tenant.max-metered-tenants:50}") int maxMeteredTenants,
+                           JobRepository jobRepository) {
+        this(enabled, parseLimits(weights, "scheduler.tenant.weights"), defaultWeight,
+                parseLimits(inFlightCaps, "scheduler.tenant.in-flight-caps"), defaultInFlightCap, maxMeteredTenants, jobRepository);
+    }
+
+    TenantFairShare(boolean enabled, Map<String, Integer> weights, int defaultWeight, Map<String, Integer> inFlightCaps,
+                    int defaultInFlightCap, int maxMeteredTenants, JobRepository jobRepository) {
+        if (defaultWeight < 1 || defaultInFlightCap < 0 || maxMeteredTenants < 0) {
+            throw new IllegalArgumentException("scheduler.tenant.default-weight must be at least 1, and max-in-flight and "
+                    + "max-metered-tenants at least 0");
+        }
+        this.enabled = enabled;
+        this.weights = Map.copyOf(weights);
+        this.defaultWeight = defaultWeight;
+        this.inFlightCaps = Map.copyOf(inFlightCaps);
+        this.defaultInFlightCap = defaultInFlightCap;
+        this.maxMeteredTenants = maxMeteredTenants;
+        this.jobRepository = jobRepository;
+    }
+
+    @Autowired(required = false)
+    public void initMetrics(MeterRegistry registry) {
+        this.meterRegistry = registry;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // the summary is a GROUP BY over every live row; nodes that did not claim since the last one drop theirs instead,
+    // so summed over nodes the per-tenant gauges still count each job once
+    @Scheduled(fixedDelayString = "${scheduler.tenant.refresh-ms:2000}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        if (!planned) {
+            loads = Map.of();
+            return;
+        }
+        planned = false;
+        try {
+            Map<String, TenantLoad> next = new HashMap<>();
+            for (TenantLoad load : jobRepository.summarizeTenantLoad(Instant.now())) {
+                if (load.getTenantId() != null) {
+                    next.put(load.getTenantId(), load);
+                }
+            }
+            loads = next;
+            next.keySet().forEach(this::registerGauges);
+        } catch (Exception ex) {
+            logger.error("refresh: failed to summarize tenant load: {}", ex.getMessage(), ex);
+        }
+    }
+
+    // quotas for one claim batch against the last summary, with in-flight counts read fresh when caps apply
+    public Plan plan(int batch) {
+        planned = true;
+        Map<String, Long> backlog = new HashMap<>();
+        Map<String, Long> inFlight = new HashMap<>();
+        loads.forEach((tenant, load) -> backlog.put(tenant, load.getBacklog()));
+        if (hasCaps()) {
+            for (TenantLoad load : jobRepository.countInFlightByTenant()) {
+                if (load.getTenantId() != null) {
+                    inFlight.put(load.getTenantId(), load.getInFlight());
+                }
+            }
+        }
+        return allocate(batch, backlog, inFlight);
+    }
+
+    synchronized Plan allocate(int batch, Map<String, Long> backlog, Map<String, Long> inFlight) {
+        // known tenants with a cap never take part in the leftover fill, which cannot see their headroom
+        Set<String> known = new HashSet<>(backlog.keySet());
+        known.addAll(inFlight.keySet());
+        Set<String> capped = new HashSet<>();
+        if (hasCaps()) {
+            known.stream().filter(tenant -> capOf(tenant) > 0).forEach(capped::add);
+        }
+
+        List<String> active = backlog.entrySet().stream()
+                .filter(e -> e.getValue() > 0)
+                .map(Map.Entry::getKey)
+                .sorted()
+                .toList();
+        Map<String, Long> limits = new HashMap<>();
+        long totalWeight = 0;
+        for (String tenant : active) {
+            long headroom = capOf(tenant) > 0 ? capOf(tenant) - inFlight.getOrDefault(tenant, 0L) : Long.MAX_VALUE;
+            long limit = Math.min(backlog.get(tenant), headroom);
+            if (limit > 0) {
+                limits.put(tenant, limit);
+                totalWeight += weightOf(tenant);
+            }
+        }
+        // tenants with nothing to claim this round start over from zero credit
+        deficits.keySet().retainAll(limits.keySet());
+        if (limits.isEmpty()) {
+            return new Plan(Map.of(), capped, Map.of(), known);
+        }
+
+        // rotate the starting tenant so rounding leftovers do not always go to the same one
+        List<String> order = new ArrayList<>(active.stream().filter(limits::containsKey).toList());
+        int start = Math.floorMod(cursor++, order.size());
+        List<String> rotated = new ArrayList<>(order.subList(start, order.size()));
+        rotated.addAll(order.subList(0, start));
+
+        Map<String, Integer> quotas = new LinkedHashMap<>();
+        Map<String, Double> quanta = new HashMap<>();
+        int remaining = batch;
+        for (String tenant : rotated) {
+            double quantum = (double) batch * weightOf(tenant) / totalWeight;
+            quanta.put(tenant, quantum);
+            double deficit = deficits.merge(tenant, quantum, Double::sum);
+            int quota = (int) Math.max(0, Math.min(Math.min(Math.floor(deficit), limits.get(tenant)), remaining));
+            quotas.put(tenant, quota);
+            remaining -= quota;
+        }
+        // hand capacity the credits did not cover to whoever still has work; it is charged as debt
+        boolean progress = true;
+        while (remaining > 0 && progress) {
+            progress = false;
+            for (String tenant : rotated) {
+                if (remaining > 0 && quotas.get(tenant) < limits.get(tenant)) {
+                    quotas.merge(tenant, 1, Integer::sum);
+                    remaining--;
+                    progress = true;
+                }
+            }
+        }
+        quotas.values().removeIf(quota -> quota == 0);
+        return new Plan(quotas, capped, quanta, known);
+    }
+
+    // what the leftover fill may keep: tenants that appeared after the plan was made had nothing in flight then, so
+    // each keeps at most its cap, the default one included; the rows dropped stay locked until the claim commits
+    public <T extends ClaimedJobRef> List<T> capFill(Plan plan, List<T> filled) {
+        if (!hasCaps()) {
+            return filled;
+        }
+        Map<String, Integer> kept = new HashMap<>();
+        List<T> allowed = new ArrayList<>(filled.size());
+        for (T ref : filled) {
+            String tenant = ref.getTenantId();
+            int cap = tenant == null || plan.getKnown().contains(tenant) ? 0 : capOf(tenant);
+            if (cap == 0 || kept.merge(tenant, 1, Integer::sum) <= cap) {
+                allowed.add(ref);
+            }
+        }
+        return allowed;
+    }
+
+    // settles credits with what the claim actually took
+    public synchronized void charge(Plan plan, List<ClaimedJobRef> claimed) {
+        Map<String, Integer> taken = new HashMap<>();
+        claimed.forEach(ref -> {
+            if (ref.getTenantId() != null) {
+                taken.merge(ref.getTenantId(), 1, Integer::sum);
+            }
+        });
+        for (Map.Entry<String, Double> quantum : plan.getQuanta().entrySet()) {
+            String tenant = quantum.getKey();
+            Double deficit = deficits.get(tenant);
+            if (deficit == null) {
+                continue;
+            }
+            int got = taken.getOrDefault(tenant, 0);
+            if (got < plan.getQuotas().getOrDefault(tenant, 0)) {
+                // drained, or its rows were locked by another claimer
+                deficits.remove(tenant);
+            } else {
+                // credit held back by a cap or by rounding does not pile up beyond one round's share
+                deficits.put(tenant, Math.min(deficit - got, quantum.getValue()));
+            }
+        }
+        if (meterRegistry != null) {
+            taken.forEach((tenant, count) -> Counter.builder("jobs.tenant.claimed.total")
+                    .description("Jobs claimed per tenant")
+                    .tag("tenant", tenantTag(tenant))
+                    .register(meterRegistry)
+                    .increment(count));
+        }
+    }
+
+    // round-robin between tenants within each priority, so the front of every work queue alternates owners
+    public static <T extends ClaimedJobRef> List<T> interleave(List<T> claimed) {
+        Map<String, Integer> seen = new HashMap<>();
+        Map<T, Integer> rank = new IdentityHashMap<>();
+        for (T ref : claimed) {
+            rank.put(ref, seen.merge(String.valueOf(ref.getTenantId()), 1, Integer::sum));
+        }
+        List<T> ordered = new ArrayList<>(claimed);
+        ordered.sort(Comparator.<T, JobPriority>comparing(ClaimedJobRef::priority, Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(rank::get));
+        return ordered;
+    }
+
+    static Map<String, Integer> parseLimits(String rules, String property) {
+        Map<String, Integer> limits = new HashMap<>();
+        if (rules == null || rules.isBlank()) {
+            return limits;
+        }
+        for (String rule : rules.split(",")) {
+            if (rule.isBlank()) {
+                continue;
+            }
+            int eq = rule.lastIndexOf('=');
+            try {
+                int limit = Integer.parseInt(rule.substring(eq + 1).trim());
+                if (eq <= 0 || limit < 1) {
+                    throw new NumberFormatException();
+                }
+                limits.put(rule.substring(0, eq).trim(), limit);
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException(property + " entries must look like tenant=positiveInteger: " + rule.trim());
+            }
+        }
+        return limits;
+    }
+
+    public boolean hasInFlightCaps() {
+        return hasCaps();
+    }
+
+    private boolean hasCaps() {
+        return defaultInFlightCap > 0 || !inFlightCaps.isEmpty();
+    }
+
+    private int weightOf(String tenant) {
+        return weights.getOrDefault(tenant, defaultWeight);
+    }
+
+    // 0 means uncapped
+    private int capOf(String tenant) {
+        return inFlightCaps.getOrDefault(tenant, defaultInFlightCap);
+    }
+
+    // the tenant's own tag while fewer than maxMeteredTenants have one, otherwise the shared "other"
+    String tenantTag(String tenant) {
+        if (meteredTenants.contains(tenant)) {
+            return tenant;
+        }
+        synchronized (meteredTenants) {
+            if (meteredTenants.size() < maxMeteredTenants && !OTHER_TENANTS.equals(tenant)) {
+                meteredTenants.add(tenant);
+                return tenant;
+            }
+        }
+        return OTHER_TENANTS;
+    }
+
+    // one series per metered tenant, plus "other" for the rest; they read the latest summary, so a drained tenant
+    // reports zero
+    private void registerGauges(String tenant) {
+        if (meterRegistry == null) {
+            return;
+        }
+        String tag = tenantTag(tenant);
+        if (!gaugedTags.add(tag)) {
+            return;
+        }
+        Gauge.builder("jobs.tenant.backlog", this, fs -> fs.sumOf(tag, TenantLoad::getBacklog))
+                .description("Due jobs waiting to be claimed per tenant")
+                .tag("tenant", tag)
+                .register(meterRegistry);
+        Gauge.builder("jobs.tenant.lag.seconds", this, fs -> fs.lagSeconds(tag))
+                .description("How long the tenant's oldest due job has waited past its scheduled time")
+                .tag("tenant", tag)
+                .register(meterRegistry);
+        Gauge.builder("jobs.tenant.in_flight", this, fs -> fs.sumOf(tag, TenantLoad::getInFlight))
+                .description("Claimed or running jobs per tenant")
+                .tag("tenant", tag)
+                .register(meterRegistry);
+    }
+
+    private double sumOf(String tag, ToLongFunction<TenantLoad> value) {
+        if (!OTHER_TENANTS.equals(tag)) {
+            TenantLoad load = loads.get(tag);
+            return load == null ? 0 : value.applyAsLong(load);
+        }
+        return loads.values().stream()
+                .filter(load -> !meteredTenants.contains(load.getTenantId()))
+                .mapToLong(value)
+                .sum();
+    }
+
+    private double lagSeconds(String tag) {
+        Instant oldest = loads.values().stream()
+                .filter(load -> OTHER_TENANTS.equals(tag) ? !meteredTenants.contains(load.getTenantId()) : tag.equals(load.getTenantId()))
+                .map(TenantLoad::getOldestDue)
+                .filter(Objects::nonNull)
+                .min(Comparator.naturalOrder())
+                .orElse(null);
+        return oldest == null ? 0 : Math.max(0, Duration.between(oldest, Instant.now()).toMillis() / 1000.0);
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static final class Plan {
+        // tenant -> jobs to claim, in this round's order
+        private final Map<String, Integer> quotas;
+
+        // tenants the leftover fill must skip
+        private final Set<String> capped;
+
+        // each planned tenant's share of this batch
+        private final Map<String, Double> quanta;
+
+        // tenants with backlog or in-flight jobs when the plan was made
+        private final Set<String> known;
+    }
+}
@@ -1,46 +1,153 @@
 package com.spencer.distributed_job_scheduler.service.impl;
 
+import com.spencer.distributed_job_scheduler.dto.JobFilter;
+import com.spencer.distributed_job_scheduler.dto.JobStatusView;
+import com.spencer.distributed_job_scheduler.dto.JobSummary;
+import com.spencer.distributed_job_scheduler.executor.JobTypeTags;
 import com.spencer.distributed_job_scheduler.model.Job;
+import com.spencer.distributed_job_scheduler.model.JobMessage;
+import com.spencer.distributed_job_scheduler.model.JobPriority;
 import com.spencer.distributed_job_scheduler.model.JobStatus;
+import com.spencer.distributed_job_scheduler.redis.RedisDelayedQueue;
+import com.spencer.distributed_job_scheduler.redis.RedisPollWakeups;
+import com.spencer.distributed_job_scheduler.repository.ClaimedJobRef;
+import com.spencer.distributed_job_scheduler.repository.ExpiredLease;
+import com.spencer.distributed_job_scheduler.repository.FenceRepository;
+import com.spencer.distributed_job_scheduler.repository.JobArchiveRepository;
 import com.spencer.distributed_job_scheduler.repository.JobRepository;
+import com.spencer.distributed_job_scheduler.repository.ScheduledJobRef;
+import com.spencer.distributed_job_scheduler.repository.StartedAttempt;
 import com.spencer.distributed_job_scheduler.service.JobService;
+import com.spencer.distributed_job_scheduler.service.JobStatusCache;
+import com.spencer.distributed_job_scheduler.service.PriorityQuotas;
+import com.spencer.distributed_job_scheduler.service.RecurringJobService;
+import com.spencer.distributed_job_scheduler.service.RetryPolicyEngine;
+import com.spencer.distributed_job_scheduler.service.StaleFencingTokenException;
+import com.spencer.distributed_job_scheduler.service.TenantFairShare;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
 import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import java.net.InetAddress;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class JobServiceImpl implements JobService {
 
     private static final Logger logger = LoggerFactory.getLogger(JobServiceImpl.class);
 
+    // open ends of a listing time range; both fit Postgres timestamp
+    private static final Instant LISTING_MIN = Instant.parse("0001-01-01T00:00:00Z");
+    private static final Instant LISTING_MAX = Instant.parse("9999-12-31T00:00:00Z");
+
+    // statuses the claim path picks up once scheduledAt is due
+    private static final List<JobStatus> CLAIMABLE = List.of(JobStatus.PENDING, JobStatus.RETRY_SCHEDULED);
+
+    // most urgent first: priority, then due time; rows written before priorities existed go last
+    private static final Comparator<ClaimedJobRef> CLAIM_ORDER = Comparator
+            .comparing(ClaimedJobRef::priority, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(ClaimedJobRef::getScheduledAt);
+
+    // empty exclusion lists for the plain claim
+    private static final String[] NO_TENANTS = new String[0];
+    private static final UUID[] NO_IDS = new UUID[0];
+
+    // last_error column length
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    // FenceRepository role of the elected poller; its tokens come from the poller lock's fencing counter
+    private static final String POLLER_FENCE = "poller";
+
     private final JobRepository jobRepository;
+    private final JobArchiveRepository jobArchiveRepository;
+    private final FenceRepository fenceRepository;
+    private final RedisDelayedQueue delayedQueue;
+    private final RedisPollWakeups pollWakeups;
+    private final RetryPolicyEngine retryPolicyEngine;
+    private final RecurringJobService recurringJobService;
+    private final TenantFairShare tenantFairShare;
+    private final PriorityQuotas priorityQuotas;
+    private final JobStatusCache statusCache;
+    private final JobTypeTags jobTypeTags;
 
     // test-only delay to slow down claiming for visibility; default 0
     private final long testDelayMs;
 
+    // how long a claim stays valid without a heartbeat from the executing worker
+    private final Duration leaseDuration;
+
+    // how long a QUEUED job may wait in a work queue before the reaper presumes its entry lost
+    private final Duration queueLeaseDuration;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Autowired(required = false)
     private MeterRegistry meterRegistry;
 
     private Counter claimedCounter;
-    private Counter completedCounter;
     private Timer claimTimer;
+    private Counter reapedCounter;
+    private Timer leaseOverdueTimer;
+    private Counter archivedCounter;
+    private Counter purgedCounter;
 
-    public JobServiceImpl(JobRepository jobRepository, @Value("${scheduler.test.delay-ms:0}") long testDelayMs) {
+    public JobServiceImpl(JobRepository jobRepository,
+                          JobArchiveRepository jobArchiveRepository,
+                          FenceRepository fenceRepository,
+                          RedisDelayedQueue delayedQueue,
+                          RedisPollWakeups pollWakeups,
+                          RetryPolicyEngine retryPolicyEngine,
+                          RecurringJobService recurringJobService,
+                          TenantFairShare tenantFairShare,
+                          PriorityQuotas priorityQuotas,
+                          JobStatusCache statusCache,
+                          JobTypeTags jobTypeTags,
+                          @Value("${scheduler.test.delay-ms:0}") long testDelayMs,
+                          @Value("${scheduler.lease.duration-ms:120000}") long leaseDurationMs,
+                          @Value("${scheduler.lease.queue-duration-ms:600000}") long queueLeaseDurationMs) {
+        if (leaseDurationMs <= 0 || queueLeaseDurationMs <= 0) {
+            throw new IllegalArgumentException("scheduler.lease.duration-ms and queue-duration-ms must be positive");
+        }
         this.jobRepository = jobRepository;
+        this.jobArchiveRepository = jobArchiveRepository;
+        this.fenceRepository = fenceRepository;
+        this.delayedQueue = delayedQueue;
+        this.pollWakeups = pollWakeups;
+        this.retryPolicyEngine = retryPolicyEngine;
+        this.recurringJobService = recurringJobService;
+        this.tenantFairShare = tenantFairShare;
+        this.priorityQuotas = priorityQuotas;
+        this.statusCache = statusCache;
+        this.jobTypeTags = jobTypeTags;
         this.testDelayMs = testDelayMs;
+        this.leaseDuration = Duration.ofMillis(leaseDurationMs);
+        this.queueLeaseDuration = Duration.ofMillis(queueLeaseDurationMs);
     }
 
     @Autowired
@@ -51,70 +158,293 @@ public class JobServiceImpl implements JobService {
                     .description("Total jobs claimed by schedulers")
                     .register(meterRegistry);
 
-            this.completedCounter = Counter.builder("jobs.completed.total")
-                    .description("Total jobs completed")
-                    .register(meterRegistry);
-
             this.claimTimer = Timer.builder("jobs.claim.duration")
                     .description("Duration to claim a job")
                     .publishPercentiles(0.5, 0.95)
                     .register(meterRegistry);
+
+            this.reapedCounter = Counter.builder("jobs.reaped.total")
+                    .description("Total RUNNING jobs recovered after their lease expired")
+                    .register(meterRegistry);
+
+            // how long past lease expiry a job sat before the reaper recovered it
+            this.leaseOverdueTimer = Timer.builder("jobs.reaper.lease.overdue")
+                    .description("Time between lease expiry and recovery")
+                    .publishPercentiles(0.5, 0.95)
+                    .register(meterRegistry);
+
+            this.archivedCounter = Counter.builder("jobs.archived.total")
+                    .description("Total finished jobs moved to the archive table")
+                    .register(meterRegistry);
+
+            this.purgedCounter = Counter.builder("jobs.purged.total")
+                    .description("Total archived jobs deleted for good")
+                    .register(meterRegistry);
         }
     }
 
     @Override
     public Job createJob(Job job) {
-        return jobRepository.save(job);
+        Job saved = jobRepository.save(job);
+        if (delayedQueue.isEnabled()) {
+            try {
+                delayedQueue.schedule(saved.getId(), saved.getScheduledAt());
+            } catch (Exception ex) {
+                // the row is committed; the reconciliation sweep will add it to the delayed queue later
+                logger.warn("createJob: job {} saved but not added to the delayed queue: {}", saved.getId(), ex.getMessage());
+            }
+        }
+        // the row is committed, so a poller woken by this finds it
+        pollWakeups.announce(saved.getScheduledAt(), Job.partitionOf(saved.getId()));
+        return saved;
+    }
+
+    @Override
+    public List<Job> createJobs(List<Job> jobs) {
+        // saveAll runs in its own transaction; with hibernate.jdbc.batch_size set the inserts go out as batches
+        List<Job> saved = jobRepository.saveAll(jobs);
+        // detach the chunk so a long ingest stream does not grow the request-scoped persistence context
+        entityManager.clear();
+        if (delayedQueue.isEnabled()) {
+            Map<UUID, Instant> scheduled = new HashMap<>();
+            saved.forEach(j -> scheduled.put(j.getId(), j.getScheduledAt()));
+            try {
+                delayedQueue.scheduleAll(scheduled);
+            } catch (Exception ex) {
+                logger.warn("createJobs: {} jobs saved but not added to the delayed queue: {}", saved.size(), ex.getMessage());
+            }
+        }
+        pollWakeups.announce(saved);
+        return saved;
     }
 
     @Override
     public Optional<Job> getJob(UUID id) {
-        return jobRepository.findById(id);
+        // finished jobs move to the archive after a while; callers should not have to know when
+        return jobRepository.findById(id).or(() -> jobRepository.findArchivedById(id));
+    }
+
+    @Override
+    public Optional<JobStatusView> getJobStatus(UUID id) {
+        return statusCache.get(id, key -> jobRepository.findStatusById(key)
+                .or(() -> jobRepository.findArchivedById(key).map(JobServiceImpl::toStatusView)));
+    }
+
+    private static JobStatusView toStatusView(Job job) {
+        return new JobStatusView(job.getId(), job.getStatus(), job.getJobType(), job.getTenantId(), job.getPriority(),
+                job.getScheduledAt(), job.getStartedAt(), job.getFinishedAt(), job.getAttempts(), job.getNextAttemptAt(),
+                job.getLastError(), job.getVersion());
     }
 
     @Override
-    public List<Job> getAllJobs() {
-        return jobRepository.findAll();
+    public List<JobSummary> listJobs(JobFilter filter, UUID afterId, int limit) {
+        // the nil uuid sorts before every id in Postgres, so the first page needs no special case
+        UUID after = afterId == null ? new UUID(0, 0) : afterId;
+        return jobRepository.findSummariesAfter(after, filter.getStatus(), filter.getJobType(),
+                fromOrMin(filter), toOrMax(filter), Limit.of(limit));
     }
 
     @Override
     @Transactional
-    public void markStatus(Job job, JobStatus status) {
-        // reload the current DB state to avoid using a potentially stale entity instance
-        Optional<Job> currentOpt = jobRepository.findById(job.getId());
-        if (currentOpt.isEmpty()) {
-            // nothing to do if the job no longer exists
-            return;
+    public void forEachJob(JobFilter filter, Consumer<JobSummary> consumer) {
+        // the Postgres driver only honours the fetch size inside a transaction; otherwise it buffers the whole result
+        try (Stream<JobSummary> rows = jobRepository.streamSummaries(filter.getStatus(), filter.getJobType(),
+                fromOrMin(filter), toOrMax(filter))) {
+            rows.forEach(consumer);
         }
+    }
 
-        Job current = currentOpt.get();
-        JobStatus previous = current.getStatus();
+    private static Instant fromOrMin(JobFilter filter) {
+        return filter.getFrom() == null ? LISTING_MIN : filter.getFrom();
+    }
 
-        // if there's no effective change, skip
-        if (previous == status) {
-            return;
+    private static Instant toOrMax(JobFilter filter) {
+        return filter.getTo() == null ? LISTING_MAX : filter.getTo();
+    }
+
+    @Override
+    @Transactional
+    public boolean transition(UUID id, JobStatus from, JobStatus to) {
+        Instant now = Instant.now();
+        List<UUID> ids = List.of(id);
+        boolean won = switch (to) {
+            case QUEUED -> jobRepository.markClaimed(ids, List.of(from), to, now, newClaimToken(),
+                    now.plus(queueLeaseDuration), now) == 1;
+            case RUNNING -> jobRepository.markStarted(ids, List.of(from), to, now, newClaimToken(),
+                    now.plus(leaseDuration), now) == 1;
+            case PENDING, RETRY_SCHEDULED -> jobRepository.revertClaims(ids, from, to) == 1;
+            case COMPLETED, FAILED -> jobRepository.finishJobs(ids, from, to, now) == 1;
+        };
+
+        // not counted in jobs.completed.total: a bare transition does not read the row, so its job type is not known
+        if (won) {
+            statusCache.evict(id);
+        }
+        return won;
+    }
+
+    @Override
+    @Transactional
+    public Optional<Job> startJob(UUID id) {
+        Instant now = Instant.now();
+        Optional<Job> started = jobRepository.startJob(id, now, newClaimToken(), now.plus(leaseDuration));
+        if (started.isPresent()) {
+            statusCache.evict(id);
+            // a due PENDING occurrence started straight from the delayed queue was never claimed
+            if (started.get().getRecurringJobId() != null) recurringJobService.materializeNext(List.of(id));
+            Job job = started.get();
+            recordStart(job.getJobType(), job.getPriority(), job.getScheduledAt(), job.getQueuedAt(), now);
+        }
+        return started;
+    }
+
+    @Override
+    @Transactional
+    public Optional<Job> startJob(JobMessage message) {
+        Instant now = Instant.now();
+        String claimedBy = newClaimToken();
+        Optional<StartedAttempt> attempt = jobRepository.startClaimed(message.getId(), message.getVersion(),
+                now, claimedBy, now.plus(leaseDuration));
+        if (attempt.isEmpty()) {
+            return Optional.empty();
+        }
+        statusCache.evict(message.getId());
+        Job job = message.toStartedJob(claimedBy, now);
+        job.setScheduledAt(attempt.get().getScheduledAt());
+        job.setQueuedAt(attempt.get().getQueuedAt());
+        job.setPriority(attempt.get().priority());
+        recordStart(job.getJobType(), job.getPriority(), job.getScheduledAt(), job.getQueuedAt(), now);
+        return Optional.of(job);
+    }
+
+    @Override
+    @Transactional
+    public boolean finishJob(Job job, JobStatus outcome) {
+        if (outcome != JobStatus.COMPLETED && outcome != JobStatus.FAILED) {
+            throw new IllegalArgumentException("A running job can only finish as COMPLETED or FAILED, not " + outcome);
+        }
+
+        boolean won = jobRepository.finishClaimed(job.getId(), job.getClaimedBy(), JobStatus.RUNNING, outcome, Instant.now()) == 1;
+        if (won) {
+            statusCache.evict(job.getId());
+        }
+        if (won && outcome == JobStatus.COMPLETED) {
+            countCompleted(job.getJobType());
         }
+        return won;
+    }
 
-        // apply transition on the fresh entity
-        current.setStatus(status);
-        if (status == JobStatus.RUNNING) {
-            current.setStartedAt(Instant.now());
-        } else if (status == JobStatus.PENDING) {
-            current.setStartedAt(null);
-        } else if (status == JobStatus.COMPLETED) {
-            current.setFinishedAt(Instant.now());
+    @Override
+    @Transactional
+    public JobStatus failJob(Job job, Throwable error) {
+        // the attempt count and policy live on the row; only failures pay for reading it
+        Optional<Job> current = jobRepository.findById(job.getId());
+        if (current.isEmpty() || current.get().getStatus() != JobStatus.RUNNING
+                || !Objects.equals(current.get().getClaimedBy(), job.getClaimedBy())) {
+            return null;
         }
 
-        jobRepository.save(current);
+        Instant now = Instant.now();
+        String lastError = describe(error);
+        Optional<Instant> nextAttemptAt = retryPolicyEngine.nextAttemptAt(current.get(), error, now);
+        if (nextAttemptAt.isEmpty()) {
+            boolean won = jobRepository.failClaimed(job.getId(), job.getClaimedBy(), JobStatus.RUNNING, JobStatus.FAILED,
+                    now, lastError) == 1;
+            if (!won) {
+                return null;
+            }
+            statusCache.evict(job.getId());
+            return JobStatus.FAILED;
+        }
 
-        // centralize metric increments on actual transitions (based on DB previous state)
-        if (previous != JobStatus.RUNNING && status == JobStatus.RUNNING && claimedCounter != null) {
-            claimedCounter.increment();
+        boolean won = jobRepository.scheduleRetry(job.getId(), job.getClaimedBy(), JobStatus.RUNNING, JobStatus.RETRY_SCHEDULED,
+                nextAttemptAt.get(), lastError) == 1;
+        if (!won) {
+            return null;
         }
-        // only count a completion when the job moved from RUNNING -> COMPLETED
-        if (previous == JobStatus.RUNNING && status == JobStatus.COMPLETED && completedCounter != null) {
-            completedCounter.increment();
+        statusCache.evict(job.getId());
+        logger.info("failJob: job {} attempt {} failed, retrying at {}", job.getId(), current.get().getAttempts(), nextAttemptAt.get());
+        increment("jobs.retried.total", "Total failed attempts scheduled for another try", job.getJobType());
+        if (delayedQueue.isEnabled()) {
+            try {
+                delayedQueue.schedule(job.getId(), nextAttemptAt.get());
+            } catch (Exception ex) {
+                logger.warn("failJob: retry of job {} not added to the delayed queue: {}", job.getId(), ex.getMessage());
+            }
         }
+        // announced before commit, but the wakeup is for nextAttemptAt, after the backoff
+        pollWakeups.announce(nextAttemptAt.get(), Job.partitionOf(job.getId()));
+        return JobStatus.RETRY_SCHEDULED;
+    }
+
+    @Override
+    @Transactional
+    public boolean deferJob(Job job, Instant runAt) {
+        boolean won = jobRepository.deferClaimed(job.getId(), job.getClaimedBy(), JobStatus.RUNNING,
+                JobStatus.PENDING, JobStatus.RETRY_SCHEDULED, runAt) == 1;
+        if (!won) {
+            return false;
+        }
+        statusCache.evict(job.getId());
+        increment("jobs.deferred.total", "Total started jobs put back without an attempt, e.g. when rate limited", job.getJobType());
+        if (delayedQueue.isEnabled()) {
+            try {
+                delayedQueue.schedule(job.getId(), runAt);
+            } catch (Exception ex) {
+                logger.warn("deferJob: job {} not added to the delayed queue: {}", job.getId(), ex.getMessage());
+            }
+        }
+        pollWakeups.announce(runAt, Job.partitionOf(job.getId()));
+        return true;
+    }
+
+    private void countCompleted(String jobType) {
+        increment("jobs.completed.total", "Total jobs completed", jobType);
+    }
+
+    // per-type meters are looked up on use; the registry keeps them, so after the first use this is a map lookup
+    private void increment(String name, String description, String jobType) {
+        if (meterRegistry != null) {
+            Counter.builder(name).description(description).tag("job_type", jobTypeTags.of(jobType)).register(meterRegistry).increment();
+        }
+    }
+
+    // dispatch lag runs from the scheduled time to the start, queue wait from the claim to the start
+    private void recordStart(String jobType, JobPriority priority, Instant scheduledAt, Instant queuedAt, Instant startedAt) {
+        if (meterRegistry == null) {
+            return;
+        }
+        increment("jobs.started.total", "Total jobs a worker won the start transition for", jobType);
+        Tags tags = Tags.of("job_type", jobTypeTags.of(jobType), "priority", priority == null ? "none" : priority.name().toLowerCase());
+        if (scheduledAt != null) {
+            latencyTimer("jobs.dispatch.lag", "Time from a job's scheduled time until the attempt started", tags)
+                    .record(nonNegative(Duration.between(scheduledAt, startedAt)));
+        }
+        if (queuedAt != null) {
+            latencyTimer("jobs.queue.wait", "Time a claimed job waited in the work queue before it started", tags)
+                    .record(nonNegative(Duration.between(queuedAt, startedAt)));
+        }
+    }
+
+    // histogram buckets from 1ms to an hour, so Grafana can compute quantiles across nodes
+    private Timer latencyTimer(String name, String description, Tags tags) {
+        return Timer.builder(name)
+                .description(description)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofHours(1))
+                .register(meterRegistry);
+    }
+
+    // clocks of different nodes disagree slightly; a start "before" its scheduled time counts as no lag
+    private static Duration nonNegative(Duration duration) {
+        return duration.isNegative() ? Duration.ZERO : duration;
+    }
+
+    private static String describe(Throwable error) {
+        String text = error.getClass().getSimpleName() + (error.getMessage() == null ? "" : ": " + error.getMessage());
+        return text.length() <= MAX_ERROR_LENGTH ? text : text.substring(0, MAX_ERROR_LENGTH);
     }
 
     @Override
@@ -122,39 +452,363 @@ public class JobServiceImpl implements JobService {
     public Optional<Job> claimNextDueJob() {
         long start = System.nanoTime();
         try {
-            Optional<Job> opt = jobRepository.findTopByStatusAndScheduledAtBeforeOrderByScheduledAtAsc(JobStatus.PENDING, Instant.now());
+            Optional<Job> opt = jobRepository.findTopByStatusInAndScheduledAtBeforeOrderByPriorityAscScheduledAtAsc(CLAIMABLE, Instant.now());
             if (opt.isEmpty()) {
                 logger.debug("claimNextDueJob: no candidate found");
                 return Optional.empty();
             }
 
-            Job job = opt.get();
-            logger.info("claimNextDueJob: found job {}, claiming...", job.getId());
+            Job candidate = opt.get();
+            logger.info("claimNextDueJob: found job {}, claiming...", candidate.getId());
 
-            try {
-                String host = InetAddress.getLocalHost().getHostName();
-                job.setClaimedBy(host + "-" + UUID.randomUUID());
-            } catch (Exception e) {
-                job.setClaimedBy("scheduler-" + UUID.randomUUID());
+            // the row is locked; detach the candidate so startJob's RETURNING row is not resolved to this stale instance
+            entityManager.detach(candidate);
+            Optional<Job> started = startJob(candidate.getId());
+            started.ifPresent(job -> logger.info("claimNextDueJob: job {} marked RUNNING (startedAt={}, claimedBy={})",
+                    job.getId(), job.getStartedAt(), job.getClaimedBy()));
+
+            sleepForTestVisibility("claimNextDueJob");
+
+            return started;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            if (claimTimer != null) claimTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    @Transactional
+    public List<ClaimedJobRef> claimDueJobs(int limit) {
+        // lock the candidate rows first (SKIP LOCKED lets concurrent claimers take disjoint batches),
+        // then flip them all with a single UPDATE inside the same transaction
+        return claimLocked(() -> lockDueJobs(limit, null), this::markQueued);
+    }
+
+    @Override
+    @Transactional
+    public List<ClaimedJobRef> claimDueJobs(int limit, int partition) {
+        return claimLocked(() -> lockDueJobs(limit, partition), this::markQueued);
+    }
+
+    @Override
+    @Transactional
+    public List<ClaimedJobRef> claimDueJobsAsLeader(int limit, long fencingToken) {
+        return claimLocked(() -> lockDueJobs(limit, null), null, fencingToken, this::markQueued);
+    }
+
+    @Override
+    @Transactional
+    public List<Job> claimDueJobRowsAsLeader(int limit, long fencingToken) {
+        return claimLocked(() -> lockDueJobs(limit, null), null, fencingToken, this::markQueuedReturning);
+    }
+
+    @Override
+    @Transactional
+    public List<ClaimedJobRef> claimJobsDueBy(Instant dueBy, int limit, Integer partition, Long fencingToken) {
+        return claimLocked(() -> lockJobsDueBy(dueBy, limit, partition), dueBy, fencingToken, this::markQueued);
+    }
+
+    @Override
+    @Transactional
+    public List<Job> claimJobRowsDueBy(Instant dueBy, int limit, Integer partition, Long fencingToken) {
+        return claimLocked(() -> lockJobsDueBy(dueBy, limit, partition), dueBy, fencingToken, this::markQueuedReturning);
+    }
+
+    @Override
+    public Optional<Instant> findNextDueAt() {
+        return jobRepository.findNextScheduledAt();
+    }
+
+    @Override
+    @Transactional
+    public List<Job> claimDueJobRows(int limit) {
+        return claimLocked(() -> lockDueJobs(limit, null), this::markQueuedReturning);
+    }
+
+    @Override
+    @Transactional
+    public List<Job> claimDueJobRows(int limit, int partition) {
+        return claimLocked(() -> lockDueJobs(limit, partition), this::markQueuedReturning);
+    }
+
+    // partition null means the whole table
+    private List<ClaimedJobRef> lockDueJobs(int limit, Integer partition) {
+        Instant now = Instant.now();
+        if (!tenantFairShare.isEnabled()) {
+            return lockDueJobs(partition, now, limit, NO_TENANTS, NO_IDS);
+        }
+
+        TenantFairShare.Plan plan = tenantFairShare.plan(limit);
+        List<ClaimedJobRef> locked = new ArrayList<>();
+        if (!plan.getQuotas().isEmpty()) {
+            String[] tenants = plan.getQuotas().keySet().toArray(String[]::new);
+            Integer[] quotas = plan.getQuotas().values().toArray(Integer[]::new);
+            locked.addAll(partition == null
+                    ? jobRepository.lockDueJobsForTenants(tenants, quotas, now)
+                    : jobRepository.lockDueJobsForTenantsInPartition(partition, tenants, quotas, now));
+        }
+        // work-conserving: whatever the quotas left unused goes to the oldest due work of uncapped tenants,
+        // including tenants that appeared after the last load summary, up to their cap
+        if (locked.size() < limit) {
+            UUID[] alreadyLocked = locked.stream().map(ClaimedJobRef::getId).toArray(UUID[]::new);
+            locked.addAll(tenantFairShare.capFill(plan,
+                    lockDueJobs(partition, now, limit - locked.size(), plan.getCapped().toArray(String[]::new), alreadyLocked)));
+        }
+        tenantFairShare.charge(plan, locked);
+        return TenantFairShare.interleave(locked);
+    }
+
+    // each priority gets its weighted share of the batch first, so HIGH cannot starve the rest; what a priority
+    // leaves unused goes to the remaining due work in priority order
+    private List<ClaimedJobRef> lockDueJobs(Integer partition, Instant now, int limit, String[] excludedTenants, UUID[] excludedIds) {
+        int[] split = priorityQuotas.split(limit);
+        List<Short> priorities = new ArrayList<>(split.length);
+        List<Integer> quotas = new ArrayList<>(split.length);
+        for (int i = 0; i < split.length; i++) {
+            if (split[i] > 0) {
+                priorities.add((short) i);
+                quotas.add(split[i]);
+            }
+        }
+        List<ClaimedJobRef> locked = new ArrayList<>(partition == null
+                ? jobRepository.lockDueJobsByPriority(priorities.toArray(Short[]::new), quotas.toArray(Integer[]::new),
+                        now, excludedTenants, excludedIds)
+                : jobRepository.lockDueJobsByPriorityInPartition(partition, priorities.toArray(Short[]::new),
+                        quotas.toArray(Integer[]::new), now, excludedTenants, excludedIds));
+        if (locked.size() < limit) {
+            UUID[] alreadyLocked = new UUID[excludedIds.length + locked.size()];
+            System.arraycopy(excludedIds, 0, alreadyLocked, 0, excludedIds.length);
+            for (int i = 0; i < locked.size(); i++) {
+                alreadyLocked[excludedIds.length + i] = locked.get(i).getId();
             }
+            locked.addAll(partition == null
+                    ? jobRepository.lockDueJobs(now, limit - locked.size(), excludedTenants, alreadyLocked)
+                    : jobRepository.lockDueJobsInPartition(partition, now, limit - locked.size(), excludedTenants, alreadyLocked));
+        }
+        locked.sort(CLAIM_ORDER);
+        return locked;
+    }
 
-            // use markStatus so the RUNNING transition and metric increment are centralized
-            markStatus(job, JobStatus.RUNNING);
-            logger.info("claimNextDueJob: job {} marked RUNNING (startedAt={}, claimedBy={})", job.getId(), job.getStartedAt(), job.getClaimedBy());
+    // prefetch bypasses the fair-share quotas, which only weigh due work; with in-flight caps configured it takes
+    // nothing, since jobs parked ahead of time would count against them early
+    private List<ClaimedJobRef> lockJobsDueBy(Instant dueBy, int limit, Integer partition) {
+        if (tenantFairShare.isEnabled() && tenantFairShare.hasInFlightCaps()) {
+            return List.of();
+        }
+        return partition == null
+                ? jobRepository.lockJobsDueBy(dueBy, limit)
+                : jobRepository.lockJobsDueByInPartition(partition, dueBy, limit);
+    }
 
-            if (testDelayMs > 0) {
-                logger.info("claimNextDueJob: sleeping {}ms for test visibility", testDelayMs);
-                try {
-                    Thread.sleep(testDelayMs);
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                }
+    // writes the claim for already-locked jobs and returns what the caller gets back
+    private interface ClaimUpdate<T> {
+        List<T> apply(List<ClaimedJobRef> locked, List<UUID> ids, Instant now, String claimedBy, Instant leaseExpiresAt,
+                      Instant dueBy);
+    }
+
+    private List<ClaimedJobRef> markQueued(List<ClaimedJobRef> locked, List<UUID> ids, Instant now, String claimedBy,
+                                           Instant leaseExpiresAt, Instant dueBy) {
+        jobRepository.markClaimed(ids, CLAIMABLE, JobStatus.QUEUED, now, claimedBy, leaseExpiresAt, dueBy);
+        return locked;
+    }
+
+    private List<Job> markQueuedReturning(List<ClaimedJobRef> locked, List<UUID> ids, Instant now, String claimedBy,
+                                          Instant leaseExpiresAt, Instant dueBy) {
+        // RETURNING order is unspecified; restore claim order so the most urgent job is dispatched first
+        Map<UUID, Integer> position = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            position.put(ids.get(i), i);
+        }
+        List<Job> rows = new ArrayList<>(jobRepository.markQueuedReturning(ids, now, claimedBy, leaseExpiresAt, dueBy));
+        rows.sort(Comparator.comparing(job -> position.getOrDefault(job.getId(), Integer.MAX_VALUE)));
+        return rows;
+    }
+
+    private <T> List<T> claimLocked(Supplier<List<ClaimedJobRef>> lockCandidates, ClaimUpdate<T> update) {
+        return claimLocked(lockCandidates, null, null, update);
+    }
+
+    // dueBy bounds the scheduledAt of the rows claimed; null means the claim time. A fencing token is checked
+    // before anything is locked and its fence row stays locked until commit, so leader claims are serialized
+    private <T> List<T> claimLocked(Supplier<List<ClaimedJobRef>> lockCandidates, Instant dueBy, Long fencingToken,
+                                    ClaimUpdate<T> update) {
+        long start = System.nanoTime();
+        try {
+            if (fencingToken != null && !fenceRepository.advance(POLLER_FENCE, fencingToken)) {
+                throw new StaleFencingTokenException(POLLER_FENCE, fencingToken, fenceRepository.current(POLLER_FENCE));
+            }
+            List<ClaimedJobRef> locked = lockCandidates.get();
+            if (locked.isEmpty()) {
+                logger.debug("claimDueJobs: no candidates found");
+                return List.of();
+            }
+
+            List<UUID> ids = locked.stream().map(ClaimedJobRef::getId).toList();
+            String claimedBy = newClaimToken();
+            Instant now = Instant.now();
+            Instant claimedDueBy = dueBy == null ? now : dueBy;
+            // the queue lease covers the wait in the work queue, counted from when the job is due so time parked in the
+            // prefetch wheel is not taken from it; a lost push is requeued by the reaper once it lapses
+            List<T> claimed = update.apply(locked, ids, now, claimedBy, claimedDueBy.plus(queueLeaseDuration), claimedDueBy);
+            statusCache.evict(ids);
+            // recurring definitions get their next occurrence as soon as the current one is claimed; the locked
+            // definition lookup is only paid by batches that claimed an occurrence
+            List<UUID> occurrences = locked.stream().filter(ref -> ref.getRecurringJobId() != null).map(ClaimedJobRef::getId).toList();
+            if (!occurrences.isEmpty()) {
+                recurringJobService.materializeNext(occurrences);
             }
+            logger.info("claimDueJobs: claimed {} jobs (claimedBy={})", claimed.size(), claimedBy);
 
-            return Optional.of(job);
+            if (claimedCounter != null) claimedCounter.increment(claimed.size());
+
+            sleepForTestVisibility("claimDueJobs");
+
+            return claimed;
         } finally {
             long elapsed = System.nanoTime() - start;
             if (claimTimer != null) claimTimer.record(elapsed, TimeUnit.NANOSECONDS);
         }
     }
+
+    @Override
+    @Transactional
+    public void releaseClaims(List<UUID> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        int reverted = jobRepository.revertClaims(ids, JobStatus.QUEUED, JobStatus.PENDING);
+        statusCache.evict(ids);
+        logger.info("releaseClaims: reverted {} of {} jobs to PENDING", reverted, ids.size());
+    }
+
+    @Override
+    @Transactional
+    public void renewLeases(Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        int renewed = jobRepository.renewLeases(ids, JobStatus.RUNNING, Instant.now().plus(leaseDuration));
+        logger.debug("renewLeases: renewed {} of {} leases", renewed, ids.size());
+    }
+
+    @Override
+    @Transactional
+    public int reapExpiredLeases(int limit, JobStatus target) {
+        if (target != JobStatus.PENDING && target != JobStatus.FAILED) {
+            throw new IllegalArgumentException("Expired leases can only be moved to PENDING or FAILED, not " + target);
+        }
+
+        Instant now = Instant.now();
+        List<ExpiredLease> expired = jobRepository.lockExpiredLeases(now, now.minus(leaseDuration), limit);
+        if (expired.isEmpty()) {
+            return 0;
+        }
+
+        List<UUID> ids = expired.stream().map(ExpiredLease::getId).toList();
+        Map<JobStatus, List<UUID>> byStatus = expired.stream()
+                .collect(Collectors.groupingBy(ExpiredLease::getStatus, Collectors.mapping(ExpiredLease::getId, Collectors.toList())));
+        List<UUID> running = byStatus.getOrDefault(JobStatus.RUNNING, List.of());
+        List<UUID> queued = byStatus.getOrDefault(JobStatus.QUEUED, List.of());
+
+        int reaped = 0;
+        if (!running.isEmpty()) {
+            reaped += target == JobStatus.PENDING
+                    ? jobRepository.revertClaims(running, JobStatus.RUNNING, JobStatus.PENDING)
+                    : jobRepository.finishJobs(running, JobStatus.RUNNING, JobStatus.FAILED, now);
+        }
+        // a QUEUED job never started executing, so it is always safe to requeue
+        if (!queued.isEmpty()) {
+            reaped += jobRepository.revertClaims(queued, JobStatus.QUEUED, JobStatus.PENDING);
+        }
+        statusCache.evict(ids);
+        logger.warn("reapExpiredLeases: recovered {} orphaned jobs ({} RUNNING -> {}, {} QUEUED -> PENDING)",
+                reaped, running.size(), target, queued.size());
+
+        List<UUID> requeuedIds = target == JobStatus.PENDING ? ids : queued;
+        if (!requeuedIds.isEmpty() && delayedQueue.isEnabled()) {
+            // nothing polls the table in delayed-queue mode, so requeued jobs must go back into the sorted set
+            Map<UUID, Instant> requeued = new HashMap<>();
+            requeuedIds.forEach(id -> requeued.put(id, now));
+            delayedQueue.scheduleAll(requeued);
+        }
+
+        if (reapedCounter != null) reapedCounter.increment(reaped);
+        if (leaseOverdueTimer != null) {
+            for (ExpiredLease lease : expired) {
+                if (lease.getLeaseExpiresAt() != null) {
+                    leaseOverdueTimer.record(Duration.between(lease.getLeaseExpiresAt(), now));
+                }
+            }
+        }
+        return reaped;
+    }
+
+    @Override
+    public int reconcileDelayedQueue(Instant from, Instant until, int pageSize, int maxJobs) {
+        Instant afterAt = from;
+        UUID afterId = new UUID(0L, 0L);
+        int scanned = 0;
+        int readded = 0;
+        while (scanned < maxJobs) {
+            List<ScheduledJobRef> page = jobRepository.findScheduledAfter(CLAIMABLE, afterAt, afterId, until,
+                    Limit.of(Math.min(pageSize, maxJobs - scanned)));
+            if (page.isEmpty()) {
+                break;
+            }
+
+            // a job promoted at or after its fire time is still waiting in the work queue for a worker; re-adding it
+            // would queue it again on every sweep while workers are behind
+            List<Instant> promotedAt = delayedQueue.promotedAt(page.stream().map(ScheduledJobRef::getId).toList());
+            Map<UUID, Instant> entries = new HashMap<>();
+            for (int i = 0; i < page.size(); i++) {
+                ScheduledJobRef ref = page.get(i);
+                Instant promoted = promotedAt.get(i);
+                if (promoted == null || promoted.isBefore(ref.getScheduledAt())) {
+                    entries.put(ref.getId(), ref.getScheduledAt());
+                }
+            }
+            delayedQueue.scheduleAll(entries);
+            scanned += page.size();
+            readded += entries.size();
+
+            ScheduledJobRef last = page.get(page.size() - 1);
+            afterAt = last.getScheduledAt();
+            afterId = last.getId();
+        }
+        return readded;
+    }
+
+    @Override
+    public int archiveFinishedJobs(Instant finishedBefore, int limit) {
+        int archived = jobArchiveRepository.archiveFinished(finishedBefore, limit);
+        if (archivedCounter != null) archivedCounter.increment(archived);
+        return archived;
+    }
+
+    @Override
+    public int purgeArchivedJobs(Instant archivedBefore, int limit) {
+        int purged = jobArchiveRepository.purgeArchived(archivedBefore, limit);
+        if (purgedCounter != null) purgedCounter.increment(purged);
+        return purged;
+    }
+
+    private String newClaimToken() {
+        try {
+            String host = InetAddress.getLocalHost().getHostName();
+            return host + "-" + UUID.randomUUID();
+        } catch (Exception e) {
+            return "scheduler-" + UUID.randomUUID();
+        }
+    }
+
+    private void sleepForTestVisibility(String caller) {
+        if (testDelayMs > 0) {
+            logger.info("{}: sleeping {}ms for test visibility", caller, testDelayMs);
+            try {
+                Thread.sleep(testDelayMs);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
 }
@@ -0,0 +1,268 @@
+package com.spencer.distributed_job_scheduler.service.impl;
+
+import com.spencer.distributed_job_scheduler.model.Job;
+import com.spencer.distributed_job_scheduler.model.JobPriority;
+import com.spencer.distributed_job_scheduler.model.JobStatus;
+import com.spencer.distributed_job_scheduler.model.MisfirePolicy;
+import com.spencer.distributed_job_scheduler.model.RecurringJob;
+import com.spencer.distributed_job_scheduler.model.RetryPolicy;
+import com.spencer.distributed_job_scheduler.redis.RedisDelayedQueue;
+import com.spencer.distributed_job_scheduler.repository.JobRepository;
+import com.spencer.distributed_job_scheduler.repository.RecurringJobRepository;
+import com.spencer.distributed_job_scheduler.service.RecurringJobService;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class RecurringJobServiceImpl implements RecurringJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecurringJobServiceImpl.class);
+
+    private final RecurringJobRepository recurringJobRepository;
+    private final JobRepository jobRepository;
+    private final RedisDelayedQueue delayedQueue;
+    private final long minFixedRateMs;
+    private final int cronCacheSize;
+
+    // parsing dominates next-fire computation, and millions of definitions share few distinct expressions. The strings
+    // come from clients, so once cronCacheSize are cached further ones are parsed on every use instead of kept
+    private final Map<String, CronExpression> parsedCron = new ConcurrentHashMap<>();
+
+    public RecurringJobServiceImpl(RecurringJobRepository recurringJobRepository,
+                                   JobRepository jobRepository,
+                                   RedisDelayedQueue delayedQueue,
+                                   @Value("${scheduler.recurring.min-fixed-rate-ms:1000}") long minFixedRateMs,
+                                   @Value("${scheduler.recurring.cron-cache-size:1000}") int cronCacheSize) {
+        this.recurringJobRepository = recurringJobRepository;
+        this.jobRepository = jobRepository;
+        this.delayedQueue = delayedQueue;
+        this.minFixedRateMs = minFixedRateMs;
+        this.cronCacheSize = cronCacheSize;
+    }
+
+    @Override
+    @Transactional
+    public RecurringJob createRecurringJob(RecurringJob definition, Instant startAt) {
+        validate(definition);
+        if (definition.getMisfirePolicy() == null) {
+            definition.setMisfirePolicy(MisfirePolicy.FIRE_ONCE);
+        }
+
+        Instant now = Instant.now();
+        Instant from = startAt == null || startAt.isBefore(now) ? now : startAt;
+        // a fixed-rate schedule fires at its start; a cron schedule at its first match after it
+        Instant first = definition.getFixedRateMs() != null ? from : nextFireAfter(definition, from.minusMillis(1));
+        if (first == null) {
+            throw new IllegalArgumentException("schedule never fires: " + definition.getCronExpression());
+        }
+
+        RecurringJob saved = recurringJobRepository.save(definition);
+        Job occurrence = jobRepository.save(newOccurrence(saved, first));
+        saved.setCurrentJobId(occurrence.getId());
+        saved.setNextFireAt(first);
+        if (delayedQueue.isEnabled()) {
+            scheduleInDelayedQueue(Map.of(occurrence.getId(), first));
+        }
+        return saved;
+    }
+
+    @Override
+    public Optional<RecurringJob> getRecurringJob(UUID id) {
+        return recurringJobRepository.findById(id);
+    }
+
+    @Override
+    @Transactional
+    public boolean deleteRecurringJob(UUID id) {
+        Optional<RecurringJob> definition = recurringJobRepository.findWithLockById(id);
+        if (definition.isEmpty()) {
+            return false;
+        }
+        // an occurrence already claimed still runs once; with the definition gone nothing follows it
+        if (definition.get().getCurrentJobId() != null) {
+            jobRepository.deleteByIdInStatus(definition.get().getCurrentJobId(), List.of(JobStatus.PENDING));
+        }
+        recurringJobRepository.delete(definition.get());
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public int materializeNext(Collection<UUID> claimedJobIds) {
+        if (claimedJobIds.isEmpty()) {
+            return 0;
+        }
+        List<RecurringJob> definitions = recurringJobRepository.findByCurrentJobIdIn(claimedJobIds);
+        if (definitions.isEmpty()) {
+            return 0;
+        }
+
+        Instant now = Instant.now();
+        List<Job> occurrences = new ArrayList<>(definitions.size());
+        List<RecurringJob> advanced = new ArrayList<>(definitions.size());
+        for (RecurringJob definition : definitions) {
+            Instant fired = definition.getNextFireAt();
+            Instant next = nextOccurrence(definition, fired, now);
+            definition.setLastFiredAt(fired);
+            definition.setNextFireAt(next);
+            definition.setCurrentJobId(null);
+            if (next != null) {
+                occurrences.add(newOccurrence(definition, next));
+                advanced.add(definition);
+            }
+        }
+
+        List<Job> saved = jobRepository.saveAll(occurrences);
+        Map<UUID, Instant> scheduled = new HashMap<>();
+        for (int i = 0; i < saved.size(); i++) {
+            advanced.get(i).setCurrentJobId(saved.get(i).getId());
+            scheduled.put(saved.get(i).getId(), saved.get(i).getScheduledAt());
+        }
+        if (delayedQueue.isEnabled()) {
+            scheduleInDelayedQueue(scheduled);
+        }
+        logger.debug("materializeNext: {} next occurrences for {} claimed jobs", saved.size(), claimedJobIds.size());
+        return saved.size();
+    }
+
+    // the fire time after previous, adjusted by the misfire policy when it has already passed
+    Instant nextOccurrence(RecurringJob definition, Instant previous, Instant now) {
+        Instant next = nextFireAfter(definition, previous);
+        if (next == null || !next.isBefore(now) || definition.getMisfirePolicy() == MisfirePolicy.CATCH_UP) {
+            return next;
+        }
+        Long rate = definition.getFixedRateMs();
+        if (rate != null) {
+            // first multiple of the rate after now, without stepping through the missed ones
+            long missed = (now.toEpochMilli() - previous.toEpochMilli()) / rate + 1;
+            return previous.plusMillis(missed * rate);
+        }
+        return nextFireAfter(definition, now);
+    }
+
+    Instant nextFireAfter(RecurringJob definition, Instant after) {
+        if (definition.getFixedRateMs() != null) {
+            return after.plusMillis(definition.getFixedRateMs());
+        }
+        ZonedDateTime next = cron(definition.getCronExpression()).next(after.atZone(zone(definition)));
+        return next == null ? null : next.toInstant();
+    }
+
+    private void validate(RecurringJob definition) {
+        boolean hasCron = definition.getCronExpression() != null && !definition.getCronExpression().isBlank();
+        if (hasCron == (definition.getFixedRateMs() != null)) {
+            throw new IllegalArgumentException("exactly one of cron and fixedRateMs is required");
+        }
+        if (hasCron) {
+            cron(definition.getCronExpression());
+            zone(definition);
+        } else if (definition.getFixedRateMs() < minFixedRateMs) {
+            throw new IllegalArgumentException("fixedRateMs must be at least " + minFixedRateMs);
+        }
+    }
+
+    private CronExpression cron(String expression) {
+        String expr = expression.trim();
+        CronExpression cached = parsedCron.get(expr);
+        if (cached != null) {
+            return cached;
+        }
+        CronExpression parsed = parseCron(expr);
+        // racing callers may overshoot the bound by a few entries
+        if (parsedCron.size() < cronCacheSize) {
+            parsedCron.putIfAbsent(expr, parsed);
+        }
+        return parsed;
+    }
+
+    private static CronExpression parseCron(String expr) {
+        String sixFields = expr.split("\\s+").length == 5 ? "0 " + expr : expr;
+        try {
+            return CronExpression.parse(sixFields);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("invalid cron expression '" + expr + "': " + ex.getMessage());
+        }
+    }
+
+    private static ZoneId zone(RecurringJob definition) {
+        if (definition.getTimeZone() == null) {
+            return ZoneOffset.UTC;
+        }
+        try {
+            return ZoneId.of(definition.getTimeZone());
+        } catch (DateTimeException ex) {
+            throw new IllegalArgumentException("unknown time zone: " + definition.getTimeZone());
+        }
+    }
+
+    private static Job newOccurrence(RecurringJob definition, Instant scheduledAt) {
+        Job job = new Job();
+        job.setJobType(definition.getJobType());
+        job.setPayload(definition.getPayload());
+        job.setStatus(JobStatus.PENDING);
+        job.setScheduledAt(scheduledAt);
+        job.setRecurringJobId(definition.getId());
+        // embeddables must not be shared between entities
+        job.setRetryPolicy(copyOf(definition.getRetryPolicy()));
+        job.setPriority(definition.getPriority() == null ? JobPriority.NORMAL : definition.getPriority());
+        job.setTenantId(definition.getTenantId());
+        return job;
+    }
+
+    private static RetryPolicy copyOf(RetryPolicy policy) {
+        if (policy == null) {
+            return null;
+        }
+        RetryPolicy copy = new RetryPolicy();
+        copy.setMaxAttempts(policy.getMaxAttempts());
+        copy.setBackoffBaseMs(policy.getBackoffBaseMs());
+        copy.setBackoffCapMs(policy.getBackoffCapMs());
+        copy.setJitter(policy.getJitter());
+        copy.setRetryableStatuses(policy.getRetryableStatuses());
+        return copy;
+    }
+
+    // after commit, so an occurrence that is already due is never promoted to a worker before its row is visible
+    private void scheduleInDelayedQueue(Map<UUID, Instant> occurrences) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            Map<UUID, Instant> copy = Map.copyOf(occurrences);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    scheduleNow(copy);
+                }
+            });
+        } else {
+            scheduleNow(occurrences);
+        }
+    }
+
+    private void scheduleNow(Map<UUID, Instant> occurrences) {
+        try {
+            delayedQueue.scheduleAll(occurrences);
+        } catch (Exception ex) {
+            // the rows are written; the reconciliation sweep adds them to the delayed queue later
+            logger.warn("scheduleInDelayedQueue: {} occurrences not added to the delayed queue: {}", occurrences.size(), ex.getMessage());
+        }
+    }
+}
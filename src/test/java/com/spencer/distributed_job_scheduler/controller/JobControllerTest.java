@@ -0,0 +1,166 @@
+package com.spencer.distributed_job_scheduler.controller;
+
+import com.spencer.distributed_job_scheduler.dto.JobFilter;
+import com.spencer.distributed_job_scheduler.dto.JobPage;
+import com.spencer.distributed_job_scheduler.dto.JobStatusView;
+import com.spencer.distributed_job_scheduler.dto.JobSummary;
+import com.spencer.distributed_job_scheduler.model.Job;
+import com.spencer.distributed_job_scheduler.model.JobStatus;
+import com.spencer.distributed_job_scheduler.service.JobService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JobControllerTest {
+
+    private final JobService jobService = Mockito.mock(JobService.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JobController controller = new JobController(jobService, objectMapper, null, null);
+
+    private final UUID id = UUID.randomUUID();
+
+    @Test
+    public void unchangedJobIsAnsweredFromTheStatusCache() {
+        Job job = job(JobStatus.RUNNING);
+        Mockito.when(jobService.getJob(id)).thenReturn(Optional.of(job));
+        Mockito.when(jobService.getJobStatus(id)).thenReturn(Optional.of(viewOf(job)));
+
+        String etag = controller.getJob(id, null).getHeaders().getETag();
+        assertNotNull(etag);
+
+        ResponseEntity<Job> revalidated = controller.getJob(id, etag);
+        assertEquals(HttpStatus.NOT_MODIFIED, revalidated.getStatusCode());
+        assertNull(revalidated.getBody());
+        Mockito.verify(jobService, Mockito.times(1)).getJob(id);
+    }
+
+    @Test
+    public void transitionedJobIsLoadedAgain() {
+        Job running = job(JobStatus.RUNNING);
+        Mockito.when(jobService.getJob(id)).thenReturn(Optional.of(running));
+        String etag = controller.getJob(id, null).getHeaders().getETag();
+
+        Job completed = job(JobStatus.COMPLETED);
+        completed.setFinishedAt(Instant.parse("2026-01-01T00:00:05.123456Z"));
+        Mockito.when(jobService.getJobStatus(id)).thenReturn(Optional.of(viewOf(completed)));
+        Mockito.when(jobService.getJob(id)).thenReturn(Optional.of(completed));
+
+        ResponseEntity<Job> response = controller.getJob(id, etag);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(completed, response.getBody());
+        assertNotEquals(etag, response.getHeaders().getETag());
+    }
+
+    @Test
+    public void reclaimedJobIsLoadedAgainEvenInTheSameStatus() {
+        Job running = job(JobStatus.RUNNING);
+        Mockito.when(jobService.getJob(id)).thenReturn(Optional.of(running));
+        String etag = controller.getJob(id, null).getHeaders().getETag();
+        assertTrue(etag.startsWith("W/"), etag);
+
+        // reaped and started again by another node: same status and attempts, new claim and version
+        Job reclaimed = job(JobStatus.RUNNING);
+        reclaimed.setClaimedBy("other-node");
+        ReflectionTestUtils.setField(reclaimed, "version", running.getVersion() + 2);
+        Mockito.when(jobService.getJobStatus(id)).thenReturn(Optional.of(viewOf(reclaimed)));
+        Mockito.when(jobService.getJob(id)).thenReturn(Optional.of(reclaimed));
+
+        assertEquals(HttpStatus.OK, controller.getJob(id, etag).getStatusCode());
+    }
+
+    @Test
+    public void ifNoneMatchUsesTheWeakComparison() {
+        assertTrue(JobController.matches("W/\"4\"", "W/\"4\""));
+        assertTrue(JobController.matches("\"4\"", "W/\"4\""));
+        assertTrue(JobController.matches("W/\"3\", W/\"4\"", "W/\"4\""));
+        assertTrue(JobController.matches("*", "W/\"4\""));
+        assertFalse(JobController.matches("W/\"3\"", "W/\"4\""));
+    }
+
+    @Test
+    public void missingJobIsNotFound() {
+        Mockito.when(jobService.getJobStatus(id)).thenReturn(Optional.empty());
+        Mockito.when(jobService.getJob(id)).thenReturn(Optional.empty());
+
+        assertEquals(HttpStatus.NOT_FOUND, controller.getJob(id, "W/\"1\"").getStatusCode());
+    }
+
+    @Test
+    public void fullPageCarriesTheLastIdAsTheNextCursor() {
+        ReflectionTestUtils.setField(controller, "maxPageSize", 2);
+        JobFilter filter = new JobFilter();
+        List<JobSummary> full = List.of(summary(UUID.randomUUID()), summary(id));
+        Mockito.when(jobService.listJobs(filter, null, 2)).thenReturn(full);
+
+        // the requested limit is capped at the configured maximum
+        JobPage page = controller.listJobs(filter, null, 50).getBody();
+
+        assertEquals(full, page.getItems());
+        assertEquals(id, page.getNextCursor());
+    }
+
+    @Test
+    public void shortPageIsTheLast() {
+        ReflectionTestUtils.setField(controller, "maxPageSize", 1000);
+        JobFilter filter = new JobFilter();
+        UUID cursor = UUID.randomUUID();
+        Mockito.when(jobService.listJobs(filter, cursor, 3)).thenReturn(List.of(summary(id)));
+
+        assertNull(controller.listJobs(filter, cursor, 3).getBody().getNextCursor());
+    }
+
+    @Test
+    public void streamWritesOneJsonObjectPerLine() throws Exception {
+        JobFilter filter = new JobFilter();
+        UUID other = UUID.randomUUID();
+        Mockito.doAnswer(invocation -> {
+            Consumer<JobSummary> consumer = invocation.getArgument(1);
+            consumer.accept(summary(id));
+            consumer.accept(summary(other));
+            return null;
+        }).when(jobService).forEachJob(Mockito.eq(filter), Mockito.any());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        controller.streamJobs(filter, response);
+
+        assertEquals(MediaType.APPLICATION_NDJSON_VALUE, response.getContentType());
+        String[] lines = response.getContentAsString().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(summary(id), objectMapper.readValue(lines[0], JobSummary.class));
+        assertEquals(other, objectMapper.readValue(lines[1], JobSummary.class).getId());
+    }
+
+    private Job job(JobStatus status) {
+        Job job = new Job();
+        ReflectionTestUtils.setField(job, "id", id);
+        ReflectionTestUtils.setField(job, "version", (long) status.ordinal());
+        job.setStatus(status);
+        job.setJobType("noop");
+        job.setAttempts(1);
+        job.setScheduledAt(Instant.parse("2026-01-01T00:00:00Z"));
+        return job;
+    }
+
+    private static JobSummary summary(UUID id) {
+        return new JobSummary(id, JobStatus.PENDING, "noop", Instant.parse("2026-01-01T00:00:00Z"), null, null);
+    }
+
+    private static JobStatusView viewOf(Job job) {
+        return new JobStatusView(job.getId(), job.getStatus(), job.getJobType(), job.getTenantId(), job.getPriority(),
+                job.getScheduledAt(), job.getStartedAt(), job.getFinishedAt(), job.getAttempts(), job.getNextAttemptAt(),
+                job.getLastError(), job.getVersion());
+    }
+}
@@ -0,0 +1,151 @@
+package com.spencer.distributed_job_scheduler.executor;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.http.HttpTimeoutException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HostCircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.SECONDS.toNanos(1000));
+
+    // 10s window, opens at 50% failures over at least 4 calls, 1s open, 2 probes, 3 calls per host, forgotten after 60s idle
+    private final HostCircuitBreaker breaker = new HostCircuitBreaker(10000, 4, 0.5, 5000, 0.8, 1000, 2, 3, 100, 60000, now::get);
+
+    @Test
+    public void opensOnFailureRateAndRejectsWithoutACall() {
+        breaker.acquire("api.example.com").complete(null);
+        breaker.acquire("api.example.com").complete(null);
+        breaker.acquire("api.example.com").complete(new IOException("reset"));
+        assertEquals(HostCircuitBreaker.State.CLOSED, breaker.state("api.example.com"));
+
+        breaker.acquire("API.example.com").complete(new TimeoutException());
+        assertEquals(HostCircuitBreaker.State.OPEN, breaker.state("api.example.com"));
+
+        JobDeferredException rejected = assertThrows(JobDeferredException.class, () -> breaker.acquire("api.example.com"));
+        assertEquals(1000, rejected.getRetryAfter().toMillis(), 1);
+        // other hosts are unaffected
+        breaker.acquire("other.example.com").complete(null);
+    }
+
+    @Test
+    public void halfOpenProbesCloseOrReopenTheCircuit() {
+        openCircuit("a.example.com");
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1001));
+
+        HostCircuitBreaker.Permit first = breaker.acquire("a.example.com");
+        HostCircuitBreaker.Permit second = breaker.acquire("a.example.com");
+        assertEquals(HostCircuitBreaker.State.HALF_OPEN, breaker.state("a.example.com"));
+        assertThrows(JobDeferredException.class, () -> breaker.acquire("a.example.com"));
+        first.complete(null);
+        second.complete(null);
+        assertEquals(HostCircuitBreaker.State.CLOSED, breaker.state("a.example.com"));
+
+        openCircuit("a.example.com");
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1001));
+        breaker.acquire("a.example.com").complete(HttpServerErrorException.create(HttpStatus.BAD_GATEWAY, "", null, null, null));
+        assertEquals(HostCircuitBreaker.State.OPEN, breaker.state("a.example.com"));
+    }
+
+    @Test
+    public void failuresOutsideTheWindowAreForgotten() {
+        breaker.acquire("b.example.com").complete(new IOException());
+        breaker.acquire("b.example.com").complete(new IOException());
+        now.addAndGet(TimeUnit.SECONDS.toNanos(11));
+        breaker.acquire("b.example.com").complete(new IOException());
+        breaker.acquire("b.example.com").complete(null);
+        assertEquals(HostCircuitBreaker.State.CLOSED, breaker.state("b.example.com"));
+    }
+
+    @Test
+    public void clientErrorsDoNotCountAgainstTheHost() {
+        for (int i = 0; i < 10; i++) {
+            breaker.acquire("c.example.com").complete(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "", null, null, null));
+        }
+        assertEquals(HostCircuitBreaker.State.CLOSED, breaker.state("c.example.com"));
+    }
+
+    @Test
+    public void bulkheadCapsConcurrentCallsPerHost() {
+        HostCircuitBreaker.Permit a = breaker.acquire("d.example.com");
+        breaker.acquire("d.example.com");
+        breaker.acquire("d.example.com");
+        assertThrows(JobDeferredException.class, () -> breaker.acquire("d.example.com"));
+
+        a.cancel();
+        breaker.acquire("d.example.com");
+    }
+
+    @Test
+    public void onlyIoErrorsTimeoutsAndServerErrorsAreHostFailures() {
+        assertTrue(HostCircuitBreaker.isHostFailure(new HttpTimeoutException("headers")));
+        assertTrue(HostCircuitBreaker.isHostFailure(new CompletionException(new ConnectException("refused"))));
+        assertTrue(HostCircuitBreaker.isHostFailure(new CompletionException(new TimeoutException())));
+        assertTrue(HostCircuitBreaker.isHostFailure(new ResourceAccessException("reset")));
+        assertTrue(HostCircuitBreaker.isHostFailure(HttpServerErrorException.create(HttpStatus.SERVICE_UNAVAILABLE, "", null, null, null)));
+
+        assertFalse(HostCircuitBreaker.isHostFailure(null));
+        assertFalse(HostCircuitBreaker.isHostFailure(HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "", null, null, null)));
+        assertFalse(HostCircuitBreaker.isHostFailure(new InterruptedException()));
+        assertFalse(HostCircuitBreaker.isHostFailure(new CancellationException()));
+        assertFalse(HostCircuitBreaker.isHostFailure(new CompletionException(new IllegalArgumentException("bad payload"))));
+    }
+
+    @Test
+    public void evictIdleForgetsIdleHostsAndTheirGauges() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        breaker.initMetrics(registry);
+        breaker.acquire("idle.example.com").complete(null);
+        HostCircuitBreaker.Permit inFlight = breaker.acquire("busy.example.com");
+        openCircuit("open.example.com");
+        assertEquals(3, registry.find("jobs.http.circuit.state").gauges().size());
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(59));
+        breaker.evictIdle();
+        assertEquals(3, registry.find("jobs.http.circuit.state").gauges().size());
+
+        // past the idle period only the host with a call in flight stays; the open one has also passed its open period
+        now.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        breaker.evictIdle();
+        assertEquals(1, registry.find("jobs.http.circuit.state").gauges().size());
+        assertNotNull(registry.find("jobs.http.circuit.state").tag("host", "busy.example.com").gauge());
+        assertNull(registry.find("jobs.http.bulkhead.in_use").tag("host", "idle.example.com").gauge());
+        assertEquals(HostCircuitBreaker.State.CLOSED, breaker.state("open.example.com"));
+
+        // a forgotten host starts over with fresh gauges
+        breaker.acquire("idle.example.com").complete(null);
+        assertEquals(0.0, registry.find("jobs.http.bulkhead.in_use").tag("host", "idle.example.com").gauge().value());
+        inFlight.complete(null);
+    }
+
+    @Test
+    public void evictIdleKeepsACircuitThatIsStillOpen() {
+        HostCircuitBreaker longOpen = new HostCircuitBreaker(10000, 4, 0.5, 5000, 0.8, 120000, 2, 3, 100, 60000, now::get);
+        for (int i = 0; i < 4; i++) {
+            longOpen.acquire("e.example.com").complete(new IOException());
+        }
+        now.addAndGet(TimeUnit.SECONDS.toNanos(61));
+        longOpen.evictIdle();
+        assertEquals(HostCircuitBreaker.State.OPEN, longOpen.state("e.example.com"));
+    }
+
+    private void openCircuit(String host) {
+        for (int i = 0; i < 4; i++) {
+            breaker.acquire(host).complete(new IOException());
+        }
+        assertEquals(HostCircuitBreaker.State.OPEN, breaker.state(host));
+    }
+}
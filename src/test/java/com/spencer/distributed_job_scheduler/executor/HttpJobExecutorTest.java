@@ -0,0 +1,168 @@
+package com.spencer.distributed_job_scheduler.executor;
+
+import com.spencer.distributed_job_scheduler.config.RestClientConfig;
+import com.spencer.distributed_job_scheduler.model.Job;
+import com.spencer.distributed_job_scheduler.redis.RedisRateLimiter;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.web.client.RestClientResponseException;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// against a local server that answers, fails, stalls before the headers or trickles the body
+public class HttpJobExecutorTest {
+
+    private static final long READ_TIMEOUT_MS = 300;
+    private static final long TOTAL_TIMEOUT_MS = 800;
+
+    private final HttpPayloadCompiler compiler = new HttpPayloadCompiler(new ObjectMapper());
+    private final CountDownLatch shutdown = new CountDownLatch(1);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private ExecutorService serverThreads;
+    private HttpServer server;
+    private HttpJobExecutor executor;
+
+    @BeforeEach
+    public void startServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/ok", exchange -> {
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        server.createContext("/unavailable", exchange -> {
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+        });
+        server.createContext("/stall", exchange -> {
+            await();
+            exchange.close();
+        });
+        server.createContext("/trickle", exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream body = exchange.getResponseBody()) {
+                while (!shutdown.await(100, TimeUnit.MILLISECONDS)) {
+                    body.write('.');
+                    body.flush();
+                }
+            } catch (Exception ignored) {
+                // the client gave up
+            }
+        });
+        serverThreads = Executors.newCachedThreadPool();
+        server.setExecutor(serverThreads);
+        server.start();
+
+        OutboundRateLimiter rateLimiter = new OutboundRateLimiter(Mockito.mock(RedisRateLimiter.class), "", "", 1);
+        HostCircuitBreaker circuitBreaker = new HostCircuitBreaker(10000, 20, 0.5, 5000, 0.8, 30000, 3, 50, 1000, 600000);
+        executor = new HttpJobExecutor(new RestClientConfig().httpClient(1000), compiler, rateLimiter, circuitBreaker,
+                READ_TIMEOUT_MS, TOTAL_TIMEOUT_MS, 10, 100);
+        executor.initMetrics(registry);
+    }
+
+    @AfterEach
+    public void stopServer() {
+        shutdown.countDown();
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    @Test
+    public void executeAsyncCompletesOnSuccessAndFailsOnAnErrorStatus() throws Exception {
+        executor.executeAsync(job("/ok")).get(5, TimeUnit.SECONDS);
+
+        ExecutionException failed = assertThrows(ExecutionException.class,
+                () -> executor.executeAsync(job("/unavailable")).get(5, TimeUnit.SECONDS));
+        assertEquals(503, assertInstanceOf(RestClientResponseException.class, failed.getCause()).getStatusCode().value());
+        assertEquals(0, registry.get("jobs.http.in_flight").gauge().value());
+    }
+
+    @Test
+    public void executeAsyncGivesUpWhenNoResponseArrivesWithinTheReadTimeout() {
+        long start = System.nanoTime();
+        ExecutionException failed = assertThrows(ExecutionException.class,
+                () -> executor.executeAsync(job("/stall")).get(5, TimeUnit.SECONDS));
+
+        assertInstanceOf(HttpTimeoutException.class, failed.getCause());
+        assertTrue(elapsedMs(start) < TOTAL_TIMEOUT_MS, "took " + elapsedMs(start) + "ms");
+        assertEquals(0, registry.get("jobs.http.in_flight").gauge().value());
+    }
+
+    @Test
+    public void executeAsyncEnforcesTheTotalDeadlineWhileTheBodyIsStillArriving() {
+        long start = System.nanoTime();
+        ExecutionException failed = assertThrows(ExecutionException.class,
+                () -> executor.executeAsync(job("/trickle")).get(5, TimeUnit.SECONDS));
+
+        // headers came back at once, so only the overall deadline can have stopped it
+        assertInstanceOf(TimeoutException.class, failed.getCause());
+        assertTrue(elapsedMs(start) >= TOTAL_TIMEOUT_MS, "took " + elapsedMs(start) + "ms");
+        assertEquals(0, registry.get("jobs.http.in_flight").gauge().value());
+    }
+
+    @Test
+    public void executeAppliesTheReadTimeoutToo() {
+        assertThrows(HttpTimeoutException.class, () -> executor.execute(job("/stall")));
+    }
+
+    @Test
+    public void executeEnforcesTheTotalDeadlineWhileTheBodyIsStillArriving() {
+        long start = System.nanoTime();
+        assertThrows(TimeoutException.class, () -> executor.execute(job("/trickle")));
+
+        // the blocking path stops at the same deadline instead of reading until the server gives up
+        long elapsed = elapsedMs(start);
+        assertTrue(elapsed >= TOTAL_TIMEOUT_MS && elapsed < 5000, "took " + elapsed + "ms");
+    }
+
+    @Test
+    public void executeReturnsTheBulkheadSlotWhenTheClientThrowsAnError() throws Exception {
+        HttpClient client = Mockito.mock(HttpClient.class);
+        Mockito.when(client.sendAsync(Mockito.any(), Mockito.<HttpResponse.BodyHandler<Void>>any()))
+                .thenThrow(new LinkageError("simulated"));
+        // one call per host, so a single leaked slot would reject the next call
+        HostCircuitBreaker circuitBreaker = new HostCircuitBreaker(10000, 20, 0.5, 5000, 0.8, 30000, 3, 1, 1000, 600000);
+        HttpJobExecutor failing = new HttpJobExecutor(client, compiler,
+                new OutboundRateLimiter(Mockito.mock(RedisRateLimiter.class), "", "", 1), circuitBreaker,
+                READ_TIMEOUT_MS, TOTAL_TIMEOUT_MS, 10, 100);
+
+        assertThrows(LinkageError.class, () -> failing.execute(job("/ok")));
+        assertThrows(LinkageError.class, () -> failing.execute(job("/ok")));
+    }
+
+    private Job job(String path) {
+        Job job = new Job();
+        job.setJobType(HttpPayloadCompiler.JOB_TYPE);
+        job.setPayload(compiler.normalize(Map.of("url", "http://127.0.0.1:" + server.getAddress().getPort() + path, "method", "GET")));
+        return job;
+    }
+
+    private void await() {
+        try {
+            shutdown.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+}
@@ -0,0 +1,75 @@
+package com.spencer.distributed_job_scheduler.executor;
+
+import com.spencer.distributed_job_scheduler.dto.HttpJobPayload;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.ObjectMapper;
+
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HttpPayloadCompilerTest {
+
+    private final HttpPayloadCompiler compiler = new HttpPayloadCompiler(new ObjectMapper());
+
+    @Test
+    public void normalize_uppercasesMethodAndSerializesBody() {
+        String normalized = compiler.normalize(Map.of("url", "http://example.com/hook", "method", "post", "body", Map.of("a", 1)));
+
+        HttpJobPayload payload = compiler.parse(normalized);
+        assertEquals("POST", payload.getMethod());
+        assertEquals("{\"a\":1}", payload.getBody());
+        assertEquals("application/json", payload.getHeaders().get("Content-Type"));
+        // normalizing twice changes nothing
+        assertEquals(normalized, compiler.normalize(payload));
+    }
+
+    @Test
+    public void normalize_keepsCallerContentType() {
+        HttpJobPayload payload = compiler.parse(compiler.normalize(Map.of(
+                "url", "http://example.com", "method", "PUT", "body", "a=1",
+                "headers", Map.of("content-type", "application/x-www-form-urlencoded"))));
+
+        assertEquals(Map.of("content-type", "application/x-www-form-urlencoded"), payload.getHeaders());
+        assertEquals("a=1", payload.getBody());
+    }
+
+    @Test
+    public void normalize_rejectsMalformedPayloads() {
+        assertThrows(IllegalArgumentException.class, () -> compiler.normalize(null));
+        assertThrows(IllegalArgumentException.class, () -> compiler.normalize(Map.of("method", "GET")));
+        assertThrows(IllegalArgumentException.class, () -> compiler.normalize(Map.of("url", "/relative")));
+        assertThrows(IllegalArgumentException.class, () -> compiler.normalize(Map.of("url", "ftp://example.com")));
+        assertThrows(IllegalArgumentException.class, () -> compiler.normalize(Map.of("url", "http://example.com", "method", "FETCH")));
+        assertThrows(IllegalArgumentException.class, () -> compiler.normalize(Map.of("url", "http://example.com", "headers", Map.of("Host", "x"))));
+        assertThrows(IllegalArgumentException.class, () -> compiler.normalize(Map.of("url", "http://example.com", "headers", Map.of("X-A", "a\r\nb"))));
+        assertThrows(IllegalArgumentException.class, () -> compiler.normalize(Map.of("url", "http://example.com", "headers", Map.of("Bad Name", "x"))));
+    }
+
+    @Test
+    public void parse_dropsClientManagedHeadersFromOlderRows() {
+        HttpJobPayload payload = compiler.parse("{\"url\":\"http://example.com\",\"headers\":{\"Host\":\"x\",\"X-A\":\"b\"}}");
+
+        assertEquals(Map.of("X-A", "b"), payload.getHeaders());
+        assertEquals("GET", payload.getMethod());
+    }
+
+    @Test
+    public void parse_skipsNullHeadersFromOlderRows() {
+        HttpJobPayload payload = compiler.parse("{\"url\":\"http://example.com\",\"headers\":{\"X-Empty\":null,\"X-A\":\"b\"}}");
+
+        assertEquals(Map.of("X-A", "b"), payload.getHeaders());
+    }
+
+    @Test
+    public void toRequest_buildsTheNormalizedRequest() {
+        HttpRequest request = compiler.toRequest(compiler.parse(compiler.normalize(Map.of(
+                "url", "https://example.com/x", "method", "DELETE"))), Duration.ofSeconds(3));
+
+        assertEquals("DELETE", request.method());
+        assertEquals("https://example.com/x", request.uri().toString());
+        assertEquals(Duration.ofSeconds(3), request.timeout().orElseThrow());
+    }
+}
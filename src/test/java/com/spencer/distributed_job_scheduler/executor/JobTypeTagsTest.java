@@ -0,0 +1,22 @@
+package com.spencer.distributed_job_scheduler.executor;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JobTypeTagsTest {
+
+    @Test
+    public void onlyRegisteredExecutorTypesKeepTheirName() {
+        JobExecutor http = Mockito.mock(JobExecutor.class);
+        Mockito.when(http.getJobType()).thenReturn("http");
+        JobTypeTags tags = new JobTypeTags(List.of(http));
+
+        assertEquals("http", tags.of("http"));
+        assertEquals(JobTypeTags.OTHER, tags.of("made-up-" + System.nanoTime()));
+        assertEquals(JobTypeTags.OTHER, tags.of(null));
+    }
+}
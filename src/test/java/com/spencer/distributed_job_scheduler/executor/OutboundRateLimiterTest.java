@@ -0,0 +1,61 @@
+package com.spencer.distributed_job_scheduler.executor;
+
+import com.spencer.distributed_job_scheduler.redis.RedisRateLimiter;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OutboundRateLimiterTest {
+
+    private final RedisRateLimiter redisLimiter = Mockito.mock(RedisRateLimiter.class);
+
+    @Test
+    public void parseRatesLowerCasesNamesAndSkipsBlankEntries() {
+        assertEquals(Map.of("api.partner.com", 50.0, "slow.example.org", 0.5),
+                OutboundRateLimiter.parseRates(" API.Partner.com=50, ,slow.example.org = 0.5,", "hosts"));
+        assertTrue(OutboundRateLimiter.parseRates("", "hosts").isEmpty());
+        assertTrue(OutboundRateLimiter.parseRates(null, "hosts").isEmpty());
+    }
+
+    @Test
+    public void parseRatesRejectsMalformedEntries() {
+        for (String rules : new String[]{"api.partner.com", "=5", "a=0", "a=-1", "a=fast", "a=NaN"}) {
+            IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                    () -> OutboundRateLimiter.parseRates(rules, "scheduler.rate-limit.hosts"), rules);
+            assertTrue(ex.getMessage().startsWith("scheduler.rate-limit.hosts"), ex.getMessage());
+        }
+    }
+
+    @Test
+    public void acquireChecksTheJobTypeAndHostBuckets() {
+        OutboundRateLimiter limiter = new OutboundRateLimiter(redisLimiter, "api.partner.com=50", "REPORT=2", 2);
+        Mockito.when(redisLimiter.tryAcquire(Mockito.anyString(), Mockito.anyDouble(), Mockito.anyInt())).thenReturn(Duration.ZERO);
+
+        limiter.acquire("report", "API.partner.com");
+        Mockito.verify(redisLimiter).tryAcquire("type:report", 2.0, 4);
+        Mockito.verify(redisLimiter).tryAcquire("host:api.partner.com", 50.0, 100);
+
+        // no rule, no Redis call
+        limiter.acquire("HTTP", "other.example.com");
+        limiter.acquire(null, null);
+        Mockito.verifyNoMoreInteractions(redisLimiter);
+    }
+
+    @Test
+    public void acquireThrowsWithTheWaitWhenOverTheLimit() {
+        OutboundRateLimiter limiter = new OutboundRateLimiter(redisLimiter, "api.partner.com=0.5", "", 1);
+        Mockito.when(redisLimiter.tryAcquire("host:api.partner.com", 0.5, 1)).thenReturn(Duration.ofMillis(1500));
+
+        RateLimitedException ex = assertThrows(RateLimitedException.class, () -> limiter.acquire("HTTP", "api.partner.com"));
+        assertEquals(Duration.ofMillis(1500), ex.getRetryAfter());
+    }
+
+    @Test
+    public void rejectsANonPositiveBurst() {
+        assertThrows(IllegalArgumentException.class, () -> new OutboundRateLimiter(redisLimiter, "", "", 0));
+    }
+}
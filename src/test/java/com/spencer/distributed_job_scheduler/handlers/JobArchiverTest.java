@@ -0,0 +1,77 @@
+package com.spencer.distributed_job_scheduler.handlers;
+
+import com.spencer.distributed_job_scheduler.service.JobService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JobArchiverTest {
+
+    private final JobService jobService = Mockito.mock(JobService.class);
+    private final JobArchiver archiver = new JobArchiver(jobService);
+
+    @AfterEach
+    void stopArchiver() {
+        archiver.stop();
+    }
+
+    @Test
+    public void archiveRunsBatchesUntilOneComesBackShort() {
+        configure(0, 10);
+        Mockito.when(jobService.archiveFinishedJobs(Mockito.any(), Mockito.eq(100))).thenReturn(100, 100, 40);
+
+        archiver.archive();
+        Mockito.verify(jobService, Mockito.times(3)).archiveFinishedJobs(Mockito.any(), Mockito.eq(100));
+        Mockito.verify(jobService, Mockito.never()).purgeArchivedJobs(Mockito.any(), Mockito.anyInt());
+    }
+
+    @Test
+    public void archiveStopsAtMaxBatchesPerRunAndPurgesAfterwards() {
+        configure(60000, 3);
+        Mockito.when(jobService.archiveFinishedJobs(Mockito.any(), Mockito.anyInt())).thenReturn(100);
+        Mockito.when(jobService.purgeArchivedJobs(Mockito.any(), Mockito.anyInt())).thenReturn(0);
+
+        Instant before = Instant.now();
+        archiver.archive();
+        Mockito.verify(jobService, Mockito.times(3)).archiveFinishedJobs(Mockito.any(), Mockito.eq(100));
+        Mockito.verify(jobService).purgeArchivedJobs(Mockito.argThat(cutoff -> !cutoff.isAfter(before.minusMillis(60000).plusSeconds(1))),
+                Mockito.eq(100));
+    }
+
+    @Test
+    public void startRunsOnItsOwnThreadAndStopInterruptsThePause() throws Exception {
+        configure(0, 10);
+        ReflectionTestUtils.setField(archiver, "intervalMs", 10L);
+        ReflectionTestUtils.setField(archiver, "batchPauseMs", 60000L);
+        CompletableFuture<String> thread = new CompletableFuture<>();
+        Mockito.when(jobService.archiveFinishedJobs(Mockito.any(), Mockito.anyInt())).thenAnswer(invocation -> {
+            thread.complete(Thread.currentThread().getName());
+            return 100;
+        });
+
+        archiver.start();
+        assertTrue(thread.get(5, TimeUnit.SECONDS).startsWith("job-archiver-"));
+        // the run is now in its minute-long pause
+        archiver.stop();
+        ExecutorService runner = (ExecutorService) ReflectionTestUtils.getField(archiver, "runner");
+        assertTrue(runner.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    private void configure(long purgeAfterMs, int maxBatchesPerRun) {
+        ReflectionTestUtils.setField(archiver, "enabled", true);
+        ReflectionTestUtils.setField(archiver, "archiveAfterMs", 1000L);
+        ReflectionTestUtils.setField(archiver, "purgeAfterMs", purgeAfterMs);
+        ReflectionTestUtils.setField(archiver, "batchSize", 100);
+        ReflectionTestUtils.setField(archiver, "maxBatchesPerRun", maxBatchesPerRun);
+        ReflectionTestUtils.setField(archiver, "batchPauseMs", 0L);
+        ReflectionTestUtils.setField(archiver, "intervalMs", 60000L);
+    }
+}
@@ -60,6 +60,10 @@ public class JobE2ETest {
         Mockito.when(listOps.rightPop(Mockito.eq(WORK_QUEUE), Mockito.any(Duration.class)))
                 .thenAnswer(invocation -> deque.pollLast());
 
+        // rightPop without timeout -> workers poll each priority queue this way first
+        Mockito.when(listOps.rightPop(Mockito.eq(WORK_QUEUE)))
+                .thenAnswer(invocation -> deque.pollLast());
+
         // mock executor to simulate short work
         Mockito.doAnswer(invocation -> {
             try { Thread.sleep(10); } catch (InterruptedException ignored) {}
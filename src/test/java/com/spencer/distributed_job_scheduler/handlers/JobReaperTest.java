@@ -0,0 +1,35 @@
+package com.spencer.distributed_job_scheduler.handlers;
+
+import com.spencer.distributed_job_scheduler.model.JobStatus;
+import com.spencer.distributed_job_scheduler.service.JobService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class JobReaperTest {
+
+    private final JobService jobService = Mockito.mock(JobService.class);
+    private final JobReaper reaper = new JobReaper(jobService);
+
+    @Test
+    public void keepsReapingWhileBatchesComeBackFull() {
+        ReflectionTestUtils.setField(reaper, "batchSize", 2);
+        ReflectionTestUtils.setField(reaper, "targetStatus", JobStatus.FAILED);
+        Mockito.when(jobService.reapExpiredLeases(2, JobStatus.FAILED)).thenReturn(2, 2, 1);
+
+        reaper.reapExpiredLeases();
+
+        Mockito.verify(jobService, Mockito.times(3)).reapExpiredLeases(2, JobStatus.FAILED);
+    }
+
+    @Test
+    public void aFailedPassIsLoggedNotThrown() {
+        ReflectionTestUtils.setField(reaper, "batchSize", 2);
+        ReflectionTestUtils.setField(reaper, "targetStatus", JobStatus.PENDING);
+        Mockito.when(jobService.reapExpiredLeases(2, JobStatus.PENDING)).thenThrow(new IllegalStateException("database down"));
+
+        reaper.reapExpiredLeases();
+
+        Mockito.verify(jobService).reapExpiredLeases(2, JobStatus.PENDING);
+    }
+}
@@ -0,0 +1,190 @@
+package com.spencer.distributed_job_scheduler.handlers;
+
+import com.spencer.distributed_job_scheduler.executor.JobExecutor;
+import com.spencer.distributed_job_scheduler.executor.JobTypeTags;
+import com.spencer.distributed_job_scheduler.model.Job;
+import com.spencer.distributed_job_scheduler.model.JobStatus;
+import com.spencer.distributed_job_scheduler.redis.WorkQueues;
+import com.spencer.distributed_job_scheduler.service.JobService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.redis.core.ListOperations;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.net.http.HttpTimeoutException;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JobWorkerTest {
+
+    private final ConcurrentLinkedDeque<String> queue = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger pops = new AtomicInteger();
+    private final JobService jobService = Mockito.mock(JobService.class);
+    private final JobExecutor jobExecutor = Mockito.mock(JobExecutor.class);
+    private JobWorker worker;
+
+    @AfterEach
+    void stopWorker() {
+        if (worker != null && worker.isRunning()) {
+            worker.stop();
+        }
+    }
+
+    @Test
+    public void runsUpToMaxInFlightJobsAtOnceAndDrainsTheQueue() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            queue.addFirst(UUID.randomUUID().toString());
+        }
+        AtomicInteger executing = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        CountDownLatch threeRunning = new CountDownLatch(3);
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.doAnswer(invocation -> {
+            peak.accumulateAndGet(executing.incrementAndGet(), Math::max);
+            threeRunning.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            executing.decrementAndGet();
+            return null;
+        }).when(jobExecutor).execute(Mockito.any(Job.class));
+        stubStartAndFinish();
+
+        worker = newWorker(4, 3);
+        worker.start();
+
+        assertTrue(threeRunning.await(5, TimeUnit.SECONDS));
+        // every permit is held, so the fourth consumer must not take a job out of Redis
+        Thread.sleep(200);
+        assertEquals(7, queue.size());
+        release.countDown();
+
+        Mockito.verify(jobService, Mockito.timeout(5000).times(10)).finishJob(Mockito.any(Job.class), Mockito.eq(JobStatus.COMPLETED));
+        assertEquals(3, peak.get());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void stopEndsTheConsumersBeforeReturning() throws Exception {
+        stubStartAndFinish();
+        worker = newWorker(2, 4);
+        worker.start();
+        assertTrue(worker.isRunning());
+        Thread.sleep(100);
+
+        worker.stop();
+        assertFalse(worker.isRunning());
+        int popsAtStop = pops.get();
+        queue.addFirst(UUID.randomUUID().toString());
+        Thread.sleep(200);
+        assertEquals(popsAtStop, pops.get());
+        assertEquals(1, queue.size());
+    }
+
+    @Test
+    public void renewsTheLeasesOfJobsStillExecuting() throws Exception {
+        queue.addFirst(UUID.randomUUID().toString());
+        String id = queue.peekFirst();
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.doAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(jobExecutor).execute(Mockito.any(Job.class));
+        stubStartAndFinish();
+
+        worker = newWorker(1, 1);
+        ReflectionTestUtils.setField(worker, "leaseRenewIntervalMs", 50L);
+        worker.start();
+
+        Mockito.verify(jobService, Mockito.timeout(5000).atLeast(2)).renewLeases(List.of(UUID.fromString(id)));
+        release.countDown();
+        Mockito.verify(jobService, Mockito.timeout(5000)).finishJob(Mockito.any(Job.class), Mockito.eq(JobStatus.COMPLETED));
+
+        // a finished job is no longer renewed
+        Thread.sleep(100);
+        Mockito.clearInvocations(jobService);
+        Thread.sleep(200);
+        Mockito.verify(jobService, Mockito.never()).renewLeases(Mockito.anyCollection());
+    }
+
+    @Test
+    public void stopWaitsForAnAsyncCallAndRecordsItsOutcome() throws Exception {
+        queue.addFirst(UUID.randomUUID().toString());
+        CompletableFuture<Void> call = new CompletableFuture<>();
+        CountDownLatch sent = new CountDownLatch(1);
+        Mockito.when(jobExecutor.executeAsync(Mockito.any(Job.class))).thenAnswer(invocation -> {
+            sent.countDown();
+            return call;
+        });
+        stubStartAndFinish();
+
+        worker = newWorker(1, 2);
+        ReflectionTestUtils.setField(worker, "asyncExecution", true);
+        worker.start();
+        assertTrue(sent.await(5, TimeUnit.SECONDS));
+
+        // the response arrives while stop() is already waiting, after the consumers are gone
+        CompletableFuture<Void> stopped = CompletableFuture.runAsync(worker::stop);
+        Thread.sleep(200);
+        assertFalse(stopped.isDone());
+        call.complete(null);
+
+        stopped.get(5, TimeUnit.SECONDS);
+        Mockito.verify(jobService).finishJob(Mockito.any(Job.class), Mockito.eq(JobStatus.COMPLETED));
+    }
+
+    private void stubStartAndFinish() {
+        Mockito.when(jobService.startJob(Mockito.any(UUID.class))).thenAnswer(invocation -> {
+            Job job = new Job();
+            ReflectionTestUtils.setField(job, "id", invocation.getArgument(0));
+            job.setJobType("HTTP");
+            job.setStatus(JobStatus.RUNNING);
+            return Optional.of(job);
+        });
+        Mockito.when(jobService.finishJob(Mockito.any(Job.class), Mockito.any(JobStatus.class))).thenReturn(true);
+    }
+
+    @Test
+    public void tagsFailuresWithTheHttpStatusOnlyWhenTheTargetAnswered() {
+        assertEquals("ok", JobWorker.httpStatusOf(null));
+        assertEquals("503", JobWorker.httpStatusOf(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE)));
+        assertEquals("404", JobWorker.httpStatusOf(new HttpClientErrorException(HttpStatus.NOT_FOUND)));
+        assertEquals("none", JobWorker.httpStatusOf(new HttpTimeoutException("request timed out")));
+        assertEquals("none", JobWorker.httpStatusOf(new IllegalStateException("no executor")));
+    }
+
+    @SuppressWarnings("unchecked")
+    private JobWorker newWorker(int consumers, int maxInFlight) {
+        StringRedisTemplate redis = Mockito.mock(StringRedisTemplate.class);
+        ListOperations<String, String> listOps = Mockito.mock(ListOperations.class);
+        Mockito.when(redis.opsForList()).thenReturn(listOps);
+        Mockito.when(listOps.rightPop(Mockito.anyString())).thenAnswer(invocation -> {
+            pops.incrementAndGet();
+            return WorkQueues.NORMAL.equals(invocation.getArgument(0)) ? queue.pollLast() : null;
+        });
+        // the blocking pop times out empty
+        Mockito.when(redis.execute(Mockito.any(RedisCallback.class))).thenReturn(null);
+
+        JobWorker jobWorker = new JobWorker(redis, jobService, jobExecutor, new JobTypeTags(List.of(jobExecutor)));
+        ReflectionTestUtils.setField(jobWorker, "consumers", consumers);
+        ReflectionTestUtils.setField(jobWorker, "maxInFlight", maxInFlight);
+        ReflectionTestUtils.setField(jobWorker, "pollTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(jobWorker, "priorityWeights", "8,3,1");
+        ReflectionTestUtils.setField(jobWorker, "idleBackoffMs", 10L);
+        ReflectionTestUtils.setField(jobWorker, "shutdownGraceMs", 1000L);
+        ReflectionTestUtils.setField(jobWorker, "leaseRenewIntervalMs", 30000L);
+        return jobWorker;
+    }
+}
@@ -0,0 +1,55 @@
+package com.spencer.distributed_job_scheduler.handlers;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PollPacerTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Test
+    public void nextDelayMs_repollsAtOnceAfterAFullBatch() {
+        PollPacer pacer = new PollPacer(50, 5000);
+        assertEquals(0, pacer.nextDelayMs(500, 500, null, NOW));
+    }
+
+    @Test
+    public void nextDelayMs_backsOffExponentiallyWhileIdleUpToTheMaximum() {
+        PollPacer pacer = new PollPacer(50, 300);
+        assertEquals(50, pacer.nextDelayMs(0, 500, null, NOW));
+        assertEquals(100, pacer.nextDelayMs(0, 500, null, NOW));
+        assertEquals(200, pacer.nextDelayMs(0, 500, null, NOW));
+        assertEquals(300, pacer.nextDelayMs(0, 500, null, NOW));
+        assertEquals(300, pacer.nextDelayMs(0, 500, null, NOW));
+
+        // any claim starts the backoff over
+        assertEquals(50, pacer.nextDelayMs(3, 500, null, NOW));
+        assertEquals(50, pacer.nextDelayMs(0, 500, null, NOW));
+    }
+
+    @Test
+    public void nextDelayMs_neverSleepsPastTheNextKnownDueTime() {
+        PollPacer pacer = new PollPacer(50, 5000);
+        for (int i = 0; i < 10; i++) {
+            pacer.nextDelayMs(0, 500, null, NOW);
+        }
+        assertEquals(1200, pacer.nextDelayMs(0, 500, NOW.plusMillis(1200), NOW));
+        assertEquals(5000, pacer.nextDelayMs(0, 500, NOW.plusSeconds(60), NOW));
+    }
+
+    @Test
+    public void nextDelayMs_ignoresAnOverdueJobItCouldNotClaim() {
+        PollPacer pacer = new PollPacer(50, 5000);
+        pacer.nextDelayMs(0, 500, null, NOW);
+        assertEquals(100, pacer.nextDelayMs(0, 500, NOW.minusSeconds(5), NOW));
+    }
+
+    @Test
+    public void constructor_rejectsAMaximumBelowTheMinimum() {
+        assertThrows(IllegalArgumentException.class, () -> new PollPacer(100, 50));
+        assertThrows(IllegalArgumentException.class, () -> new PollPacer(0, 50));
+    }
+}
@@ -0,0 +1,69 @@
+package com.spencer.distributed_job_scheduler.handlers;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PrefetchWheelTest {
+
+    private static final long START = 1_700_000_000_000L;
+
+    private final AtomicLong now = new AtomicLong(START);
+    private final BlockingQueue<String> dispatched = new LinkedBlockingQueue<>();
+    // 10s window, room for three jobs
+    private final PrefetchWheel<String> wheel = new PrefetchWheel<>(1, 10_000, 3, dispatched::addAll, now::get);
+
+    @AfterEach
+    public void stopWheel() {
+        wheel.stop();
+    }
+
+    @Test
+    public void acceptsJobsAfterSittingIdleLongerThanItsHorizon() throws Exception {
+        now.addAndGet(300_000);
+
+        assertTrue(wheel.offer("job", Instant.ofEpochMilli(now.get() + 50)));
+        assertEquals(1, wheel.size());
+
+        // the driver waits out the 50ms in real time before it looks at the clock again
+        assertNull(dispatched.poll(200, TimeUnit.MILLISECONDS));
+        now.addAndGet(50);
+        assertEquals("job", dispatched.poll(5, TimeUnit.SECONDS));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void refusesJobsBeyondTheWindowOrCapacity() {
+        Instant soon = Instant.ofEpochMilli(START + 1_000);
+        assertFalse(wheel.offer("far", Instant.ofEpochMilli(START + 10_000_000)));
+
+        assertTrue(wheel.offer("a", soon));
+        assertTrue(wheel.offer("b", soon));
+        assertTrue(wheel.offer("c", soon));
+        assertFalse(wheel.offer("d", soon));
+        assertEquals(0, wheel.remainingCapacity());
+    }
+
+    @Test
+    public void stopHandsBackTheJobsStillWaiting() {
+        wheel.offer("a", Instant.ofEpochMilli(START + 1_000));
+        wheel.offer("b", Instant.ofEpochMilli(START + 2_000));
+
+        assertEquals(List.of("a", "b"), wheel.stop());
+        assertFalse(wheel.offer("c", Instant.ofEpochMilli(START + 1_000)));
+        assertTrue(dispatched.isEmpty());
+    }
+
+    @Test
+    public void rejectsAnEmptyWheel() {
+        assertThrows(IllegalArgumentException.class, () -> new PrefetchWheel<String>(1, 10_000, 0, jobs -> { }, now::get));
+    }
+}
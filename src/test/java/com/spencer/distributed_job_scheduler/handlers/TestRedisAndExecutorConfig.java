@@ -38,6 +38,10 @@ public class TestRedisAndExecutorConfig {
         Mockito.when(listOps.rightPop(Mockito.eq(WORK_QUEUE), Mockito.any(Duration.class)))
                 .thenAnswer(invocation -> deque.pollLast());
 
+        // rightPop without timeout -> workers poll each priority queue this way first
+        Mockito.when(listOps.rightPop(Mockito.eq(WORK_QUEUE)))
+                .thenAnswer(invocation -> deque.pollLast());
+
         return mockRedis;
     }
 
@@ -0,0 +1,120 @@
+package com.spencer.distributed_job_scheduler.handlers;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimingWheelTest {
+
+    private static final long START = 1_700_000_000_000L;
+
+    @Test
+    public void advanceTo_firesEveryItemAtItsDeadlineAcrossAllLevels() {
+        Random random = new Random(42);
+        Map<Long, Long> firedAt = new HashMap<>();
+        List<Long> deadlines = new ArrayList<>();
+        TimingWheel<Long> wheel = new TimingWheel<>(1, 64, 30_000, START);
+        for (int i = 0; i < 2000; i++) {
+            long deadline = START + 1 + random.nextInt(30_000);
+            deadlines.add(deadline);
+            assertTrue(wheel.add(deadline, deadline));
+        }
+        for (long now = START; now <= START + 30_001; now++) {
+            long at = now;
+            wheel.advanceTo(now, deadline -> firedAt.merge(deadline, at, Math::max));
+        }
+        assertEquals(0, wheel.size());
+        for (long deadline : deadlines) {
+            assertEquals(deadline, firedAt.get(deadline));
+        }
+    }
+
+    @Test
+    public void advanceTo_neverFiresEarlyAndAtMostOneTickLate() {
+        TimingWheel<Long> wheel = new TimingWheel<>(10, 8, 5_000, START);
+        Random random = new Random(7);
+        List<Long> deadlines = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            long deadline = START + random.nextInt(5_000);
+            deadlines.add(deadline);
+            assertTrue(wheel.add(deadline, deadline));
+        }
+        int fired = 0;
+        for (long now = START; now <= START + 5_010; now += 3) {
+            long at = now;
+            List<Long> due = new ArrayList<>();
+            wheel.advanceTo(now, due::add);
+            for (long deadline : due) {
+                assertTrue(at >= deadline, "fired early");
+                assertTrue(at - deadline < 10 + 3, "fired more than a tick late");
+            }
+            fired += due.size();
+        }
+        assertEquals(deadlines.size(), fired);
+    }
+
+    @Test
+    public void advanceTo_catchesUpAfterAStallInDeadlineOrder() {
+        TimingWheel<Long> wheel = new TimingWheel<>(1, 64, 10_000, START);
+        long[] deadlines = {START + 9_000, START + 70, START + 5, START + 4_100, START + 64};
+        for (long deadline : deadlines) {
+            wheel.add(deadline, deadline);
+        }
+        List<Long> fired = new ArrayList<>();
+        wheel.advanceTo(START + 20_000, fired::add);
+        assertEquals(List.of(START + 5, START + 64, START + 70, START + 4_100, START + 9_000), fired);
+    }
+
+    @Test
+    public void add_firesAPastDeadlineOnTheNextAdvance() {
+        TimingWheel<String> wheel = new TimingWheel<>(1, 64, 10_000, START);
+        wheel.advanceTo(START + 100, item -> fail("nothing was added"));
+        assertTrue(wheel.add("late", START + 10));
+        assertEquals(START + 101, wheel.nextWakeMs());
+        List<String> fired = new ArrayList<>();
+        wheel.advanceTo(START + 101, fired::add);
+        assertEquals(List.of("late"), fired);
+    }
+
+    @Test
+    public void add_rejectsDeadlinesBeyondTheHorizon() {
+        TimingWheel<String> wheel = new TimingWheel<>(1, 64, 10_000, START);
+        assertTrue(wheel.add("in range", START + 10_000));
+        assertFalse(wheel.add("far", START + 10_000_000));
+        assertEquals(1, wheel.size());
+    }
+
+    @Test
+    public void add_measuresTheHorizonFromTheLastAdvance() {
+        TimingWheel<String> wheel = new TimingWheel<>(1, 64, 10_000, START);
+        long idleUntil = START + 300_000;
+        // an idle wheel is not advanced, so it still measures from START
+        assertFalse(wheel.add("soon", idleUntil + 50));
+
+        wheel.advanceTo(idleUntil, item -> fail("nothing was added"));
+        assertTrue(wheel.add("soon", idleUntil + 50));
+        List<String> fired = new ArrayList<>();
+        wheel.advanceTo(idleUntil + 49, fired::add);
+        assertTrue(fired.isEmpty());
+        wheel.advanceTo(idleUntil + 50, fired::add);
+        assertEquals(List.of("soon"), fired);
+    }
+
+    @Test
+    public void nextWakeMs_waitsForTheNextLevelBoundaryWhenLevelZeroIsEmpty() {
+        // START is a multiple of 64, so level 1 next comes down at START + 64
+        long now = START + 1;
+        TimingWheel<String> wheel = new TimingWheel<>(1, 64, 10_000, now);
+        assertEquals(Long.MAX_VALUE, wheel.nextWakeMs());
+        wheel.add("later", now + 5_000);
+        assertEquals(START + 64, wheel.nextWakeMs());
+        wheel.add("soon", now + 3);
+        assertEquals(now, wheel.nextWakeMs());
+    }
+}
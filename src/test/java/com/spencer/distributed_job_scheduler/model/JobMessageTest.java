@@ -0,0 +1,61 @@
+package com.spencer.distributed_job_scheduler.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JobMessageTest {
+
+    @Test
+    public void encode_decode_roundTrip() {
+        UUID id = UUID.randomUUID();
+        Instant deadline = Instant.ofEpochMilli(1_760_000_000_123L);
+        String payload = "{\"url\":\"http://example.com\",\"body\":\"line1\\nline2\"}\nraw newline";
+
+        JobMessage decoded = JobMessage.decode(new JobMessage(id, 7, "HTTP", deadline, payload).encode());
+
+        assertNotNull(decoded);
+        assertEquals(id, decoded.getId());
+        assertEquals(7, decoded.getVersion());
+        assertEquals("HTTP", decoded.getJobType());
+        assertEquals(deadline, decoded.getDeadline());
+        assertEquals(payload, decoded.getPayload());
+    }
+
+    @Test
+    public void decode_keepsMissingFieldsNull() {
+        JobMessage decoded = JobMessage.decode(new JobMessage(UUID.randomUUID(), 0, "HTTP", null, null).encode());
+
+        assertNotNull(decoded);
+        assertNull(decoded.getDeadline());
+        assertNull(decoded.getPayload());
+        assertFalse(decoded.isExpired(Instant.now()));
+    }
+
+    @Test
+    public void decode_bareIdIsNotAMessage() {
+        assertNull(JobMessage.decode(UUID.randomUUID().toString()));
+    }
+
+    @Test
+    public void decode_truncatedMessageIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> JobMessage.decode("J1\n" + UUID.randomUUID() + "\n3"));
+    }
+
+    @Test
+    public void toStartedJob_reflectsTheStartTransition() {
+        UUID id = UUID.randomUUID();
+        Instant now = Instant.now();
+
+        Job job = new JobMessage(id, 3, "HTTP", now, "{}").toStartedJob("node-a", now);
+
+        assertEquals(id, job.getId());
+        assertEquals(4L, job.getVersion());
+        assertEquals(JobStatus.RUNNING, job.getStatus());
+        assertEquals("node-a", job.getClaimedBy());
+        assertEquals(Job.partitionOf(id), job.getPartitionId());
+    }
+}
@@ -0,0 +1,58 @@
+package com.spencer.distributed_job_scheduler.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimeOrderedUuidTest {
+
+    @Test
+    public void generate_setsVersionAndVariant() {
+        UUID id = TimeOrderedUuid.generate();
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+    }
+
+    @Test
+    public void timestamp_roundTrips() {
+        long millis = 1_760_000_000_123L;
+
+        assertEquals(millis, TimeOrderedUuid.epochMilliOf(TimeOrderedUuid.fromEpochMilli(millis)));
+    }
+
+    @Test
+    public void ids_sortByCreationMillisecond() {
+        UUID earlier = TimeOrderedUuid.fromEpochMilli(1_760_000_000_000L);
+        UUID later = TimeOrderedUuid.fromEpochMilli(1_760_000_000_001L);
+
+        // Postgres compares uuid as unsigned bytes, which matches the string order
+        assertTrue(earlier.toString().compareTo(later.toString()) < 0);
+    }
+
+    @Test
+    public void ids_withinSameMillisecondAreDistinct() {
+        Set<UUID> ids = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(TimeOrderedUuid.fromEpochMilli(1_760_000_000_000L));
+        }
+
+        assertEquals(10_000, ids.size());
+    }
+
+    @Test
+    public void partitions_stayEvenlySpread() {
+        int[] counts = new int[Job.PARTITION_COUNT];
+        for (int i = 0; i < 32_000; i++) {
+            counts[Job.partitionOf(TimeOrderedUuid.generate())]++;
+        }
+
+        for (int count : counts) {
+            assertTrue(count > 700 && count < 1300, "partition skew: " + count);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.spencer.distributed_job_scheduler.redis;
+
+import com.github.fppt.jedismock.RedisServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// against an in-process Redis, so the promote script runs as Redis would run it
+public class RedisDelayedQueueTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    private RedisServer server;
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate redis;
+    private RedisDelayedQueue queue;
+
+    @BeforeEach
+    public void startRedis() throws Exception {
+        server = RedisServer.newRedisServer().start();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(server.getHost(), server.getBindPort()));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redis = new StringRedisTemplate(connectionFactory);
+        queue = new RedisDelayedQueue(redis, true, 60000);
+    }
+
+    @AfterEach
+    public void stopRedis() throws Exception {
+        connectionFactory.destroy();
+        server.stop();
+    }
+
+    @Test
+    public void promoteDueMovesOnlyDueMembersOntoTheWorkQueue() {
+        UUID early = UUID.randomUUID();
+        UUID onTime = UUID.randomUUID();
+        UUID later = UUID.randomUUID();
+        queue.schedule(early, NOW.minusSeconds(5));
+        queue.schedule(onTime, NOW);
+        queue.schedule(later, NOW.plusMillis(1));
+
+        assertEquals(2, queue.promoteDue(NOW, 10));
+
+        assertEquals(Set.of(early.toString(), onTime.toString()), Set.copyOf(work()));
+        assertEquals(Set.of(later.toString()), redis.opsForZSet().range(RedisDelayedQueue.DELAYED_KEY, 0, -1));
+    }
+
+    @Test
+    public void promoteDueStopsAtTheLimitEarliestFirst() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        queue.scheduleAll(Map.of(first, NOW.minusSeconds(3), second, NOW.minusSeconds(2), third, NOW.minusSeconds(1)));
+
+        assertEquals(2, queue.promoteDue(NOW, 2));
+        assertEquals(Set.of(first.toString(), second.toString()), Set.copyOf(work()));
+
+        assertEquals(1, queue.promoteDue(NOW, 2));
+        assertEquals(0, queue.promoteDue(NOW, 2));
+        assertEquals(3, work().size());
+    }
+
+    @Test
+    public void reschedulingUpdatesTheScoreInsteadOfAddingAMember() {
+        UUID id = UUID.randomUUID();
+        queue.schedule(id, NOW.plusSeconds(60));
+        queue.scheduleAll(Map.of(id, NOW.minusSeconds(1)));
+
+        assertEquals(1L, redis.opsForZSet().size(RedisDelayedQueue.DELAYED_KEY));
+        assertEquals(1, queue.promoteDue(NOW, 10));
+        assertEquals(List.of(id.toString()), work());
+    }
+
+    @Test
+    public void nextDueAtIsTheEarliestScoreWhetherDueOrNot() {
+        assertEquals(Optional.empty(), queue.nextDueAt());
+
+        queue.scheduleAll(Map.of(UUID.randomUUID(), NOW.plusSeconds(30), UUID.randomUUID(), NOW.plusSeconds(10)));
+
+        assertEquals(Optional.of(NOW.plusSeconds(10)), queue.nextDueAt());
+        assertEquals(0, queue.promoteDue(NOW, 10));
+        assertTrue(work().isEmpty());
+    }
+
+    @Test
+    public void promoteDueRemembersEachPromotionUntilItIsOlderThanTheTtl() {
+        UUID promoted = UUID.randomUUID();
+        UUID waiting = UUID.randomUUID();
+        queue.schedule(promoted, NOW.minusSeconds(1));
+        queue.schedule(waiting, NOW.plusSeconds(30));
+        queue.promoteDue(NOW, 10);
+
+        assertEquals(Arrays.asList(NOW, null, null), queue.promotedAt(List.of(promoted, waiting, UUID.randomUUID())));
+
+        // the next promote a minute later trims the record
+        queue.promoteDue(NOW.plusSeconds(61), 10);
+        assertEquals(Arrays.asList(null, NOW.plusSeconds(61)), queue.promotedAt(List.of(promoted, waiting)));
+    }
+
+    private List<String> work() {
+        return redis.opsForList().range(WorkQueues.NORMAL, 0, -1);
+    }
+}
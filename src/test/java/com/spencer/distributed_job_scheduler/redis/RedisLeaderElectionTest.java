@@ -0,0 +1,99 @@
+package com.spencer.distributed_job_scheduler.redis;
+
+import com.github.fppt.jedismock.RedisServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// two candidates against one in-process Redis, so the fenced acquire script runs as Redis would run it
+public class RedisLeaderElectionTest {
+
+    private static final String KEY = "scheduler:leader:test";
+    private static final Duration TTL = Duration.ofMillis(1500);
+
+    private RedisServer server;
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate redis;
+    private final List<RedisLeaderElection> elections = new ArrayList<>();
+
+    @BeforeEach
+    public void startRedis() throws Exception {
+        server = RedisServer.newRedisServer().start();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(server.getHost(), server.getBindPort()));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redis = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterEach
+    public void stopRedis() throws Exception {
+        elections.forEach(RedisLeaderElection::close);
+        connectionFactory.destroy();
+        server.stop();
+    }
+
+    @Test
+    public void oneLeaderAtATimeAndAFollowerTakesOverOnClose() {
+        RedisLeaderElection a = election();
+        RedisLeaderElection b = election();
+        awaitTrue(() -> a.isLeader() || b.isLeader());
+        RedisLeaderElection leader = a.isLeader() ? a : b;
+        RedisLeaderElection follower = leader == a ? b : a;
+
+        // the leader keeps extending its lease, so the follower never gets in
+        sleep(TTL.toMillis() * 2);
+        assertTrue(leader.isLeader());
+        assertFalse(follower.isLeader());
+
+        long firstToken = leader.getFencingToken();
+        leader.close();
+        assertFalse(leader.isLeader());
+        awaitTrue(follower::isLeader);
+        assertTrue(follower.getFencingToken() > firstToken);
+    }
+
+    @Test
+    public void resigningRaisesTheFenceForTheNextLeader() {
+        RedisLeaderElection a = election();
+        awaitTrue(a::isLeader);
+
+        // a write was refused because token 100 is already recorded downstream
+        a.resign(100);
+
+        awaitTrue(() -> a.isLeader() && a.getFencingToken() > 100);
+    }
+
+    private RedisLeaderElection election() {
+        RedisLeaderElection election = new RedisLeaderElection(new RedisDistributedLock(redis), KEY, TTL, (leader, token) -> { });
+        elections.add(election);
+        election.start();
+        return election;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not reached within 10s");
+            sleep(20);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            fail("interrupted");
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.spencer.distributed_job_scheduler.redis;
+
+import com.github.fppt.jedismock.RedisServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// several assigners against one in-process Redis, so leases and membership behave as across real nodes
+public class RedisPartitionAssignerTest {
+
+    private static final int PARTITIONS = 6;
+    // long enough that a rebalance pass, a few Lua calls on the stand-in, never outlives a lease
+    private static final Duration TTL = Duration.ofMillis(1500);
+
+    private RedisServer server;
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate redis;
+    private final List<RedisPartitionAssigner> assigners = new ArrayList<>();
+
+    @BeforeEach
+    public void startRedis() throws Exception {
+        server = RedisServer.newRedisServer().start();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(server.getHost(), server.getBindPort()));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redis = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterEach
+    public void stopRedis() throws Exception {
+        assigners.forEach(RedisPartitionAssigner::close);
+        connectionFactory.destroy();
+        server.stop();
+    }
+
+    @Test
+    public void partitionsSplitEvenlyAcrossNodes() {
+        RedisPartitionAssigner a = assigner();
+        awaitTrue(() -> a.ownedPartitions().size() == PARTITIONS);
+
+        // the first node holds everything and hands back its surplus as the others join
+        RedisPartitionAssigner b = assigner();
+        RedisPartitionAssigner c = assigner();
+        awaitTrue(() -> splitEvenly(List.of(a, b, c)));
+    }
+
+    @Test
+    public void aClosedNodesPartitionsMoveToTheOthers() {
+        RedisPartitionAssigner a = assigner();
+        RedisPartitionAssigner b = assigner();
+        RedisPartitionAssigner c = assigner();
+        awaitTrue(() -> splitEvenly(List.of(a, b, c)));
+
+        List<Integer> freed = c.ownedPartitions();
+        c.close();
+        assertTrue(c.ownedPartitions().isEmpty());
+        for (int partition : freed) {
+            assertNull(redis.opsForValue().get("scheduler:lock:partition:" + partition));
+        }
+
+        awaitTrue(() -> splitEvenly(List.of(a, b)));
+    }
+
+    @Test
+    public void aLostLeaseIsDroppedAndNotReclaimedWhileHeld() {
+        RedisPartitionAssigner a = assigner();
+        awaitTrue(() -> a.ownedPartitions().size() == PARTITIONS);
+
+        // another holder took the key, e.g. after this node was paused past its ttl
+        redis.opsForValue().set("scheduler:lock:partition:2", "someone-else", Duration.ofMinutes(1));
+
+        awaitTrue(() -> !a.owns(2) && a.ownedPartitions().size() == PARTITIONS - 1);
+        // the other holder's key stays, so later passes keep the partition free of this node
+        sleep(TTL.toMillis());
+        assertFalse(a.owns(2));
+        assertEquals(PARTITIONS - 1, a.ownedPartitions().size());
+    }
+
+    private RedisPartitionAssigner assigner() {
+        RedisPartitionAssigner assigner = new RedisPartitionAssigner(redis, new RedisDistributedLock(redis), PARTITIONS, TTL);
+        assigners.add(assigner);
+        assigner.start();
+        return assigner;
+    }
+
+    // every partition owned by exactly one node, and every node at its fair share
+    private static boolean splitEvenly(List<RedisPartitionAssigner> nodes) {
+        Set<Integer> owned = new HashSet<>();
+        for (RedisPartitionAssigner node : nodes) {
+            List<Integer> partitions = node.ownedPartitions();
+            if (partitions.size() != PARTITIONS / nodes.size()) {
+                return false;
+            }
+            owned.addAll(partitions);
+        }
+        return owned.size() == PARTITIONS;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not reached within 10s");
+            sleep(20);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            fail("interrupted");
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.spencer.distributed_job_scheduler.redis;
+
+import com.github.fppt.jedismock.RedisServer;
+import com.spencer.distributed_job_scheduler.model.Job;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntPredicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// against an in-process Redis, so subscribe, publish and unsubscribe go over the real protocol
+public class RedisPollWakeupsTest {
+
+    private RedisServer server;
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate redis;
+    private RedisPollWakeups wakeups;
+    private final List<RedisMessageListenerContainer> subscriptions = new ArrayList<>();
+
+    @BeforeEach
+    public void startRedis() throws Exception {
+        server = RedisServer.newRedisServer().start();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(server.getHost(), server.getBindPort()));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redis = new StringRedisTemplate(connectionFactory);
+        wakeups = new RedisPollWakeups(redis, true, 5000);
+    }
+
+    @AfterEach
+    public void stopRedis() throws Exception {
+        for (RedisMessageListenerContainer subscription : subscriptions) {
+            subscription.destroy();
+        }
+        connectionFactory.destroy();
+        server.stop();
+    }
+
+    @Test
+    public void onlyTheNodeClaimingTheJobsPartitionIsWoken() throws Exception {
+        BlockingQueue<Instant> owner = new LinkedBlockingQueue<>();
+        BlockingQueue<Instant> other = new LinkedBlockingQueue<>();
+        subscribe(partition -> partition == 3, owner);
+        subscribe(partition -> partition == 5, other);
+        Instant dueFor3 = Instant.now().plusSeconds(1).truncatedTo(ChronoUnit.MILLIS);
+        Instant dueFor5 = dueFor3.plusMillis(1);
+        assertEquals(dueFor3, announceUntilHeard(() -> wakeups.announce(dueFor3, 3), owner));
+        announceUntilHeard(() -> wakeups.announce(dueFor5, 5), other);
+
+        wakeups.announce(dueFor3, 3);
+        wakeups.announce(dueFor5, 5);
+
+        assertEquals(dueFor3, owner.poll(5, TimeUnit.SECONDS));
+        // messages arrive in order, so the other node's first wakeup being its own means it skipped partition 3
+        assertEquals(dueFor5, other.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void batchWakesTheOwnerOfAnyJobDueWithinTheHorizon() throws Exception {
+        BlockingQueue<Instant> woken = new LinkedBlockingQueue<>();
+        BlockingQueue<Instant> lateOnly = new LinkedBlockingQueue<>();
+        subscribe(partition -> partition == 7, woken);
+        subscribe(partition -> partition == 9, lateOnly);
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        List<Job> batch = List.of(
+                job(2, now.plusSeconds(2)),
+                job(7, now.plusSeconds(4)),
+                // beyond the 5s horizon: neither named nor the wakeup time
+                job(9, now.plusSeconds(3600)));
+        assertEquals(now.plusSeconds(2), announceUntilHeard(() -> wakeups.announce(batch), woken));
+        assertEquals(now.plusSeconds(3), announceUntilHeard(() -> wakeups.announce(now.plusSeconds(3), 9), lateOnly));
+
+        wakeups.announce(batch);
+        wakeups.announce(now.plusSeconds(3), 9);
+
+        assertEquals(now.plusSeconds(2), woken.poll(5, TimeUnit.SECONDS));
+        assertEquals(now.plusSeconds(3), lateOnly.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void wakeupWithoutPartitionsIsForEveryone() throws Exception {
+        BlockingQueue<Instant> woken = new LinkedBlockingQueue<>();
+        subscribe(partition -> false, woken);
+
+        Instant heard = announceUntilHeard(() -> redis.convertAndSend(RedisPollWakeups.CHANNEL, "1767225600000"), woken);
+
+        assertEquals(Instant.ofEpochMilli(1767225600000L), heard);
+    }
+
+    @Test
+    public void closedSubscriptionHearsNothing() throws Exception {
+        BlockingQueue<Instant> woken = new LinkedBlockingQueue<>();
+        RedisMessageListenerContainer subscription = subscribe(partition -> true, woken);
+        Instant dueSoon = Instant.now().plusSeconds(1).truncatedTo(ChronoUnit.MILLIS);
+        announceUntilHeard(() -> wakeups.announce(dueSoon, 1), woken);
+
+        subscription.destroy();
+        subscriptions.remove(subscription);
+        woken.clear();
+        // a listener still subscribed proves the announcement went out
+        BlockingQueue<Instant> stillSubscribed = new LinkedBlockingQueue<>();
+        subscribe(partition -> true, stillSubscribed);
+        announceUntilHeard(() -> wakeups.announce(dueSoon, 1), stillSubscribed);
+
+        assertTrue(woken.isEmpty());
+        assertFalse(subscription.isRunning());
+    }
+
+    @Test
+    public void disabledOrDistantAnnouncementsAreNotPublished() throws Exception {
+        BlockingQueue<Instant> woken = new LinkedBlockingQueue<>();
+        subscribe(partition -> true, woken);
+        Instant dueSoon = Instant.now().plusSeconds(1).truncatedTo(ChronoUnit.MILLIS);
+        announceUntilHeard(() -> wakeups.announce(dueSoon, 1), woken);
+        woken.clear();
+
+        new RedisPollWakeups(redis, false, 5000).announce(dueSoon, 1);
+        wakeups.announce(Instant.now().plusSeconds(60), 1);
+        wakeups.announce(dueSoon.plusMillis(1), 1);
+
+        // messages arrive in order, so the last one being first means the others were never sent
+        assertEquals(dueSoon.plusMillis(1), woken.poll(5, TimeUnit.SECONDS));
+    }
+
+    private RedisMessageListenerContainer subscribe(IntPredicate claims, BlockingQueue<Instant> woken) {
+        RedisMessageListenerContainer subscription = wakeups.subscribe(claims, woken::add);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    // the container subscribes asynchronously, so repeat the announcement until it is heard
+    private static Instant announceUntilHeard(Runnable announce, BlockingQueue<Instant> woken) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            announce.run();
+            Instant heard = woken.poll(100, TimeUnit.MILLISECONDS);
+            if (heard != null) {
+                // drain repeats of the same announcement still in flight
+                Thread.sleep(200);
+                woken.clear();
+                return heard;
+            }
+        }
+        return fail("announcement was never heard");
+    }
+
+    private static Job job(int partition, Instant scheduledAt) {
+        UUID id = UUID.randomUUID();
+        while (Job.partitionOf(id) != partition) {
+            id = UUID.randomUUID();
+        }
+        Job job = new Job();
+        ReflectionTestUtils.setField(job, "id", id);
+        job.setScheduledAt(scheduledAt);
+        return job;
+    }
+}
@@ -0,0 +1,94 @@
+package com.spencer.distributed_job_scheduler.redis;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RedisRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.SECONDS.toNanos(1000));
+    private final StringRedisTemplate redis = Mockito.mock(StringRedisTemplate.class);
+
+    // 100ms prefetch window
+    private final RedisRateLimiter limiter = new RedisRateLimiter(redis, 100, now::get);
+
+    @Test
+    public void handsOutAPrefetchedBatchLocally() {
+        redisReplies(List.of(5L, 0L));
+
+        // 50/s over a 100ms window is a batch of 5
+        for (int i = 0; i < 5; i++) {
+            assertEquals(Duration.ZERO, limiter.tryAcquire("host:a", 50, 50));
+        }
+        verifyRedisCalls(1, "5");
+
+        redisReplies(List.of(5L, 0L));
+        assertEquals(Duration.ZERO, limiter.tryAcquire("host:a", 50, 50));
+        verifyRedisCalls(2, "5");
+    }
+
+    @Test
+    public void dropsPermitsNotUsedWithinThePrefetchWindow() {
+        redisReplies(List.of(5L, 0L));
+        limiter.tryAcquire("host:a", 50, 50);
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(101));
+        limiter.tryAcquire("host:a", 50, 50);
+        verifyRedisCalls(2, "5");
+    }
+
+    @Test
+    public void neverAsksForMoreThanTheBurstOrLessThanOne() {
+        redisReplies(List.of(1L, 0L));
+        limiter.tryAcquire("host:fast", 1000, 3);
+        verifyRedisCalls(1, "3");
+
+        limiter.tryAcquire("host:slow", 0.5, 1);
+        verifyRedisCalls(1, "1");
+    }
+
+    @Test
+    public void afterADenialWaitsOutTheRefillWithoutAskingRedis() {
+        redisReplies(List.of(0L, 400L));
+        assertEquals(Duration.ofMillis(400), limiter.tryAcquire("type:report", 2.5, 1));
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(300));
+        assertEquals(Duration.ofMillis(101), limiter.tryAcquire("type:report", 2.5, 1));
+        verifyRedisCalls(1, "1");
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        redisReplies(List.of(1L, 0L));
+        assertEquals(Duration.ZERO, limiter.tryAcquire("type:report", 2.5, 1));
+        verifyRedisCalls(2, "1");
+    }
+
+    @Test
+    public void bucketsAreIndependent() {
+        redisReplies(List.of(0L, 1000L));
+        assertFalse(limiter.tryAcquire("host:a", 1, 1).isZero());
+
+        redisReplies(List.of(1L, 0L));
+        assertTrue(limiter.tryAcquire("host:b", 1, 1).isZero());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void redisReplies(List<Long> reply) {
+        Mockito.when(redis.execute(Mockito.any(RedisScript.class), Mockito.anyList(),
+                Mockito.anyString(), Mockito.anyString(), Mockito.anyString()))
+                .thenReturn(reply);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void verifyRedisCalls(int times, String batch) {
+        Mockito.verify(redis, Mockito.times(times)).execute(Mockito.any(RedisScript.class), Mockito.anyList(),
+                Mockito.anyString(), Mockito.anyString(), Mockito.eq(batch));
+    }
+}
@@ -0,0 +1,42 @@
+package com.spencer.distributed_job_scheduler.repository;
+
+import com.spencer.distributed_job_scheduler.model.JobPriority;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StartedAttemptTest {
+
+    @Test
+    public void mapsTheStoredOrdinalToThePriority() {
+        for (JobPriority priority : JobPriority.values()) {
+            assertEquals(priority, attempt((short) priority.ordinal()).priority());
+        }
+    }
+
+    @Test
+    public void rowWithoutAPriorityHasNone() {
+        assertNull(attempt(null).priority());
+    }
+
+    private static StartedAttempt attempt(Short priority) {
+        return new StartedAttempt() {
+            @Override
+            public Instant getScheduledAt() {
+                return Instant.EPOCH;
+            }
+
+            @Override
+            public Instant getQueuedAt() {
+                return null;
+            }
+
+            @Override
+            public Short getPriority() {
+                return priority;
+            }
+        };
+    }
+}
@@ -0,0 +1,89 @@
+package com.spencer.distributed_job_scheduler.service;
+
+import com.spencer.distributed_job_scheduler.model.JobPriority;
+import com.spencer.distributed_job_scheduler.redis.RedisDistributedLock;
+import com.spencer.distributed_job_scheduler.redis.WorkQueues;
+import com.spencer.distributed_job_scheduler.repository.JobRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.redis.core.ListOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+
+public class BacklogMonitorTest {
+
+    private final StringRedisTemplate redis = Mockito.mock(StringRedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final ListOperations<String, String> lists = Mockito.mock(ListOperations.class);
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, String> values = Mockito.mock(ValueOperations.class);
+    private final JobRepository jobRepository = Mockito.mock(JobRepository.class);
+    private final RedisDistributedLock lock = Mockito.mock(RedisDistributedLock.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final BacklogMonitor monitor = new BacklogMonitor(redis, jobRepository, lock, 1000, 5000);
+
+    @BeforeEach
+    public void setUp() {
+        Mockito.when(redis.opsForList()).thenReturn(lists);
+        Mockito.when(redis.opsForValue()).thenReturn(values);
+        Mockito.when(lists.size(anyString())).thenReturn(0L);
+        monitor.initMetrics(registry);
+    }
+
+    @Test
+    public void leaseHolderCountsTheBacklogAndPublishesIt() {
+        Instant oldest = Instant.now().minusSeconds(30);
+        Mockito.when(lock.tryAcquire(anyString(), eq(Duration.ofMillis(5000)))).thenReturn("token");
+        Mockito.when(jobRepository.countDueUpTo(any(Instant.class), eq(1000))).thenReturn(42L);
+        Mockito.when(jobRepository.findOldestDue(any(Instant.class))).thenReturn(Optional.of(oldest));
+        Mockito.when(lists.size(WorkQueues.keyFor(JobPriority.HIGH))).thenReturn(3L);
+
+        monitor.sample();
+
+        assertEquals(42, registry.get("jobs.backlog.due").gauge().value());
+        assertTrue(registry.get("jobs.backlog.lag.seconds").gauge().value() >= 30);
+        assertEquals(3, registry.get("jobs.queue.depth").tag("priority", "high").gauge().value());
+        Mockito.verify(values).set("scheduler:metrics:backlog", "42," + oldest.toEpochMilli(), Duration.ofMillis(15000));
+    }
+
+    @Test
+    public void otherNodesReadThePublishedBacklogWithoutQueryingPostgres() {
+        Mockito.when(values.get("scheduler:metrics:backlog")).thenReturn("7,");
+
+        monitor.sample();
+
+        assertEquals(7, registry.get("jobs.backlog.due").gauge().value());
+        assertEquals(0, registry.get("jobs.backlog.lag.seconds").gauge().value());
+        Mockito.verify(jobRepository, Mockito.never()).countDueUpTo(any(Instant.class), anyInt());
+        Mockito.verify(jobRepository, Mockito.never()).findOldestDue(any(Instant.class));
+    }
+
+    @Test
+    public void missingSnapshotKeepsTheLastValues() {
+        Mockito.when(values.get("scheduler:metrics:backlog")).thenReturn("7,").thenReturn(null);
+
+        monitor.sample();
+        monitor.sample();
+
+        assertEquals(7, registry.get("jobs.backlog.due").gauge().value());
+    }
+
+    @Test
+    public void rejectsNonPositiveSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new BacklogMonitor(redis, jobRepository, lock, 0, 5000));
+        assertThrows(IllegalArgumentException.class, () -> new BacklogMonitor(redis, jobRepository, lock, 1000, 0));
+    }
+}
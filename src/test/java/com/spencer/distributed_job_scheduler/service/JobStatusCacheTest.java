@@ -0,0 +1,138 @@
+package com.spencer.distributed_job_scheduler.service;
+
+import com.spencer.distributed_job_scheduler.dto.JobStatusView;
+import com.spencer.distributed_job_scheduler.model.JobStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+
+public class JobStatusCacheTest {
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.SECONDS.toNanos(1000));
+    private final StringRedisTemplate redis = Mockito.mock(StringRedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, String> values = Mockito.mock(ValueOperations.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // 1s for live statuses, 1 day for terminal ones
+    private final JobStatusCache cache = new JobStatusCache(redis, objectMapper, true, 100, 1000, 86_400_000, now::get);
+
+    private final UUID id = UUID.randomUUID();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    public void setUp() {
+        Mockito.when(redis.opsForValue()).thenReturn(values);
+    }
+
+    @Test
+    public void liveStatusIsReloadedOnceTheLiveTtlPasses() {
+        Function<UUID, Optional<JobStatusView>> loader = loader(JobStatus.RUNNING);
+
+        assertEquals(JobStatus.RUNNING, cache.get(id, loader).orElseThrow().getStatus());
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(999));
+        cache.get(id, loader);
+        assertEquals(1, loads.get());
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(2));
+        cache.get(id, loader);
+        assertEquals(2, loads.get());
+        Mockito.verify(values, Mockito.times(2)).set(eq("scheduler:status:" + id), anyString(), eq(1000L), eq(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void terminalStatusIsKeptForTheTerminalTtl() {
+        Function<UUID, Optional<JobStatusView>> loader = loader(JobStatus.COMPLETED);
+
+        cache.get(id, loader);
+        now.addAndGet(TimeUnit.HOURS.toNanos(23));
+        assertEquals(JobStatus.COMPLETED, cache.get(id, loader).orElseThrow().getStatus());
+
+        assertEquals(1, loads.get());
+        Mockito.verify(values).set(eq("scheduler:status:" + id), anyString(), eq(86_400_000L), eq(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void servesAnotherNodesEntryFromRedisWithoutLoading() {
+        JobStatusView cached = view(JobStatus.QUEUED);
+        Mockito.when(values.get("scheduler:status:" + id)).thenReturn(objectMapper.writeValueAsString(cached));
+
+        assertEquals(cached, cache.get(id, loader(JobStatus.RUNNING)).orElseThrow());
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    public void unreachableRedisIsAMiss() {
+        Mockito.when(values.get(anyString())).thenThrow(new IllegalStateException("connection refused"));
+
+        assertEquals(JobStatus.RUNNING, cache.get(id, loader(JobStatus.RUNNING)).orElseThrow().getStatus());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void evictionInsideATransactionWaitsForTheCommit() {
+        Function<UUID, Optional<JobStatusView>> loader = loader(JobStatus.RUNNING);
+        cache.get(id, loader);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.evict(id);
+            // until the commit the old state is still the committed one
+            cache.get(id, loader);
+            assertEquals(1, loads.get());
+            Mockito.verify(redis, Mockito.never()).delete(any(Collection.class));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        Mockito.verify(redis).delete(any(Collection.class));
+        cache.get(id, loader);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void disabledCacheAlwaysLoads() {
+        JobStatusCache disabled = new JobStatusCache(redis, objectMapper, false, 100, 1000, 86_400_000, now::get);
+        Function<UUID, Optional<JobStatusView>> loader = loader(JobStatus.COMPLETED);
+
+        disabled.get(id, loader);
+        disabled.get(id, loader);
+
+        assertEquals(2, loads.get());
+        Mockito.verifyNoInteractions(values);
+    }
+
+    private Function<UUID, Optional<JobStatusView>> loader(JobStatus status) {
+        return key -> {
+            loads.incrementAndGet();
+            return Optional.of(view(status));
+        };
+    }
+
+    private JobStatusView view(JobStatus status) {
+        Instant finished = status == JobStatus.COMPLETED ? Instant.parse("2026-01-01T00:00:05Z") : null;
+        return new JobStatusView(id, status, "noop", "default", null, Instant.parse("2026-01-01T00:00:00Z"),
+                null, finished, 1, null, null, status == JobStatus.COMPLETED ? 3L : 2L);
+    }
+}
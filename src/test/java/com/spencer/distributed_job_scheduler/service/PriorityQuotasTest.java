@@ -0,0 +1,42 @@
+package com.spencer.distributed_job_scheduler.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PriorityQuotasTest {
+
+    @Test
+    public void splitFollowsTheWeightsWithinOneBatch() {
+        PriorityQuotas quotas = new PriorityQuotas(new int[]{8, 3, 1});
+        assertArrayEquals(new int[]{8, 3, 1}, quotas.split(12));
+        assertArrayEquals(new int[]{16, 6, 2}, quotas.split(24));
+    }
+
+    @Test
+    public void creditCarriesOverSoSmallBatchesStillReachLow() {
+        PriorityQuotas quotas = new PriorityQuotas(new int[]{8, 3, 1});
+        int[] total = new int[3];
+        for (int batch = 0; batch < 120; batch++) {
+            int[] split = quotas.split(1);
+            assertEquals(1, split[0] + split[1] + split[2]);
+            for (int i = 0; i < 3; i++) {
+                total[i] += split[i];
+            }
+        }
+        assertArrayEquals(new int[]{80, 30, 10}, total);
+    }
+
+    @Test
+    public void splitOfNothingIsEmpty() {
+        assertArrayEquals(new int[]{0, 0, 0}, new PriorityQuotas(new int[]{8, 3, 1}).split(0));
+    }
+
+    @Test
+    public void rejectsMalformedWeights() {
+        assertThrows(IllegalArgumentException.class, () -> new PriorityQuotas("8,3"));
+        assertThrows(IllegalArgumentException.class, () -> new PriorityQuotas("8,3,0"));
+        assertThrows(IllegalArgumentException.class, () -> new PriorityQuotas("8,three,1"));
+        assertArrayEquals(new int[]{2, 1, 1}, new PriorityQuotas(" 2, 1 ,1").split(4));
+    }
+}
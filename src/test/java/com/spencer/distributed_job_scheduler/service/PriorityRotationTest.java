@@ -0,0 +1,51 @@
+package com.spencer.distributed_job_scheduler.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PriorityRotationTest {
+
+    @Test
+    public void next_givesTurnsInProportionToTheWeights() {
+        PriorityRotation rotation = new PriorityRotation(new int[] {8, 3, 1});
+        int[] turns = new int[3];
+        for (int i = 0; i < 120; i++) {
+            turns[rotation.next()]++;
+        }
+        assertArrayEquals(new int[] {80, 30, 10}, turns);
+    }
+
+    @Test
+    public void next_spreadsLowerPrioritiesOutInsteadOfBursting() {
+        PriorityRotation rotation = new PriorityRotation(new int[] {8, 3, 1});
+        int sinceLow = 0;
+        for (int i = 0; i < 120; i++) {
+            sinceLow = rotation.next() == 2 ? 0 : sinceLow + 1;
+            // low gets a turn in every cycle of 12
+            assertTrue(sinceLow < 12);
+        }
+    }
+
+    @Test
+    public void next_breaksTiesTowardsTheHigherPriority() {
+        PriorityRotation rotation = new PriorityRotation(new int[] {1, 1, 1});
+        List<Integer> turns = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            turns.add(rotation.next());
+        }
+        assertEquals(List.of(0, 1, 2), turns);
+    }
+
+    @Test
+    public void rejectsBadWeights() {
+        assertThrows(IllegalArgumentException.class, () -> new PriorityRotation(new int[] {8, 3}));
+        assertThrows(IllegalArgumentException.class, () -> new PriorityRotation(new int[] {8, 0, 1}));
+        assertThrows(IllegalArgumentException.class, () -> PriorityRotation.parseWeights("weights", "8,x,1"));
+        assertThrows(IllegalArgumentException.class, () -> PriorityRotation.parseWeights("weights", "8,3"));
+        assertArrayEquals(new int[] {8, 3, 1}, PriorityRotation.parseWeights("weights", " 8, 3 ,1"));
+    }
+}
@@ -0,0 +1,97 @@
+package com.spencer.distributed_job_scheduler.service;
+
+import com.spencer.distributed_job_scheduler.model.Job;
+import com.spencer.distributed_job_scheduler.model.RetryPolicy;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.io.IOException;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RetryPolicyEngineTest {
+
+    private final RetryPolicyEngine engine = new RetryPolicyEngine(3, 1000, 10000, 0.0, "408,429,500-599");
+
+    @Test
+    public void backoff_doublesUpToTheCap() {
+        assertEquals(Duration.ofMillis(1000), RetryPolicyEngine.backoff(1, 1000, 10000, 0.0));
+        assertEquals(Duration.ofMillis(2000), RetryPolicyEngine.backoff(2, 1000, 10000, 0.0));
+        assertEquals(Duration.ofMillis(8000), RetryPolicyEngine.backoff(4, 1000, 10000, 0.0));
+        assertEquals(Duration.ofMillis(10000), RetryPolicyEngine.backoff(5, 1000, 10000, 0.0));
+        // no overflow for absurd attempt counts
+        assertEquals(Duration.ofMillis(10000), RetryPolicyEngine.backoff(Integer.MAX_VALUE, 1000, 10000, 0.0));
+    }
+
+    @Test
+    public void backoff_jitterStaysWithinTheFraction() {
+        for (int i = 0; i < 1000; i++) {
+            long delay = RetryPolicyEngine.backoff(3, 1000, 10000, 0.5).toMillis();
+            assertTrue(delay > 2000 && delay <= 4000, "delay " + delay);
+        }
+    }
+
+    @Test
+    public void statusMatches_codesAndRanges() {
+        assertTrue(RetryPolicyEngine.statusMatches(429, "408, 429,500-599"));
+        assertTrue(RetryPolicyEngine.statusMatches(503, "408,429,500-599"));
+        assertFalse(RetryPolicyEngine.statusMatches(404, "408,429,500-599"));
+        assertFalse(RetryPolicyEngine.statusMatches(500, ""));
+    }
+
+    @Test
+    public void nextAttemptAt_retriesTransientFailuresUntilAttemptsRunOut() {
+        Instant now = Instant.parse("2026-01-01T00:00:00Z");
+        Job job = new Job();
+        job.setAttempts(1);
+
+        assertEquals(now.plusMillis(1000), engine.nextAttemptAt(job, new IOException("reset"), now).orElseThrow());
+        assertEquals(now.plusMillis(1000), engine.nextAttemptAt(job, new CompletionException(new HttpTimeoutException("slow")), now).orElseThrow());
+        assertTrue(engine.nextAttemptAt(job, HttpServerErrorException.create(HttpStatus.BAD_GATEWAY, "", null, null, null), now).isPresent());
+        assertTrue(engine.nextAttemptAt(job, HttpClientErrorException.create(HttpStatus.NOT_FOUND, "", null, null, null), now).isEmpty());
+        assertTrue(engine.nextAttemptAt(job, new IllegalArgumentException("bad payload"), now).isEmpty());
+
+        job.setAttempts(3);
+        assertTrue(engine.nextAttemptAt(job, new IOException("reset"), now).isEmpty());
+    }
+
+    @Test
+    public void nextAttemptAt_jobPolicyOverridesDefaults() {
+        Instant now = Instant.parse("2026-01-01T00:00:00Z");
+        RetryPolicy policy = new RetryPolicy();
+        policy.setMaxAttempts(5);
+        policy.setBackoffBaseMs(50L);
+        policy.setRetryableStatuses("404");
+        Job job = new Job();
+        job.setAttempts(3);
+        job.setRetryPolicy(policy);
+
+        assertEquals(now.plusMillis(200),
+                engine.nextAttemptAt(job, HttpClientErrorException.create(HttpStatus.NOT_FOUND, "", null, null, null), now).orElseThrow());
+    }
+
+    @Test
+    public void validate_rejectsUnusablePolicies() {
+        RetryPolicy policy = new RetryPolicy();
+        policy.setMaxAttempts(0);
+        assertThrows(IllegalArgumentException.class, () -> engine.validate(policy));
+
+        policy.setMaxAttempts(2);
+        policy.setBackoffBaseMs(20000L);
+        assertThrows(IllegalArgumentException.class, () -> engine.validate(policy));
+
+        policy.setBackoffBaseMs(100L);
+        policy.setRetryableStatuses("5xx");
+        assertThrows(IllegalArgumentException.class, () -> engine.validate(policy));
+
+        policy.setRetryableStatuses("500-599");
+        assertDoesNotThrow(() -> engine.validate(policy));
+        assertDoesNotThrow(() -> engine.validate(null));
+    }
+}
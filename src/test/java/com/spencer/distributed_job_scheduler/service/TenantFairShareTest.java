@@ -0,0 +1,202 @@
+package com.spencer.distributed_job_scheduler.service;
+
+import com.spencer.distributed_job_scheduler.model.JobPriority;
+import com.spencer.distributed_job_scheduler.repository.ClaimedJobRef;
+import com.spencer.distributed_job_scheduler.repository.JobRepository;
+import com.spencer.distributed_job_scheduler.repository.TenantLoad;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TenantFairShareTest {
+
+    @Test
+    public void allocate_splitsBatchesByWeightOverTime() {
+        TenantFairShare fairShare = new TenantFairShare(true, Map.of("a", 2), 1, Map.of(), 0, 50, null);
+        Map<String, Integer> total = new HashMap<>();
+        for (int round = 0; round < 10; round++) {
+            TenantFairShare.Plan plan = fairShare.allocate(30, Map.of("a", 1000L, "b", 1000L), Map.of());
+            assertEquals(30, plan.getQuotas().values().stream().mapToInt(Integer::intValue).sum());
+            plan.getQuotas().forEach((tenant, quota) -> total.merge(tenant, quota, Integer::sum));
+            fairShare.charge(plan, claimed(plan.getQuotas()));
+        }
+        assertEquals(200, total.get("a"));
+        assertEquals(100, total.get("b"));
+    }
+
+    @Test
+    public void allocate_givesUnusedShareToTenantsWithMoreWork() {
+        TenantFairShare fairShare = new TenantFairShare(true, Map.of(), 1, Map.of(), 0, 50, null);
+        TenantFairShare.Plan plan = fairShare.allocate(100, Map.of("heavy", 500_000L, "light", 5L), Map.of());
+        assertEquals(5, plan.getQuotas().get("light"));
+        assertEquals(95, plan.getQuotas().get("heavy"));
+    }
+
+    @Test
+    public void allocate_respectsInFlightCaps() {
+        TenantFairShare fairShare = new TenantFairShare(true, Map.of(), 1, Map.of("capped", 10), 0, 50, null);
+        TenantFairShare.Plan plan = fairShare.allocate(100, Map.of("capped", 1000L, "other", 10L), Map.of("capped", 7L));
+        assertEquals(3, plan.getQuotas().get("capped"));
+        assertEquals(10, plan.getQuotas().get("other"));
+        assertEquals(Set.of("capped"), plan.getCapped());
+
+        plan = fairShare.allocate(100, Map.of("capped", 1000L), Map.of("capped", 10L));
+        assertTrue(plan.getQuotas().isEmpty());
+    }
+
+    @Test
+    public void charge_dropsCreditOfTenantsThatRanDry() {
+        TenantFairShare fairShare = new TenantFairShare(true, Map.of(), 1, Map.of(), 0, 50, null);
+        TenantFairShare.Plan plan = fairShare.allocate(10, Map.of("a", 100L, "b", 100L), Map.of());
+        // b's rows turned out to be gone; its unused credit must not carry into the next batch
+        fairShare.charge(plan, claimed(Map.of("a", 5)));
+        plan = fairShare.allocate(10, Map.of("a", 100L, "b", 100L), Map.of());
+        assertEquals(5, plan.getQuotas().get("a"));
+        assertEquals(5, plan.getQuotas().get("b"));
+    }
+
+    @Test
+    public void interleave_alternatesTenantsWithinEachPriority() {
+        List<ClaimedJobRef> claimed = List.of(ref("a", JobPriority.NORMAL), ref("a", JobPriority.NORMAL), ref("a", JobPriority.HIGH),
+                ref("b", JobPriority.NORMAL), ref("b", JobPriority.NORMAL));
+        List<String> order = TenantFairShare.interleave(claimed).stream()
+                .map(ref -> ref.getTenantId() + ":" + ref.priority())
+                .toList();
+        assertEquals(List.of("a:HIGH", "a:NORMAL", "b:NORMAL", "a:NORMAL", "b:NORMAL"), order);
+    }
+
+    @Test
+    public void parseLimits_rejectsMalformedEntries() {
+        assertEquals(Map.of("acme", 4, "globex", 1), TenantFairShare.parseLimits("acme=4, globex=1", "p"));
+        assertThrows(IllegalArgumentException.class, () -> TenantFairShare.parseLimits("acme=0", "p"));
+        assertThrows(IllegalArgumentException.class, () -> TenantFairShare.parseLimits("acme", "p"));
+    }
+
+    @Test
+    public void capFill_holdsTenantsNewerThanThePlanToTheirCap() {
+        TenantFairShare fairShare = new TenantFairShare(true, Map.of(), 1, Map.of("vip", 3), 2, 50, null);
+        TenantFairShare.Plan plan = fairShare.allocate(10, Map.of("known", 5L), Map.of());
+        assertEquals(Set.of("known"), plan.getCapped());
+
+        List<ClaimedJobRef> filled = claimed(Map.of("new", 5, "vip", 5));
+        Map<String, Integer> kept = new HashMap<>();
+        fairShare.capFill(plan, filled).forEach(ref -> kept.merge(ref.getTenantId(), 1, Integer::sum));
+        assertEquals(Map.of("new", 2, "vip", 3), kept);
+
+        // without caps the fill keeps everything
+        TenantFairShare uncapped = new TenantFairShare(true, Map.of(), 1, Map.of(), 0, 50, null);
+        assertEquals(10, uncapped.capFill(uncapped.allocate(10, Map.of(), Map.of()), filled).size());
+    }
+
+    @Test
+    public void refresh_onlySummarizesOnNodesThatClaimed() {
+        JobRepository jobRepository = Mockito.mock(JobRepository.class);
+        Mockito.when(jobRepository.summarizeTenantLoad(Mockito.any())).thenReturn(List.of(load("a", 4)));
+        TenantFairShare fairShare = new TenantFairShare(true, Map.of(), 1, Map.of(), 0, 50, jobRepository);
+
+        fairShare.refresh();
+        Mockito.verify(jobRepository, Mockito.never()).summarizeTenantLoad(Mockito.any());
+
+        assertTrue(fairShare.plan(10).getQuotas().isEmpty());
+        fairShare.refresh();
+        assertEquals(Map.of("a", 4), fairShare.plan(10).getQuotas());
+
+        // planned once since, so one more summary; then this node stops claiming and drops its view
+        fairShare.refresh();
+        fairShare.refresh();
+        Mockito.verify(jobRepository, Mockito.times(2)).summarizeTenantLoad(Mockito.any());
+        assertTrue(fairShare.plan(10).getQuotas().isEmpty());
+    }
+
+    @Test
+    public void tenantTag_sharesOneTagOnceMaxMeteredTenantsHaveTheirs() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        TenantFairShare fairShare = new TenantFairShare(true, Map.of(), 1, Map.of(), 0, 2, null);
+        fairShare.initMetrics(registry);
+
+        TenantFairShare.Plan plan = fairShare.allocate(10, Map.of(), Map.of());
+        fairShare.charge(plan, claimed(Map.of("a", 1)));
+        fairShare.charge(plan, claimed(Map.of("b", 2)));
+        fairShare.charge(plan, claimed(Map.of("c", 3, "d", 4)));
+        fairShare.charge(plan, claimed(Map.of("a", 1)));
+
+        assertEquals(2.0, registry.get("jobs.tenant.claimed.total").tag("tenant", "a").counter().count());
+        assertEquals(2.0, registry.get("jobs.tenant.claimed.total").tag("tenant", "b").counter().count());
+        assertEquals(7.0, registry.get("jobs.tenant.claimed.total").tag("tenant", TenantFairShare.OTHER_TENANTS).counter().count());
+        assertEquals(3, registry.find("jobs.tenant.claimed.total").counters().size());
+    }
+
+    private static TenantLoad load(String tenant, long backlog) {
+        return new TenantLoad() {
+            @Override
+            public String getTenantId() {
+                return tenant;
+            }
+
+            @Override
+            public long getBacklog() {
+                return backlog;
+            }
+
+            @Override
+            public Instant getOldestDue() {
+                return null;
+            }
+
+            @Override
+            public long getInFlight() {
+                return 0;
+            }
+        };
+    }
+
+    private static List<ClaimedJobRef> claimed(Map<String, Integer> counts) {
+        List<ClaimedJobRef> claimed = new ArrayList<>();
+        counts.forEach((tenant, count) -> {
+            for (int i = 0; i < count; i++) {
+                claimed.add(ref(tenant, JobPriority.NORMAL));
+            }
+        });
+        return claimed;
+    }
+
+    private static ClaimedJobRef ref(String tenant, JobPriority priority) {
+        UUID id = UUID.randomUUID();
+        return new ClaimedJobRef() {
+            @Override
+            public UUID getId() {
+                return id;
+            }
+
+            @Override
+            public Short getPriority() {
+                return (short) priority.ordinal();
+            }
+
+            @Override
+            public String getTenantId() {
+                return tenant;
+            }
+
+            @Override
+            public Instant getScheduledAt() {
+                return null;
+            }
+
+            @Override
+            public UUID getRecurringJobId() {
+                return null;
+            }
+        };
+    }
+}
@@ -0,0 +1,516 @@
+package com.spencer.distributed_job_scheduler.service.impl;
+
+import com.spencer.distributed_job_scheduler.config.JobColumnBackfill;
+import com.spencer.distributed_job_scheduler.config.PriorityColumnMigration;
+import com.spencer.distributed_job_scheduler.dto.JobFilter;
+import com.spencer.distributed_job_scheduler.dto.JobSummary;
+import com.spencer.distributed_job_scheduler.handlers.TestRedisAndExecutorConfig;
+import com.spencer.distributed_job_scheduler.model.Job;
+import com.spencer.distributed_job_scheduler.model.JobMessage;
+import com.spencer.distributed_job_scheduler.model.JobPriority;
+import com.spencer.distributed_job_scheduler.model.JobStatus;
+import com.spencer.distributed_job_scheduler.model.TimeOrderedUuid;
+import com.spencer.distributed_job_scheduler.repository.ClaimedJobRef;
+import com.spencer.distributed_job_scheduler.repository.FenceRepository;
+import com.spencer.distributed_job_scheduler.repository.JobArchiveRepository;
+import com.spencer.distributed_job_scheduler.repository.JobRepository;
+import com.spencer.distributed_job_scheduler.service.JobService;
+import com.spencer.distributed_job_scheduler.service.StaleFencingTokenException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// runs against the local Postgres; every job is scheduled in 2001 at HIGH priority, so the claims take these first
+@SpringBootTest
+@Import(TestRedisAndExecutorConfig.class)
+@TestPropertySource(locations = "classpath:integration-test.properties")
+public class JobServiceImplTest {
+
+    private static final Instant LONG_AGO = Instant.parse("2001-01-01T00:00:00Z");
+    private static final Duration QUEUE_LEASE = Duration.ofMillis(600000);
+    private static final Duration RUN_LEASE = Duration.ofMillis(120000);
+    private static final Instant ARCHIVE_CUTOFF = LONG_AGO.plus(Duration.ofDays(1));
+
+    @Autowired
+    JobService jobService;
+
+    @Autowired
+    JobRepository jobRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    PriorityColumnMigration priorityColumnMigration;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    private final List<UUID> created = new ArrayList<>();
+
+    @BeforeEach
+    @AfterEach
+    void cleanUp() {
+        jobRepository.deleteAllById(created);
+        created.forEach(id -> jdbcTemplate.update("DELETE FROM " + JobArchiveRepository.TABLE + " WHERE id = ?", id));
+        created.clear();
+        jdbcTemplate.update("DELETE FROM " + FenceRepository.TABLE);
+    }
+
+    @Test
+    void claimDueJobsAsLeader_refusesATokenOlderThanTheNewestLeaders() {
+        Job first = save(newJob(0));
+        assertEquals(List.of(first.getId()), ids(jobService.claimDueJobsAsLeader(1, 7)));
+
+        Job second = save(newJob(1));
+        StaleFencingTokenException stale = assertThrows(StaleFencingTokenException.class,
+                () -> jobService.claimDueJobsAsLeader(1, 6));
+        assertEquals(7, stale.getNewestToken());
+        assertEquals(JobStatus.PENDING, status(second));
+
+        // the current leader keeps claiming, and its successor takes over
+        assertEquals(List.of(second.getId()), ids(jobService.claimDueJobsAsLeader(1, 7)));
+        Job third = save(newJob(2));
+        assertEquals(third.getId(), jobService.claimDueJobRowsAsLeader(1, 8).get(0).getId());
+        assertThrows(StaleFencingTokenException.class, () -> jobService.claimJobsDueBy(Instant.now(), 1, null, 7L));
+    }
+
+    @Test
+    void claimDueJobs_claimsTheOldestDueJobsFirstAndLeavesTheRest() {
+        Job third = save(newJob(2));
+        Job first = save(newJob(0));
+        Job second = save(newJob(1));
+        Job notDue = newJob(0);
+        notDue.setScheduledAt(Instant.now().plusSeconds(3600));
+        save(notDue);
+
+        assertEquals(List.of(first.getId(), second.getId()), ids(jobService.claimDueJobs(2)));
+        assertEquals(JobStatus.QUEUED, status(first));
+        assertEquals(JobStatus.QUEUED, status(second));
+        assertEquals(JobStatus.PENDING, status(third));
+
+        assertEquals(List.of(third.getId()), ids(jobService.claimDueJobs(10)));
+        assertEquals(JobStatus.PENDING, status(notDue));
+    }
+
+    @Test
+    void claimDueJobs_skipsRowsAnotherTransactionHasLocked() throws Exception {
+        Job locked = save(newJob(0));
+        Job second = save(newJob(1));
+        Job third = save(newJob(2));
+        CountDownLatch lockHeld = new CountDownLatch(1);
+        CountDownLatch claimDone = new CountDownLatch(1);
+        ExecutorService other = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> holder = other.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(tx -> {
+                jdbcTemplate.queryForList("SELECT id FROM jobs WHERE id = ? FOR UPDATE", locked.getId());
+                lockHeld.countDown();
+                try {
+                    claimDone.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertTrue(lockHeld.await(10, TimeUnit.SECONDS));
+
+            // a concurrent claim neither waits for the lock nor takes the locked row
+            assertEquals(List.of(second.getId(), third.getId()), ids(jobService.claimDueJobs(3)));
+            claimDone.countDown();
+            holder.get(10, TimeUnit.SECONDS);
+        } finally {
+            claimDone.countDown();
+            other.shutdownNow();
+        }
+        assertEquals(JobStatus.PENDING, status(locked));
+        assertEquals(List.of(locked.getId()), ids(jobService.claimDueJobs(3)));
+    }
+
+    @Test
+    void jobsPartitionOf_matchesJobPartitionOf() {
+        Random random = new Random(11);
+        for (int i = 0; i < 500; i++) {
+            UUID id = i % 2 == 0 ? new UUID(random.nextLong(), random.nextLong()) : TimeOrderedUuid.generate();
+            assertEquals(Job.partitionOf(id),
+                    jdbcTemplate.queryForObject("SELECT jobs_partition_of(CAST(? AS uuid))", Integer.class, id.toString()), id.toString());
+        }
+    }
+
+    @Test
+    void claimDueJobs_inPartitionPicksUpARowInsertedWithoutAPartition() {
+        // the way a node that predates partitioning inserts
+        UUID id = TimeOrderedUuid.generate();
+        created.add(id);
+        jdbcTemplate.update("INSERT INTO jobs (id, status, job_type, scheduled_at, priority, version) VALUES (?, 'PENDING', 'HTTP', ?, 0, 0)",
+                id, Timestamp.from(LONG_AGO));
+
+        assertEquals(Job.partitionOf(id), jobRepository.findById(id).orElseThrow().getPartitionId());
+        assertEquals(List.of(id), ids(jobService.claimDueJobs(1, Job.partitionOf(id))));
+    }
+
+    @Test
+    void startJob_fromAMessageWinsOnceAndOnlyForTheClaimedVersion() {
+        save(newJob(0));
+        Job claimed = jobService.claimDueJobRows(1).get(0);
+        JobMessage message = JobMessage.of(claimed);
+        JobMessage stale = new JobMessage(claimed.getId(), claimed.getVersion() - 1, claimed.getJobType(),
+                claimed.getLeaseExpiresAt(), claimed.getPayload());
+
+        assertTrue(jobService.startJob(stale).isEmpty());
+        Job started = jobService.startJob(message).orElseThrow();
+        assertEquals(JobStatus.RUNNING, started.getStatus());
+        assertTrue(jobService.startJob(message).isEmpty());
+        assertTrue(jobService.startJob(claimed.getId()).isEmpty());
+
+        // only the attempt that started the job may finish it
+        Job impostor = new Job();
+        ReflectionTestUtils.setField(impostor, "id", claimed.getId());
+        impostor.setClaimedBy("someone-else");
+        assertFalse(jobService.finishJob(impostor, JobStatus.COMPLETED));
+        assertTrue(jobService.finishJob(started, JobStatus.COMPLETED));
+        assertEquals(JobStatus.COMPLETED, status(started));
+    }
+
+    @Test
+    void startJob_byIdWinsOnce() {
+        Job job = save(newJob(0));
+        jobService.claimDueJobs(1);
+
+        assertTrue(jobService.startJob(job.getId()).isPresent());
+        assertTrue(jobService.startJob(job.getId()).isEmpty());
+    }
+
+    @Test
+    void claimDueJobs_givesAQueuedJobTheQueueLease() {
+        Job job = save(newJob(0));
+        Instant before = Instant.now();
+        jobService.claimDueJobs(1);
+
+        Instant lease = jobRepository.findById(job.getId()).orElseThrow().getLeaseExpiresAt();
+        assertFalse(lease.isBefore(before.plus(QUEUE_LEASE)), lease.toString());
+        assertFalse(lease.isAfter(Instant.now().plus(QUEUE_LEASE)), lease.toString());
+    }
+
+    @Test
+    void claimDueJobs_recordsTheClaimAsQueuedAtAndLeavesStartedAtForTheStart() {
+        Job job = save(newJob(0));
+        jobService.claimDueJobs(1);
+
+        Job queued = jobRepository.findById(job.getId()).orElseThrow();
+        assertNotNull(queued.getQueuedAt());
+        assertNull(queued.getStartedAt());
+
+        Job started = jobService.startJob(job.getId()).orElseThrow();
+        assertEquals(queued.getQueuedAt(), started.getQueuedAt());
+        assertNotNull(started.getStartedAt());
+    }
+
+    @Test
+    void reapExpiredLeases_requeuesOnlyJobsPastTheirLease() {
+        Job waiting = save(newJob(0));
+        Job lostFromQueue = save(newJob(1));
+        Job abandoned = save(newJob(2));
+        jobService.claimDueJobs(3);
+        jobService.startJob(abandoned.getId()).orElseThrow();
+
+        // a job waiting behind a long backlog is still inside its queue lease, even though the run lease has passed
+        expireLease(waiting, Instant.now().plusSeconds(60));
+        expireLease(lostFromQueue, Instant.now().minusSeconds(1));
+        expireLease(abandoned, Instant.now().minusSeconds(1));
+
+        assertEquals(2, jobService.reapExpiredLeases(100, JobStatus.PENDING));
+        assertEquals(JobStatus.QUEUED, status(waiting));
+        assertEquals(JobStatus.PENDING, status(lostFromQueue));
+        assertEquals(JobStatus.PENDING, status(abandoned));
+    }
+
+    @Test
+    void reapExpiredLeases_failsAbandonedRunningJobsButStillRequeuesQueuedOnes() {
+        Job lostFromQueue = save(newJob(0));
+        Job abandoned = save(newJob(1));
+        jobService.claimDueJobs(2);
+        jobService.startJob(abandoned.getId()).orElseThrow();
+        expireLease(lostFromQueue, Instant.now().minusSeconds(1));
+        expireLease(abandoned, Instant.now().minusSeconds(1));
+
+        assertEquals(2, jobService.reapExpiredLeases(100, JobStatus.FAILED));
+        assertEquals(JobStatus.PENDING, status(lostFromQueue));
+        assertEquals(JobStatus.FAILED, status(abandoned));
+    }
+
+    @Test
+    void renewLeases_extendsOnlyJobsStillRunning() {
+        Job running = save(newJob(0));
+        Job queued = save(newJob(1));
+        jobService.claimDueJobs(2);
+        jobService.startJob(running.getId()).orElseThrow();
+        Instant soon = Instant.now().plusSeconds(1).truncatedTo(ChronoUnit.MICROS);
+        expireLease(running, soon);
+        expireLease(queued, soon);
+
+        Instant before = Instant.now();
+        jobService.renewLeases(List.of(running.getId(), queued.getId()));
+
+        // the run lease restarts from now; a QUEUED job keeps the queue lease it was claimed with
+        Instant renewed = jobRepository.findById(running.getId()).orElseThrow().getLeaseExpiresAt();
+        assertFalse(renewed.isBefore(before.plus(RUN_LEASE)), renewed.toString());
+        assertEquals(soon, jobRepository.findById(queued.getId()).orElseThrow().getLeaseExpiresAt());
+        // a renewed job is not reaped
+        assertEquals(0, jobService.reapExpiredLeases(100, JobStatus.PENDING));
+    }
+
+    @Test
+    void reapExpiredLeases_recoversRunningRowsWrittenBeforeLeasesOnceTheyAreALeaseOld() {
+        Job stale = save(newJob(0));
+        Job recent = save(newJob(1));
+        String preLease = "UPDATE jobs SET status = 'RUNNING', lease_expires_at = NULL, started_at = ? WHERE id = ?";
+        jdbcTemplate.update(preLease, Timestamp.from(Instant.now().minus(RUN_LEASE).minusSeconds(60)), stale.getId());
+        jdbcTemplate.update(preLease, Timestamp.from(Instant.now().minusSeconds(10)), recent.getId());
+
+        assertEquals(1, jobService.reapExpiredLeases(100, JobStatus.PENDING));
+        assertEquals(JobStatus.PENDING, status(stale));
+        assertEquals(JobStatus.RUNNING, status(recent));
+    }
+
+    @Test
+    void listJobs_pagesInIdOrderAfterTheCursorWithinTheFilter() {
+        List<UUID> listed = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            listed.add(save(listingJob(i)).getId());
+        }
+        Job finished = listingJob(5);
+        finished.setStatus(JobStatus.COMPLETED);
+        save(finished);
+        // ids saved within one millisecond differ only in their random bits; Postgres orders them as their hex text
+        listed.sort(Comparator.comparing(UUID::toString));
+        JobFilter filter = listingFilter();
+        filter.setStatus(JobStatus.PENDING);
+
+        List<JobSummary> first = jobService.listJobs(filter, null, 3);
+        List<JobSummary> second = jobService.listJobs(filter, first.get(2).getId(), 3);
+
+        assertEquals(listed.subList(0, 3), first.stream().map(JobSummary::getId).toList());
+        assertEquals(listed.subList(3, 5), second.stream().map(JobSummary::getId).toList());
+    }
+
+    @Test
+    void listJobs_boundsTheScheduledRangeFromInclusiveToExclusive() {
+        UUID atFrom = save(listingJob(10)).getId();
+        save(listingJob(20));
+        save(listingJob(9));
+        JobFilter filter = listingFilter();
+        filter.setFrom(LONG_AGO.plusMillis(10));
+        filter.setTo(LONG_AGO.plusMillis(20));
+
+        assertEquals(List.of(atFrom), jobService.listJobs(filter, null, 10).stream().map(JobSummary::getId).toList());
+    }
+
+    @Test
+    void forEachJob_streamsEveryMatchingJobInIdOrder() {
+        List<UUID> listed = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            listed.add(save(listingJob(i)).getId());
+        }
+        listed.sort(Comparator.comparing(UUID::toString));
+        List<UUID> streamed = new ArrayList<>();
+
+        jobService.forEachJob(listingFilter(), job -> streamed.add(job.getId()));
+
+        assertEquals(listed, streamed);
+    }
+
+    @Test
+    void deferJob_putsAFirstAttemptBackAsPendingWithoutCountingIt() {
+        Job job = save(newJob(0));
+        jobService.claimDueJobs(1);
+        Job started = jobService.startJob(job.getId()).orElseThrow();
+        Instant runAt = Instant.now().plusSeconds(3600).truncatedTo(ChronoUnit.MILLIS);
+
+        assertTrue(jobService.deferJob(started, runAt));
+        Job deferred = jobRepository.findById(job.getId()).orElseThrow();
+        assertEquals(JobStatus.PENDING, deferred.getStatus());
+        assertEquals(runAt, deferred.getScheduledAt());
+        assertNull(deferred.getNextAttemptAt());
+        assertEquals(0, deferred.getAttempts());
+        assertNull(deferred.getClaimedBy());
+        assertNull(deferred.getLeaseExpiresAt());
+
+        // the claim is gone, so a second defer or a finish loses
+        assertFalse(jobService.deferJob(started, runAt));
+        assertFalse(jobService.finishJob(started, JobStatus.COMPLETED));
+    }
+
+    @Test
+    void deferJob_keepsARetryScheduledAndMovesItsNextAttempt() {
+        Job retry = newJob(0);
+        retry.setStatus(JobStatus.RETRY_SCHEDULED);
+        retry.setNextAttemptAt(retry.getScheduledAt());
+        retry.setAttempts(1);
+        save(retry);
+        jobService.claimDueJobs(1);
+        Job started = jobService.startJob(retry.getId()).orElseThrow();
+        Instant runAt = Instant.now().plusSeconds(3600).truncatedTo(ChronoUnit.MILLIS);
+
+        assertTrue(jobService.deferJob(started, runAt));
+        Job deferred = jobRepository.findById(retry.getId()).orElseThrow();
+        assertEquals(JobStatus.RETRY_SCHEDULED, deferred.getStatus());
+        assertEquals(runAt, deferred.getScheduledAt());
+        assertEquals(runAt, deferred.getNextAttemptAt());
+        assertEquals(1, deferred.getAttempts());
+    }
+
+    @Test
+    void claimDueJobs_givesLowerPrioritiesTheirShareOfABatch() {
+        List<UUID> high = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            high.add(save(newJob(i)).getId());
+        }
+        List<UUID> low = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Job job = newJob(100 + i);
+            job.setPriority(JobPriority.LOW);
+            low.add(save(job).getId());
+        }
+
+        // any 12 consecutive slots of the 8,3,1 rotation hold one LOW slot; the unused NORMAL ones go to HIGH
+        List<UUID> claimed = ids(jobService.claimDueJobs(12));
+        assertEquals(12, claimed.size());
+        assertEquals(List.of(low.get(0)), claimed.stream().filter(low::contains).toList());
+        assertEquals(high.subList(0, 11), claimed.stream().filter(high::contains).toList());
+    }
+
+    @Test
+    void priorityColumnMigration_setsRowsWithoutAPriorityToNormal() {
+        UUID stored = TimeOrderedUuid.generate();
+        UUID inserted = TimeOrderedUuid.generate();
+        created.add(stored);
+        created.add(inserted);
+        jdbcTemplate.update("INSERT INTO jobs (id, status, job_type, scheduled_at, priority, version) VALUES (?, 'PENDING', 'HTTP', ?, NULL, 0)",
+                stored, Timestamp.from(LONG_AGO));
+        // startup already completed the backfill; forget it so this run sweeps again
+        jdbcTemplate.update("DELETE FROM " + JobColumnBackfill.TABLE + " WHERE name = 'priority'");
+
+        priorityColumnMigration.assignPriorities();
+        // a node that predates priorities leaves the column out
+        jdbcTemplate.update("INSERT INTO jobs (id, status, job_type, scheduled_at, version) VALUES (?, 'PENDING', 'HTTP', ?, 0)",
+                inserted, Timestamp.from(LONG_AGO));
+
+        assertEquals(JobPriority.NORMAL, jobRepository.findById(stored).orElseThrow().getPriority());
+        assertEquals(JobPriority.NORMAL, jobRepository.findById(inserted).orElseThrow().getPriority());
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM " + JobColumnBackfill.TABLE + " WHERE name = 'priority'", Integer.class));
+    }
+
+    @Test
+    void archiveFinishedJobs_movesOldFinishedJobsAndGetJobStillFindsThem() {
+        Job old = finished(LONG_AGO);
+        Job recent = finished(Instant.now());
+        Job live = save(newJob(0));
+
+        assertEquals(1, jobService.archiveFinishedJobs(ARCHIVE_CUTOFF, 100));
+        assertTrue(jobRepository.findById(old.getId()).isEmpty());
+        assertEquals(JobStatus.COMPLETED, jobService.getJob(old.getId()).orElseThrow().getStatus());
+        assertEquals(JobStatus.COMPLETED, jobService.getJobStatus(old.getId()).orElseThrow().getStatus());
+        assertTrue(jobRepository.findById(recent.getId()).isPresent());
+        assertTrue(jobRepository.findById(live.getId()).isPresent());
+        assertTrue(jobService.getJob(UUID.randomUUID()).isEmpty());
+    }
+
+    @Test
+    void archiveFinishedJobs_overwritesAnIdThatIsAlreadyArchived() {
+        Job job = finished(LONG_AGO);
+        jdbcTemplate.update("INSERT INTO " + JobArchiveRepository.TABLE
+                + " (id, status, job_type, scheduled_at, priority, version) VALUES (?, 'FAILED', 'STALE', ?, 1, 0)",
+                job.getId(), Timestamp.from(LONG_AGO));
+
+        assertEquals(1, jobService.archiveFinishedJobs(ARCHIVE_CUTOFF, 100));
+        Job archived = jobRepository.findArchivedById(job.getId()).orElseThrow();
+        assertEquals(JobStatus.COMPLETED, archived.getStatus());
+        assertEquals("HTTP", archived.getJobType());
+        assertTrue(jobRepository.findById(job.getId()).isEmpty());
+    }
+
+    @Test
+    void purgeArchivedJobs_deletesOnlyRowsArchivedBeforeTheCutoff() {
+        Job purged = finished(LONG_AGO);
+        Job kept = finished(LONG_AGO.plusMillis(1));
+        jobService.archiveFinishedJobs(ARCHIVE_CUTOFF, 100);
+        jdbcTemplate.update("UPDATE " + JobArchiveRepository.TABLE + " SET archived_at = ? WHERE id = ?",
+                Timestamp.from(LONG_AGO), purged.getId());
+
+        assertEquals(1, jobService.purgeArchivedJobs(ARCHIVE_CUTOFF, 100));
+        assertTrue(jobService.getJob(purged.getId()).isEmpty());
+        assertTrue(jobService.getJob(kept.getId()).isPresent());
+    }
+
+    Job finished(Instant finishedAt) {
+        Job job = newJob(0);
+        job.setStatus(JobStatus.COMPLETED);
+        job.setFinishedAt(finishedAt);
+        return save(job);
+    }
+
+    Job newJob(int offsetMs) {
+        Job job = new Job();
+        job.setJobType("HTTP");
+        job.setStatus(JobStatus.PENDING);
+        job.setPriority(JobPriority.HIGH);
+        job.setScheduledAt(LONG_AGO.plusMillis(offsetMs));
+        return job;
+    }
+
+    // a job type of its own, so listings see only this test's rows
+    Job listingJob(int offsetMs) {
+        Job job = newJob(offsetMs);
+        job.setJobType("listing-test");
+        return job;
+    }
+
+    JobFilter listingFilter() {
+        JobFilter filter = new JobFilter();
+        filter.setJobType("listing-test");
+        return filter;
+    }
+
+    Job save(Job job) {
+        Job saved = jobRepository.save(job);
+        created.add(saved.getId());
+        return saved;
+    }
+
+    void expireLease(Job job, Instant at) {
+        jdbcTemplate.update("UPDATE jobs SET lease_expires_at = ? WHERE id = ?", Timestamp.from(at), job.getId());
+    }
+
+    JobStatus status(Job job) {
+        return jobRepository.findById(job.getId()).orElseThrow().getStatus();
+    }
+
+    static List<UUID> ids(List<ClaimedJobRef> refs) {
+        return refs.stream().map(ClaimedJobRef::getId).toList();
+    }
+}
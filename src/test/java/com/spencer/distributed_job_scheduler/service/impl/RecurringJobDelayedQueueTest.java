@@ -0,0 +1,63 @@
+package com.spencer.distributed_job_scheduler.service.impl;
+
+import com.spencer.distributed_job_scheduler.model.Job;
+import com.spencer.distributed_job_scheduler.model.RecurringJob;
+import com.spencer.distributed_job_scheduler.redis.RedisDelayedQueue;
+import com.spencer.distributed_job_scheduler.repository.JobRepository;
+import com.spencer.distributed_job_scheduler.repository.RecurringJobRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// occurrences must reach the delayed queue only once their rows are committed
+public class RecurringJobDelayedQueueTest {
+
+    private final RecurringJobRepository recurringJobRepository = Mockito.mock(RecurringJobRepository.class);
+    private final JobRepository jobRepository = Mockito.mock(JobRepository.class);
+    private final RedisDelayedQueue delayedQueue = Mockito.mock(RedisDelayedQueue.class);
+    private final RecurringJobServiceImpl service =
+            new RecurringJobServiceImpl(recurringJobRepository, jobRepository, delayedQueue, 1000, 10);
+
+    @BeforeEach
+    public void openTransaction() {
+        Mockito.when(delayedQueue.isEnabled()).thenReturn(true);
+        Mockito.when(recurringJobRepository.save(Mockito.any(RecurringJob.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        Mockito.when(jobRepository.save(Mockito.any(Job.class))).thenAnswer(invocation -> {
+            Job job = invocation.getArgument(0);
+            ReflectionTestUtils.setField(job, "id", UUID.randomUUID());
+            return job;
+        });
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    public void closeTransaction() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    public void aDueOccurrenceIsScheduledOnlyAfterCommit() {
+        RecurringJob definition = new RecurringJob();
+        definition.setJobType("noop");
+        definition.setFixedRateMs(60_000L);
+
+        // no start, so the first occurrence is due at once
+        RecurringJob saved = service.createRecurringJob(definition, null);
+        Mockito.verify(delayedQueue, Mockito.never()).scheduleAll(Mockito.anyMap());
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        assertEquals(1, synchronizations.size());
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        Mockito.verify(delayedQueue).scheduleAll(Map.of(saved.getCurrentJobId(), saved.getNextFireAt()));
+    }
+}
@@ -0,0 +1,88 @@
+package com.spencer.distributed_job_scheduler.service.impl;
+
+import com.spencer.distributed_job_scheduler.model.MisfirePolicy;
+import com.spencer.distributed_job_scheduler.model.RecurringJob;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RecurringJobScheduleTest {
+
+    private final RecurringJobServiceImpl service = new RecurringJobServiceImpl(null, null, null, 1000, 2);
+
+    @Test
+    public void cron_unixFiveFieldsInTheDefinitionsZone() {
+        RecurringJob daily = definition("30 9 * * *", null, MisfirePolicy.FIRE_ONCE);
+        daily.setTimeZone("Europe/Berlin");
+
+        // 09:30 Berlin is 07:30 UTC in summer time
+        assertEquals(Instant.parse("2026-07-01T07:30:00Z"), service.nextFireAfter(daily, Instant.parse("2026-07-01T00:00:00Z")));
+        assertEquals(Instant.parse("2026-07-02T07:30:00Z"), service.nextFireAfter(daily, Instant.parse("2026-07-01T07:30:00Z")));
+    }
+
+    @Test
+    public void onTimeOccurrencesFollowTheSchedule() {
+        RecurringJob hourly = definition("0 0 * * * *", null, MisfirePolicy.FIRE_ONCE);
+        Instant previous = Instant.parse("2026-01-01T10:00:00Z");
+
+        assertEquals(Instant.parse("2026-01-01T11:00:00Z"),
+                service.nextOccurrence(hourly, previous, Instant.parse("2026-01-01T10:00:01Z")));
+    }
+
+    @Test
+    public void fireOnceSkipsToTheFirstFutureFireTime() {
+        Instant previous = Instant.parse("2026-01-01T10:00:00Z");
+        Instant now = Instant.parse("2026-01-01T13:20:00Z");
+
+        assertEquals(Instant.parse("2026-01-01T14:00:00Z"),
+                service.nextOccurrence(definition("0 0 * * * *", null, MisfirePolicy.FIRE_ONCE), previous, now));
+        // fixed rate keeps its phase
+        assertEquals(Instant.parse("2026-01-01T13:30:00Z"),
+                service.nextOccurrence(definition(null, 15 * 60_000L, MisfirePolicy.FIRE_ONCE), previous, now));
+    }
+
+    @Test
+    public void catchUpRunsEveryMissedFireTime() {
+        Instant previous = Instant.parse("2026-01-01T10:00:00Z");
+        Instant now = Instant.parse("2026-01-01T13:20:00Z");
+
+        assertEquals(Instant.parse("2026-01-01T11:00:00Z"),
+                service.nextOccurrence(definition("0 0 * * * *", null, MisfirePolicy.CATCH_UP), previous, now));
+        assertEquals(Instant.parse("2026-01-01T10:15:00Z"),
+                service.nextOccurrence(definition(null, 15 * 60_000L, MisfirePolicy.CATCH_UP), previous, now));
+    }
+
+    @Test
+    public void parsedCronCacheStopsGrowingAtItsBound() {
+        Instant after = Instant.parse("2026-01-01T10:00:00Z");
+        for (int minute = 0; minute < 5; minute++) {
+            assertEquals(after.plusSeconds(60L * (minute + 1)),
+                    service.nextFireAfter(definition((minute + 1) + " 10 * * *", null, MisfirePolicy.FIRE_ONCE), after));
+        }
+        assertEquals(2, ((Map<?, ?>) ReflectionTestUtils.getField(service, "parsedCron")).size());
+    }
+
+    @Test
+    public void invalidCronIsRejectedEvenWhenTheCacheIsFull() {
+        RecurringJob invalid = definition("61 * * * *", null, MisfirePolicy.FIRE_ONCE);
+        for (int i = 0; i < 3; i++) {
+            IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                    () -> service.nextFireAfter(invalid, Instant.EPOCH));
+            assertTrue(ex.getMessage().startsWith("invalid cron expression '61 * * * *'"), ex.getMessage());
+            service.nextFireAfter(definition(i + " 0 * * *", null, MisfirePolicy.FIRE_ONCE), Instant.EPOCH);
+        }
+    }
+
+    private static RecurringJob definition(String cron, Long fixedRateMs, MisfirePolicy policy) {
+        RecurringJob definition = new RecurringJob();
+        definition.setJobType("HTTP");
+        definition.setCronExpression(cron);
+        definition.setFixedRateMs(fixedRateMs);
+        definition.setMisfirePolicy(policy);
+        return definition;
+    }
+}
@@ -0,0 +1,159 @@
+package com.spencer.distributed_job_scheduler.service.impl;
+
+import com.spencer.distributed_job_scheduler.handlers.TestRedisAndExecutorConfig;
+import com.spencer.distributed_job_scheduler.model.Job;
+import com.spencer.distributed_job_scheduler.model.JobStatus;
+import com.spencer.distributed_job_scheduler.model.MisfirePolicy;
+import com.spencer.distributed_job_scheduler.model.RecurringJob;
+import com.spencer.distributed_job_scheduler.repository.ClaimedJobRef;
+import com.spencer.distributed_job_scheduler.repository.JobRepository;
+import com.spencer.distributed_job_scheduler.repository.RecurringJobRepository;
+import com.spencer.distributed_job_scheduler.service.JobService;
+import com.spencer.distributed_job_scheduler.service.RecurringJobService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// runs against the local Postgres
+@SpringBootTest
+@Import(TestRedisAndExecutorConfig.class)
+@TestPropertySource(locations = "classpath:integration-test.properties")
+public class RecurringJobServiceImplTest {
+
+    private static final long MINUTE_MS = 60_000;
+
+    @Autowired
+    RecurringJobService recurringJobService;
+
+    @Autowired
+    JobService jobService;
+
+    @Autowired
+    RecurringJobRepository recurringJobRepository;
+
+    @Autowired
+    JobRepository jobRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    private final List<UUID> created = new ArrayList<>();
+
+    @BeforeEach
+    @AfterEach
+    void cleanUp() {
+        for (UUID id : created) {
+            jdbcTemplate.update("DELETE FROM jobs WHERE recurring_job_id = ?", id);
+        }
+        recurringJobRepository.deleteAllById(created);
+        created.clear();
+    }
+
+    @Test
+    void createRecurringJob_storesTheFirstOccurrenceAtTheStart() {
+        Instant startAt = Instant.now().plus(1, ChronoUnit.HOURS).truncatedTo(ChronoUnit.MILLIS);
+        RecurringJob definition = create(fixedRate(MINUTE_MS), startAt);
+
+        assertEquals(MisfirePolicy.FIRE_ONCE, definition.getMisfirePolicy());
+        assertEquals(startAt, definition.getNextFireAt());
+        Job occurrence = jobRepository.findById(definition.getCurrentJobId()).orElseThrow();
+        assertEquals(JobStatus.PENDING, occurrence.getStatus());
+        assertEquals(startAt, occurrence.getScheduledAt());
+        assertEquals(definition.getId(), occurrence.getRecurringJobId());
+    }
+
+    @Test
+    void createRecurringJob_cronFiresAtItsFirstMatchAfterTheStart() {
+        RecurringJob definition = new RecurringJob();
+        definition.setJobType("HTTP");
+        definition.setCronExpression("0 12 * * *");
+        RecurringJob saved = create(definition, Instant.parse("2099-01-01T09:00:00Z"));
+
+        assertEquals(Instant.parse("2099-01-01T12:00:00Z"), saved.getNextFireAt());
+    }
+
+    @Test
+    void createRecurringJob_rejectsInvalidSchedules() {
+        RecurringJob both = fixedRate(MINUTE_MS);
+        both.setCronExpression("* * * * *");
+        assertThrows(IllegalArgumentException.class, () -> recurringJobService.createRecurringJob(both, null));
+        assertThrows(IllegalArgumentException.class, () -> recurringJobService.createRecurringJob(fixedRate(10), null));
+        RecurringJob badZone = new RecurringJob();
+        badZone.setJobType("HTTP");
+        badZone.setCronExpression("* * * * *");
+        badZone.setTimeZone("Mars/Olympus");
+        assertThrows(IllegalArgumentException.class, () -> recurringJobService.createRecurringJob(badZone, null));
+    }
+
+    @Test
+    void claimingAnOccurrenceMaterializesTheNextOnceOnly() {
+        RecurringJob definition = create(fixedRate(MINUTE_MS), null);
+        UUID first = definition.getCurrentJobId();
+        Instant firstFire = jobRepository.findById(first).orElseThrow().getScheduledAt();
+
+        List<UUID> claimed = jobService.claimDueJobs(100).stream().map(ClaimedJobRef::getId).toList();
+        assertTrue(claimed.contains(first));
+
+        RecurringJob advanced = recurringJobRepository.findById(definition.getId()).orElseThrow();
+        assertNotEquals(first, advanced.getCurrentJobId());
+        assertEquals(firstFire, advanced.getLastFiredAt());
+        assertEquals(firstFire.plusMillis(MINUTE_MS), advanced.getNextFireAt());
+        Job next = jobRepository.findById(advanced.getCurrentJobId()).orElseThrow();
+        assertEquals(JobStatus.PENDING, next.getStatus());
+        assertEquals(advanced.getNextFireAt(), next.getScheduledAt());
+
+        // the claimed job is no longer the definition's current occurrence, so a repeat is a no-op
+        assertEquals(0, recurringJobService.materializeNext(List.of(first)));
+        assertEquals(0, recurringJobService.materializeNext(List.of(UUID.randomUUID())));
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT count(*) FROM jobs WHERE recurring_job_id = ?",
+                Integer.class, definition.getId()));
+    }
+
+    @Test
+    void deleteRecurringJob_removesTheDefinitionAndItsPendingOccurrence() {
+        RecurringJob definition = create(fixedRate(MINUTE_MS), Instant.now().plus(1, ChronoUnit.HOURS));
+
+        assertTrue(recurringJobService.deleteRecurringJob(definition.getId()));
+        assertTrue(recurringJobRepository.findById(definition.getId()).isEmpty());
+        assertTrue(jobRepository.findById(definition.getCurrentJobId()).isEmpty());
+        assertFalse(recurringJobService.deleteRecurringJob(definition.getId()));
+    }
+
+    @Test
+    void deleteRecurringJob_letsAClaimedOccurrenceRun() {
+        RecurringJob definition = create(fixedRate(MINUTE_MS), null);
+        UUID first = definition.getCurrentJobId();
+        jobService.claimDueJobs(100);
+        UUID next = recurringJobRepository.findById(definition.getId()).orElseThrow().getCurrentJobId();
+
+        assertTrue(recurringJobService.deleteRecurringJob(definition.getId()));
+        assertEquals(JobStatus.QUEUED, jobRepository.findById(first).orElseThrow().getStatus());
+        assertTrue(jobRepository.findById(next).isEmpty());
+    }
+
+    private RecurringJob create(RecurringJob definition, Instant startAt) {
+        RecurringJob saved = recurringJobService.createRecurringJob(definition, startAt);
+        created.add(saved.getId());
+        return saved;
+    }
+
+    private static RecurringJob fixedRate(long rateMs) {
+        RecurringJob definition = new RecurringJob();
+        definition.setJobType("HTTP");
+        definition.setFixedRateMs(rateMs);
+        return definition;
+    }
+}